@@ -0,0 +1,90 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.model.Estadia;
+import com.example.parqueadero.model.HistogramaEstadia;
+import com.example.parqueadero.model.ReporteEstadia;
+import com.example.parqueadero.model.ResumenEstadia;
+import com.example.parqueadero.model.TipoVehiculo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Acumulo en memoria las cifras de una cubeta. Sumo el dinero en centavos para no crear
+ * un `BigDecimal` por cada salida; lo convierto solo al guardar o al reportar.
+ * No es seguro entre hilos: quien lo usa debe modificarlo dentro de un `compute` del mapa que lo contiene.
+ */
+final class Acumulador {
+
+    private long salidas;
+    private long centavos;
+    private long minutos;
+    private final HistogramaEstadia histograma;
+
+    Acumulador() {
+        this.histograma = new HistogramaEstadia();
+    }
+
+    private Acumulador(long salidas, long centavos, long minutos, HistogramaEstadia histograma) {
+        this.salidas = salidas;
+        this.centavos = centavos;
+        this.minutos = minutos;
+        this.histograma = histograma;
+    }
+
+    /**
+     * Creo un acumulador con las cifras ya guardadas de un resumen.
+     */
+    static Acumulador de(ResumenEstadia resumen) {
+        return new Acumulador(resumen.getSalidas(), aCentavos(resumen.getIngresos()), resumen.getMinutosTotales(),
+                resumen.getHistograma().copiar());
+    }
+
+    /**
+     * Cuento una estadía cerrada.
+     */
+    void registrar(Estadia estadia) {
+        long duracion = Math.max(0, Duration.between(estadia.horaEntrada(), estadia.horaSalida()).toMinutes());
+        salidas++;
+        centavos += aCentavos(estadia.costoTotal());
+        minutos += duracion;
+        histograma.registrar(duracion);
+    }
+
+    /**
+     * Sumo a este acumulador las cifras de otro y lo devuelvo, para usarlo con `Map.merge`.
+     */
+    Acumulador combinar(Acumulador otro) {
+        salidas += otro.salidas;
+        centavos += otro.centavos;
+        minutos += otro.minutos;
+        histograma.sumar(otro.histograma);
+        return this;
+    }
+
+    Acumulador copiar() {
+        return new Acumulador(salidas, centavos, minutos, histograma.copiar());
+    }
+
+    /**
+     * Sumo las cifras acumuladas al resumen guardado de la misma cubeta.
+     */
+    void aplicarA(ResumenEstadia resumen) {
+        resumen.sumar(salidas, BigDecimal.valueOf(centavos, 2), minutos, histograma);
+    }
+
+    ReporteEstadia reporte(LocalDateTime inicio, TipoVehiculo tipo) {
+        double promedio = salidas == 0 ? 0 : (double) minutos / salidas;
+        return new ReporteEstadia(inicio, tipo, salidas, BigDecimal.valueOf(centavos, 2), promedio,
+                histograma.percentil(0.50), histograma.percentil(0.90), histograma.percentil(0.95));
+    }
+
+    private static long aCentavos(BigDecimal valor) {
+        if (valor == null) {
+            return 0;
+        }
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
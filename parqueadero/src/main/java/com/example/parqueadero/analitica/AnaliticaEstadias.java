@@ -0,0 +1,290 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.Estadia;
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.ReporteEstadia;
+import com.example.parqueadero.model.ResumenEstadia;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.ResumenEstadiaRepositorio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Mantengo los resúmenes por hora y por día de las estadías (salidas, ingresos, duración promedio y percentiles)
+ * por clase de vehículo. Cada salida se suma en memoria a las cubetas de su hora y de su día,
+ * y un hilo de fondo guarda periódicamente esos acumulados sobre la tabla de resúmenes.
+ * Los reportes combinan las filas guardadas con lo que aún está en memoria, así que siempre incluyen
+ * todas las salidas y leen una fila por cubeta en lugar de recorrer el historial.
+ * Si la aplicación se cae, lo que estaba en memoria se pierde; la reconstrucción del día de hoy
+ * lo recupera desde la base de datos sin detener las salidas (ver `reconstruirDesde`).
+ */
+@Component
+public class AnaliticaEstadias {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaEstadias.class);
+
+    private final ResumenEstadiaRepositorio resumenRepositorio;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration intervaloVaciado;
+    private final ScheduledExecutorService programador;
+    private final ConcurrentHashMap<ClaveResumen, Acumulador> pendientes = new ConcurrentHashMap<>();
+
+    // Los reportes toman el candado de lectura y el vaciado el de escritura, para que un reporte
+    // no vea un acumulado que ya salió de memoria pero todavía no está confirmado en la base de datos
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    // Las salidas dentro de este rango ya las cuenta la última reconstrucción del día de hoy
+    private volatile Corte corte = new Corte(LocalDateTime.MIN, LocalDateTime.MIN);
+
+    /**
+     * Inyecto el repositorio de resúmenes, el gestor de transacciones para guardar los acumulados,
+     * la fábrica del hilo que los guarda y cada cuánto lo hace.
+     */
+    @Autowired
+    public AnaliticaEstadias(ResumenEstadiaRepositorio resumenRepositorio, PlatformTransactionManager transactionManager,
+                             FabricaHilos fabricaHilos,
+                             @Value("${parqueadero.analitica.intervalo-vaciado:5s}") Duration intervaloVaciado) {
+        this.resumenRepositorio = resumenRepositorio;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.intervaloVaciado = intervaloVaciado;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("vaciado-resumenes"));
+    }
+
+    /**
+     * Programo el guardado periódico de los acumulados.
+     */
+    @PostConstruct
+    public void iniciar() {
+        long intervalo = intervaloVaciado.toMillis();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                vaciar();
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude guardar los resúmenes de estadías", e);
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Al apagar la aplicación, guardo lo que quede en memoria.
+     */
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+        vaciar();
+    }
+
+    /**
+     * Sumo la estadía de un vehículo que acaba de salir a las cubetas de su hora y de su día de salida.
+     * @param vehiculo Vehículo con la hora de salida y el costo ya calculados.
+     */
+    public void registrarSalida(Vehiculo vehiculo) {
+        if (corte.incluye(vehiculo.getHoraSalida())) {
+            return; // La reconstrucción del día la lee de la base de datos
+        }
+        Estadia estadia = new Estadia(vehiculo.getTipo(), vehiculo.getHoraEntrada(), vehiculo.getHoraSalida(),
+                vehiculo.getCostoTotal());
+        for (Granularidad granularidad : Granularidad.values()) {
+            pendientes.compute(ClaveResumen.de(granularidad, estadia.tipo(), estadia.horaSalida()), (clave, acumulador) -> {
+                Acumulador actual = acumulador == null ? new Acumulador() : acumulador;
+                actual.registrar(estadia);
+                return actual;
+            });
+        }
+    }
+
+    /**
+     * Guardo en la tabla de resúmenes todo lo acumulado en memoria, en una sola transacción.
+     * Si la transacción falla, devuelvo los acumulados a memoria para el siguiente intento.
+     */
+    public void vaciar() {
+        candado.writeLock().lock();
+        try {
+            Map<ClaveResumen, Acumulador> lote = new HashMap<>();
+            for (ClaveResumen clave : pendientes.keySet()) {
+                Acumulador acumulador = pendientes.remove(clave);
+                if (acumulador != null) {
+                    lote.put(clave, acumulador);
+                }
+            }
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(estado -> lote.forEach((clave, acumulador) -> {
+                    ResumenEstadia resumen = resumenRepositorio
+                            .findByGranularidadAndInicioAndTipo(clave.granularidad(), clave.inicio(), clave.tipo())
+                            .orElseGet(() -> new ResumenEstadia(clave.granularidad(), clave.inicio(), clave.tipo()));
+                    acumulador.aplicarA(resumen);
+                    resumenRepositorio.save(resumen);
+                }));
+            } catch (RuntimeException e) {
+                lote.forEach((clave, acumulador) -> pendientes.merge(clave, acumulador, Acumulador::combinar));
+                throw e;
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplazo los resúmenes de las cubetas que empiezan desde `inicio` (las del día de hoy) por los que calcula
+     * `reconstruccion` a partir de la base de datos con las salidas anteriores al corte que le paso.
+     * Descarto lo acumulado en memoria para esas cubetas y, desde el corte, ignoro las salidas anteriores a él
+     * que aún me lleguen; las posteriores se siguen acumulando como siempre y el vaciado las suma a las filas
+     * reconstruidas. Tengo el candado de escritura durante toda la reconstrucción, así que ni el vaciado
+     * ni los reportes ven las cubetas a medio reemplazar. Si la reconstrucción falla, devuelvo lo acumulado a memoria.
+     * @param inicio Inicio del día que reconstruyo.
+     * @param reconstruccion Recibe el corte y reemplaza las filas; las salidas anteriores al corte deben estar
+     *                       confirmadas en la base de datos antes de leerlas.
+     * @return Lo que devuelve la reconstrucción.
+     */
+    public <T> T reconstruirDesde(LocalDateTime inicio, Function<LocalDateTime, T> reconstruccion) {
+        candado.writeLock().lock();
+        try {
+            Corte anterior = corte;
+            LocalDateTime hasta = LocalDateTime.now();
+            corte = new Corte(inicio, hasta);
+            Map<ClaveResumen, Acumulador> retirados = new HashMap<>();
+            for (ClaveResumen clave : pendientes.keySet()) {
+                if (!clave.inicio().isBefore(inicio)) {
+                    Acumulador acumulador = pendientes.remove(clave);
+                    if (acumulador != null) {
+                        retirados.put(clave, acumulador);
+                    }
+                }
+            }
+            try {
+                return reconstruccion.apply(hasta);
+            } catch (RuntimeException e) {
+                corte = anterior;
+                retirados.forEach((clave, acumulador) -> pendientes.merge(clave, acumulador, Acumulador::combinar));
+                throw e;
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Consulto las cubetas de un rango, una por clase de vehículo y por cubeta con al menos una salida.
+     * @param granularidad Tamaño de las cubetas.
+     * @param desde Inicio del rango (incluido).
+     * @param hasta Fin del rango (excluido).
+     * @param tipo Clase de vehículo, o `null` para todas.
+     * @return Los reportes ordenados por inicio y clase.
+     */
+    public List<ReporteEstadia> consultar(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta,
+                                         TipoVehiculo tipo) {
+        Map<ClaveResumen, Acumulador> cubetas = new HashMap<>();
+        candado.readLock().lock();
+        try {
+            acumular(granularidad, desde, hasta, tipo, cubetas);
+        } finally {
+            candado.readLock().unlock();
+        }
+        List<ReporteEstadia> reportes = new ArrayList<>(cubetas.size());
+        cubetas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ClaveResumen.ORDEN))
+                .forEach(cubeta -> reportes.add(cubeta.getValue().reporte(cubeta.getKey().inicio(), cubeta.getKey().tipo())));
+        return reportes;
+    }
+
+    /**
+     * Totalizo un rango por clase de vehículo. Uso las cubetas diarias para los días completos
+     * y las horarias solo para las horas sueltas de los extremos, así que un rango de un mes
+     * lee unas 30 filas por clase y no 720.
+     * @param desde Inicio del rango; lo trunco a la hora.
+     * @param hasta Fin del rango (excluido); lo trunco a la hora.
+     * @param tipo Clase de vehículo, o `null` para todas.
+     * @return Un reporte por clase con al menos una salida en el rango.
+     */
+    public List<ReporteEstadia> totalizar(LocalDateTime desde, LocalDateTime hasta, TipoVehiculo tipo) {
+        LocalDateTime inicio = Granularidad.HORA.truncar(desde);
+        LocalDateTime fin = Granularidad.HORA.truncar(hasta);
+        LocalDateTime inicioDias = Granularidad.DIA.truncar(inicio).equals(inicio)
+                ? inicio : Granularidad.DIA.siguiente(Granularidad.DIA.truncar(inicio));
+        LocalDateTime finDias = Granularidad.DIA.truncar(fin);
+
+        Map<ClaveResumen, Acumulador> cubetas = new HashMap<>();
+        candado.readLock().lock();
+        try {
+            if (inicioDias.isBefore(finDias)) {
+                acumular(Granularidad.HORA, inicio, inicioDias, tipo, cubetas);
+                acumular(Granularidad.DIA, inicioDias, finDias, tipo, cubetas);
+                acumular(Granularidad.HORA, finDias, fin, tipo, cubetas);
+            } else {
+                acumular(Granularidad.HORA, inicio, fin, tipo, cubetas);
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+
+        Map<TipoVehiculo, Acumulador> totales = new EnumMap<>(TipoVehiculo.class);
+        cubetas.forEach((clave, acumulador) -> totales.merge(clave.tipo(), acumulador, Acumulador::combinar));
+        List<ReporteEstadia> reportes = new ArrayList<>(totales.size());
+        totales.forEach((clase, acumulador) -> reportes.add(acumulador.reporte(inicio, clase)));
+        return reportes;
+    }
+
+    /**
+     * Agrego al mapa las cubetas guardadas del rango y les sumo lo que aún está en memoria.
+     * Copio cada acumulado pendiente dentro de `computeIfPresent` para leerlo completo aunque llegue una salida.
+     */
+    private void acumular(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta, TipoVehiculo tipo,
+                          Map<ClaveResumen, Acumulador> cubetas) {
+        if (!desde.isBefore(hasta)) {
+            return;
+        }
+        for (ResumenEstadia resumen : resumenRepositorio.buscarEntre(granularidad, desde, hasta)) {
+            if (tipo == null || resumen.getTipo() == tipo) {
+                cubetas.merge(new ClaveResumen(granularidad, resumen.getInicio(), resumen.getTipo()),
+                        Acumulador.de(resumen), Acumulador::combinar);
+            }
+        }
+        for (ClaveResumen clave : pendientes.keySet()) {
+            if (clave.granularidad() != granularidad || clave.inicio().isBefore(desde) || !clave.inicio().isBefore(hasta)
+                    || (tipo != null && clave.tipo() != tipo)) {
+                continue;
+            }
+            pendientes.computeIfPresent(clave, (c, acumulador) -> {
+                cubetas.merge(c, acumulador.copiar(), Acumulador::combinar);
+                return acumulador;
+            });
+        }
+    }
+
+    /**
+     * Rango de horas de salida `[desde, hasta)` que ya cuenta una reconstrucción.
+     */
+    private record Corte(LocalDateTime desde, LocalDateTime hasta) {
+
+        boolean incluye(LocalDateTime horaSalida) {
+            return !horaSalida.isBefore(desde) && horaSalida.isBefore(hasta);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.TipoVehiculo;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Identifico una cubeta de resumen: su tamaño, su inicio y la clase de vehículo.
+ */
+record ClaveResumen(Granularidad granularidad, LocalDateTime inicio, TipoVehiculo tipo) {
+
+    static final Comparator<ClaveResumen> ORDEN = Comparator.comparing(ClaveResumen::inicio)
+            .thenComparing(ClaveResumen::tipo);
+
+    /**
+     * Obtengo la cubeta en la que cuenta una estadía: la de su hora de salida.
+     */
+    static ClaveResumen de(Granularidad granularidad, TipoVehiculo tipo, LocalDateTime horaSalida) {
+        return new ClaveResumen(granularidad, granularidad.truncar(horaSalida), tipo);
+    }
+}
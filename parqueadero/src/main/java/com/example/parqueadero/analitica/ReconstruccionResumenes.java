@@ -0,0 +1,182 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.Estadia;
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.ResultadoReconstruccion;
+import com.example.parqueadero.model.ResumenEstadia;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.repository.ResumenEstadiaRepositorio;
+import com.example.parqueadero.repository.VehiculoArchivadoRepositorio;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Reconstruyo los resúmenes de estadías a partir del historial de vehículos, por ejemplo para cargar
+ * los datos anteriores a la existencia de los resúmenes o para corregirlos.
+ * Divido el rango en días y reconstruyo varios días en paralelo; cada día se lee con un cursor
+ * y se reemplaza en su propia transacción, así que los días no compiten por las mismas filas.
+ * El día de hoy también se puede reconstruir, por ejemplo después de una caída que perdió lo acumulado en memoria:
+ * lo hago después de los demás, coordinado con `AnaliticaEstadias`, que deja de contar en memoria las salidas
+ * anteriores al corte. Antes de leer espero un margen para que las salidas en curso se confirmen
+ * y vacío la persistencia diferida.
+ */
+@Component
+public class ReconstruccionResumenes {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconstruccionResumenes.class);
+
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final VehiculoArchivadoRepositorio archivadoRepositorio;
+    private final ResumenEstadiaRepositorio resumenRepositorio;
+    private final AnaliticaEstadias analiticaEstadias;
+    private final PersistenciaVehiculos persistenciaVehiculos;
+    private final TransactionTemplate transactionTemplate;
+    private final FabricaHilos fabricaHilos;
+    private final int hilos;
+    private final Duration margenCorte;
+
+    /**
+     * Inyecto los repositorios de la tabla activa, del historial archivado y de los resúmenes, los acumulados en memoria,
+     * la persistencia de vehículos, el gestor de transacciones, la fábrica de hilos, la cantidad de días
+     * que reconstruyo a la vez y cuánto espero a las salidas en curso antes de reconstruir el día de hoy.
+     */
+    @Autowired
+    public ReconstruccionResumenes(VehiculoRepositorio vehiculoRepositorio, VehiculoArchivadoRepositorio archivadoRepositorio,
+                                   ResumenEstadiaRepositorio resumenRepositorio, AnaliticaEstadias analiticaEstadias,
+                                   PersistenciaVehiculos persistenciaVehiculos,
+                                   PlatformTransactionManager transactionManager, FabricaHilos fabricaHilos,
+                                   @Value("${parqueadero.analitica.hilos-reconstruccion:4}") int hilos,
+                                   @Value("${parqueadero.analitica.margen-corte:2s}") Duration margenCorte) {
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.archivadoRepositorio = archivadoRepositorio;
+        this.resumenRepositorio = resumenRepositorio;
+        this.analiticaEstadias = analiticaEstadias;
+        this.persistenciaVehiculos = persistenciaVehiculos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fabricaHilos = fabricaHilos;
+        this.hilos = hilos;
+        this.margenCorte = margenCorte;
+    }
+
+    /**
+     * Reconstruyo los resúmenes por hora y por día de un rango de días.
+     * @param desde Primer día del rango.
+     * @param hasta Día siguiente al último del rango; a lo sumo mañana, para incluir el día de hoy.
+     * @return Cantidad de días y de estadías procesadas, y la duración.
+     * @throws IllegalArgumentException Si el rango está vacío o incluye días futuros.
+     */
+    public ResultadoReconstruccion reconstruir(LocalDate desde, LocalDate hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El rango de días está vacío");
+        }
+        LocalDate hoy = LocalDate.now();
+        if (hasta.isAfter(hoy.plusDays(1))) {
+            throw new IllegalArgumentException("No reconstruyo días futuros");
+        }
+        long inicio = System.nanoTime();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, fabricaHilos.fabrica("reconstruccion-resumenes"));
+        try {
+            List<Future<Long>> dias = new ArrayList<>();
+            for (LocalDate dia = desde; dia.isBefore(hasta) && dia.isBefore(hoy); dia = dia.plusDays(1)) {
+                LocalDate actual = dia;
+                dias.add(ejecutor.submit(() -> reconstruirDia(actual.atStartOfDay(), actual.plusDays(1).atStartOfDay())));
+            }
+            long estadias = 0;
+            for (Future<Long> dia : dias) {
+                estadias += dia.get();
+            }
+            int reconstruidos = dias.size();
+            if (hasta.isAfter(hoy)) {
+                estadias += reconstruirHoy(hoy);
+                reconstruidos++;
+            }
+            long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+            log.info("Reconstruí los resúmenes de {} días ({} estadías) en {} ms", reconstruidos, estadias, milisegundos);
+            return new ResultadoReconstruccion(reconstruidos, estadias, milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras reconstruía los resúmenes", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No pude reconstruir los resúmenes", e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reconstruyo el día de hoy con las salidas anteriores al corte que fija `AnaliticaEstadias`.
+     * Las salidas que tomaron su hora antes del corte pueden estar todavía en curso o en la persistencia diferida,
+     * así que espero el margen y vacío la persistencia diferida antes de leerlas.
+     * @return Cantidad de estadías leídas.
+     */
+    private long reconstruirHoy(LocalDate hoy) {
+        LocalDateTime inicio = hoy.atStartOfDay();
+        return analiticaEstadias.reconstruirDesde(inicio, corte -> {
+            try {
+                Thread.sleep(margenCorte.toMillis());
+                if (!persistenciaVehiculos.vaciar(10_000)) {
+                    throw new IllegalStateException("La persistencia diferida no se vació a tiempo para reconstruir el día de hoy");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido mientras esperaba las salidas en curso", e);
+            }
+            return reconstruirDia(inicio, corte);
+        });
+    }
+
+    /**
+     * Reemplazo los resúmenes de un día por los que calculo recorriendo sus salidas,
+     * tanto las archivadas como las que todavía están en la tabla activa.
+     * @param inicio Inicio del día.
+     * @param fin Fin de las salidas que leo: el día siguiente o, para hoy, el corte.
+     *            Siempre reemplazo las cubetas del día completo.
+     * @return Cantidad de estadías leídas.
+     */
+    private long reconstruirDia(LocalDateTime inicio, LocalDateTime fin) {
+        LocalDateTime finDia = inicio.plusDays(1);
+        return transactionTemplate.execute(estado -> {
+            Map<ClaveResumen, Acumulador> cubetas = new HashMap<>();
+            long estadias = 0;
+            try (Stream<Estadia> salidas = Stream.concat(archivadoRepositorio.recorrerEstadias(inicio, fin),
+                    vehiculoRepositorio.recorrerEstadias(inicio, fin))) {
+                for (Estadia estadia : (Iterable<Estadia>) salidas::iterator) {
+                    for (Granularidad granularidad : Granularidad.values()) {
+                        cubetas.computeIfAbsent(ClaveResumen.de(granularidad, estadia.tipo(), estadia.horaSalida()),
+                                clave -> new Acumulador()).registrar(estadia);
+                    }
+                    estadias++;
+                }
+            }
+            resumenRepositorio.borrarEntre(inicio, finDia);
+            List<ResumenEstadia> resumenes = new ArrayList<>(cubetas.size());
+            cubetas.forEach((clave, acumulador) -> {
+                ResumenEstadia resumen = new ResumenEstadia(clave.granularidad(), clave.inicio(), clave.tipo());
+                acumulador.aplicarA(resumen);
+                resumenes.add(resumen);
+            });
+            resumenRepositorio.saveAll(resumenes);
+            return estadias;
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.ReporteSede;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TotalSalidas;
+import com.example.parqueadero.repository.VehiculoArchivadoRepositorio;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.RegistroSedes;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Armo el reporte de todas las sedes: la ocupación actual, leída de los contadores en memoria,
+ * y las salidas e ingresos de un rango, totalizados por la base de datos con el índice de sede y hora de salida.
+ * Consulto las sedes en paralelo, así que el reporte tarda lo que tarda la sede más lenta
+ * y no la suma de todas. Mantengo el ejecutor abierto entre reportes para no crear hilos en cada consulta.
+ */
+@Component
+public class ReporteSedes {
+
+    private final RegistroSedes registroSedes;
+    private final ContadorOcupacion contadorOcupacion;
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final VehiculoArchivadoRepositorio archivadoRepositorio;
+    private final ExecutorService ejecutor;
+
+    /**
+     * Inyecto el registro de sedes, los contadores de ocupación, los repositorios de la tabla activa y del historial,
+     * y creo el ejecutor con la cantidad de sedes que consulto a la vez.
+     */
+    @Autowired
+    public ReporteSedes(RegistroSedes registroSedes, ContadorOcupacion contadorOcupacion,
+                        VehiculoRepositorio vehiculoRepositorio, VehiculoArchivadoRepositorio archivadoRepositorio,
+                        FabricaHilos fabricaHilos, @Value("${parqueadero.sedes.hilos-reporte:4}") int hilos) {
+        this.registroSedes = registroSedes;
+        this.contadorOcupacion = contadorOcupacion;
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.archivadoRepositorio = archivadoRepositorio;
+        this.ejecutor = Executors.newFixedThreadPool(hilos, fabricaHilos.fabrica("reporte-sedes"));
+    }
+
+    /**
+     * Armo el reporte de todas las sedes.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     * @param hasta Fin del rango de hora de salida (excluido).
+     * @return Una entrada por sede, ordenadas por código.
+     * @throws IllegalArgumentException Si el rango está vacío.
+     */
+    public List<ReporteSede> reportar(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El rango de horas está vacío");
+        }
+        List<CompletableFuture<ReporteSede>> pendientes = new ArrayList<>();
+        for (Sede sede : registroSedes.todas()) {
+            pendientes.add(CompletableFuture.supplyAsync(() -> reportar(sede, desde, hasta), ejecutor));
+        }
+        List<ReporteSede> reporte = new ArrayList<>(pendientes.size());
+        try {
+            for (CompletableFuture<ReporteSede> pendiente : pendientes) {
+                reporte.add(pendiente.join());
+            }
+        } catch (CompletionException e) {
+            pendientes.forEach(pendiente -> pendiente.cancel(true));
+            throw new IllegalStateException("No pude armar el reporte de las sedes", e.getCause());
+        }
+        return reporte;
+    }
+
+    private ReporteSede reportar(Sede sede, LocalDateTime desde, LocalDateTime hasta) {
+        TotalSalidas total = vehiculoRepositorio.totalizarSalidas(sede.getCodigo(), desde, hasta)
+                .sumar(archivadoRepositorio.totalizarSalidas(sede.getCodigo(), desde, hasta));
+        return new ReporteSede(sede.getCodigo(), sede.getNombre(), contadorOcupacion.resumen(sede.getCodigo()),
+                total.salidas(), total.ingresos());
+    }
+
+    /**
+     * Detengo el ejecutor al apagar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.parqueadero.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Agrupo la configuración de la caché de respuestas de búsquedas por placa ya serializadas.
+ * Todas las propiedades se leen con el prefijo `parqueadero.cache`.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.cache")
+public class CacheRespuestasProperties {
+
+    private long tamanoBusquedas = 10_000; // Placas que guardo como máximo en la caché de búsquedas
+
+    private Duration vigenciaBusquedas = Duration.ofMinutes(5); // Cada entrada y salida la invalida; la vigencia solo acota la memoria
+
+    public long getTamanoBusquedas() {
+        return tamanoBusquedas;
+    }
+
+    public void setTamanoBusquedas(long tamanoBusquedas) {
+        this.tamanoBusquedas = tamanoBusquedas;
+    }
+
+    public Duration getVigenciaBusquedas() {
+        return vigenciaBusquedas;
+    }
+
+    public void setVigenciaBusquedas(Duration vigenciaBusquedas) {
+        this.vigenciaBusquedas = vigenciaBusquedas;
+    }
+}
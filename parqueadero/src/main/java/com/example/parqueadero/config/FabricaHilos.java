@@ -0,0 +1,101 @@
+package com.example.parqueadero.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creo los hilos de la aplicación (peticiones de Tomcat, escritura diferida, transmisión de ocupación).
+ * Con `parqueadero.hilos-virtuales.habilitados=true` los hilos son virtuales, lo que requiere Java 21;
+ * en otro caso son hilos de plataforma como siempre.
+ * El proyecto compila con Java 17, así que creo los hilos virtuales por reflexión.
+ */
+@Component
+public class FabricaHilos {
+
+    private final boolean virtuales;
+
+    /**
+     * Verifico al arrancar que la versión de Java permita hilos virtuales si están habilitados.
+     * @param virtuales Si es verdadero, todos los hilos que creo son virtuales.
+     */
+    @Autowired
+    public FabricaHilos(@Value("${parqueadero.hilos-virtuales.habilitados:false}") boolean virtuales) {
+        if (virtuales && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Los hilos virtuales requieren Java 21 o superior; la aplicación corre con Java "
+                    + Runtime.version().feature());
+        }
+        this.virtuales = virtuales;
+    }
+
+    /**
+     * Indico si la aplicación corre en modo de hilos virtuales.
+     */
+    public boolean isVirtuales() {
+        return virtuales;
+    }
+
+    /**
+     * Creo una fábrica de hilos con el prefijo de nombre indicado.
+     * Los hilos de plataforma son demonios para no impedir que la aplicación se detenga;
+     * los virtuales siempre lo son.
+     * @param nombre Prefijo del nombre de los hilos, al que agrego un número.
+     * @return La fábrica de hilos.
+     */
+    public ThreadFactory fabrica(String nombre) {
+        if (virtuales) {
+            return (ThreadFactory) invocar(invocar(invocar(null, Thread.class, "ofVirtual"),
+                    constructorHilos(), "name", nombre + "-", 0L), constructorHilos(), "factory");
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, nombre + "-" + contador.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /**
+     * Creo un ejecutor que inicia un hilo virtual nuevo por cada tarea, sin límite de hilos.
+     * Solo tiene sentido en modo virtual; el límite de concurrencia lo ponen los recursos de abajo
+     * (por ejemplo, el pool de conexiones).
+     * @param nombre Prefijo del nombre de los hilos.
+     * @return El ejecutor de un hilo por tarea.
+     */
+    public ExecutorService porTarea(String nombre) {
+        if (!virtuales) {
+            throw new IllegalStateException("El ejecutor de un hilo por tarea solo está disponible con hilos virtuales");
+        }
+        return (ExecutorService) invocar(null, Executors.class, "newThreadPerTaskExecutor", fabrica(nombre));
+    }
+
+    private static Class<?> constructorHilos() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Invoco por reflexión un método público de las API de hilos virtuales de Java 21.
+     */
+    private static Object invocar(Object objetivo, Class<?> clase, String metodo, Object... argumentos) {
+        try {
+            Class<?>[] tipos = new Class<?>[argumentos.length];
+            for (int i = 0; i < argumentos.length; i++) {
+                tipos[i] = argumentos[i] instanceof Long ? long.class
+                        : argumentos[i] instanceof ThreadFactory ? ThreadFactory.class
+                        : argumentos[i].getClass();
+            }
+            return clase.getMethod(metodo, tipos).invoke(objetivo, argumentos);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No pude invocar " + clase.getName() + "." + metodo, e);
+        }
+    }
+}
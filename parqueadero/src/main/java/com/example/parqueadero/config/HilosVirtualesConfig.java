@@ -0,0 +1,43 @@
+package com.example.parqueadero.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Activo el modo de hilos virtuales (Java 21) con `parqueadero.hilos-virtuales.habilitados=true`.
+ * Tomcat atiende cada petición en su propio hilo virtual en lugar de usar su pool de 200 hilos de plataforma,
+ * y las tareas asíncronas de Spring MVC (por ejemplo, las exportaciones del historial) también corren en hilos virtuales.
+ * Así, una petición que espera a la base de datos ya no bloquea un hilo de plataforma,
+ * y el límite de concurrencia real pasa a ser el pool de conexiones JDBC.
+ */
+@Configuration
+@ConditionalOnProperty(name = "parqueadero.hilos-virtuales.habilitados", havingValue = "true")
+public class HilosVirtualesConfig {
+
+    /**
+     * Reemplazo el ejecutor de peticiones de Tomcat por uno que crea un hilo virtual por petición.
+     * @param fabricaHilos Fábrica que crea los hilos virtuales.
+     * @return El personalizador del conector de Tomcat.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> ejecutorVirtualTomcat(FabricaHilos fabricaHilos) {
+        return protocolHandler -> protocolHandler.setExecutor(fabricaHilos.porTarea("tomcat-virtual"));
+    }
+
+    /**
+     * Defino el ejecutor de tareas de la aplicación con hilos virtuales. Al usar el mismo nombre del bean
+     * que configura Spring Boot, Spring MVC lo usa para las respuestas asíncronas.
+     * @param fabricaHilos Fábrica que crea los hilos virtuales.
+     * @return El ejecutor de tareas asíncronas.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(FabricaHilos fabricaHilos) {
+        return new TaskExecutorAdapter(fabricaHilos.porTarea("tarea-virtual"));
+    }
+}
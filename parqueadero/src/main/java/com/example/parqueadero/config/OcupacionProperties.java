@@ -0,0 +1,100 @@
+package com.example.parqueadero.config;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agrupo la configuración de capacidad y de la transmisión en vivo de la ocupación,
+ * leída con el prefijo `parqueadero.ocupacion`.
+ * La capacidad por clase aplica a cada sede; `capacidad-sedes.<sede>.<clase>` la reemplaza para una sede.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.ocupacion")
+public class OcupacionProperties {
+
+    private Map<TipoVehiculo, Integer> capacidad = new EnumMap<>(TipoVehiculo.class); // Cupos por clase; sin valor no hay límite
+
+    private Map<String, Map<TipoVehiculo, Integer>> capacidadSedes = new HashMap<>(); // Cupos por clase de sedes puntuales
+
+    private Duration intervaloTransmision = Duration.ofMillis(250); // Cada cuánto reviso si la ocupación cambió
+
+    private Duration latido = Duration.ofSeconds(15); // Cada cuánto envío un comentario para detectar pantallas desconectadas
+
+    private Duration duracionSuscripcion = Duration.ofMinutes(30); // Después de este tiempo el cliente debe reconectarse
+
+    private int colaSuscriptor = 8; // Eventos pendientes por pantalla; si se llena, la pantalla es lenta y la cierro
+
+    private Duration esperaEnvio = Duration.ofSeconds(10); // Si un envío tarda más que esto, cierro la pantalla
+
+    private int hilosEnvio = 4; // Hilos que escriben a las pantallas (con hilos virtuales, uno por envío)
+
+    public Map<TipoVehiculo, Integer> getCapacidad() {
+        return capacidad;
+    }
+
+    public void setCapacidad(Map<TipoVehiculo, Integer> capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    public Map<String, Map<TipoVehiculo, Integer>> getCapacidadSedes() {
+        return capacidadSedes;
+    }
+
+    public void setCapacidadSedes(Map<String, Map<TipoVehiculo, Integer>> capacidadSedes) {
+        this.capacidadSedes = capacidadSedes;
+    }
+
+    public Duration getIntervaloTransmision() {
+        return intervaloTransmision;
+    }
+
+    public void setIntervaloTransmision(Duration intervaloTransmision) {
+        this.intervaloTransmision = intervaloTransmision;
+    }
+
+    public Duration getLatido() {
+        return latido;
+    }
+
+    public void setLatido(Duration latido) {
+        this.latido = latido;
+    }
+
+    public Duration getDuracionSuscripcion() {
+        return duracionSuscripcion;
+    }
+
+    public void setDuracionSuscripcion(Duration duracionSuscripcion) {
+        this.duracionSuscripcion = duracionSuscripcion;
+    }
+
+    public int getColaSuscriptor() {
+        return colaSuscriptor;
+    }
+
+    public void setColaSuscriptor(int colaSuscriptor) {
+        this.colaSuscriptor = colaSuscriptor;
+    }
+
+    public Duration getEsperaEnvio() {
+        return esperaEnvio;
+    }
+
+    public void setEsperaEnvio(Duration esperaEnvio) {
+        this.esperaEnvio = esperaEnvio;
+    }
+
+    public int getHilosEnvio() {
+        return hilosEnvio;
+    }
+
+    public void setHilosEnvio(int hilosEnvio) {
+        this.hilosEnvio = hilosEnvio;
+    }
+}
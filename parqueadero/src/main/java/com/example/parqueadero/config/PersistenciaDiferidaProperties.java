@@ -0,0 +1,95 @@
+package com.example.parqueadero.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Agrupo la configuración de la persistencia diferida (write-behind) de entradas y salidas.
+ * Todas las propiedades se leen con el prefijo `parqueadero.persistencia.diferida`.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.persistencia.diferida")
+public class PersistenciaDiferidaProperties {
+
+    private boolean habilitada = false; // Si está apagada, cada petición guarda directamente en el repositorio
+
+    private int tamanoLote = 100; // Cantidad máxima de eventos que agrupo en una sola transacción
+
+    private Duration esperaMaxima = Duration.ofMillis(20); // Tiempo que espero a que se llene un lote antes de escribirlo
+
+    private int capacidadCola = 10_000; // Eventos pendientes que acepto antes de frenar a las porterías
+
+    private String diario = "./data/diario-eventos.bin"; // Archivo donde anoto cada evento antes de confirmarlo
+
+    private boolean sincronizarDiario = true; // Si es verdadero, fuerzo el diario a disco antes de responder
+
+    private String descartados = "./data/eventos-descartados.bin"; // Eventos que la base de datos rechazó
+
+    private Duration esperaReintento = Duration.ofSeconds(1); // Pausa antes de reintentar un lote si la base no responde
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public int getTamanoLote() {
+        return tamanoLote;
+    }
+
+    public void setTamanoLote(int tamanoLote) {
+        this.tamanoLote = tamanoLote;
+    }
+
+    public Duration getEsperaMaxima() {
+        return esperaMaxima;
+    }
+
+    public void setEsperaMaxima(Duration esperaMaxima) {
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    public int getCapacidadCola() {
+        return capacidadCola;
+    }
+
+    public void setCapacidadCola(int capacidadCola) {
+        this.capacidadCola = capacidadCola;
+    }
+
+    public String getDiario() {
+        return diario;
+    }
+
+    public void setDiario(String diario) {
+        this.diario = diario;
+    }
+
+    public boolean isSincronizarDiario() {
+        return sincronizarDiario;
+    }
+
+    public void setSincronizarDiario(boolean sincronizarDiario) {
+        this.sincronizarDiario = sincronizarDiario;
+    }
+
+    public String getDescartados() {
+        return descartados;
+    }
+
+    public void setDescartados(String descartados) {
+        this.descartados = descartados;
+    }
+
+    public Duration getEsperaReintento() {
+        return esperaReintento;
+    }
+
+    public void setEsperaReintento(Duration esperaReintento) {
+        this.esperaReintento = esperaReintento;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.parqueadero.config;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agrupo la configuración de los puestos físicos y de las reservas, leída con el prefijo `parqueadero.puestos`.
+ * Una sede administra los puestos de una clase solo si tiene zonas configuradas para ella:
+ * `zonas.<sede>.<clase>.<zona>=<puestos>`. Conviene que las zonas de una clase sumen su capacidad.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.puestos")
+public class PuestosProperties {
+
+    private Map<String, Map<TipoVehiculo, Map<String, Integer>>> zonas = new HashMap<>(); // Puestos por sede, clase y zona
+
+    private Duration anticipacionReserva = Duration.ofMinutes(15); // Desde cuándo aparto el puesto antes de la reserva
+
+    private Duration toleranciaReserva = Duration.ofMinutes(30); // Cuánto espero al vehículo después del inicio
+
+    private Duration intervaloReservas = Duration.ofMinutes(1); // Cada cuánto aparto y venzo reservas
+
+    public Map<String, Map<TipoVehiculo, Map<String, Integer>>> getZonas() {
+        return zonas;
+    }
+
+    public void setZonas(Map<String, Map<TipoVehiculo, Map<String, Integer>>> zonas) {
+        this.zonas = zonas;
+    }
+
+    public Duration getAnticipacionReserva() {
+        return anticipacionReserva;
+    }
+
+    public void setAnticipacionReserva(Duration anticipacionReserva) {
+        this.anticipacionReserva = anticipacionReserva;
+    }
+
+    public Duration getToleranciaReserva() {
+        return toleranciaReserva;
+    }
+
+    public void setToleranciaReserva(Duration toleranciaReserva) {
+        this.toleranciaReserva = toleranciaReserva;
+    }
+
+    public Duration getIntervaloReservas() {
+        return intervaloReservas;
+    }
+
+    public void setIntervaloReservas(Duration intervaloReservas) {
+        this.intervaloReservas = intervaloReservas;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.parqueadero.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Agrupo la configuración del acceso reactivo a la base de datos que usa el perfil `reactivo`,
+ * leída con el prefijo `parqueadero.reactivo`.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.reactivo")
+public class ReactivoProperties {
+
+    private String url = "r2dbc:h2:mem:///parqueaderodb;DB_CLOSE_ON_EXIT=FALSE"; // URL de R2DBC, sin el prefijo del pool
+
+    private String usuario = "sa";
+
+    private String clave = "";
+
+    private int conexiones = 10; // Conexiones del pool; las peticiones esperan una sin ocupar un hilo
+
+    private Duration esperaConexion = Duration.ofSeconds(2); // Tiempo máximo que espera una petición por una conexión
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public int getConexiones() {
+        return conexiones;
+    }
+
+    public void setConexiones(int conexiones) {
+        this.conexiones = conexiones;
+    }
+
+    public Duration getEsperaConexion() {
+        return esperaConexion;
+    }
+
+    public void setEsperaConexion(Duration esperaConexion) {
+        this.esperaConexion = esperaConexion;
+    }
+}
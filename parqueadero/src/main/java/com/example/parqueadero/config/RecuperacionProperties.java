@@ -0,0 +1,57 @@
+package com.example.parqueadero.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Agrupo la configuración de la recuperación rápida del índice de ocupación desde disco
+ * (instantánea periódica más bitácora de entradas y salidas).
+ * Todas las propiedades se leen con el prefijo `parqueadero.recuperacion`.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.recuperacion")
+public class RecuperacionProperties {
+
+    private boolean habilitada = false; // Si está apagada, el índice se reconstruye consultando la base de datos
+
+    private String directorio = "./data/recuperacion"; // Carpeta de la instantánea y de los archivos de la bitácora
+
+    private Duration intervaloInstantanea = Duration.ofMinutes(1); // Cada cuánto guardo una instantánea y recorto la bitácora
+
+    private DataSize tamanoRegion = DataSize.ofMegabytes(64); // Tamaño de cada región de la bitácora que mapeo en memoria
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public String getDirectorio() {
+        return directorio;
+    }
+
+    public void setDirectorio(String directorio) {
+        this.directorio = directorio;
+    }
+
+    public Duration getIntervaloInstantanea() {
+        return intervaloInstantanea;
+    }
+
+    public void setIntervaloInstantanea(Duration intervaloInstantanea) {
+        this.intervaloInstantanea = intervaloInstantanea;
+    }
+
+    public DataSize getTamanoRegion() {
+        return tamanoRegion;
+    }
+
+    public void setTamanoRegion(DataSize tamanoRegion) {
+        this.tamanoRegion = tamanoRegion;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.parqueadero.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Agrupo la configuración de autenticación de la API, leída con el prefijo `parqueadero.seguridad`.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.seguridad")
+public class SeguridadProperties {
+
+    private Modo modo = Modo.ABIERTO; // Cómo autentico las peticiones a /parqueadero/**
+
+    private String secreto = ""; // Clave HMAC en Base64 (al menos 32 bytes); vacía, genero una al arrancar
+
+    private Duration vigenciaToken = Duration.ofMinutes(15); // Tiempo durante el que acepto un token emitido
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public void setModo(Modo modo) {
+        this.modo = modo;
+    }
+
+    public String getSecreto() {
+        return secreto;
+    }
+
+    public void setSecreto(String secreto) {
+        this.secreto = secreto;
+    }
+
+    public Duration getVigenciaToken() {
+        return vigenciaToken;
+    }
+
+    public void setVigenciaToken(Duration vigenciaToken) {
+        this.vigenciaToken = vigenciaToken;
+    }
+
+    /**
+     * Modos de autenticación de la API.
+     */
+    public enum Modo {
+        ABIERTO, // Sin autenticación, como en desarrollo
+        BASICO, // HTTP Basic en cada petición: cada una paga la verificación BCrypt de la contraseña
+        TOKEN // HTTP Basic solo para obtener un token; las demás peticiones presentan el token
+    }
+}
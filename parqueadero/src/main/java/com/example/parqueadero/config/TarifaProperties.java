@@ -0,0 +1,125 @@
+package com.example.parqueadero.config;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Agrupo las reglas de tarifas del parqueadero, leídas con el prefijo `parqueadero.tarifas`.
+ * Estas reglas no se usan directamente al cobrar: el motor de tarifas las compila en tablas inmutables.
+ */
+@Component
+@ConfigurationProperties(prefix = "parqueadero.tarifas")
+public class TarifaProperties {
+
+    private int unidadMinutos = 60; // Duración de la unidad de cobro; debe dividir exactamente un día
+
+    private int graciaMinutos = 0; // Estadías de esta duración o menos no se cobran
+
+    private int unidadesMinimas = 1; // Cantidad mínima de unidades que cobro a cualquier estadía fuera de la gracia
+
+    private int nocturnaDesde = 22; // Hora (0-23) en la que empieza la franja nocturna
+
+    private int nocturnaHasta = 6; // Hora (0-23) en la que termina la franja nocturna
+
+    private Map<TipoVehiculo, Clase> clases = new EnumMap<>(TipoVehiculo.class); // Valores por clase de vehículo
+
+    public int getUnidadMinutos() {
+        return unidadMinutos;
+    }
+
+    public void setUnidadMinutos(int unidadMinutos) {
+        this.unidadMinutos = unidadMinutos;
+    }
+
+    public int getGraciaMinutos() {
+        return graciaMinutos;
+    }
+
+    public void setGraciaMinutos(int graciaMinutos) {
+        this.graciaMinutos = graciaMinutos;
+    }
+
+    public int getUnidadesMinimas() {
+        return unidadesMinimas;
+    }
+
+    public void setUnidadesMinimas(int unidadesMinimas) {
+        this.unidadesMinimas = unidadesMinimas;
+    }
+
+    public int getNocturnaDesde() {
+        return nocturnaDesde;
+    }
+
+    public void setNocturnaDesde(int nocturnaDesde) {
+        this.nocturnaDesde = nocturnaDesde;
+    }
+
+    public int getNocturnaHasta() {
+        return nocturnaHasta;
+    }
+
+    public void setNocturnaHasta(int nocturnaHasta) {
+        this.nocturnaHasta = nocturnaHasta;
+    }
+
+    public Map<TipoVehiculo, Clase> getClases() {
+        return clases;
+    }
+
+    public void setClases(Map<TipoVehiculo, Clase> clases) {
+        this.clases = clases;
+    }
+
+    /**
+     * Represento los valores de una clase de vehículo. Los valores opcionales en `null`
+     * toman el valor de la unidad normal (o, en el caso del tope, significan que no hay tope).
+     */
+    public static class Clase {
+
+        private BigDecimal valorUnidad = BigDecimal.ZERO; // Valor de cada unidad en horario normal
+
+        private BigDecimal valorNocturno; // Valor de cada unidad que empieza en la franja nocturna
+
+        private BigDecimal valorFinDeSemana; // Valor de cada unidad que empieza en sábado o domingo
+
+        private BigDecimal topeDiario; // Máximo que cobro por cada bloque de 24 horas desde la entrada
+
+        public BigDecimal getValorUnidad() {
+            return valorUnidad;
+        }
+
+        public void setValorUnidad(BigDecimal valorUnidad) {
+            this.valorUnidad = valorUnidad;
+        }
+
+        public BigDecimal getValorNocturno() {
+            return valorNocturno;
+        }
+
+        public void setValorNocturno(BigDecimal valorNocturno) {
+            this.valorNocturno = valorNocturno;
+        }
+
+        public BigDecimal getValorFinDeSemana() {
+            return valorFinDeSemana;
+        }
+
+        public void setValorFinDeSemana(BigDecimal valorFinDeSemana) {
+            this.valorFinDeSemana = valorFinDeSemana;
+        }
+
+        public BigDecimal getTopeDiario() {
+            return topeDiario;
+        }
+
+        public void setTopeDiario(BigDecimal topeDiario) {
+            this.topeDiario = topeDiario;
+        }
+    }
+}
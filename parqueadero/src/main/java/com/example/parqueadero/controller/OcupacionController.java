@@ -0,0 +1,67 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.model.EstadiaLarga;
+import com.example.parqueadero.model.OcupacionClase;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.DetectorEstadiasLargas;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.service.TransmisorOcupacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/parqueadero/ocupacion")
+public class OcupacionController {
+
+    private final ContadorOcupacion contadorOcupacion;
+    private final TransmisorOcupacion transmisorOcupacion;
+    private final DetectorEstadiasLargas detectorEstadiasLargas;
+
+    /**
+     * Inyecto los contadores de ocupación por clase, el transmisor que los envía a las pantallas
+     * y el detector de estadías largas.
+     */
+    @Autowired
+    public OcupacionController(ContadorOcupacion contadorOcupacion, TransmisorOcupacion transmisorOcupacion,
+                               DetectorEstadiasLargas detectorEstadiasLargas) {
+        this.contadorOcupacion = contadorOcupacion;
+        this.transmisorOcupacion = transmisorOcupacion;
+        this.detectorEstadiasLargas = detectorEstadiasLargas;
+    }
+
+    /**
+     * Devuelvo la ocupación y los cupos libres de cada clase de vehículo en la sede principal,
+     * leídos de los contadores en memoria. La de otra sede está en `/parqueadero/sedes/{sede}/ocupacion`.
+     */
+    @GetMapping
+    public List<OcupacionClase> consultarOcupacion() {
+        return contadorOcupacion.resumen();
+    }
+
+    /**
+     * Abro una suscripción de Server-Sent Events que recibe un evento `ocupacion` con el resumen
+     * de la sede principal cada vez que cambia. La de otra sede está en `/parqueadero/sedes/{sede}/ocupacion/eventos`.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirOcupacion() {
+        return transmisorOcupacion.suscribir();
+    }
+
+    /**
+     * Devuelvo los vehículos que siguen dentro después del umbral de estadía, para que un operador
+     * revise si su salida quedó sin registrar.
+     * @param sede Código de la sede; si no viene, devuelvo las de todas las sedes.
+     */
+    @GetMapping("/estadias-largas")
+    public List<EstadiaLarga> consultarEstadiasLargas(@RequestParam(required = false) String sede) {
+        return sede == null ? detectorEstadiasLargas.estadiasLargas()
+                : detectorEstadiasLargas.estadiasLargas(RegistroSedes.normalizar(sede));
+    }
+}
@@ -1,14 +1,47 @@
 package com.example.parqueadero.controller;
 
+import com.example.parqueadero.analitica.AnaliticaEstadias;
+import com.example.parqueadero.model.CoincidenciaPlaca;
+import com.example.parqueadero.model.EstadoSesion;
+import com.example.parqueadero.model.EventoPorteria;
+import com.example.parqueadero.model.FiltroHistorial;
+import com.example.parqueadero.model.PaginaVehiculos;
+import com.example.parqueadero.model.ResultadoEventoPorteria;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
 import com.example.parqueadero.model.Vehiculo;
-import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.service.AgendaReservas;
+import com.example.parqueadero.service.AliasTiposVehiculo;
+import com.example.parqueadero.service.BuscadorPlacas;
+import com.example.parqueadero.service.CacheBusqueda;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.ControlAdmision;
+import com.example.parqueadero.service.HistorialServicio;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.service.LotePorteria;
+import com.example.parqueadero.service.Mensajes;
+import com.example.parqueadero.service.MetricasParqueadero;
+import com.example.parqueadero.service.MetricasParqueadero.Fase;
+import com.example.parqueadero.service.MetricasParqueadero.Rechazo;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import com.example.parqueadero.util.Placas;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.Duration;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Locale;
@@ -16,112 +49,382 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/parqueadero")
+@Profile("!reactivo") // Con el perfil reactivo, ParqueaderoReactivoController atiende estas rutas
 public class ParqueaderoController {
 
-    private final VehiculoRepositorio vehiculoRepositorio;
-    private final MessageSource messageSource;
+    private static final int TAMANO_PAGINA = 50; // Tamaño de página por defecto del historial
+    private static final int TAMANO_MAXIMO_PAGINA = 500; // Tamaño máximo que acepto para una página
+    private static final int TAMANO_MAXIMO_LOTE = 1000; // Eventos que acepto en un lote de portería
+    private static final int MAXIMO_COINCIDENCIAS = 50; // Resultados que acepto pedir en una búsqueda de placas
+
+    private final Mensajes mensajes;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ControlAdmision controlAdmision;
+    private final PersistenciaVehiculos persistenciaVehiculos;
+    private final HistorialServicio historialServicio;
+    private final MotorTarifas motorTarifas;
+    private final ContadorOcupacion contadorOcupacion;
+    private final AnaliticaEstadias analiticaEstadias;
+    private final MetricasParqueadero metricas;
+    private final LotePorteria lotePorteria;
+    private final CacheBusqueda cacheBusqueda;
+    private final RegistroSedes registroSedes;
+    private final InventarioPuestos inventarioPuestos;
+    private final AgendaReservas agendaReservas;
+    private final BuscadorPlacas buscadorPlacas;
 
     /**
-     * Inyecto el repositorio de vehículos y la fuente de mensajes para manejar la internacionalización.
+     * Inyecto los mensajes traducidos y los alias de tipos de vehículo para manejar la internacionalización,
+     * el índice en memoria de los vehículos que están dentro del parqueadero,
+     * el control de admisión que serializa las operaciones sobre una misma placa,
+     * el componente que guarda las entradas y salidas (directamente o en lotes diferidos)
+     * el servicio que consulta y exporta el historial, el motor que calcula las tarifas
+     * los contadores que controlan los cupos de cada clase de vehículo
+     * los resúmenes de estadías que se actualizan con cada salida
+     * las métricas que miden cada fase de las entradas y salidas
+     * el procesador de los lotes de eventos que envían las porterías
+     * la caché de las respuestas de búsqueda ya serializadas
+     * el registro de las sedes que administra esta instancia
+     * el inventario de puestos con la agenda de reservas que asigna el puesto de cada vehículo
+     * y el buscador de placas parecidas.
      */
     @Autowired
-    public ParqueaderoController(VehiculoRepositorio vehiculoRepositorio, MessageSource messageSource) {
-        this.vehiculoRepositorio = vehiculoRepositorio;
-        this.messageSource = messageSource;
+    public ParqueaderoController(Mensajes mensajes, AliasTiposVehiculo aliasTiposVehiculo,
+                                 IndiceOcupacion indiceOcupacion, ControlAdmision controlAdmision,
+                                 PersistenciaVehiculos persistenciaVehiculos, HistorialServicio historialServicio,
+                                 MotorTarifas motorTarifas, ContadorOcupacion contadorOcupacion,
+                                 AnaliticaEstadias analiticaEstadias, MetricasParqueadero metricas,
+                                 LotePorteria lotePorteria, CacheBusqueda cacheBusqueda,
+                                 RegistroSedes registroSedes, InventarioPuestos inventarioPuestos,
+                                 AgendaReservas agendaReservas, BuscadorPlacas buscadorPlacas) {
+        this.mensajes = mensajes;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+        this.indiceOcupacion = indiceOcupacion;
+        this.controlAdmision = controlAdmision;
+        this.persistenciaVehiculos = persistenciaVehiculos;
+        this.historialServicio = historialServicio;
+        this.motorTarifas = motorTarifas;
+        this.contadorOcupacion = contadorOcupacion;
+        this.analiticaEstadias = analiticaEstadias;
+        this.metricas = metricas;
+        this.lotePorteria = lotePorteria;
+        this.cacheBusqueda = cacheBusqueda;
+        this.registroSedes = registroSedes;
+        this.inventarioPuestos = inventarioPuestos;
+        this.agendaReservas = agendaReservas;
+        this.buscadorPlacas = buscadorPlacas;
     }
 
     /**
-     * Devuelvo la lista completa de vehículos registrados en el parqueadero.
+     * Devuelvo una página del historial de vehículos, filtrada por rango de hora de entrada, tipo, estado y sede.
+     * Pagino por cursor: para pedir la siguiente página envío en `despuesDe` el valor `siguiente` de la respuesta.
      */
     @GetMapping
-    public ResponseEntity<List<Vehiculo>> listarVehiculos() {
-        return ResponseEntity.ok(vehiculoRepositorio.findAll());
+    public ResponseEntity<PaginaVehiculos> listarVehiculos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) EstadoSesion estado,
+            @RequestParam(required = false) String sede,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(defaultValue = "" + TAMANO_PAGINA) int tamano) {
+        int tamanoPagina = Math.max(1, Math.min(tamano, TAMANO_MAXIMO_PAGINA));
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (tipo != null && clase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (sede != null && registroSedes.buscar(sede).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        FiltroHistorial filtro = new FiltroHistorial(desde, hasta, clase.orElse(null), estado, RegistroSedes.normalizar(sede));
+        return ResponseEntity.ok(historialServicio.pagina(filtro, despuesDe, tamanoPagina));
     }
 
     /**
-     * Registro la entrada de un vehículo al parqueadero.
-     * Primero, verifico que la placa no esté registrada sin una hora de salida.
-     * Luego, valido que el tipo de vehículo sea válido (carro o moto).
-     * Finalmente, guardo el vehículo en la base de datos.
+     * Exporto el historial filtrado en formato `ndjson` (un JSON por línea) o `csv`.
+     * La respuesta se escribe a medida que leo el cursor de la base de datos, con memoria constante.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarVehiculos(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) EstadoSesion estado,
+            @RequestParam(required = false) String sede) {
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (tipo != null && clase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (sede != null && registroSedes.buscar(sede).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        FiltroHistorial filtro = new FiltroHistorial(desde, hasta, clase.orElse(null), estado, RegistroSedes.normalizar(sede));
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=vehiculos.csv")
+                    .body(salida -> historialServicio.exportarCsv(filtro, salida));
+        }
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(salida -> historialServicio.exportarNdjson(filtro, salida));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Registro la entrada de un vehículo a la sede principal.
      */
     @PostMapping("/ingresar")
     public ResponseEntity<String> ingresarVehiculo(@RequestParam String placa, @RequestParam String tipo) {
+        return ingresarVehiculoEnSede(Sede.PRINCIPAL, placa, tipo);
+    }
+
+    /**
+     * Registro la entrada de un vehículo a una sede.
+     * Primero, verifico que la sede exista e interpreto el tipo de vehículo (carro o moto, en cualquier idioma soportado).
+     * Luego, mientras tengo el candado de la placa, verifico en el índice de ocupación
+     * que no esté dentro de ninguna sede, reservo un cupo de su clase en la sede (si no hay, rechazo la entrada),
+     * le asigno un puesto si la sede administra los puestos de su clase (el de su reserva o el primero libre),
+     * guardo el vehículo y lo registro en el índice.
+     * Si otra instancia ganó la carrera, la restricción única de la base de datos rechaza el registro.
+     */
+    @PostMapping("/sedes/{sede}/ingresar")
+    public ResponseEntity<String> ingresarVehiculoEnSede(@PathVariable String sede, @RequestParam String placa,
+                                                         @RequestParam String tipo) {
         Locale locale = LocaleContextHolder.getLocale();
-        String carType = messageSource.getMessage("vehicle.car", null, locale);
-        String motoType = messageSource.getMessage("vehicle.motorcycle", null, locale);
-
-        // Verifico si ya existe un vehículo con esa placa que aún no ha salido
-        Optional<Vehiculo> vehiculoExistente = vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull(placa);
-        if (vehiculoExistente.isPresent()) {
-            return ResponseEntity.badRequest().body(
-                    messageSource.getMessage("parking.vehicle.exists", new Object[]{placa}, locale)
-            );
+        String placaNormalizada = Placas.normalizar(placa);
+        Optional<Sede> destino = registroSedes.buscar(sede);
+        if (destino.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.lot.notfound", locale, sede));
+        }
+        String codigoSede = destino.get().getCodigo();
+
+        // Una placa sin letras ni números queda vacía al normalizarla y no identifica a ningún vehículo
+        if (placaNormalizada.isEmpty()) {
+            metricas.rechazo(Rechazo.INVALIDO);
+            return ResponseEntity.badRequest().body(mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.plate.invalid", locale));
         }
 
         // Valido que el tipo de vehículo sea correcto
-        if (!tipo.equalsIgnoreCase(carType) && !tipo.equalsIgnoreCase(motoType)) {
-            return ResponseEntity.badRequest().body(
-                    messageSource.getMessage("parking.vehicle.type.invalid", null, locale)
-            );
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (clase.isEmpty()) {
+            metricas.rechazo(Rechazo.TIPO_INVALIDO);
+            return ResponseEntity.badRequest().body(mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.type.invalid", locale));
         }
 
-        // Registro el nuevo vehículo con la hora actual
-        Vehiculo vehiculo = new Vehiculo(placa, tipo, LocalDateTime.now());
-        vehiculoRepositorio.save(vehiculo);
-        return ResponseEntity.ok(
-                messageSource.getMessage("parking.vehicle.registered", new Object[]{placa}, locale)
-        );
+        return controlAdmision.conPlaca(placaNormalizada, () -> {
+            // Verifico si ya existe un vehículo con esa placa que aún no ha salido
+            if (indiceOcupacion.contiene(placaNormalizada)) {
+                metricas.rechazo(Rechazo.DUPLICADO);
+                return ResponseEntity.badRequest().body(
+                        mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.exists", locale, placaNormalizada)
+                );
+            }
+
+            // Reservo el cupo antes de guardar; si el guardado falla, lo libero
+            if (!contadorOcupacion.reservar(codigoSede, clase.get())) {
+                metricas.rechazo(Rechazo.LLENO);
+                return ResponseEntity.badRequest().body(
+                        mensaje(Fase.MENSAJES_ENTRADA, "parking.full", locale, mensajes.nombre(clase.get(), locale))
+                );
+            }
+
+            // Asigno el puesto, si la sede los administra; si no hay uno libre, la clase está llena
+            LocalDateTime ahora = LocalDateTime.now();
+            AgendaReservas.Asignacion asignacion = null;
+            if (inventarioPuestos.administra(codigoSede, clase.get())) {
+                Optional<AgendaReservas.Asignacion> puesto =
+                        agendaReservas.asignar(placaNormalizada, codigoSede, clase.get(), ahora);
+                if (puesto.isEmpty()) {
+                    contadorOcupacion.liberar(codigoSede, clase.get());
+                    metricas.rechazo(Rechazo.LLENO);
+                    return ResponseEntity.badRequest().body(
+                            mensaje(Fase.MENSAJES_ENTRADA, "parking.full", locale, mensajes.nombre(clase.get(), locale))
+                    );
+                }
+                asignacion = puesto.get();
+            }
+
+            // Registro el nuevo vehículo con la hora actual
+            Vehiculo vehiculo;
+            try {
+                Vehiculo nuevo = new Vehiculo(placaNormalizada, clase.get(), ahora, codigoSede);
+                nuevo.setPuesto(asignacion == null ? null : asignacion.puesto());
+                vehiculo = metricas.medir(Fase.REPOSITORIO_ENTRADA, () -> persistenciaVehiculos.guardarEntrada(nuevo));
+            } catch (DataIntegrityViolationException e) {
+                deshacerEntrada(codigoSede, clase.get(), asignacion);
+                metricas.rechazo(Rechazo.DUPLICADO);
+                return ResponseEntity.badRequest().body(
+                        mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.exists", locale, placaNormalizada)
+                );
+            } catch (RuntimeException e) {
+                deshacerEntrada(codigoSede, clase.get(), asignacion);
+                throw e;
+            }
+            indiceOcupacion.registrarEntrada(vehiculo);
+            metricas.entrada();
+            if (vehiculo.getPuesto() != null) {
+                return ResponseEntity.ok(mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.registered.spot", locale,
+                        placaNormalizada, vehiculo.getPuesto()));
+            }
+            return ResponseEntity.ok(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.registered", locale, placaNormalizada)
+            );
+        });
+    }
+
+    /**
+     * Devuelvo el cupo y el puesto de una entrada que no se pudo guardar.
+     */
+    private void deshacerEntrada(String sede, TipoVehiculo tipo, AgendaReservas.Asignacion asignacion) {
+        contadorOcupacion.liberar(sede, tipo);
+        if (asignacion != null) {
+            agendaReservas.devolver(sede, tipo, asignacion);
+        }
     }
 
     /**
-     * Registro la salida de un vehículo.
-     * Busco el vehículo por su placa y verifico que no tenga una hora de salida registrada.
-     * Calculo el tiempo transcurrido y aplico una tarifa dependiendo del tipo de vehículo.
-     * Finalmente, actualizo el registro con la hora de salida y el costo total.
+     * Registro la salida de un vehículo de la sede principal.
      */
     @PutMapping("/salida/{placa}")
     public ResponseEntity<String> registrarSalida(@PathVariable String placa) {
-        Locale locale = LocaleContextHolder.getLocale();
+        return registrarSalidaEnSede(Sede.PRINCIPAL, placa);
+    }
 
-        Optional<Vehiculo> vehiculoOpt = vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull(placa);
-        if (vehiculoOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body(
-                    messageSource.getMessage("parking.vehicle.notfound", null, locale)
-            );
+    /**
+     * Registro la salida de un vehículo de una sede.
+     * Mientras tengo el candado de la placa, busco el vehículo en el índice de ocupación;
+     * si está dentro de otra sede, respondo como si no lo encontrara.
+     * Calculo el valor a cobrar con el motor de tarifas según el tipo de vehículo y el tiempo transcurrido.
+     * Finalmente, actualizo el registro con la hora de salida y el costo total, libero el cupo y el puesto
+     * y sumo la estadía a los resúmenes de su hora y de su día.
+     * Como dos salidas de la misma placa se turnan, la segunda ya no lo encuentra y no se cobra dos veces.
+     */
+    @PutMapping("/sedes/{sede}/salida/{placa}")
+    public ResponseEntity<String> registrarSalidaEnSede(@PathVariable String sede, @PathVariable String placa) {
+        Locale locale = LocaleContextHolder.getLocale();
+        String placaNormalizada = Placas.normalizar(placa);
+        Optional<Sede> origen = registroSedes.buscar(sede);
+        if (origen.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    mensaje(Fase.MENSAJES_SALIDA, "parking.lot.notfound", locale, sede));
         }
+        String codigoSede = origen.get().getCodigo();
 
-        Vehiculo vehiculo = vehiculoOpt.get();
-        LocalDateTime horaSalida = LocalDateTime.now();
-        vehiculo.setHoraSalida(horaSalida);
+        return controlAdmision.conPlaca(placaNormalizada, () -> {
+            Optional<Vehiculo> vehiculoOpt = indiceOcupacion.buscar(placaNormalizada)
+                    .filter(dentro -> dentro.getSede().equals(codigoSede));
+            if (vehiculoOpt.isEmpty()) {
+                metricas.rechazo(Rechazo.NO_ENCONTRADO);
+                return ResponseEntity.badRequest().body(mensaje(Fase.MENSAJES_SALIDA, "parking.vehicle.notfound", locale));
+            }
 
-        // Calculo el tiempo transcurrido en horas
-        long horas = Duration.between(vehiculo.getHoraEntrada(), horaSalida).toHours();
-        if (horas == 0) horas = 1; // Cobro mínimo de una hora
+            // Armo la salida sobre una copia: la instancia del índice la leen las búsquedas y la caché de búsquedas,
+            // así que sigue mostrando la sesión abierta hasta que la salida quede guardada
+            Vehiculo vehiculo = vehiculoOpt.get().copiar();
+            LocalDateTime horaSalida = LocalDateTime.now();
 
-        // Determino la tarifa según el tipo de vehículo
-        String carType = messageSource.getMessage("vehicle.car", null, locale);
-        double tarifa = vehiculo.getTipo().equalsIgnoreCase(carType) ? 2000 : 1000;
-        double costoTotal = horas * tarifa;
-        vehiculo.setCostoTotal(costoTotal);
+            // Calculo el cobro con las tarifas compiladas para la clase del vehículo
+            BigDecimal costoTotal = metricas.medir(Fase.TARIFA_SALIDA,
+                    () -> motorTarifas.calcular(vehiculo.getTipo(), vehiculo.getHoraEntrada(), horaSalida));
 
-        // Guardo los cambios en la base de datos
-        vehiculoRepositorio.save(vehiculo);
-        return ResponseEntity.ok(
-                messageSource.getMessage("parking.vehicle.exit", new Object[]{placa, costoTotal}, locale)
-        );
+            // Guardo los cambios en la base de datos y solo entonces retiro el vehículo del índice.
+            // Si el guardado falla, el índice nunca vio la salida
+            vehiculo.setHoraSalida(horaSalida);
+            vehiculo.setCostoTotal(costoTotal);
+            metricas.medir(Fase.REPOSITORIO_SALIDA, () -> persistenciaVehiculos.guardarSalida(vehiculo));
+            indiceOcupacion.registrarSalida(vehiculo);
+            contadorOcupacion.liberar(codigoSede, vehiculo.getTipo());
+            inventarioPuestos.liberar(vehiculo);
+            analiticaEstadias.registrarSalida(vehiculo);
+            metricas.salida();
+            return ResponseEntity.ok(
+                    mensaje(Fase.MENSAJES_SALIDA, "parking.vehicle.exit", locale, placaNormalizada, costoTotal)
+            );
+        });
     }
 
     /**
-     * Busco un vehículo por su placa y verifico si aún no ha salido.
+     * Registro un lote de eventos de una portería de la sede principal.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<List<ResultadoEventoPorteria>> registrarLote(@RequestBody List<EventoPorteria> eventos) {
+        return registrarLoteEnSede(Sede.PRINCIPAL, eventos);
+    }
+
+    /**
+     * Registro en una sola petición un lote ordenado de entradas y salidas de una portería de una sede,
+     * cada una con su propia hora,
+     * por ejemplo los eventos que la portería guardó mientras estuvo sin conexión.
+     * Respondo con el resultado de cada evento en el mismo orden. Un evento cuyo identificador ya procesé
+     * no se vuelve a aplicar: devuelvo su resultado original, así que reenviar un lote nunca cobra dos veces.
+     * Si otra instancia está procesando los mismos eventos, respondo 409 para que la portería reintente.
+     */
+    @PostMapping("/sedes/{sede}/lote")
+    public ResponseEntity<List<ResultadoEventoPorteria>> registrarLoteEnSede(@PathVariable String sede,
+                                                                             @RequestBody List<EventoPorteria> eventos) {
+        Optional<Sede> porteria = registroSedes.buscar(sede);
+        if (porteria.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (eventos.isEmpty() || eventos.size() > TAMANO_MAXIMO_LOTE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(lotePorteria.procesar(porteria.get().getCodigo(), eventos, LocaleContextHolder.getLocale()));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Busco un vehículo por su placa en el índice de ocupación para saber si aún no ha salido.
      * Si lo encuentro, devuelvo su información, de lo contrario, respondo con un error 404.
+     * La respuesta sale ya serializada de la caché de búsquedas, con su ETag; si el cliente envía
+     * `If-None-Match` con la misma versión, respondo 304 sin cuerpo.
      */
     @GetMapping("/buscar/{placa}")
-    public ResponseEntity<?> buscarVehiculo(@PathVariable String placa) {
-        Optional<Vehiculo> vehiculo = vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull(placa);
-        if (vehiculo.isPresent()) {
-            return ResponseEntity.ok(vehiculo.get());
-        } else {
+    public ResponseEntity<byte[]> buscarVehiculo(@PathVariable String placa,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String siNoCoincide) {
+        Optional<CacheBusqueda.Respuesta> respuesta = cacheBusqueda.buscar(placa);
+        if (respuesta.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        if (respuesta.get().coincide(siNoCoincide)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(respuesta.get().etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(respuesta.get().etag())
+                .body(respuesta.get().cuerpo());
+    }
+
+    /**
+     * Busco las placas que empiezan por la búsqueda o se le parecen (hasta 2 caracteres cambiados, agregados
+     * o quitados), entre los vehículos que están dentro y los que salieron hace poco, para que el operador
+     * encuentre una placa incompleta o mal leída por una cámara. Respondo 400 si la distancia o el límite
+     * están fuera de rango.
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<CoincidenciaPlaca>> buscarPlacas(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "2") int distancia,
+                                                                @RequestParam(defaultValue = "10") int limite) {
+        if (distancia < 0 || distancia > 2 || limite < 1 || limite > MAXIMO_COINCIDENCIAS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(buscadorPlacas.buscar(q, distancia, limite));
+    }
+
+    /**
+     * Traduzco un mensaje y registro el tiempo que tomó en la fase de mensajes de la operación.
+     */
+    private String mensaje(Fase fase, String clave, Locale locale, Object... argumentos) {
+        return metricas.medir(fase, () -> mensajes.texto(clave, locale, argumentos));
     }
 }
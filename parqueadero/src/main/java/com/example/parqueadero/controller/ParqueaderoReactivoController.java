@@ -0,0 +1,331 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.analitica.AnaliticaEstadias;
+import com.example.parqueadero.model.CoincidenciaPlaca;
+import com.example.parqueadero.model.EstadoSesion;
+import com.example.parqueadero.model.FiltroHistorial;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorioReactivo;
+import com.example.parqueadero.service.AgendaReservas;
+import com.example.parqueadero.service.AliasTiposVehiculo;
+import com.example.parqueadero.service.BuscadorPlacas;
+import com.example.parqueadero.service.CacheBusqueda;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.service.Mensajes;
+import com.example.parqueadero.service.MetricasParqueadero;
+import com.example.parqueadero.service.MetricasParqueadero.Fase;
+import com.example.parqueadero.service.MetricasParqueadero.Rechazo;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import com.example.parqueadero.util.Placas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Variante reactiva de `ParqueaderoController` para el perfil `reactivo`: las mismas entradas, salidas,
+ * búsquedas e historial sobre WebFlux y R2DBC. Comparto con la variante de servlets el modelo, los alias de tipos,
+ * el motor de tarifas, los mensajes y el estado en memoria (índice, cupos y caché de búsquedas).
+ * En lugar del candado por placa, las carreras entre peticiones de la misma placa las resuelve la base de datos:
+ * la restricción única de la placa activa rechaza la segunda entrada y la salida solo cierra una sesión abierta.
+ */
+@RestController
+@RequestMapping("/parqueadero")
+@Profile("reactivo")
+public class ParqueaderoReactivoController {
+
+    private static final int MAXIMO_COINCIDENCIAS = 50; // Resultados que acepto pedir en una búsqueda de placas
+
+    private final Mensajes mensajes;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+    private final IndiceOcupacion indiceOcupacion;
+    private final VehiculoRepositorioReactivo vehiculoRepositorio;
+    private final MotorTarifas motorTarifas;
+    private final ContadorOcupacion contadorOcupacion;
+    private final AnaliticaEstadias analiticaEstadias;
+    private final MetricasParqueadero metricas;
+    private final CacheBusqueda cacheBusqueda;
+    private final RegistroSedes registroSedes;
+    private final InventarioPuestos inventarioPuestos;
+    private final AgendaReservas agendaReservas;
+    private final BuscadorPlacas buscadorPlacas;
+
+    /**
+     * Inyecto los mismos componentes que la variante de servlets, salvo el control de admisión y la persistencia,
+     * que aquí reemplaza el repositorio reactivo.
+     */
+    @Autowired
+    public ParqueaderoReactivoController(Mensajes mensajes, AliasTiposVehiculo aliasTiposVehiculo,
+                                         IndiceOcupacion indiceOcupacion, VehiculoRepositorioReactivo vehiculoRepositorio,
+                                         MotorTarifas motorTarifas, ContadorOcupacion contadorOcupacion,
+                                         AnaliticaEstadias analiticaEstadias, MetricasParqueadero metricas,
+                                         CacheBusqueda cacheBusqueda, RegistroSedes registroSedes,
+                                         InventarioPuestos inventarioPuestos, AgendaReservas agendaReservas, BuscadorPlacas buscadorPlacas) {
+        this.mensajes = mensajes;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+        this.indiceOcupacion = indiceOcupacion;
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.motorTarifas = motorTarifas;
+        this.contadorOcupacion = contadorOcupacion;
+        this.analiticaEstadias = analiticaEstadias;
+        this.metricas = metricas;
+        this.cacheBusqueda = cacheBusqueda;
+        this.registroSedes = registroSedes;
+        this.inventarioPuestos = inventarioPuestos;
+        this.agendaReservas = agendaReservas;
+        this.buscadorPlacas = buscadorPlacas;
+    }
+
+    /**
+     * Transmito el historial filtrado como JSON delimitado por saltos de línea, ordenado por ID.
+     * Leo las filas de la base de datos al ritmo en que el cliente las recibe.
+     */
+    @GetMapping
+    public ResponseEntity<Flux<Vehiculo>> listarVehiculos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) EstadoSesion estado,
+            @RequestParam(required = false) String sede) {
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (tipo != null && clase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (sede != null && registroSedes.buscar(sede).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        FiltroHistorial filtro = new FiltroHistorial(desde, hasta, clase.orElse(null), estado, RegistroSedes.normalizar(sede));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(vehiculoRepositorio.recorrerHistorial(filtro));
+    }
+
+    /**
+     * Registro la entrada de un vehículo a la sede principal.
+     */
+    @PostMapping("/ingresar")
+    public Mono<ResponseEntity<String>> ingresarVehiculo(@RequestParam String placa, @RequestParam String tipo,
+                                                         ServerWebExchange intercambio) {
+        return ingresarVehiculoEnSede(Sede.PRINCIPAL, placa, tipo, intercambio);
+    }
+
+    /**
+     * Registro la entrada de un vehículo a una sede con las mismas validaciones que la variante de servlets:
+     * la sede existe, el tipo es válido, la placa no está dentro y la clase tiene cupos.
+     * Si otra petición guardó la misma placa antes, la base de datos rechaza el registro y libero el cupo y el puesto.
+     */
+    @PostMapping("/sedes/{sede}/ingresar")
+    public Mono<ResponseEntity<String>> ingresarVehiculoEnSede(@PathVariable String sede, @RequestParam String placa,
+                                                               @RequestParam String tipo, ServerWebExchange intercambio) {
+        Locale locale = locale(intercambio);
+        String placaNormalizada = Placas.normalizar(placa);
+        Optional<Sede> destino = registroSedes.buscar(sede);
+        if (destino.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.lot.notfound", locale, sede)));
+        }
+        String codigoSede = destino.get().getCodigo();
+
+        if (placaNormalizada.isEmpty()) {
+            metricas.rechazo(Rechazo.INVALIDO);
+            return Mono.just(ResponseEntity.badRequest().body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.plate.invalid", locale)));
+        }
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (clase.isEmpty()) {
+            metricas.rechazo(Rechazo.TIPO_INVALIDO);
+            return Mono.just(ResponseEntity.badRequest().body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.type.invalid", locale)));
+        }
+        if (indiceOcupacion.contiene(placaNormalizada)) {
+            metricas.rechazo(Rechazo.DUPLICADO);
+            return Mono.just(ResponseEntity.badRequest().body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.exists", locale, placaNormalizada)));
+        }
+        if (!contadorOcupacion.reservar(codigoSede, clase.get())) {
+            metricas.rechazo(Rechazo.LLENO);
+            return Mono.just(ResponseEntity.badRequest().body(
+                    mensaje(Fase.MENSAJES_ENTRADA, "parking.full", locale, mensajes.nombre(clase.get(), locale))));
+        }
+
+        // Asigno el puesto sin esperar: el inventario y la agenda viven en memoria
+        LocalDateTime ahora = LocalDateTime.now();
+        AgendaReservas.Asignacion asignacion = null;
+        if (inventarioPuestos.administra(codigoSede, clase.get())) {
+            Optional<AgendaReservas.Asignacion> puesto =
+                    agendaReservas.asignar(placaNormalizada, codigoSede, clase.get(), ahora);
+            if (puesto.isEmpty()) {
+                contadorOcupacion.liberar(codigoSede, clase.get());
+                metricas.rechazo(Rechazo.LLENO);
+                return Mono.just(ResponseEntity.badRequest().body(
+                        mensaje(Fase.MENSAJES_ENTRADA, "parking.full", locale, mensajes.nombre(clase.get(), locale))));
+            }
+            asignacion = puesto.get();
+        }
+        AgendaReservas.Asignacion asignada = asignacion;
+
+        Vehiculo nuevo = new Vehiculo(placaNormalizada, clase.get(), ahora, codigoSede);
+        nuevo.setPuesto(asignada == null ? null : asignada.puesto());
+        Mono<ResponseEntity<String>> entrada = metricas.medirAsincrono(Fase.REPOSITORIO_ENTRADA,
+                        vehiculoRepositorio.guardarEntrada(nuevo))
+                .doOnError(e -> {
+                    contadorOcupacion.liberar(codigoSede, clase.get());
+                    if (asignada != null) {
+                        agendaReservas.devolver(codigoSede, clase.get(), asignada);
+                    }
+                })
+                .map(vehiculo -> {
+                    indiceOcupacion.registrarEntrada(vehiculo);
+                    metricas.entrada();
+                    if (vehiculo.getPuesto() != null) {
+                        return ResponseEntity.ok(mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.registered.spot",
+                                locale, placaNormalizada, vehiculo.getPuesto()));
+                    }
+                    return ResponseEntity.ok(mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.registered", locale,
+                            placaNormalizada));
+                })
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    metricas.rechazo(Rechazo.DUPLICADO);
+                    return Mono.just(ResponseEntity.badRequest().body(
+                            mensaje(Fase.MENSAJES_ENTRADA, "parking.vehicle.exists", locale, placaNormalizada)));
+                });
+        return sinCancelar(entrada);
+    }
+
+    /**
+     * Registro la salida de un vehículo de la sede principal.
+     */
+    @PutMapping("/salida/{placa}")
+    public Mono<ResponseEntity<String>> registrarSalida(@PathVariable String placa, ServerWebExchange intercambio) {
+        return registrarSalidaEnSede(Sede.PRINCIPAL, placa, intercambio);
+    }
+
+    /**
+     * Registro la salida de un vehículo de una sede. Calculo el cobro con el motor de tarifas
+     * y cierro la sesión abierta de la placa en la base de datos; si otra salida la cerró antes,
+     * respondo como si no lo encontrara, así que nunca cobro dos veces.
+     */
+    @PutMapping("/sedes/{sede}/salida/{placa}")
+    public Mono<ResponseEntity<String>> registrarSalidaEnSede(@PathVariable String sede, @PathVariable String placa,
+                                                              ServerWebExchange intercambio) {
+        Locale locale = locale(intercambio);
+        String placaNormalizada = Placas.normalizar(placa);
+        Optional<Sede> origen = registroSedes.buscar(sede);
+        if (origen.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    mensaje(Fase.MENSAJES_SALIDA, "parking.lot.notfound", locale, sede)));
+        }
+        String codigoSede = origen.get().getCodigo();
+
+        Optional<Vehiculo> vehiculoOpt = indiceOcupacion.buscar(placaNormalizada)
+                .filter(dentro -> dentro.getSede().equals(codigoSede));
+        if (vehiculoOpt.isEmpty()) {
+            metricas.rechazo(Rechazo.NO_ENCONTRADO);
+            return Mono.just(noEncontrado(locale));
+        }
+        // Armo la salida sobre una copia, para que el índice y las búsquedas no la vean antes de guardarla
+        Vehiculo vehiculo = vehiculoOpt.get().copiar();
+        LocalDateTime horaSalida = LocalDateTime.now();
+        BigDecimal costoTotal = metricas.medir(Fase.TARIFA_SALIDA,
+                () -> motorTarifas.calcular(vehiculo.getTipo(), vehiculo.getHoraEntrada(), horaSalida));
+
+        Mono<ResponseEntity<String>> salida = metricas.medirAsincrono(Fase.REPOSITORIO_SALIDA,
+                        vehiculoRepositorio.guardarSalida(vehiculo.getPlaca(), horaSalida, costoTotal))
+                .map(cerrada -> {
+                    if (!cerrada) {
+                        metricas.rechazo(Rechazo.NO_ENCONTRADO);
+                        return noEncontrado(locale);
+                    }
+                    vehiculo.setHoraSalida(horaSalida);
+                    vehiculo.setCostoTotal(costoTotal);
+                    indiceOcupacion.registrarSalida(vehiculo);
+                    contadorOcupacion.liberar(codigoSede, vehiculo.getTipo());
+                    inventarioPuestos.liberar(vehiculo);
+                    analiticaEstadias.registrarSalida(vehiculo);
+                    metricas.salida();
+                    return ResponseEntity.ok(mensaje(Fase.MENSAJES_SALIDA, "parking.vehicle.exit", locale, placaNormalizada, costoTotal));
+                });
+        return sinCancelar(salida);
+    }
+
+    /**
+     * Busco un vehículo por su placa en la caché de búsquedas, igual que la variante de servlets:
+     * respondo 404 si no está dentro y 304 si el cliente ya tiene la versión vigente.
+     * No consulto la base de datos, así que respondo sin esperar.
+     */
+    @GetMapping("/buscar/{placa}")
+    public ResponseEntity<byte[]> buscarVehiculo(@PathVariable String placa,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String siNoCoincide) {
+        Optional<CacheBusqueda.Respuesta> respuesta = cacheBusqueda.buscar(placa);
+        if (respuesta.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (respuesta.get().coincide(siNoCoincide)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(respuesta.get().etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(respuesta.get().etag())
+                .body(respuesta.get().cuerpo());
+    }
+
+    /**
+     * Busco las placas que empiezan por la búsqueda o se le parecen (hasta 2 caracteres cambiados, agregados
+     * o quitados), entre los vehículos que están dentro y los que salieron hace poco, para que el operador
+     * encuentre una placa incompleta o mal leída por una cámara. Respondo 400 si la distancia o el límite
+     * están fuera de rango.
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<CoincidenciaPlaca>> buscarPlacas(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "2") int distancia,
+                                                                @RequestParam(defaultValue = "10") int limite) {
+        if (distancia < 0 || distancia > 2 || limite < 1 || limite > MAXIMO_COINCIDENCIAS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(buscadorPlacas.buscar(q, distancia, limite));
+    }
+
+    /**
+     * Termino una entrada o salida aunque el cliente se desconecte a mitad de camino:
+     * una vez reservado el cupo, la base de datos, el índice y los contadores deben quedar de acuerdo.
+     */
+    private static <T> Mono<T> sinCancelar(Mono<T> operacion) {
+        return Mono.fromFuture(operacion.toFuture(), true);
+    }
+
+    private ResponseEntity<String> noEncontrado(Locale locale) {
+        return ResponseEntity.badRequest().body(mensaje(Fase.MENSAJES_SALIDA, "parking.vehicle.notfound", locale));
+    }
+
+    private static Locale locale(ServerWebExchange intercambio) {
+        Locale locale = intercambio.getLocaleContext().getLocale();
+        return locale != null ? locale : Locale.getDefault();
+    }
+
+    /**
+     * Traduzco un mensaje y registro el tiempo que tomó en la fase de mensajes de la operación.
+     */
+    private String mensaje(Fase fase, String clave, Locale locale, Object... argumentos) {
+        return metricas.medir(fase, () -> mensajes.texto(clave, locale, argumentos));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.analitica.AnaliticaEstadias;
+import com.example.parqueadero.analitica.ReconstruccionResumenes;
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.ReporteEstadia;
+import com.example.parqueadero.model.ResultadoReconstruccion;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.service.AliasTiposVehiculo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/parqueadero/reportes")
+public class ReporteController {
+
+    private final AnaliticaEstadias analiticaEstadias;
+    private final ReconstruccionResumenes reconstruccionResumenes;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+
+    /**
+     * Inyecto los resúmenes de estadías, el proceso que los reconstruye desde el historial
+     * y los alias para interpretar el tipo de vehículo.
+     */
+    @Autowired
+    public ReporteController(AnaliticaEstadias analiticaEstadias, ReconstruccionResumenes reconstruccionResumenes,
+                             AliasTiposVehiculo aliasTiposVehiculo) {
+        this.analiticaEstadias = analiticaEstadias;
+        this.reconstruccionResumenes = reconstruccionResumenes;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+    }
+
+    /**
+     * Devuelvo las salidas, los ingresos y la duración de las estadías por hora o por día dentro de un rango,
+     * una entrada por cubeta y clase de vehículo.
+     */
+    @GetMapping("/estadias")
+    public ResponseEntity<List<ReporteEstadia>> consultarEstadias(
+            @RequestParam(defaultValue = "HORA") Granularidad granularidad,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String tipo) {
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (tipo != null && clase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analiticaEstadias.consultar(granularidad, desde, hasta, clase.orElse(null)));
+    }
+
+    /**
+     * Devuelvo los totales de un rango por clase de vehículo.
+     */
+    @GetMapping("/estadias/total")
+    public ResponseEntity<List<ReporteEstadia>> totalizarEstadias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String tipo) {
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (tipo != null && clase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analiticaEstadias.totalizar(desde, hasta, clase.orElse(null)));
+    }
+
+    /**
+     * Reconstruyo los resúmenes de los días `[desde, hasta)` a partir del historial de vehículos.
+     * Si el rango está vacío o incluye días futuros, respondo con un error 400.
+     */
+    @PostMapping("/estadias/reconstruir")
+    public ResponseEntity<?> reconstruirEstadias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            ResultadoReconstruccion resultado = reconstruccionResumenes.reconstruir(desde, hasta);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.model.Reserva;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.service.AgendaReservas;
+import com.example.parqueadero.service.AliasTiposVehiculo;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.util.Placas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/parqueadero/reservas")
+public class ReservaController {
+
+    private final AgendaReservas agendaReservas;
+    private final InventarioPuestos inventarioPuestos;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+    private final RegistroSedes registroSedes;
+
+    /**
+     * Inyecto la agenda de reservas, el inventario de puestos, los alias de tipos de vehículo y el registro de sedes.
+     */
+    @Autowired
+    public ReservaController(AgendaReservas agendaReservas, InventarioPuestos inventarioPuestos,
+                             AliasTiposVehiculo aliasTiposVehiculo, RegistroSedes registroSedes) {
+        this.agendaReservas = agendaReservas;
+        this.inventarioPuestos = inventarioPuestos;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+        this.registroSedes = registroSedes;
+    }
+
+    /**
+     * Reservo un puesto para una placa durante `[desde, hasta)`. Al entrar dentro de la ventana,
+     * el vehículo recibe el puesto reservado. Respondo 404 si la sede no existe, 400 si el tipo o la ventana
+     * no son válidos o la sede no administra los puestos de la clase, y 409 si no queda un puesto libre
+     * en toda la ventana.
+     */
+    @PostMapping
+    public ResponseEntity<?> reservar(@RequestParam String placa, @RequestParam String tipo,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                      @RequestParam(defaultValue = Sede.PRINCIPAL) String sede) {
+        Optional<Sede> destino = registroSedes.buscar(sede);
+        if (destino.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (clase.isEmpty() || !inventarioPuestos.administra(destino.get().getCodigo(), clase.get())
+                || !hasta.isAfter(LocalDateTime.now())) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Optional<Reserva> reserva = agendaReservas.reservar(Placas.normalizar(placa), destino.get().getCodigo(),
+                    clase.get(), desde, hasta);
+            if (reserva.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(reserva.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cuento los puestos de una clase que siguen libres para reservar durante toda la ventana.
+     */
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<Integer> consultarDisponibilidad(
+            @RequestParam String tipo,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = Sede.PRINCIPAL) String sede) {
+        Optional<Sede> destino = registroSedes.buscar(sede);
+        if (destino.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(tipo);
+        if (clase.isEmpty() || !desde.isBefore(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(agendaReservas.disponibles(destino.get().getCodigo(), clase.get(), desde, hasta));
+    }
+
+    /**
+     * Devuelvo una reserva pendiente, o 404 si no existe o ya se usó, venció o se canceló.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Reserva> buscarReserva(@PathVariable String id) {
+        return ResponseEntity.of(agendaReservas.buscar(id));
+    }
+
+    /**
+     * Cancelo una reserva pendiente y libero su puesto.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelarReserva(@PathVariable String id) {
+        return agendaReservas.cancelar(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
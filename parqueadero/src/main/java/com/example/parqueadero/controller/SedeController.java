@@ -0,0 +1,140 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.analitica.ReporteSedes;
+import com.example.parqueadero.model.OcupacionClase;
+import com.example.parqueadero.model.OcupacionZona;
+import com.example.parqueadero.model.ReporteSede;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.service.TransmisorOcupacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/parqueadero/sedes")
+public class SedeController {
+
+    private final RegistroSedes registroSedes;
+    private final ContadorOcupacion contadorOcupacion;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ReporteSedes reporteSedes;
+    private final InventarioPuestos inventarioPuestos;
+    private final TransmisorOcupacion transmisorOcupacion;
+
+    /**
+     * Inyecto el registro de sedes, los contadores de ocupación de cada sede,
+     * el índice de los vehículos que están dentro, el reporte de todas las sedes, el inventario de puestos
+     * y el transmisor que envía la ocupación de cada sede a sus pantallas.
+     */
+    @Autowired
+    public SedeController(RegistroSedes registroSedes, ContadorOcupacion contadorOcupacion,
+                          IndiceOcupacion indiceOcupacion, ReporteSedes reporteSedes,
+                          InventarioPuestos inventarioPuestos, TransmisorOcupacion transmisorOcupacion) {
+        this.registroSedes = registroSedes;
+        this.contadorOcupacion = contadorOcupacion;
+        this.indiceOcupacion = indiceOcupacion;
+        this.reporteSedes = reporteSedes;
+        this.inventarioPuestos = inventarioPuestos;
+        this.transmisorOcupacion = transmisorOcupacion;
+    }
+
+    /**
+     * Devuelvo todas las sedes registradas, ordenadas por código.
+     */
+    @GetMapping
+    public List<Sede> listarSedes() {
+        return registroSedes.todas();
+    }
+
+    /**
+     * Registro una sede nueva. Si ya existe una con el mismo código, respondo 409;
+     * si el código no es válido, respondo 400.
+     */
+    @PostMapping
+    public ResponseEntity<?> crearSede(@RequestParam String codigo, @RequestParam String nombre) {
+        try {
+            Optional<Sede> sede = registroSedes.crear(codigo, nombre);
+            if (sede.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(sede.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Devuelvo la ocupación y los cupos libres de cada clase de vehículo en una sede.
+     */
+    @GetMapping("/{sede}/ocupacion")
+    public ResponseEntity<List<OcupacionClase>> consultarOcupacion(@PathVariable String sede) {
+        return registroSedes.buscar(sede)
+                .map(encontrada -> ResponseEntity.ok(contadorOcupacion.resumen(encontrada.getCodigo())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Abro una suscripción de Server-Sent Events que recibe un evento `ocupacion` con el resumen de una sede
+     * cada vez que cambia.
+     */
+    @GetMapping(value = "/{sede}/ocupacion/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirOcupacion(@PathVariable String sede) {
+        return registroSedes.buscar(sede)
+                .map(encontrada -> ResponseEntity.ok(transmisorOcupacion.suscribir(encontrada.getCodigo())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Devuelvo los puestos y los puestos libres de cada zona de una sede; vacío si la sede no administra puestos.
+     */
+    @GetMapping("/{sede}/puestos")
+    public ResponseEntity<List<OcupacionZona>> consultarPuestos(@PathVariable String sede) {
+        return registroSedes.buscar(sede)
+                .map(encontrada -> ResponseEntity.ok(inventarioPuestos.resumen(encontrada.getCodigo())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Devuelvo los vehículos que están dentro de una sede, leídos del índice en memoria.
+     */
+    @GetMapping("/{sede}/vehiculos")
+    public ResponseEntity<Collection<Vehiculo>> listarVehiculosDentro(@PathVariable String sede) {
+        return registroSedes.buscar(sede)
+                .map(encontrada -> ResponseEntity.ok((Collection<Vehiculo>) new ArrayList<>(
+                        indiceOcupacion.activos(encontrada.getCodigo()))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Devuelvo, para cada sede, la ocupación actual y las salidas e ingresos con hora de salida en `[desde, hasta)`.
+     */
+    @GetMapping("/reporte")
+    public ResponseEntity<List<ReporteSede>> reportarSedes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(reporteSedes.reportar(desde, hasta));
+    }
+}
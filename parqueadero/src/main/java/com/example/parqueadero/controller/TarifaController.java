@@ -0,0 +1,40 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.config.TarifaProperties;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/parqueadero/tarifas")
+public class TarifaController {
+
+    private final MotorTarifas motorTarifas;
+
+    /**
+     * Inyecto el motor de tarifas que compila y aplica las reglas de cobro.
+     */
+    @Autowired
+    public TarifaController(MotorTarifas motorTarifas) {
+        this.motorTarifas = motorTarifas;
+    }
+
+    /**
+     * Recargo las reglas de tarifas sin reiniciar la aplicación.
+     * Las reglas se compilan antes de reemplazar las actuales; si no son válidas, respondo con un error 400
+     * y sigo cobrando con las anteriores.
+     */
+    @PutMapping
+    public ResponseEntity<String> recargarTarifas(@RequestBody TarifaProperties reglas) {
+        try {
+            motorTarifas.recargar(reglas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.parqueadero.controller;
+
+import com.example.parqueadero.security.TokensAcceso;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/parqueadero/token")
+@ConditionalOnProperty(prefix = "parqueadero.seguridad", name = "modo", havingValue = "token")
+public class TokenController {
+
+    private final TokensAcceso tokensAcceso;
+
+    /**
+     * Inyecto el emisor de tokens de acceso.
+     */
+    @Autowired
+    public TokenController(TokensAcceso tokensAcceso) {
+        this.tokensAcceso = tokensAcceso;
+    }
+
+    /**
+     * Emito un token de corta vigencia para el usuario que se autenticó con HTTP Basic.
+     * Es la única petición que paga la verificación BCrypt de la contraseña; las siguientes presentan
+     * el token en la cabecera `Authorization: Bearer ...`. Funciona con servlets y con el perfil reactivo.
+     * @param autenticacion Usuario autenticado por la cadena de seguridad.
+     * @return El token, su tipo y su vigencia en segundos.
+     */
+    @PostMapping
+    public ResponseEntity<TokensAcceso.TokenEmitido> emitirToken(Authentication autenticacion) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokensAcceso.emitir(autenticacion));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.parqueadero.model;
+
+/**
+ * Enumero las acciones que una portería puede reportar en un lote de eventos.
+ */
+public enum AccionPorteria {
+    ENTRADA, // El vehículo entró al parqueadero
+    SALIDA   // El vehículo salió y se le cobra
+}
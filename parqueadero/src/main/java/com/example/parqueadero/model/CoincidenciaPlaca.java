@@ -0,0 +1,14 @@
+package com.example.parqueadero.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represento una placa que se parece a la que busca el operador.
+ * @param placa Placa normalizada.
+ * @param distancia Ediciones (cambiar, agregar o quitar un carácter) que la separan de la búsqueda;
+ *                  0 si la búsqueda es la placa o un prefijo de ella.
+ * @param sede Sede donde está el vehículo, o `null` si ya salió.
+ * @param ultimaSalida Hora de su salida más reciente, o `null` si está dentro.
+ */
+public record CoincidenciaPlaca(String placa, int distancia, String sede, LocalDateTime ultimaSalida) {
+}
@@ -0,0 +1,15 @@
+package com.example.parqueadero.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represento los datos de una estadía cerrada que necesito para los resúmenes,
+ * sin cargar la entidad `Vehiculo` completa.
+ * @param tipo Clase del vehículo.
+ * @param horaEntrada Hora de entrada.
+ * @param horaSalida Hora de salida.
+ * @param costoTotal Valor cobrado.
+ */
+public record Estadia(TipoVehiculo tipo, LocalDateTime horaEntrada, LocalDateTime horaSalida, BigDecimal costoTotal) {
+}
@@ -0,0 +1,16 @@
+package com.example.parqueadero.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sesión abierta que superó el umbral de estadía, probablemente una salida que nadie registró.
+ * @param placa Placa normalizada del vehículo.
+ * @param sede Sede donde está el vehículo.
+ * @param tipo Clase de vehículo.
+ * @param puesto Puesto que ocupa, o `null` si la sede no administra puestos de la clase.
+ * @param horaEntrada Hora de entrada registrada.
+ * @param detectada Hora en la que la detecté.
+ */
+public record EstadiaLarga(String placa, String sede, TipoVehiculo tipo, String puesto,
+                           LocalDateTime horaEntrada, LocalDateTime detectada) {
+}
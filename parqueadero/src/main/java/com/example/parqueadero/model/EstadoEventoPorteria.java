@@ -0,0 +1,14 @@
+package com.example.parqueadero.model;
+
+/**
+ * Enumero los resultados posibles de un evento de portería procesado en lote.
+ */
+public enum EstadoEventoPorteria {
+    ACEPTADO,      // La entrada o salida quedó registrada
+    INVALIDO,      // Al evento le falta la acción, la placa (o no tiene letras ni números) o la hora
+    TIPO_INVALIDO, // El tipo de vehículo no corresponde a ninguna clase conocida
+    DUPLICADO,     // Ya hay una sesión abierta con la placa
+    LLENO,         // La clase del vehículo no tiene cupos libres
+    NO_ENCONTRADO, // La salida es de una placa que no está dentro
+    HORA_INVALIDA  // La salida es anterior a la entrada del vehículo
+}
@@ -0,0 +1,11 @@
+package com.example.parqueadero.model;
+
+/**
+ * Enumero los estados de una reserva de puesto.
+ */
+public enum EstadoReserva {
+    PENDIENTE, // El vehículo todavía no llega; el puesto queda apartado desde poco antes del inicio
+    USADA,     // El vehículo entró y recibió el puesto reservado
+    VENCIDA,   // El vehículo no llegó dentro de la tolerancia; el puesto volvió a quedar libre
+    CANCELADA  // La reserva se canceló antes de usarla
+}
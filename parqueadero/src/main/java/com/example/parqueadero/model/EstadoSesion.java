@@ -0,0 +1,9 @@
+package com.example.parqueadero.model;
+
+/**
+ * Enumero los estados de una estadía en el parqueadero, para filtrar el historial.
+ */
+public enum EstadoSesion {
+    ABIERTO, // El vehículo sigue dentro (sin hora de salida)
+    CERRADO  // El vehículo ya salió y se le cobró
+}
@@ -0,0 +1,21 @@
+package com.example.parqueadero.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represento una entrada o salida que una portería reporta dentro de un lote, por ejemplo
+ * al reenviar los eventos que guardó mientras estuvo sin conexión.
+ * @param idEvento Identificador que asigna la portería; si el lote se reenvía, el evento no se aplica dos veces.
+ * @param accion Entrada o salida.
+ * @param placa Placa del vehículo.
+ * @param tipo Tipo de vehículo en cualquier idioma soportado; solo lo uso en las entradas.
+ * @param instante Hora en que ocurrió el evento en la portería.
+ */
+public record EventoPorteria(String idEvento,
+                             AccionPorteria accion,
+                             String placa,
+                             String tipo,
+                             @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime instante) {
+}
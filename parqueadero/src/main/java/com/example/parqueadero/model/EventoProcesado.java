@@ -0,0 +1,113 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Guardo el resultado de cada evento de portería procesado en lote, con el identificador que le dio la portería.
+ * Se guarda en la misma transacción que las entradas y salidas del lote, así que si un lote se reenvía
+ * encuentro aquí sus eventos y devuelvo el mismo resultado sin volver a cobrar.
+ */
+@Entity
+@Table(name = "evento_procesado")
+public class EventoProcesado {
+
+    @Id
+    @Column(length = 100)
+    private String idEvento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private AccionPorteria accion;
+
+    @Column(length = 50)
+    private String sede; // Sede de la portería; los eventos anteriores a las sedes no la tienen
+
+    private String placa;
+
+    @Convert(converter = TipoVehiculoConverter.class)
+    @Column(name = "tipo_codigo")
+    private TipoVehiculo tipo; // Clase del vehículo, si la conozco; la necesito para repetir el mensaje de cupo lleno
+
+    private LocalDateTime instante; // Según el reloj de la portería
+
+    private LocalDateTime procesadoEn; // Según el reloj del servidor; la purga nocturna mide la retención con esta
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private EstadoEventoPorteria estado;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal costoTotal;
+
+    /**
+     * Constructor vacío requerido por JPA.
+     */
+    protected EventoProcesado() {}
+
+    /**
+     * Registro el resultado de un evento.
+     * @param evento Evento recibido de la portería.
+     * @param sede Código de la sede de la portería.
+     * @param placa Placa normalizada.
+     * @param tipo Clase del vehículo, o `null` si no la conozco.
+     * @param estado Resultado del evento.
+     * @param costoTotal Valor cobrado, o `null` si no es una salida aceptada.
+     */
+    public EventoProcesado(EventoPorteria evento, String sede, String placa, TipoVehiculo tipo,
+                           EstadoEventoPorteria estado, BigDecimal costoTotal) {
+        this.idEvento = evento.idEvento();
+        this.accion = evento.accion();
+        this.sede = sede;
+        this.placa = placa;
+        this.tipo = tipo;
+        this.instante = evento.instante();
+        this.procesadoEn = LocalDateTime.now();
+        this.estado = estado;
+        this.costoTotal = costoTotal;
+    }
+
+    public String getIdEvento() {
+        return idEvento;
+    }
+
+    public AccionPorteria getAccion() {
+        return accion;
+    }
+
+    public String getSede() {
+        return sede;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public TipoVehiculo getTipo() {
+        return tipo;
+    }
+
+    public LocalDateTime getInstante() {
+        return instante;
+    }
+
+    public LocalDateTime getProcesadoEn() {
+        return procesadoEn;
+    }
+
+    public EstadoEventoPorteria getEstado() {
+        return estado;
+    }
+
+    public BigDecimal getCostoTotal() {
+        return costoTotal;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.parqueadero.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agrupo los filtros opcionales que acepto al consultar o exportar el historial de vehículos.
+ * Cualquier filtro en `null` se ignora.
+ * @param desde Hora de entrada mínima (inclusive).
+ * @param hasta Hora de entrada máxima (exclusive).
+ * @param tipo Tipo de vehículo.
+ * @param estado Estado de la estadía (abierta o cerrada).
+ * @param sede Código de la sede.
+ */
+public record FiltroHistorial(LocalDateTime desde, LocalDateTime hasta, TipoVehiculo tipo, EstadoSesion estado,
+                              String sede) {
+
+    /**
+     * Traduzco el estado a un booleano para la consulta: `true` si busco estadías abiertas,
+     * `false` si busco cerradas y `null` si no filtro por estado.
+     */
+    public Boolean abiertos() {
+        return estado == null ? null : estado == EstadoSesion.ABIERTO;
+    }
+}
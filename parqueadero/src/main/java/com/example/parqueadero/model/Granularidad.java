@@ -0,0 +1,36 @@
+package com.example.parqueadero.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enumero los tamaños de cubeta de los resúmenes de estadías.
+ */
+public enum Granularidad {
+    HORA(ChronoUnit.HOURS), // Una cubeta por hora
+    DIA(ChronoUnit.DAYS);   // Una cubeta por día
+
+    private final ChronoUnit unidad;
+
+    Granularidad(ChronoUnit unidad) {
+        this.unidad = unidad;
+    }
+
+    /**
+     * Obtengo el inicio de la cubeta a la que pertenece un instante.
+     * @param instante Instante cualquiera.
+     * @return El instante truncado a la hora o al día.
+     */
+    public LocalDateTime truncar(LocalDateTime instante) {
+        return instante.truncatedTo(unidad);
+    }
+
+    /**
+     * Obtengo el inicio de la cubeta siguiente.
+     * @param inicio Inicio de una cubeta.
+     * @return El inicio de la cubeta que sigue.
+     */
+    public LocalDateTime siguiente(LocalDateTime inicio) {
+        return inicio.plus(1, unidad);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.parqueadero.model;
+
+import java.util.Arrays;
+
+/**
+ * Cuento las estadías por rangos de duración para estimar percentiles sin guardar cada duración.
+ * Los rangos son fijos y crecen con la duración (5 minutos al principio, días al final),
+ * así que dos histogramas se combinan sumando sus conteos: un reporte de un mes
+ * suma los histogramas diarios en lugar de recorrer las estadías.
+ */
+public final class HistogramaEstadia {
+
+    // Límite superior (exclusivo) de cada rango, en minutos; el último rango no tiene límite
+    private static final int[] LIMITES = {5, 10, 15, 20, 30, 45, 60, 90, 120, 180, 240, 300, 360, 480, 600, 720,
+            960, 1440, 2160, 2880, 4320, 10080};
+
+    private final long[] conteos;
+
+    /**
+     * Creo un histograma vacío.
+     */
+    public HistogramaEstadia() {
+        this.conteos = new long[LIMITES.length + 1];
+    }
+
+    private HistogramaEstadia(long[] conteos) {
+        this.conteos = conteos;
+    }
+
+    /**
+     * Cuento una estadía.
+     * @param minutos Duración de la estadía en minutos.
+     */
+    public void registrar(long minutos) {
+        int posicion = Arrays.binarySearch(LIMITES, (int) Math.min(Math.max(minutos, 0), Integer.MAX_VALUE));
+        conteos[posicion >= 0 ? posicion + 1 : -posicion - 1]++;
+    }
+
+    /**
+     * Sumo a este histograma los conteos de otro.
+     * @param otro Histograma con los mismos rangos.
+     */
+    public void sumar(HistogramaEstadia otro) {
+        for (int i = 0; i < conteos.length; i++) {
+            conteos[i] += otro.conteos[i];
+        }
+    }
+
+    /**
+     * Creo una copia independiente de este histograma.
+     */
+    public HistogramaEstadia copiar() {
+        return new HistogramaEstadia(conteos.clone());
+    }
+
+    /**
+     * Obtengo la cantidad de estadías contadas.
+     */
+    public long total() {
+        long total = 0;
+        for (long conteo : conteos) {
+            total += conteo;
+        }
+        return total;
+    }
+
+    /**
+     * Estimo un percentil de la duración interpolando dentro del rango donde cae.
+     * En el último rango, que no tiene límite, devuelvo su límite inferior.
+     * @param percentil Valor entre 0 y 1, por ejemplo 0.95.
+     * @return La duración estimada en minutos, o 0 si el histograma está vacío.
+     */
+    public double percentil(double percentil) {
+        long total = total();
+        if (total == 0) {
+            return 0;
+        }
+        double objetivo = percentil * total;
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            if (conteos[i] > 0 && acumulado + conteos[i] >= objetivo) {
+                int inferior = i == 0 ? 0 : LIMITES[i - 1];
+                if (i == LIMITES.length) {
+                    return inferior;
+                }
+                double fraccion = (objetivo - acumulado) / conteos[i];
+                return inferior + fraccion * (LIMITES[i] - inferior);
+            }
+            acumulado += conteos[i];
+        }
+        return LIMITES[LIMITES.length - 1];
+    }
+
+    /**
+     * Escribo los conteos separados por comas, para guardarlos en una columna de texto.
+     */
+    public String serializar() {
+        StringBuilder texto = new StringBuilder(conteos.length * 3);
+        for (int i = 0; i < conteos.length; i++) {
+            if (i > 0) {
+                texto.append(',');
+            }
+            texto.append(conteos[i]);
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Leo un histograma escrito con `serializar`. Si tiene menos rangos (por ejemplo, de una versión anterior),
+     * completo con ceros.
+     * @param texto Conteos separados por comas.
+     * @return El histograma.
+     */
+    public static HistogramaEstadia leer(String texto) {
+        HistogramaEstadia histograma = new HistogramaEstadia();
+        if (texto == null || texto.isEmpty()) {
+            return histograma;
+        }
+        String[] partes = texto.split(",");
+        for (int i = 0; i < Math.min(partes.length, histograma.conteos.length); i++) {
+            histograma.conteos[i] = Long.parseLong(partes[i]);
+        }
+        return histograma;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierto el histograma de duraciones a texto para guardarlo en una sola columna del resumen.
+ */
+@Converter
+public class HistogramaEstadiaConverter implements AttributeConverter<HistogramaEstadia, String> {
+
+    @Override
+    public String convertToDatabaseColumn(HistogramaEstadia histograma) {
+        return histograma == null ? null : histograma.serializar();
+    }
+
+    @Override
+    public HistogramaEstadia convertToEntityAttribute(String texto) {
+        return HistogramaEstadia.leer(texto);
+    }
+}
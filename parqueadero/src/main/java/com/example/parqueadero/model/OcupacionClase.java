@@ -0,0 +1,11 @@
+package com.example.parqueadero.model;
+
+/**
+ * Represento la ocupación actual de una clase de vehículo.
+ * @param tipo Clase de vehículo.
+ * @param ocupados Vehículos de esta clase que están dentro del parqueadero.
+ * @param capacidad Cupos configurados, o `null` si la clase no tiene límite.
+ * @param disponibles Cupos libres, o `null` si la clase no tiene límite.
+ */
+public record OcupacionClase(TipoVehiculo tipo, long ocupados, Long capacidad, Long disponibles) {
+}
@@ -0,0 +1,11 @@
+package com.example.parqueadero.model;
+
+/**
+ * Represento los puestos de una zona de una sede.
+ * @param tipo Clase de vehículo de la zona.
+ * @param zona Código de la zona.
+ * @param puestos Puestos de la zona.
+ * @param libres Puestos sin vehículo ni reserva apartada.
+ */
+public record OcupacionZona(TipoVehiculo tipo, String zona, int puestos, int libres) {
+}
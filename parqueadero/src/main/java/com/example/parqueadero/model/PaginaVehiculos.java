@@ -0,0 +1,12 @@
+package com.example.parqueadero.model;
+
+import java.util.List;
+
+/**
+ * Represento una página del historial de vehículos paginado por cursor (keyset).
+ * @param vehiculos Vehículos de la página, ordenados por ID.
+ * @param siguiente ID que debo enviar como `despuesDe` para pedir la siguiente página,
+ *                  o `null` si no hay más resultados.
+ */
+public record PaginaVehiculos(List<Vehiculo> vehiculos, Long siguiente) {
+}
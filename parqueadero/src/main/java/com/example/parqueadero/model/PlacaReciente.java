@@ -0,0 +1,11 @@
+package com.example.parqueadero.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represento la última salida de una placa, para cargar el índice de búsqueda sin cargar las estadías completas.
+ * @param placa Placa del vehículo.
+ * @param ultimaSalida Hora de su salida más reciente.
+ */
+public record PlacaReciente(String placa, LocalDateTime ultimaSalida) {
+}
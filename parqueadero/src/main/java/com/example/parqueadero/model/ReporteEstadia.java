@@ -0,0 +1,22 @@
+package com.example.parqueadero.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represento las cifras de una cubeta (o de un rango de cubetas) para una clase de vehículo.
+ * @param inicio Inicio de la cubeta o del rango.
+ * @param tipo Clase de vehículo.
+ * @param salidas Cantidad de estadías que terminaron en la cubeta.
+ * @param ingresos Total cobrado.
+ * @param promedioMinutos Duración promedio de las estadías, en minutos.
+ * @param percentil50 Mediana estimada de la duración, en minutos.
+ * @param percentil90 Percentil 90 estimado de la duración, en minutos.
+ * @param percentil95 Percentil 95 estimado de la duración, en minutos.
+ */
+public record ReporteEstadia(@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime inicio,
+                             TipoVehiculo tipo, long salidas, BigDecimal ingresos, double promedioMinutos,
+                             double percentil50, double percentil90, double percentil95) {
+}
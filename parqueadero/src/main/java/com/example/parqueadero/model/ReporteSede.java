@@ -0,0 +1,16 @@
+package com.example.parqueadero.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Represento la ocupación actual y las salidas de un rango de una sede, para el reporte de todas las sedes.
+ * @param sede Código de la sede.
+ * @param nombre Nombre de la sede.
+ * @param ocupacion Ocupación y cupos libres de cada clase de vehículo.
+ * @param salidas Estadías cerradas en el rango.
+ * @param ingresos Suma de lo cobrado en el rango.
+ */
+public record ReporteSede(String sede, String nombre, List<OcupacionClase> ocupacion, long salidas,
+                          BigDecimal ingresos) {
+}
@@ -0,0 +1,132 @@
+package com.example.parqueadero.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represento la reserva de un puesto para una placa durante una ventana de tiempo.
+ * Las reservas pendientes viven en memoria en `AgendaReservas`; esta tabla solo las conserva entre reinicios
+ * y guarda cómo terminó cada una.
+ */
+@Entity
+@Table(name = "reserva", indexes = @Index(name = "idx_reserva_estado_hasta", columnList = "estado, hasta"))
+public class Reserva {
+
+    @Id
+    @Column(length = 36)
+    private String id; // UUID que asigno al crear la reserva
+
+    @Column(nullable = false)
+    private String placa; // Placa normalizada
+
+    @Column(length = 50, nullable = false)
+    private String sede;
+
+    @Convert(converter = TipoVehiculoConverter.class)
+    @Column(name = "tipo_codigo", nullable = false)
+    private TipoVehiculo tipo;
+
+    @Column(length = 20, nullable = false)
+    private String puesto; // Puede cambiar si, al apartarlo, el puesto reservado sigue ocupado
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(nullable = false)
+    private LocalDateTime desde;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(nullable = false)
+    private LocalDateTime hasta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private EstadoReserva estado = EstadoReserva.PENDIENTE;
+
+    @Transient
+    @JsonIgnore
+    private boolean apartada; // Ya tomé el puesto en el inventario; no se guarda, se recalcula al arrancar
+
+    /**
+     * Constructor vacío requerido por JPA.
+     */
+    protected Reserva() {}
+
+    /**
+     * Creo una reserva pendiente.
+     * @param id Identificador de la reserva.
+     * @param placa Placa normalizada.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param puesto Código del puesto reservado.
+     * @param desde Inicio de la ventana.
+     * @param hasta Fin de la ventana (excluido).
+     */
+    public Reserva(String id, String placa, String sede, TipoVehiculo tipo, String puesto,
+                   LocalDateTime desde, LocalDateTime hasta) {
+        this.id = id;
+        this.placa = placa;
+        this.sede = sede;
+        this.tipo = tipo;
+        this.puesto = puesto;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public String getSede() {
+        return sede;
+    }
+
+    public TipoVehiculo getTipo() {
+        return tipo;
+    }
+
+    public String getPuesto() {
+        return puesto;
+    }
+
+    public void setPuesto(String puesto) {
+        this.puesto = puesto;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public EstadoReserva getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoReserva estado) {
+        this.estado = estado;
+    }
+
+    public boolean isApartada() {
+        return apartada;
+    }
+
+    public void setApartada(boolean apartada) {
+        this.apartada = apartada;
+    }
+}
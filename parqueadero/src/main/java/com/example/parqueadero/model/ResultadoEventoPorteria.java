@@ -0,0 +1,15 @@
+package com.example.parqueadero.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Represento el resultado de un evento de portería procesado en lote.
+ * @param idEvento Identificador del evento que envió la portería.
+ * @param estado Resultado del evento.
+ * @param mensaje Mensaje traducido para mostrar en la portería.
+ * @param costoTotal Valor cobrado en las salidas aceptadas, o `null`.
+ * @param repetido Si es verdadero, el evento ya se había procesado antes y devuelvo el resultado guardado.
+ */
+public record ResultadoEventoPorteria(String idEvento, EstadoEventoPorteria estado, String mensaje,
+                                      BigDecimal costoTotal, boolean repetido) {
+}
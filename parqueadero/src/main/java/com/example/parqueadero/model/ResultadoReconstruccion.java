@@ -0,0 +1,10 @@
+package com.example.parqueadero.model;
+
+/**
+ * Represento el resultado de reconstruir los resúmenes de estadías de un rango de días.
+ * @param dias Días reconstruidos.
+ * @param estadias Estadías leídas del historial.
+ * @param milisegundos Duración de la reconstrucción.
+ */
+public record ResultadoReconstruccion(int dias, long estadias, long milisegundos) {
+}
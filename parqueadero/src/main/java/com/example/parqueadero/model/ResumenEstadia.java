@@ -0,0 +1,119 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Guardo las cifras acumuladas de las estadías que terminaron en una hora o en un día, por clase de vehículo.
+ * Los reportes leen estas filas (una por cubeta) en lugar de recorrer el historial de vehículos.
+ */
+@Entity
+@Table(name = "resumen_estadia",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"granularidad", "inicio", "tipo_codigo"}))
+public class ResumenEstadia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resumen_estadia_seq")
+    @SequenceGenerator(name = "resumen_estadia_seq", sequenceName = "resumen_estadia_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 4, nullable = false)
+    private Granularidad granularidad; // Tamaño de la cubeta
+
+    @Column(nullable = false)
+    private LocalDateTime inicio; // Inicio de la cubeta (hora o día en punto)
+
+    @Convert(converter = TipoVehiculoConverter.class)
+    @Column(name = "tipo_codigo", nullable = false)
+    private TipoVehiculo tipo; // Clase de vehículo
+
+    private long salidas; // Estadías que terminaron en la cubeta
+
+    @Column(precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO; // Total cobrado en la cubeta
+
+    private long minutosTotales; // Suma de las duraciones, para calcular el promedio
+
+    @Convert(converter = HistogramaEstadiaConverter.class)
+    @Column(length = 400)
+    private HistogramaEstadia histograma = new HistogramaEstadia(); // Duraciones por rango, para los percentiles
+
+    /**
+     * Constructor vacío requerido por JPA.
+     */
+    public ResumenEstadia() {}
+
+    /**
+     * Creo el resumen vacío de una cubeta.
+     * @param granularidad Tamaño de la cubeta.
+     * @param inicio Inicio de la cubeta.
+     * @param tipo Clase de vehículo.
+     */
+    public ResumenEstadia(Granularidad granularidad, LocalDateTime inicio, TipoVehiculo tipo) {
+        this.granularidad = granularidad;
+        this.inicio = inicio;
+        this.tipo = tipo;
+    }
+
+    /**
+     * Sumo al resumen las cifras de un grupo de estadías.
+     * Reemplazo el histograma por una copia en lugar de modificarlo, para que Hibernate detecte el cambio.
+     * @param salidas Cantidad de estadías.
+     * @param ingresos Total cobrado.
+     * @param minutos Suma de las duraciones.
+     * @param histograma Duraciones por rango.
+     */
+    public void sumar(long salidas, BigDecimal ingresos, long minutos, HistogramaEstadia histograma) {
+        this.salidas += salidas;
+        this.ingresos = this.ingresos.add(ingresos);
+        this.minutosTotales += minutos;
+        HistogramaEstadia combinado = this.histograma.copiar();
+        combinado.sumar(histograma);
+        this.histograma = combinado;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Granularidad getGranularidad() {
+        return granularidad;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public TipoVehiculo getTipo() {
+        return tipo;
+    }
+
+    public long getSalidas() {
+        return salidas;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public long getMinutosTotales() {
+        return minutosTotales;
+    }
+
+    public HistogramaEstadia getHistograma() {
+        return histograma;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Represento una sede (un parqueadero físico) de la operación. Cada vehículo pertenece a una sede
+ * y cada sede tiene sus propios cupos y su propia ocupación en memoria.
+ * Las instalaciones de una sola sede usan siempre la sede `principal`, que crea la migración.
+ */
+@Entity
+@Table(name = "sede")
+public class Sede {
+
+    /**
+     * Código de la sede que usan las rutas sin sede y los datos anteriores a las sedes.
+     */
+    public static final String PRINCIPAL = "principal";
+
+    @Id
+    @Column(length = 50)
+    private String codigo; // Código corto de la sede, en minúsculas; aparece en las rutas `/parqueadero/sedes/{sede}`
+
+    private String nombre; // Nombre para mostrar
+
+    /**
+     * Constructor vacío requerido por JPA.
+     */
+    protected Sede() {}
+
+    /**
+     * Creo una sede.
+     * @param codigo Código de la sede, ya normalizado.
+     * @param nombre Nombre para mostrar.
+     */
+    public Sede(String codigo, String nombre) {
+        this.codigo = codigo;
+        this.nombre = nombre;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+}
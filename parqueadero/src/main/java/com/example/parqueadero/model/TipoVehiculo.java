@@ -0,0 +1,51 @@
+package com.example.parqueadero.model;
+
+/**
+ * Enumero las clases de vehículo que admite el parqueadero.
+ * En la base de datos guardo un código numérico estable (no el nombre traducido),
+ * así que el tipo guardado no depende del idioma de quien registró el vehículo.
+ * Uso el ordinal como índice en las tablas de tarifas precompiladas.
+ */
+public enum TipoVehiculo {
+    CARRO((short) 1, "vehicle.car"),
+    MOTO((short) 2, "vehicle.motorcycle");
+
+    private final short codigo;
+    private final String claveMensaje;
+
+    TipoVehiculo(short codigo, String claveMensaje) {
+        this.codigo = codigo;
+        this.claveMensaje = claveMensaje;
+    }
+
+    /**
+     * Obtengo el código con el que guardo este tipo en la base de datos.
+     * @return Código numérico del tipo.
+     */
+    public short getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtengo la clave del archivo de mensajes con el nombre traducido de este tipo.
+     * @return Clave del mensaje (por ejemplo `vehicle.car`).
+     */
+    public String getClaveMensaje() {
+        return claveMensaje;
+    }
+
+    /**
+     * Busco el tipo que corresponde a un código guardado en la base de datos.
+     * @param codigo Código numérico del tipo.
+     * @return El tipo de vehículo.
+     * @throws IllegalArgumentException Si el código no corresponde a ningún tipo.
+     */
+    public static TipoVehiculo desdeCodigo(short codigo) {
+        for (TipoVehiculo tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Código de tipo de vehículo desconocido: " + codigo);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierto el tipo de vehículo a su código numérico para guardarlo en una columna pequeña.
+ */
+@Converter
+public class TipoVehiculoConverter implements AttributeConverter<TipoVehiculo, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TipoVehiculo tipo) {
+        return tipo == null ? null : tipo.getCodigo();
+    }
+
+    @Override
+    public TipoVehiculo convertToEntityAttribute(Short codigo) {
+        return codigo == null ? null : TipoVehiculo.desdeCodigo(codigo);
+    }
+}
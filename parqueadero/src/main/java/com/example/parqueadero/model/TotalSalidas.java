@@ -0,0 +1,18 @@
+package com.example.parqueadero.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Represento la cantidad de salidas y lo cobrado en un rango, calculados por la base de datos.
+ * @param salidas Estadías cerradas en el rango.
+ * @param ingresos Suma de lo cobrado.
+ */
+public record TotalSalidas(Long salidas, BigDecimal ingresos) {
+
+    /**
+     * Sumo los totales de dos tablas (la activa y el historial).
+     */
+    public TotalSalidas sumar(TotalSalidas otro) {
+        return new TotalSalidas(salidas + otro.salidas, ingresos.add(otro.ingresos));
+    }
+}
@@ -1,22 +1,47 @@
 package com.example.parqueadero.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity // Indico que esta clase es una entidad y se mapeará a una tabla en la base de datos
+// La tabla solo guarda las sesiones abiertas y las salidas recientes; las estadías cerradas se archivan
+// en `vehiculo_historial` (ver `VehiculoArchivado`). Las migraciones de Flyway crean estos índices.
+@Table(name = "vehiculo", indexes = {
+        @Index(name = "idx_vehiculo_placa_salida", columnList = "placa, horaSalida"),
+        @Index(name = "idx_vehiculo_entrada", columnList = "horaEntrada"),
+        @Index(name = "idx_vehiculo_salida", columnList = "horaSalida"),
+        @Index(name = "idx_vehiculo_sede_salida", columnList = "sede, horaSalida")
+})
 public class Vehiculo {
 
     @Id // Especifico que esta es la clave primaria de la entidad
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Genero automáticamente el ID de cada vehículo
+    // Genero el ID con una secuencia que reserva bloques de 50 valores.
+    // A diferencia de IDENTITY, esto permite que Hibernate agrupe los inserts en lotes de JDBC.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehiculo_seq")
+    @SequenceGenerator(name = "vehiculo_seq", sequenceName = "vehiculo_seq", allocationSize = 50)
     private Long id; // Identificador único del vehículo en la base de datos
 
     private String placa; // Almaceno la placa del vehículo
 
-    private String tipo; // Especifico el tipo de vehículo, ya sea "carro" o "moto"
+    // Copio la placa solo mientras el vehículo está dentro; al salir queda en null.
+    // La restricción única sobre esta columna impide dos sesiones abiertas con la misma placa,
+    // porque la base de datos permite varios valores null en una columna única.
+    @Column(unique = true)
+    private String placaActiva;
+
+    @Convert(converter = TipoVehiculoConverter.class) // Guardo el tipo como un código numérico independiente del idioma
+    @Column(name = "tipo_codigo")
+    private TipoVehiculo tipo; // Especifico el tipo de vehículo, ya sea carro o moto
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") // Defino el formato de fecha y hora para la entrada
     private LocalDateTime horaEntrada; // Registro la hora en la que el vehículo ingresa al parqueadero
@@ -24,7 +49,14 @@ public class Vehiculo {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") // Defino el formato de fecha y hora para la salida
     private LocalDateTime horaSalida; // Registro la hora en la que el vehículo sale del parqueadero
 
-    private double costoTotal; // Almaceno el costo total del estacionamiento según el tiempo transcurrido
+    @Column(precision = 12, scale = 2) // Guardo el valor exacto, sin errores de redondeo de punto flotante
+    private BigDecimal costoTotal = BigDecimal.ZERO; // Almaceno el costo total del estacionamiento según el tiempo transcurrido
+
+    @Column(length = 50, nullable = false)
+    private String sede = Sede.PRINCIPAL; // Código de la sede donde está (o estuvo) el vehículo
+
+    @Column(length = 20)
+    private String puesto; // Puesto asignado (zona y número), si la sede administra los puestos de su clase
 
     /**
      * Constructor vacío requerido por JPA para instanciar objetos sin parámetros.
@@ -37,12 +69,40 @@ public class Vehiculo {
      * @param tipo Tipo de vehículo (carro o moto)
      * @param horaEntrada Hora en la que el vehículo ingresa al parqueadero
      */
-    public Vehiculo(String placa, String tipo, LocalDateTime horaEntrada) {
+    public Vehiculo(String placa, TipoVehiculo tipo, LocalDateTime horaEntrada) {
         this.placa = placa;
+        this.placaActiva = placa;
         this.tipo = tipo;
         this.horaEntrada = horaEntrada;
     }
 
+    /**
+     * Constructor que me permite crear un objeto `Vehiculo` que entra a una sede.
+     * @param placa Placa del vehículo
+     * @param tipo Tipo de vehículo (carro o moto)
+     * @param horaEntrada Hora en la que el vehículo ingresa al parqueadero
+     * @param sede Código de la sede
+     */
+    public Vehiculo(String placa, TipoVehiculo tipo, LocalDateTime horaEntrada, String sede) {
+        this(placa, tipo, horaEntrada);
+        this.sede = sede;
+    }
+
+    /**
+     * Creo una copia con todos los campos, incluido el ID, para preparar un cambio sin tocar
+     * la instancia que comparten el índice de ocupación y las búsquedas hasta que el cambio se guarde.
+     * @return Una instancia nueva e independiente.
+     */
+    public Vehiculo copiar() {
+        Vehiculo copia = new Vehiculo(placa, tipo, horaEntrada, sede);
+        copia.id = id;
+        copia.placaActiva = placaActiva;
+        copia.horaSalida = horaSalida;
+        copia.costoTotal = costoTotal;
+        copia.puesto = puesto;
+        return copia;
+    }
+
     /**
      * Obtengo el identificador único del vehículo.
      * @return ID del vehículo.
@@ -73,21 +133,24 @@ public class Vehiculo {
      */
     public void setPlaca(String placa) {
         this.placa = placa;
+        if (horaSalida == null) {
+            this.placaActiva = placa;
+        }
     }
 
     /**
      * Obtengo el tipo de vehículo.
-     * @return Tipo de vehículo ("carro" o "moto").
+     * @return Tipo de vehículo (carro o moto).
      */
-    public String getTipo() {
+    public TipoVehiculo getTipo() {
         return tipo;
     }
 
     /**
      * Defino el tipo de vehículo.
-     * @param tipo Tipo de vehículo ("carro" o "moto").
+     * @param tipo Tipo de vehículo (carro o moto).
      */
-    public void setTipo(String tipo) {
+    public void setTipo(TipoVehiculo tipo) {
         this.tipo = tipo;
     }
 
@@ -121,13 +184,15 @@ public class Vehiculo {
      */
     public void setHoraSalida(LocalDateTime horaSalida) {
         this.horaSalida = horaSalida;
+        // Libero la placa activa para que el vehículo pueda volver a ingresar
+        this.placaActiva = horaSalida == null ? placa : null;
     }
 
     /**
      * Obtengo el costo total del estacionamiento.
      * @return Costo total del tiempo de parqueo.
      */
-    public double getCostoTotal() {
+    public BigDecimal getCostoTotal() {
         return costoTotal;
     }
 
@@ -135,7 +200,39 @@ public class Vehiculo {
      * Establezco el costo total del estacionamiento según el tiempo de uso.
      * @param costoTotal Costo total calculado.
      */
-    public void setCostoTotal(double costoTotal) {
+    public void setCostoTotal(BigDecimal costoTotal) {
         this.costoTotal = costoTotal;
     }
+
+    /**
+     * Obtengo el código de la sede del vehículo.
+     * @return Código de la sede.
+     */
+    public String getSede() {
+        return sede;
+    }
+
+    /**
+     * Asigno la sede del vehículo.
+     * @param sede Código de la sede.
+     */
+    public void setSede(String sede) {
+        this.sede = sede;
+    }
+
+    /**
+     * Obtengo el puesto asignado al vehículo.
+     * @return Código del puesto, o `null` si no se le asignó uno.
+     */
+    public String getPuesto() {
+        return puesto;
+    }
+
+    /**
+     * Asigno el puesto del vehículo.
+     * @param puesto Código del puesto.
+     */
+    public void setPuesto(String puesto) {
+        this.puesto = puesto;
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.parqueadero.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represento una estadía cerrada que ya salió de la tabla activa hacia el historial.
+ * Conserva el ID que tenía en la tabla `vehiculo`, así que el historial se puede paginar por ID sobre ambas tablas.
+ * Solo la leo: las filas llegan aquí con el archivo de estadías y nunca se modifican.
+ */
+@Entity
+@Immutable
+@Table(name = "vehiculo_historial", indexes = {
+        @Index(name = "idx_historial_placa_salida", columnList = "placa, horaSalida"),
+        @Index(name = "idx_historial_entrada", columnList = "horaEntrada"),
+        @Index(name = "idx_historial_salida", columnList = "horaSalida"),
+        @Index(name = "idx_historial_sede_salida", columnList = "sede, horaSalida")
+})
+public class VehiculoArchivado {
+
+    @Id
+    private Long id;
+
+    private String placa;
+
+    @Convert(converter = TipoVehiculoConverter.class)
+    @Column(name = "tipo_codigo")
+    private TipoVehiculo tipo;
+
+    private LocalDateTime horaEntrada;
+
+    @Column(nullable = false)
+    private LocalDateTime horaSalida;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal costoTotal;
+
+    @Column(length = 50, nullable = false)
+    private String sede;
+
+    @Column(length = 20)
+    private String puesto;
+
+    /**
+     * Constructor vacío requerido por JPA.
+     */
+    protected VehiculoArchivado() {}
+
+    /**
+     * Convierto la estadía archivada en un `Vehiculo` desprendido, para responder con el mismo formato
+     * sin importar en qué tabla esté la estadía.
+     * @return Un vehículo con la sesión cerrada.
+     */
+    public Vehiculo aVehiculo() {
+        Vehiculo vehiculo = new Vehiculo(placa, tipo, horaEntrada, sede);
+        vehiculo.setId(id);
+        vehiculo.setHoraSalida(horaSalida);
+        vehiculo.setCostoTotal(costoTotal);
+        vehiculo.setPuesto(puesto);
+        return vehiculo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public TipoVehiculo getTipo() {
+        return tipo;
+    }
+
+    public LocalDateTime getHoraEntrada() {
+        return horaEntrada;
+    }
+
+    public LocalDateTime getHoraSalida() {
+        return horaSalida;
+    }
+
+    public BigDecimal getCostoTotal() {
+        return costoTotal;
+    }
+
+    public String getSede() {
+        return sede;
+    }
+
+    public String getPuesto() {
+        return puesto;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Muevo las estadías cerradas de la tabla activa (`vehiculo`) a la tabla de historial (`vehiculo_historial`),
+ * para que la tabla activa tenga solo las sesiones abiertas y las salidas recientes sin importar cuántos años
+ * de historial se acumulen. Las salidas siguen actualizando la misma fila que creó la entrada, así que el camino
+ * de escritura (directo o diferido) no cambia; un hilo de fondo archiva las que superan la retención.
+ * Cada lote se mueve en su propia transacción corta, con un insert y un delete sobre los mismos IDs.
+ */
+@Component
+public class ArchivoEstadias {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoEstadias.class);
+
+    private static final String SELECCIONAR = "select id from vehiculo where hora_salida < :limite"
+            + " order by hora_salida limit :tamano";
+    private static final String COPIAR = "insert into vehiculo_historial"
+            + " (id, placa, tipo_codigo, hora_entrada, hora_salida, costo_total, sede, puesto)"
+            + " select id, placa, tipo_codigo, hora_entrada, hora_salida, costo_total, sede, puesto from vehiculo"
+            + " where id in (:ids) and hora_salida is not null";
+    private static final String BORRAR = "delete from vehiculo where id in (:ids) and hora_salida is not null";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration intervalo;
+    private final Duration retencion;
+    private final int tamanoLote;
+    private final ScheduledExecutorService programador;
+
+    /**
+     * Inyecto el acceso JDBC, el gestor de transacciones, la fábrica del hilo de fondo,
+     * cada cuánto archivo, cuánto tiempo dejo las salidas en la tabla activa y cuántas filas muevo por transacción.
+     */
+    @Autowired
+    public ArchivoEstadias(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           FabricaHilos fabricaHilos,
+                           @Value("${parqueadero.archivo.intervalo:1m}") Duration intervalo,
+                           @Value("${parqueadero.archivo.retencion:15m}") Duration retencion,
+                           @Value("${parqueadero.archivo.tamano-lote:1000}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.intervalo = intervalo;
+        this.retencion = retencion;
+        this.tamanoLote = tamanoLote;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("archivo-estadias"));
+    }
+
+    /**
+     * Programo el archivo periódico.
+     */
+    @PostConstruct
+    public void iniciar() {
+        long periodo = intervalo.toMillis();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                archivar(LocalDateTime.now().minus(retencion));
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude archivar las estadías cerradas", e);
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Archivo, en lotes, todas las estadías que salieron antes del límite.
+     * @param limite Hora de salida hasta la que archivo (excluida).
+     * @return Cantidad de estadías archivadas.
+     */
+    public long archivar(LocalDateTime limite) {
+        return archivar(limite, Duration.ZERO);
+    }
+
+    /**
+     * Archivo, en lotes, todas las estadías que salieron antes del límite, esperando entre un lote y el siguiente
+     * para que las entradas y salidas no hagan fila detrás de una pasada larga.
+     * @param limite Hora de salida hasta la que archivo (excluida).
+     * @param pausa Espera entre lotes.
+     * @return Cantidad de estadías archivadas.
+     */
+    public long archivar(LocalDateTime limite, Duration pausa) {
+        long archivadas = 0;
+        int movidas;
+        do {
+            movidas = transactionTemplate.execute(estado -> moverLote(limite));
+            archivadas += movidas;
+        } while (movidas == tamanoLote && esperar(pausa));
+        if (archivadas > 0) {
+            log.info("Archivé {} estadías cerradas antes de {}", archivadas, limite);
+        }
+        return archivadas;
+    }
+
+    /**
+     * Espero entre lotes; si me interrumpen (la aplicación se está deteniendo), dejo de archivar.
+     */
+    static boolean esperar(Duration pausa) {
+        if (pausa.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausa.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int moverLote(LocalDateTime limite) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECCIONAR,
+                new MapSqlParameterSource("limite", limite).addValue("tamano", tamanoLote), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update(COPIAR, parametros);
+        jdbcTemplate.update(BORRAR, parametros);
+        return ids.size();
+    }
+}
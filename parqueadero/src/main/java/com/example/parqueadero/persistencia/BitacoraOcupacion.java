@@ -0,0 +1,345 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Anoto cada entrada y salida en una bitácora de solo escritura al final, mapeada en memoria por regiones:
+ * anotar un evento es copiar unos 40 bytes a memoria, sin llamadas al sistema, y el sistema operativo
+ * los lleva a disco aunque el proceso termine de forma abrupta.
+ * La bitácora está repartida en archivos numerados por generación. Cada instantánea abre una generación nueva,
+ * así que los eventos posteriores a una instantánea quedan en los archivos que se crearon después de ella
+ * y los anteriores se pueden borrar.
+ * Escribo el byte de marca de cada registro al final, para que un lector nunca vea un registro a medias.
+ * Los eventos de la sede principal usan el formato original; los de otras sedes llevan una marca propia
+ * y el código de la sede después de la placa, así que las bitácoras anteriores a las sedes se siguen leyendo.
+ * Las entradas que reciben un puesto llevan otra marca, con la sede y el puesto después de la placa.
+ */
+public class BitacoraOcupacion implements Closeable {
+
+    private static final int MAGICO = 0x4F435550; // "OCUP"
+    private static final int ENCABEZADO = 12; // Número mágico y tamaño de región
+    private static final int CABECERA_REGISTRO = 32;
+
+    private static final byte MARCA_ENTRADA = 1;
+    private static final byte MARCA_SALIDA = 2;
+    private static final byte MARCA_FIN_REGION = 3; // El resto de la región está vacío; sigo en la siguiente
+    private static final byte MARCA_ENTRADA_SEDE = 4; // Como las anteriores, con la sede después de la placa
+    private static final byte MARCA_SALIDA_SEDE = 5;
+    private static final byte MARCA_ENTRADA_PUESTO = 6; // Como MARCA_ENTRADA_SEDE, con el puesto después de la sede
+
+    private static final String PREFIJO = "bitacora-";
+    private static final String EXTENSION = ".bin";
+
+    private final Path directorio;
+    private final long tamanoRegion;
+    private final ReentrantLock candado = new ReentrantLock();
+
+    private FileChannel canal;
+    private MappedByteBuffer region;
+    private long inicioRegion;
+    private long generacion;
+    private long ultimaSecuencia;
+
+    /**
+     * Abro una generación nueva de la bitácora a continuación de las que ya existen en el directorio.
+     * @param directorio Carpeta de la bitácora.
+     * @param tamanoRegion Tamaño de cada región mapeada en memoria.
+     * @param ultimaSecuencia Última secuencia anotada antes de abrir la bitácora.
+     * @throws IOException Si no puedo crear el archivo.
+     */
+    public BitacoraOcupacion(Path directorio, long tamanoRegion, long ultimaSecuencia) throws IOException {
+        this.directorio = directorio;
+        this.tamanoRegion = tamanoRegion;
+        this.ultimaSecuencia = ultimaSecuencia;
+        Files.createDirectories(directorio);
+        List<Path> archivos = archivos(directorio);
+        this.generacion = archivos.isEmpty() ? 0 : generacion(archivos.get(archivos.size() - 1));
+        abrirGeneracion();
+    }
+
+    /**
+     * Anoto un evento al final de la bitácora y le asigno el siguiente número de secuencia.
+     * @return El número de secuencia del evento.
+     * @param puesto Código del puesto asignado, o `null`; solo lo anoto en las entradas.
+     * @throws IllegalArgumentException Si la placa, la sede o el puesto ocupan más de 255 bytes.
+     */
+    public long anotar(boolean entrada, Long id, String placa, TipoVehiculo tipo, LocalDateTime instante, String sede,
+                       String puesto) {
+        byte[] bytesPlaca = placa.getBytes(StandardCharsets.UTF_8);
+        if (bytesPlaca.length > 255) {
+            throw new IllegalArgumentException("La placa es demasiado larga para la bitácora: " + placa);
+        }
+        byte[] bytesPuesto = entrada && puesto != null ? puesto.getBytes(StandardCharsets.UTF_8) : null;
+        if (bytesPuesto != null && bytesPuesto.length > 255) {
+            throw new IllegalArgumentException("El puesto es demasiado largo para la bitácora: " + puesto);
+        }
+        byte[] bytesSede = Sede.PRINCIPAL.equals(sede) && bytesPuesto == null ? null : sede.getBytes(StandardCharsets.UTF_8);
+        if (bytesSede != null && bytesSede.length > 255) {
+            throw new IllegalArgumentException("La sede es demasiado larga para la bitácora: " + sede);
+        }
+        int tamano = CABECERA_REGISTRO + bytesPlaca.length + (bytesSede == null ? 0 : 1 + bytesSede.length)
+                + (bytesPuesto == null ? 0 : 1 + bytesPuesto.length);
+        candado.lock();
+        try {
+            if (region.remaining() < tamano) {
+                if (region.hasRemaining()) {
+                    region.put(region.position(), MARCA_FIN_REGION);
+                }
+                mapearRegion(inicioRegion + tamanoRegion);
+            }
+            long secuencia = ++ultimaSecuencia;
+            int posicion = region.position();
+            region.put(posicion + 1, (byte) bytesPlaca.length);
+            region.putShort(posicion + 2, tipo.getCodigo());
+            region.putLong(posicion + 4, secuencia);
+            region.putLong(posicion + 12, id == null ? -1 : id);
+            region.putLong(posicion + 20, instante.toEpochSecond(ZoneOffset.UTC));
+            region.putInt(posicion + 28, instante.getNano());
+            region.put(posicion + CABECERA_REGISTRO, bytesPlaca);
+            if (bytesSede == null) {
+                region.put(posicion, entrada ? MARCA_ENTRADA : MARCA_SALIDA);
+            } else {
+                int inicioSede = posicion + CABECERA_REGISTRO + bytesPlaca.length;
+                region.put(inicioSede, (byte) bytesSede.length);
+                region.put(inicioSede + 1, bytesSede);
+                if (bytesPuesto != null) {
+                    region.put(inicioSede + 1 + bytesSede.length, (byte) bytesPuesto.length);
+                    region.put(inicioSede + 2 + bytesSede.length, bytesPuesto);
+                }
+                region.put(posicion, bytesPuesto != null ? MARCA_ENTRADA_PUESTO
+                        : entrada ? MARCA_ENTRADA_SEDE : MARCA_SALIDA_SEDE);
+            }
+            region.position(posicion + tamano);
+            return secuencia;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Cierro la generación actual y abro la siguiente; los eventos que se anoten desde ahora irán al archivo nuevo.
+     * @return La última secuencia anotada en la generación que cerré.
+     */
+    public long rotar() {
+        candado.lock();
+        try {
+            region.force();
+            canal.close();
+            abrirGeneracion();
+            return ultimaSecuencia;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Borro los archivos de las generaciones anteriores a la actual.
+     * Solo lo hago después de guardar una instantánea que ya incluye sus eventos.
+     */
+    public void borrarAnteriores() throws IOException {
+        long actual;
+        candado.lock();
+        try {
+            actual = generacion;
+        } finally {
+            candado.unlock();
+        }
+        for (Path archivo : archivos(directorio)) {
+            if (generacion(archivo) < actual) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+    }
+
+    /**
+     * Fuerzo a disco lo anotado hasta ahora.
+     */
+    public void forzar() {
+        candado.lock();
+        try {
+            region.force();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        candado.lock();
+        try {
+            region.force();
+            canal.close();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Recorro en orden todos los archivos de la bitácora y entrego los eventos posteriores a una secuencia.
+     * Si el último registro quedó incompleto por una caída, lo ignoro.
+     * @param directorio Carpeta de la bitácora.
+     * @param despuesDe Secuencia a partir de la cual entrego eventos (excluida).
+     * @param consumidor Receptor de cada evento.
+     * @return La mayor secuencia que encontré, o `despuesDe` si no encontré ninguna posterior.
+     */
+    public static long leer(Path directorio, long despuesDe, Consumer<EventoOcupacion> consumidor) throws IOException {
+        long ultima = despuesDe;
+        if (!Files.isDirectory(directorio)) {
+            return ultima;
+        }
+        for (Path archivo : archivos(directorio)) {
+            ultima = Math.max(ultima, leerArchivo(archivo, despuesDe, consumidor));
+        }
+        return ultima;
+    }
+
+    /**
+     * Indico si el directorio tiene algún archivo de bitácora.
+     */
+    public static boolean existe(Path directorio) throws IOException {
+        return Files.isDirectory(directorio) && !archivos(directorio).isEmpty();
+    }
+
+    private static long leerArchivo(Path archivo, long despuesDe, Consumer<EventoOcupacion> consumidor) throws IOException {
+        long ultima = despuesDe;
+        try (FileChannel lector = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanoArchivo = lector.size();
+            if (tamanoArchivo < ENCABEZADO) {
+                return ultima;
+            }
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+            lector.read(encabezado, 0);
+            if (encabezado.getInt(0) != MAGICO) {
+                throw new IOException("El archivo no es una bitácora de ocupación: " + archivo);
+            }
+            long tamanoRegion = encabezado.getLong(4);
+            for (long inicio = 0; inicio < tamanoArchivo; inicio += tamanoRegion) {
+                MappedByteBuffer region = lector.map(FileChannel.MapMode.READ_ONLY, inicio,
+                        Math.min(tamanoRegion, tamanoArchivo - inicio));
+                if (inicio == 0) {
+                    region.position(ENCABEZADO);
+                }
+                while (region.remaining() >= CABECERA_REGISTRO) {
+                    int posicion = region.position();
+                    byte marca = region.get(posicion);
+                    if (marca == MARCA_FIN_REGION) {
+                        break;
+                    }
+                    if (marca < MARCA_ENTRADA || marca > MARCA_ENTRADA_PUESTO) {
+                        return ultima; // Fin de lo escrito
+                    }
+                    boolean conPuesto = marca == MARCA_ENTRADA_PUESTO;
+                    boolean conSede = marca == MARCA_ENTRADA_SEDE || marca == MARCA_SALIDA_SEDE || conPuesto;
+                    int largoPlaca = Byte.toUnsignedInt(region.get(posicion + 1));
+                    int largo = CABECERA_REGISTRO + largoPlaca;
+                    if (region.remaining() < largo + (conSede ? 1 : 0)) {
+                        return ultima;
+                    }
+                    int largoSede = conSede ? Byte.toUnsignedInt(region.get(posicion + largo)) : 0;
+                    if (conSede) {
+                        largo += 1 + largoSede;
+                        if (region.remaining() < largo + (conPuesto ? 1 : 0)) {
+                            return ultima;
+                        }
+                    }
+                    int largoPuesto = conPuesto ? Byte.toUnsignedInt(region.get(posicion + largo)) : 0;
+                    if (conPuesto) {
+                        largo += 1 + largoPuesto;
+                        if (region.remaining() < largo) {
+                            return ultima;
+                        }
+                    }
+                    long secuencia = region.getLong(posicion + 4);
+                    if (secuencia > despuesDe) {
+                        long id = region.getLong(posicion + 12);
+                        byte[] placa = new byte[largoPlaca];
+                        region.get(posicion + CABECERA_REGISTRO, placa);
+                        String sede = Sede.PRINCIPAL;
+                        if (conSede) {
+                            byte[] bytesSede = new byte[largoSede];
+                            region.get(posicion + CABECERA_REGISTRO + largoPlaca + 1, bytesSede);
+                            sede = new String(bytesSede, StandardCharsets.UTF_8);
+                        }
+                        String puesto = null;
+                        if (conPuesto) {
+                            byte[] bytesPuesto = new byte[largoPuesto];
+                            region.get(posicion + CABECERA_REGISTRO + largoPlaca + 2 + largoSede, bytesPuesto);
+                            puesto = new String(bytesPuesto, StandardCharsets.UTF_8);
+                        }
+                        consumidor.accept(new EventoOcupacion(marca != MARCA_SALIDA && marca != MARCA_SALIDA_SEDE,
+                                secuencia, id < 0 ? null : id, new String(placa, StandardCharsets.UTF_8),
+                                TipoVehiculo.desdeCodigo(region.getShort(posicion + 2)),
+                                LocalDateTime.ofEpochSecond(region.getLong(posicion + 20), region.getInt(posicion + 28),
+                                        ZoneOffset.UTC), sede, puesto));
+                        ultima = Math.max(ultima, secuencia);
+                    }
+                    region.position(posicion + largo);
+                }
+                if (region.hasRemaining() && region.get(region.position()) != MARCA_FIN_REGION
+                        && region.get(region.position()) != 0) {
+                    return ultima; // Registro incompleto al final de la región
+                }
+            }
+        }
+        return ultima;
+    }
+
+    private void abrirGeneracion() throws IOException {
+        generacion++;
+        canal = FileChannel.open(directorio.resolve(String.format("%s%020d%s", PREFIJO, generacion, EXTENSION)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapearRegion(0);
+        region.putInt(0, MAGICO);
+        region.putLong(4, tamanoRegion);
+        region.position(ENCABEZADO);
+    }
+
+    private void mapearRegion(long inicio) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        region = canal.map(FileChannel.MapMode.READ_WRITE, inicio, tamanoRegion);
+        inicioRegion = inicio;
+    }
+
+    private static List<Path> archivos(Path directorio) throws IOException {
+        try (Stream<Path> contenido = Files.list(directorio)) {
+            List<Path> archivos = new ArrayList<>(contenido
+                    .filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .toList());
+            archivos.sort(null);
+            return archivos;
+        }
+    }
+
+    private static long generacion(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.ControlAdmision;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.util.Placas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cuando el índice de ocupación se reconstruye desde disco, lo comparo en segundo plano con las sesiones abiertas
+ * de la base de datos, que sigue siendo la fuente de verdad. Una caída entre el guardado de una entrada o salida
+ * y su anotación en la bitácora deja una diferencia; la corrijo placa por placa con el candado de la placa,
+ * volviendo a consultar la base de datos, para no pisar una entrada o salida que llegó mientras comparaba.
+ * También corrijo las sesiones cuyo puesto difiere del guardado, para devolver y ocupar los puestos correctos.
+ */
+@Component
+public class ConciliacionOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(ConciliacionOcupacion.class);
+
+    private final RegistroOcupacion registroOcupacion;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ContadorOcupacion contadorOcupacion;
+    private final ControlAdmision controlAdmision;
+    private final PersistenciaVehiculos persistenciaVehiculos;
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final FabricaHilos fabricaHilos;
+    private final InventarioPuestos inventarioPuestos;
+
+    @Autowired
+    public ConciliacionOcupacion(RegistroOcupacion registroOcupacion, IndiceOcupacion indiceOcupacion,
+                                 ContadorOcupacion contadorOcupacion, ControlAdmision controlAdmision,
+                                 PersistenciaVehiculos persistenciaVehiculos, VehiculoRepositorio vehiculoRepositorio,
+                                 FabricaHilos fabricaHilos, InventarioPuestos inventarioPuestos) {
+        this.registroOcupacion = registroOcupacion;
+        this.indiceOcupacion = indiceOcupacion;
+        this.contadorOcupacion = contadorOcupacion;
+        this.controlAdmision = controlAdmision;
+        this.persistenciaVehiculos = persistenciaVehiculos;
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.fabricaHilos = fabricaHilos;
+        this.inventarioPuestos = inventarioPuestos;
+    }
+
+    /**
+     * Cuando la aplicación ya atiende peticiones, lanzo la conciliación en un hilo aparte.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        if (!registroOcupacion.isRecuperado()) {
+            return;
+        }
+        fabricaHilos.fabrica("conciliacion-ocupacion").newThread(() -> {
+            try {
+                conciliar();
+            } catch (RuntimeException e) {
+                log.error("No pude conciliar el índice de ocupación con la base de datos", e);
+            }
+        }).start();
+    }
+
+    /**
+     * Comparo el índice con las sesiones abiertas de la base de datos y corrijo las placas que difieren.
+     * Ignoro los vehículos del índice sin ID, que la persistencia diferida todavía no guarda.
+     * @return Cantidad de placas corregidas.
+     */
+    public int conciliar() {
+        long inicio = System.nanoTime();
+        Map<String, Vehiculo> enBase = new HashMap<>();
+        for (Vehiculo vehiculo : vehiculoRepositorio.findByHoraSalidaIsNull()) {
+            enBase.put(Placas.normalizar(vehiculo.getPlaca()), vehiculo);
+        }
+        Set<String> distintas = new LinkedHashSet<>();
+        enBase.forEach((placa, vehiculo) -> {
+            Optional<Vehiculo> enIndice = indiceOcupacion.buscar(placa);
+            if (enIndice.isEmpty() || !mismaSesion(vehiculo, enIndice.get())) {
+                distintas.add(placa);
+            }
+        });
+        for (Vehiculo vehiculo : indiceOcupacion.activos()) {
+            String placa = Placas.normalizar(vehiculo.getPlaca());
+            if (vehiculo.getId() != null && !enBase.containsKey(placa)) {
+                distintas.add(placa);
+            }
+        }
+        int corregidas = 0;
+        for (String placa : distintas) {
+            if (corregir(placa)) {
+                corregidas++;
+            }
+        }
+        log.info("Concilié el índice de ocupación con la base de datos en {} ms: {} placas corregidas",
+                (System.nanoTime() - inicio) / 1_000_000, corregidas);
+        return corregidas;
+    }
+
+    /**
+     * Con el candado de la placa, espero a que la persistencia diferida guarde lo pendiente,
+     * vuelvo a consultar la base de datos y dejo el índice y los cupos como dice la base de datos.
+     */
+    private boolean corregir(String placa) {
+        return controlAdmision.conPlaca(placa, () -> {
+            try {
+                if (!persistenciaVehiculos.vaciar(10_000)) {
+                    log.warn("La persistencia diferida no se vació a tiempo; no corrijo la placa {}", placa);
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            Optional<Vehiculo> enBase = vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull(placa);
+            Optional<Vehiculo> enIndice = indiceOcupacion.buscar(placa);
+            if (enBase.isPresent()) {
+                if (enIndice.isPresent() && mismaSesion(enBase.get(), enIndice.get())) {
+                    return false;
+                }
+                if (enIndice.isPresent()) {
+                    contadorOcupacion.liberar(enIndice.get().getSede(), enIndice.get().getTipo());
+                    inventarioPuestos.liberar(enIndice.get());
+                }
+                indiceOcupacion.registrarEntrada(enBase.get());
+                contadorOcupacion.ocupar(enBase.get().getSede(), enBase.get().getTipo());
+                if (enBase.get().getPuesto() != null) {
+                    inventarioPuestos.ocupar(enBase.get().getSede(), enBase.get().getTipo(), enBase.get().getPuesto());
+                }
+                return true;
+            }
+            if (enIndice.isPresent() && enIndice.get().getId() != null) {
+                indiceOcupacion.registrarSalida(enIndice.get());
+                contadorOcupacion.liberar(enIndice.get().getSede(), enIndice.get().getTipo());
+                inventarioPuestos.liberar(enIndice.get());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Indico si el índice tiene la misma sesión que la base de datos, con el mismo puesto.
+     */
+    private static boolean mismaSesion(Vehiculo enBase, Vehiculo enIndice) {
+        return enBase.getId().equals(enIndice.getId()) && Objects.equals(enBase.getPuesto(), enIndice.getPuesto());
+    }
+}
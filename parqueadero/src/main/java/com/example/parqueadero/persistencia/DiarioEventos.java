@@ -0,0 +1,205 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.Sede;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantengo un diario local de solo escritura al final donde anoto cada entrada y salida
+ * antes de confirmarla a la portería. Cuando un lote llega a la base de datos anoto una marca
+ * de confirmación; si todo lo anotado ya está confirmado, vacío el archivo para que no crezca.
+ * Al arrancar, los eventos posteriores a la última confirmación son los que quedaron sin guardar.
+ * Las entradas de otras sedes llevan una marca propia con el código de la sede al final del registro;
+ * las que reciben un puesto llevan otra con la sede y el puesto, para devolverlo ocupado al recuperarlas.
+ * Protejo el archivo con un `ReentrantLock` y no con `synchronized`, para que un hilo virtual que espera
+ * al disco no bloquee el hilo de plataforma que lo ejecuta.
+ */
+public class DiarioEventos implements Closeable {
+
+    private static final byte MARCA_ENTRADA = 1;
+    private static final byte MARCA_SALIDA = 2;
+    private static final byte MARCA_CONFIRMADO = 3;
+    private static final byte MARCA_ENTRADA_SEDE = 4; // Como MARCA_ENTRADA, con la sede al final
+    private static final byte MARCA_ENTRADA_PUESTO = 5; // Como MARCA_ENTRADA_SEDE, con el puesto después de la sede
+
+    private final Path ruta;
+    private final boolean sincronizar;
+    private final FileChannel canal;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+    private final DataOutputStream salida = new DataOutputStream(buffer);
+    private final ReentrantLock candado = new ReentrantLock();
+
+    private long ultimaSecuencia;
+
+    /**
+     * Abro (o creo) el archivo del diario.
+     * @param ruta Ruta del archivo del diario.
+     * @param sincronizar Si es verdadero, fuerzo cada anotación a disco antes de devolver el control.
+     * @throws IOException Si no puedo abrir el archivo.
+     */
+    public DiarioEventos(Path ruta, boolean sincronizar) throws IOException {
+        this.ruta = ruta;
+        this.sincronizar = sincronizar;
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.canal.position(canal.size());
+    }
+
+    /**
+     * Leo el diario completo y devuelvo los eventos que no alcanzaron a confirmarse.
+     * Si el último registro quedó cortado por una caída, lo ignoro.
+     * @return Eventos pendientes en el orden en que se anotaron.
+     */
+    public List<EventoDiario> leerPendientes() {
+        candado.lock();
+        try {
+            List<EventoDiario> eventos = new ArrayList<>();
+            long confirmada = 0;
+            try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+                while (true) {
+                    byte marca = entrada.readByte();
+                    long secuencia = entrada.readLong();
+                    if (marca == MARCA_CONFIRMADO) {
+                        confirmada = Math.max(confirmada, secuencia);
+                        continue;
+                    }
+                    String placa = entrada.readUTF();
+                    String tipoVehiculo = entrada.readUTF();
+                    LocalDateTime instante = LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+                    BigDecimal costoTotal = BigDecimal.valueOf(entrada.readLong(), entrada.readInt());
+                    boolean conPuesto = marca == MARCA_ENTRADA_PUESTO;
+                    String sede = marca == MARCA_ENTRADA_SEDE || conPuesto ? entrada.readUTF() : Sede.PRINCIPAL;
+                    String puesto = conPuesto ? entrada.readUTF() : null;
+                    EventoDiario.Tipo tipo = marca == MARCA_SALIDA ? EventoDiario.Tipo.SALIDA : EventoDiario.Tipo.ENTRADA;
+                    eventos.add(new EventoDiario(tipo, secuencia, placa, tipoVehiculo, instante, costoTotal, sede, puesto));
+                    ultimaSecuencia = Math.max(ultimaSecuencia, secuencia);
+                }
+            } catch (EOFException e) {
+                // Llegué al final del diario, o a un registro incompleto que se escribió durante una caída
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            final long hasta = confirmada;
+            eventos.removeIf(evento -> evento.secuencia() <= hasta);
+            return eventos;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Anoto un evento al final del diario y le asigno el siguiente número de secuencia.
+     * @return El número de secuencia del evento.
+     */
+    public long registrar(EventoDiario.Tipo tipo, String placa, String tipoVehiculo,
+                          LocalDateTime instante, BigDecimal costoTotal, String sede, String puesto) {
+        boolean conPuesto = tipo == EventoDiario.Tipo.ENTRADA && puesto != null;
+        boolean conSede = tipo == EventoDiario.Tipo.ENTRADA && (conPuesto || !Sede.PRINCIPAL.equals(sede));
+        candado.lock();
+        try {
+            long secuencia = ++ultimaSecuencia;
+            buffer.reset();
+            if (tipo == EventoDiario.Tipo.SALIDA) {
+                salida.writeByte(MARCA_SALIDA);
+            } else {
+                salida.writeByte(conPuesto ? MARCA_ENTRADA_PUESTO : conSede ? MARCA_ENTRADA_SEDE : MARCA_ENTRADA);
+            }
+            salida.writeLong(secuencia);
+            salida.writeUTF(placa);
+            salida.writeUTF(tipoVehiculo == null ? "" : tipoVehiculo);
+            salida.writeLong(instante.toEpochSecond(ZoneOffset.UTC));
+            salida.writeInt(instante.getNano());
+            salida.writeLong(costoTotal.unscaledValue().longValueExact());
+            salida.writeInt(costoTotal.scale());
+            if (conSede) {
+                salida.writeUTF(sede);
+            }
+            if (conPuesto) {
+                salida.writeUTF(puesto);
+            }
+            escribir();
+            return secuencia;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Marco como guardados en la base de datos todos los eventos hasta la secuencia indicada.
+     * Si ya no queda nada pendiente, vacío el archivo.
+     * @param secuencia Última secuencia guardada.
+     */
+    public void confirmar(long secuencia) {
+        candado.lock();
+        try {
+            if (secuencia >= ultimaSecuencia) {
+                canal.truncate(0);
+                canal.position(0);
+                return;
+            }
+            buffer.reset();
+            salida.writeByte(MARCA_CONFIRMADO);
+            salida.writeLong(secuencia);
+            escribir();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtengo la secuencia del último evento anotado.
+     */
+    public long ultimaSecuencia() {
+        candado.lock();
+        try {
+            return ultimaSecuencia;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private void escribir() throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        if (sincronizar) {
+            canal.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        candado.lock();
+        try {
+            canal.close();
+        } finally {
+            candado.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.parqueadero.persistencia;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represento un evento anotado en el diario de persistencia diferida.
+ * @param tipo Tipo de evento (entrada o salida).
+ * @param secuencia Número de secuencia asignado al anotarlo en el diario.
+ * @param placa Placa normalizada del vehículo.
+ * @param tipoVehiculo Tipo de vehículo; solo lo uso en las entradas.
+ * @param instante Hora de entrada o de salida, según el tipo de evento.
+ * @param costoTotal Costo cobrado; solo lo uso en las salidas.
+ * @param sede Código de la sede; solo lo uso en las entradas.
+ * @param puesto Código del puesto asignado, o `null` si no tiene uno; solo lo uso en las entradas.
+ */
+public record EventoDiario(Tipo tipo, long secuencia, String placa, String tipoVehiculo,
+                           LocalDateTime instante, BigDecimal costoTotal, String sede, String puesto) {
+
+    /**
+     * Enumero los tipos de registro que escribo en el diario.
+     */
+    public enum Tipo {
+        ENTRADA, SALIDA
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.TipoVehiculo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represento una entrada o salida anotada en la bitácora de ocupación.
+ * @param entrada `true` para una entrada y `false` para una salida.
+ * @param secuencia Número de secuencia asignado al anotarlo.
+ * @param id ID del vehículo en la base de datos, o `null` si todavía no tenía uno (persistencia diferida).
+ * @param placa Placa normalizada del vehículo.
+ * @param tipo Clase del vehículo.
+ * @param instante Hora de entrada o de salida, según el evento.
+ * @param sede Código de la sede del vehículo.
+ * @param puesto Código del puesto asignado en una entrada, o `null` si no tiene uno.
+ */
+public record EventoOcupacion(boolean entrada, long secuencia, Long id, String placa, TipoVehiculo tipo,
+                              LocalDateTime instante, String sede, String puesto) {
+}
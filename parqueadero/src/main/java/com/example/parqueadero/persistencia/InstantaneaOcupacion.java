@@ -0,0 +1,115 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Represento una instantánea de los vehículos que estaban dentro del parqueadero
+ * hasta cierta secuencia de la bitácora de ocupación.
+ * Escribo la instantánea en un archivo temporal y la renombro al terminar, así que una caída
+ * a mitad de la escritura deja la instantánea anterior intacta.
+ * Los vehículos de otras sedes llevan una marca propia con el código de la sede al final,
+ * así que las instantáneas anteriores a las sedes se siguen leyendo. Los que tienen puesto llevan otra marca,
+ * con la sede y el puesto al final.
+ * @param secuencia Última secuencia de la bitácora incluida en la instantánea.
+ * @param vehiculos Vehículos con sesión abierta.
+ */
+public record InstantaneaOcupacion(long secuencia, List<Vehiculo> vehiculos) {
+
+    private static final int MAGICO = 0x494E5354; // "INST"
+    private static final byte VEHICULO = 1;
+    private static final byte VEHICULO_SEDE = 2; // Como VEHICULO, con el código de la sede al final
+    private static final byte VEHICULO_PUESTO = 3; // Como VEHICULO_SEDE, con el puesto después de la sede
+    private static final byte FIN = 0;
+
+    /**
+     * Guardo una instantánea. Omito los vehículos sin ID, que la persistencia diferida aún no guarda
+     * y que su propio diario recupera.
+     * @param archivo Ruta final de la instantánea.
+     * @param secuencia Última secuencia de la bitácora incluida.
+     * @param vehiculos Vehículos que están dentro.
+     * @return Cantidad de vehículos guardados.
+     */
+    public static int escribir(Path archivo, long secuencia, Collection<Vehiculo> vehiculos) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        int guardados = 0;
+        try (FileOutputStream flujo = new FileOutputStream(temporal.toFile());
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(flujo, 1 << 16))) {
+            salida.writeInt(MAGICO);
+            salida.writeLong(secuencia);
+            for (Vehiculo vehiculo : vehiculos) {
+                if (vehiculo.getId() == null) {
+                    continue;
+                }
+                boolean conPuesto = vehiculo.getPuesto() != null;
+                boolean principal = Sede.PRINCIPAL.equals(vehiculo.getSede()) && !conPuesto;
+                salida.writeByte(conPuesto ? VEHICULO_PUESTO : principal ? VEHICULO : VEHICULO_SEDE);
+                salida.writeLong(vehiculo.getId());
+                salida.writeUTF(vehiculo.getPlaca());
+                salida.writeShort(vehiculo.getTipo().getCodigo());
+                salida.writeLong(vehiculo.getHoraEntrada().toEpochSecond(ZoneOffset.UTC));
+                salida.writeInt(vehiculo.getHoraEntrada().getNano());
+                if (!principal) {
+                    salida.writeUTF(vehiculo.getSede());
+                }
+                if (conPuesto) {
+                    salida.writeUTF(vehiculo.getPuesto());
+                }
+                guardados++;
+            }
+            salida.writeByte(FIN);
+            salida.flush();
+            flujo.getFD().sync();
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return guardados;
+    }
+
+    /**
+     * Leo la instantánea guardada.
+     * @param archivo Ruta de la instantánea.
+     * @return La instantánea, o vacío si todavía no existe.
+     * @throws IOException Si el archivo está dañado o no puedo leerlo.
+     */
+    public static Optional<InstantaneaOcupacion> leer(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return Optional.empty();
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("El archivo no es una instantánea de ocupación: " + archivo);
+            }
+            long secuencia = entrada.readLong();
+            List<Vehiculo> vehiculos = new ArrayList<>();
+            for (byte marca = entrada.readByte(); marca >= VEHICULO && marca <= VEHICULO_PUESTO; marca = entrada.readByte()) {
+                long id = entrada.readLong();
+                String placa = entrada.readUTF();
+                TipoVehiculo tipo = TipoVehiculo.desdeCodigo(entrada.readShort());
+                LocalDateTime horaEntrada = LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+                String sede = marca == VEHICULO ? Sede.PRINCIPAL : entrada.readUTF();
+                Vehiculo vehiculo = new Vehiculo(placa, tipo, horaEntrada, sede);
+                vehiculo.setId(id);
+                vehiculo.setPuesto(marca == VEHICULO_PUESTO ? entrada.readUTF() : null);
+                vehiculos.add(vehiculo);
+            }
+            return Optional.of(new InstantaneaOcupacion(secuencia, vehiculos));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hago el mantenimiento nocturno de la base de datos, a la hora de menos tráfico:
+ * una pasada completa del archivo de estadías cerradas, la purga de los eventos de portería procesados
+ * y de las reservas terminadas que superan su retención, y la actualización de las estadísticas del optimizador.
+ * La retención de los eventos se mide con la hora del servidor en que los procesé, no con el instante que envía
+ * la portería, así que un reloj de portería desfasado no adelanta ni retrasa la purga.
+ * Todo se hace en lotes de una transacción corta cada uno, con una pausa entre lotes, así que ninguna tabla
+ * queda bloqueada mientras las porterías siguen registrando entradas y salidas.
+ * Las tablas activas ya se mantienen pequeñas durante el día; esta pasada evita que crezcan las auxiliares.
+ */
+@Component
+public class MantenimientoNocturno {
+
+    private static final Logger log = LoggerFactory.getLogger(MantenimientoNocturno.class);
+
+    private static final String DESHABILITADO = "-";
+
+    private static final String SELECCIONAR_EVENTOS = "select id_evento from evento_procesado"
+            + " where procesado_en < :limite order by procesado_en limit :tamano";
+    private static final String BORRAR_EVENTOS = "delete from evento_procesado"
+            + " where id_evento in (:ids) and procesado_en < :limite";
+    private static final String SELECCIONAR_RESERVAS = "select id from reserva"
+            + " where estado <> 'PENDIENTE' and hasta < :limite limit :tamano";
+    private static final String BORRAR_RESERVAS = "delete from reserva"
+            + " where id in (:ids) and estado <> 'PENDIENTE' and hasta < :limite";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivoEstadias archivoEstadias;
+    private final CronExpression cron;
+    private final Duration retencionArchivo;
+    private final Duration retencionEventos;
+    private final Duration retencionReservas;
+    private final Duration pausa;
+    private final int tamanoLote;
+    private final ScheduledExecutorService programador;
+
+    /**
+     * Inyecto el acceso JDBC, el gestor de transacciones, el archivo de estadías, la fábrica del hilo de fondo,
+     * cuándo corro (expresión cron; `-` lo deshabilita), cuánto conservo de cada tabla, la pausa entre lotes
+     * y cuántas filas borro por transacción.
+     */
+    @Autowired
+    public MantenimientoNocturno(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 ArchivoEstadias archivoEstadias, FabricaHilos fabricaHilos,
+                                 @Value("${parqueadero.mantenimiento.cron:0 30 3 * * *}") String cron,
+                                 @Value("${parqueadero.archivo.retencion:15m}") Duration retencionArchivo,
+                                 @Value("${parqueadero.mantenimiento.retencion-eventos:30d}") Duration retencionEventos,
+                                 @Value("${parqueadero.mantenimiento.retencion-reservas:30d}") Duration retencionReservas,
+                                 @Value("${parqueadero.mantenimiento.pausa:50ms}") Duration pausa,
+                                 @Value("${parqueadero.archivo.tamano-lote:1000}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivoEstadias = archivoEstadias;
+        this.cron = DESHABILITADO.equals(cron.trim()) ? null : CronExpression.parse(cron);
+        this.retencionArchivo = retencionArchivo;
+        this.retencionEventos = retencionEventos;
+        this.retencionReservas = retencionReservas;
+        this.pausa = pausa;
+        this.tamanoLote = tamanoLote;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("mantenimiento-nocturno"));
+    }
+
+    /**
+     * Programo la primera ejecución.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (cron != null) {
+            programar();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Ejecuto el mantenimiento completo.
+     * @param ahora Hora de referencia para las retenciones.
+     * @return Cuántas filas archivé y purgué.
+     */
+    public Resultado mantener(LocalDateTime ahora) {
+        long inicio = System.nanoTime();
+        long archivadas = archivoEstadias.archivar(ahora.minus(retencionArchivo), pausa);
+        long eventos = purgar(SELECCIONAR_EVENTOS, BORRAR_EVENTOS, ahora.minus(retencionEventos));
+        long reservas = purgar(SELECCIONAR_RESERVAS, BORRAR_RESERVAS, ahora.minus(retencionReservas));
+        // Después de mover y borrar muchas filas, el optimizador necesita estadísticas nuevas para elegir índices
+        jdbcTemplate.getJdbcTemplate().execute("analyze");
+        log.info("Mantenimiento nocturno en {} ms: {} estadías archivadas, {} eventos y {} reservas purgados",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), archivadas, eventos, reservas);
+        return new Resultado(archivadas, eventos, reservas);
+    }
+
+    /**
+     * Programo la siguiente ejecución según la expresión cron; la reprogramo después de cada una,
+     * así que una ejecución larga nunca se solapa con la siguiente.
+     */
+    private void programar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime siguiente = cron.next(ahora);
+        if (siguiente == null || programador.isShutdown()) {
+            return;
+        }
+        programador.schedule(() -> {
+            try {
+                mantener(LocalDateTime.now());
+            } catch (RuntimeException e) {
+                log.error("No pude completar el mantenimiento nocturno", e);
+            } finally {
+                programar();
+            }
+        }, Duration.between(ahora, siguiente).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private long purgar(String seleccionar, String borrar, LocalDateTime limite) {
+        long purgadas = 0;
+        int borradas;
+        do {
+            borradas = transactionTemplate.execute(estado -> borrarLote(seleccionar, borrar, limite));
+            purgadas += borradas;
+        } while (borradas == tamanoLote && ArchivoEstadias.esperar(pausa));
+        return purgadas;
+    }
+
+    private int borrarLote(String seleccionar, String borrar, LocalDateTime limite) {
+        List<String> ids = jdbcTemplate.queryForList(seleccionar,
+                new MapSqlParameterSource("limite", limite).addValue("tamano", tamanoLote), String.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(borrar, new MapSqlParameterSource("ids", ids).addValue("limite", limite));
+        return ids.size();
+    }
+
+    /**
+     * Resultado de una ejecución del mantenimiento.
+     * @param archivadas Estadías cerradas movidas al historial.
+     * @param eventos Eventos de portería procesados que purgué.
+     * @param reservas Reservas terminadas que purgué.
+     */
+    public record Resultado(long archivadas, long eventos, long reservas) {
+    }
+}
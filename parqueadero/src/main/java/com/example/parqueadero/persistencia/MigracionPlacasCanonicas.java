@@ -0,0 +1,94 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.util.Placas;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resuelvo las sesiones abiertas que la migración V8 dejó con la placa sin normalizar porque su forma canónica
+ * chocaba con otra sesión abierta (por ejemplo `ABC-123` y `ABC123` dentro a la vez).
+ * Como el índice de ocupación las guarda por placa canónica, una de las dos quedaría inalcanzable.
+ * Recibo la `EntityManagerFactory` para ejecutarme después de que Flyway migró y Hibernate validó el esquema,
+ * y el índice de ocupación depende de mí para cargar una sola sesión por placa.
+ */
+@Component
+public class MigracionPlacasCanonicas {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionPlacasCanonicas.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MigracionPlacasCanonicas(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Agrupo las sesiones abiertas por placa canónica. En cada grupo con alguna placa sin normalizar conservo
+     * la sesión más reciente y cierro las anteriores sin cobro, con la hora de entrada de la siguiente
+     * (el vehículo tuvo que salir antes de volver a entrar), y dejo una advertencia con sus ID para revisarlas a mano.
+     * Si la placa no tiene letras ni números, la dejo como está y también lo advierto.
+     */
+    @PostConstruct
+    public void migrar() {
+        Map<String, List<Sesion>> grupos = new HashMap<>();
+        jdbcTemplate.query("select id, placa_activa, hora_entrada from vehiculo where placa_activa is not null",
+                fila -> {
+                    String placa = fila.getString("placa_activa");
+                    Timestamp entrada = fila.getTimestamp("hora_entrada");
+                    grupos.computeIfAbsent(Placas.normalizar(placa), canonica -> new ArrayList<>())
+                            .add(new Sesion(fila.getLong("id"), placa, entrada == null ? null : entrada.toLocalDateTime()));
+                });
+
+        int cerradas = 0;
+        int normalizadas = 0;
+        for (Map.Entry<String, List<Sesion>> grupo : grupos.entrySet()) {
+            String canonica = grupo.getKey();
+            List<Sesion> sesiones = grupo.getValue();
+            if (sesiones.stream().allMatch(sesion -> sesion.placa().equals(canonica))) {
+                continue;
+            }
+            if (canonica.isEmpty()) {
+                log.warn("Las sesiones abiertas {} tienen una placa sin letras ni números; revíselas a mano", sesiones);
+                continue;
+            }
+            sesiones.sort(Comparator.comparing(Sesion::horaEntrada, Comparator.nullsFirst(Comparator.naturalOrder())));
+            Sesion vigente = sesiones.get(sesiones.size() - 1);
+            for (int i = 0; i < sesiones.size() - 1; i++) {
+                Sesion anterior = sesiones.get(i);
+                LocalDateTime salida = sesiones.get(i + 1).horaEntrada();
+                jdbcTemplate.update("update vehiculo set hora_salida = ?, costo_total = 0, placa_activa = null,"
+                                + " placa = ? where id = ?",
+                        salida == null ? LocalDateTime.now() : salida, canonica, anterior.id());
+                cerradas++;
+            }
+            if (sesiones.size() > 1) {
+                log.warn("La placa {} tenía {} sesiones abiertas; conservo la {} y cerré sin cobro las anteriores {}",
+                        canonica, sesiones.size(), vigente, sesiones.subList(0, sesiones.size() - 1));
+            }
+            if (!vigente.placa().equals(canonica)) {
+                jdbcTemplate.update("update vehiculo set placa = ?, placa_activa = ? where id = ?",
+                        canonica, canonica, vigente.id());
+                normalizadas++;
+            }
+        }
+        if (cerradas > 0 || normalizadas > 0) {
+            log.info("Normalicé la placa de {} sesiones abiertas y cerré {} sesiones duplicadas", normalizadas, cerradas);
+        }
+    }
+
+    private record Sesion(long id, String placa, LocalDateTime horaEntrada) {}
+}
@@ -0,0 +1,66 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.service.AliasTiposVehiculo;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Migro los registros antiguos que guardaban el tipo de vehículo como texto traducido
+ * (columna `tipo`) a la columna numérica `tipo_codigo`.
+ * Recibo la `EntityManagerFactory` para ejecutarme después de que Flyway migró y Hibernate validó el esquema,
+ * y el índice de ocupación depende de mí para no cargar vehículos sin tipo.
+ */
+@Component
+public class MigracionTipoVehiculo {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionTipoVehiculo.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+
+    @Autowired
+    public MigracionTipoVehiculo(JdbcTemplate jdbcTemplate, AliasTiposVehiculo aliasTiposVehiculo,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+    }
+
+    /**
+     * Si todavía existe la columna de texto, copio cada alias conocido a su código y luego la elimino.
+     * Si quedan filas con un tipo que no reconozco, conservo la columna para revisarlas a mano.
+     */
+    @PostConstruct
+    public void migrar() {
+        Integer columnas = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns"
+                        + " where upper(table_name) = 'VEHICULO' and upper(column_name) = 'TIPO'",
+                Integer.class);
+        if (columnas == null || columnas == 0) {
+            return;
+        }
+
+        int migradas = 0;
+        for (Map.Entry<String, TipoVehiculo> alias : aliasTiposVehiculo.todos().entrySet()) {
+            migradas += jdbcTemplate.update(
+                    "update vehiculo set tipo_codigo = ? where tipo_codigo is null and lower(trim(tipo)) = ?",
+                    alias.getValue().getCodigo(), alias.getKey());
+        }
+        Integer sinMigrar = jdbcTemplate.queryForObject(
+                "select count(*) from vehiculo where tipo_codigo is null and tipo is not null", Integer.class);
+        if (sinMigrar != null && sinMigrar > 0) {
+            log.warn("Migré {} vehículos al código de tipo, pero {} tienen un tipo desconocido; conservo la columna 'tipo'",
+                    migradas, sinMigrar);
+            return;
+        }
+        jdbcTemplate.execute("alter table vehiculo drop column tipo");
+        log.info("Migré {} vehículos al código de tipo y eliminé la columna de texto 'tipo'", migradas);
+    }
+}
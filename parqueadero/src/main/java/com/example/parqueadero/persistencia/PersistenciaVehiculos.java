@@ -0,0 +1,556 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.PersistenciaDiferidaProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.ControlAdmision;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.JDBCConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Guardo las entradas y salidas de vehículos en la base de datos.
+ * En modo directo cada evento se guarda en la misma petición, como siempre.
+ * En modo diferido anoto el evento en un diario local, respondo a la portería y un hilo de fondo
+ * agrupa los eventos en lotes que escribe con batching de JDBC en una sola transacción.
+ * El hilo de fondo nunca toca los vehículos del índice, que las peticiones siguen modificando: encolo una copia
+ * inmutable de cada evento y, al confirmar una entrada, publico su ID en el índice.
+ * Solo confirmo en el diario los eventos que ya están en la base de datos o en el archivo de descartados:
+ * si la base de datos no responde, reintento el mismo lote sin avanzar la confirmación.
+ */
+@Component
+public class PersistenciaVehiculos {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenciaVehiculos.class);
+
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ObjectProvider<ContadorOcupacion> contadorOcupacion;
+    private final ObjectProvider<InventarioPuestos> inventarioPuestos;
+    private final ControlAdmision controlAdmision;
+    private final PersistenciaDiferidaProperties propiedades;
+    private final TransactionTemplate transactionTemplate;
+    private final FabricaHilos fabricaHilos;
+    private final ReentrantLock candadoEncolado = new ReentrantLock();
+    private final ReentrantLock candadoConfirmacion = new ReentrantLock();
+    private final Condition confirmacion = candadoConfirmacion.newCondition();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DiarioEventos diario;
+    private DiarioEventos descartados;
+    private BlockingQueue<Pendiente> cola;
+    private Thread escritor;
+    private volatile boolean cerrando;
+    private long ultimaConfirmada; // Protegida por candadoConfirmacion
+    private final Set<String> entradasDescartadas = new HashSet<>(); // Solo la usa el hilo escritor
+
+    /**
+     * Inyecto el repositorio, el índice de ocupación (para recuperar eventos pendientes y publicar los ID),
+     * los cupos, los puestos y el control de admisión (para deshacer en el índice un evento descartado;
+     * los cupos y los puestos los resuelvo al usarlos, porque se cuentan después de recuperar el diario),
+     * la configuración del modo diferido, el gestor de transacciones para escribir los lotes
+     * y la fábrica que crea el hilo escritor (de plataforma o virtual).
+     */
+    @Autowired
+    public PersistenciaVehiculos(VehiculoRepositorio vehiculoRepositorio, IndiceOcupacion indiceOcupacion,
+                                 ObjectProvider<ContadorOcupacion> contadorOcupacion,
+                                 ObjectProvider<InventarioPuestos> inventarioPuestos,
+                                 ControlAdmision controlAdmision, PersistenciaDiferidaProperties propiedades,
+                                 PlatformTransactionManager transactionManager, FabricaHilos fabricaHilos) {
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.indiceOcupacion = indiceOcupacion;
+        this.contadorOcupacion = contadorOcupacion;
+        this.inventarioPuestos = inventarioPuestos;
+        this.controlAdmision = controlAdmision;
+        this.propiedades = propiedades;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fabricaHilos = fabricaHilos;
+    }
+
+    /**
+     * Si el modo diferido está habilitado, abro el diario y el archivo de descartados, recupero los eventos
+     * que no alcanzaron a guardarse antes de la última parada y arranco el hilo que escribe los lotes.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (!propiedades.isHabilitada()) {
+            return;
+        }
+        try {
+            diario = new DiarioEventos(Path.of(propiedades.getDiario()), propiedades.isSincronizarDiario());
+            descartados = new DiarioEventos(Path.of(propiedades.getDescartados()), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<EventoDiario> pendientes = diario.leerPendientes();
+        descartados.leerPendientes(); // Sigo numerando después de los descartados anteriores
+        cola = new LinkedBlockingQueue<>(propiedades.getCapacidadCola() + pendientes.size());
+        recuperarPendientes(pendientes);
+        escritor = fabricaHilos.fabrica("persistencia-diferida").newThread(this::escribirLotes);
+        escritor.start();
+    }
+
+    /**
+     * Guardo la entrada de un vehículo.
+     * @param vehiculo Vehículo con la sesión recién abierta.
+     * @return El vehículo guardado; en modo diferido es la misma instancia, cuyo ID publico en el índice
+     *         cuando el lote se confirma.
+     */
+    public Vehiculo guardarEntrada(Vehiculo vehiculo) {
+        if (diario == null) {
+            return vehiculoRepositorio.save(vehiculo);
+        }
+        encolar(EventoDiario.Tipo.ENTRADA, vehiculo);
+        return vehiculo;
+    }
+
+    /**
+     * Guardo la salida de un vehículo, con su hora de salida y costo ya calculados.
+     * @param vehiculo Vehículo con la sesión cerrada.
+     */
+    public void guardarSalida(Vehiculo vehiculo) {
+        if (diario == null) {
+            vehiculoRepositorio.save(vehiculo);
+            return;
+        }
+        encolar(EventoDiario.Tipo.SALIDA, vehiculo);
+    }
+
+    /**
+     * Guardo en una sola transacción, sin pasar por el diario, las entradas y salidas de un lote de portería
+     * junto con los registros de sus eventos. Antes de llamarlo hay que vaciar la persistencia diferida
+     * para que los vehículos que ya estaban dentro tengan ID.
+     * @param vehiculos Vehículos con las sesiones abiertas o cerradas por el lote, en orden.
+     * @param registros Entidades adicionales que deben confirmarse junto con los vehículos.
+     * @throws RuntimeException Si la transacción falla; en ese caso no queda nada guardado.
+     */
+    public void guardarLote(List<Vehiculo> vehiculos, Collection<?> registros) {
+        transactionTemplate.executeWithoutResult(estado -> aplicar(vehiculos, registros));
+    }
+
+    /**
+     * Espero a que todos los eventos anotados hasta ahora lleguen a la base de datos (o a los descartados).
+     * El hilo escritor me avisa después de cada confirmación.
+     * @param tiempoMaximo Tiempo máximo que espero, en milisegundos.
+     * @return `true` si no quedó nada pendiente dentro del tiempo indicado.
+     */
+    public boolean vaciar(long tiempoMaximo) throws InterruptedException {
+        if (diario == null) {
+            return true;
+        }
+        long objetivo = diario.ultimaSecuencia();
+        long restante = TimeUnit.MILLISECONDS.toNanos(tiempoMaximo);
+        candadoConfirmacion.lock();
+        try {
+            while (ultimaConfirmada < objetivo) {
+                if (restante <= 0) {
+                    return false;
+                }
+                restante = confirmacion.awaitNanos(restante);
+            }
+            return true;
+        } finally {
+            candadoConfirmacion.unlock();
+        }
+    }
+
+    /**
+     * Al apagar la aplicación, dejo que el hilo escritor termine de vaciar la cola antes de cerrar el diario.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException, IOException {
+        if (diario == null) {
+            return;
+        }
+        cerrando = true;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+        if (escritor.isAlive()) {
+            log.warn("La persistencia diferida no terminó de vaciarse; los eventos pendientes siguen en el diario");
+        }
+        diario.close();
+        descartados.close();
+    }
+
+    /**
+     * Anoto el evento en el diario y encolo una copia mientras tengo el mismo candado,
+     * para que la cola quede en el mismo orden que el diario y las confirmaciones sean correctas.
+     * Quien llama tiene el candado de la placa, así que la copia refleja el estado que acaba de dejar.
+     */
+    private void encolar(EventoDiario.Tipo tipo, Vehiculo vehiculo) {
+        LocalDateTime instante = tipo == EventoDiario.Tipo.ENTRADA ? vehiculo.getHoraEntrada() : vehiculo.getHoraSalida();
+        candadoEncolado.lock();
+        try {
+            long secuencia = diario.registrar(tipo, vehiculo.getPlaca(), vehiculo.getTipo().name(), instante,
+                    vehiculo.getCostoTotal(), vehiculo.getSede(), vehiculo.getPuesto());
+            cola.put(Pendiente.de(secuencia, tipo, vehiculo));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras encolaba un evento de la placa " + vehiculo.getPlaca(), e);
+        } finally {
+            candadoEncolado.unlock();
+        }
+    }
+
+    /**
+     * Vuelvo a aplicar sobre el índice los eventos del diario que no se confirmaron y los encolo de nuevo.
+     * Una entrada que ya está en el índice o una salida de un vehículo que ya no está dentro
+     * sí alcanzaron a guardarse, así que las omito.
+     */
+    private void recuperarPendientes(List<EventoDiario> pendientes) {
+        for (EventoDiario evento : pendientes) {
+            if (evento.tipo() == EventoDiario.Tipo.ENTRADA) {
+                if (indiceOcupacion.contiene(evento.placa())) {
+                    continue;
+                }
+                Vehiculo vehiculo = new Vehiculo(evento.placa(), TipoVehiculo.valueOf(evento.tipoVehiculo()),
+                        evento.instante(), evento.sede());
+                vehiculo.setPuesto(evento.puesto());
+                indiceOcupacion.registrarEntrada(vehiculo);
+                cola.add(Pendiente.de(evento.secuencia(), EventoDiario.Tipo.ENTRADA, vehiculo));
+            } else {
+                indiceOcupacion.buscar(evento.placa()).ifPresent(vehiculo -> {
+                    vehiculo.setHoraSalida(evento.instante());
+                    vehiculo.setCostoTotal(evento.costoTotal());
+                    indiceOcupacion.registrarSalida(vehiculo);
+                    cola.add(Pendiente.de(evento.secuencia(), EventoDiario.Tipo.SALIDA, vehiculo));
+                });
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            log.info("Recuperados {} eventos pendientes del diario de persistencia diferida", pendientes.size());
+        }
+    }
+
+    /**
+     * Ciclo del hilo escritor: tomo el primer evento disponible y espero hasta `esperaMaxima`
+     * a que se complete el lote; luego lo escribo y confirmo su última secuencia en el diario.
+     * Si la base de datos no responde, conservo los eventos que faltan y los reintento después de una pausa.
+     */
+    private void escribirLotes() {
+        int tamanoLote = propiedades.getTamanoLote();
+        long espera = propiedades.getEsperaMaxima().toNanos();
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (true) {
+            try {
+                if (lote.isEmpty()) {
+                    Pendiente primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primero == null) {
+                        if (cerrando) {
+                            return;
+                        }
+                        continue;
+                    }
+                    lote.add(primero);
+                    long limite = System.nanoTime() + espera;
+                    while (lote.size() < tamanoLote) {
+                        cola.drainTo(lote, tamanoLote - lote.size());
+                        long restante = limite - System.nanoTime();
+                        if (lote.size() >= tamanoLote || restante <= 0) {
+                            break;
+                        }
+                        Pendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                        if (siguiente == null) {
+                            break;
+                        }
+                        lote.add(siguiente);
+                    }
+                }
+                List<Pendiente> porDeshacer = escribirLote(lote);
+                confirmar(lote.get(lote.size() - 1).secuencia());
+                lote.clear();
+                porDeshacer.forEach(this::deshacer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("No pude escribir {} eventos; siguen en el diario y los reintento en {}",
+                        lote.size(), propiedades.getEsperaReintento(), e);
+                if (cerrando) {
+                    return;
+                }
+                try {
+                    Thread.sleep(propiedades.getEsperaReintento().toMillis());
+                } catch (InterruptedException interrumpido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribo un lote en una sola transacción. Las entradas nuevas se insertan con `persist`
+     * (el ID sale del generador de secuencia, así que Hibernate puede agruparlas) y las salidas
+     * se aplican sobre las filas cargadas con una sola consulta por lote.
+     * Si el lote falla por un evento, reintento los eventos uno por uno para aislarlo y lo paso a los descartados.
+     * Si falla porque la base de datos no responde, confirmo los eventos que ya escribí, los quito del lote
+     * y lanzo la excepción para reintentar el resto.
+     * @return Los eventos descartados, que debo deshacer en el índice después de confirmar el lote.
+     */
+    private List<Pendiente> escribirLote(List<Pendiente> lote) {
+        try {
+            publicar(transactionTemplate.execute(estado -> aplicarPendientes(lote)));
+            return List.of();
+        } catch (RuntimeException e) {
+            if (esTransitorio(e)) {
+                throw e;
+            }
+            log.warn("Falló un lote de {} eventos; reintento uno por uno", lote.size(), e);
+        }
+        List<Pendiente> porDeshacer = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            Pendiente pendiente = lote.get(i);
+            try {
+                try {
+                    publicar(transactionTemplate.execute(estado -> aplicarPendientes(List.of(pendiente))));
+                } catch (RuntimeException error) {
+                    if (esTransitorio(error)) {
+                        throw error;
+                    }
+                    descartar(pendiente, error);
+                    porDeshacer.add(pendiente);
+                }
+            } catch (RuntimeException error) {
+                if (i > 0) {
+                    confirmar(lote.get(i - 1).secuencia());
+                    lote.subList(0, i).clear();
+                }
+                porDeshacer.forEach(this::deshacer);
+                throw error;
+            }
+        }
+        return porDeshacer;
+    }
+
+    /**
+     * Aplico una copia de cada evento dentro de la transacción actual: inserto una entidad nueva por entrada
+     * y busco la fila de cada salida por su ID o, si la entrada aún no lo tenía al salir, por su sesión abierta.
+     * @return Las entidades insertadas con el evento de su entrada, para publicar los ID al confirmar.
+     */
+    private Map<Pendiente, Vehiculo> aplicarPendientes(List<Pendiente> lote) {
+        Map<Pendiente, Vehiculo> insertados = new IdentityHashMap<>();
+        Map<String, Vehiculo> abiertos = new HashMap<>(); // Entradas de este lote que siguen abiertas
+        Map<Long, Pendiente> salidas = new HashMap<>();
+        for (Pendiente pendiente : lote) {
+            if (pendiente.evento() == EventoDiario.Tipo.ENTRADA) {
+                Vehiculo vehiculo = pendiente.nuevoVehiculo();
+                entityManager.persist(vehiculo);
+                insertados.put(pendiente, vehiculo);
+                abiertos.put(pendiente.placa(), vehiculo);
+                continue;
+            }
+            Vehiculo abierto = abiertos.remove(pendiente.placa());
+            if (abierto != null && abierto.getHoraEntrada().equals(pendiente.horaEntrada())) {
+                abierto.setHoraSalida(pendiente.horaSalida());
+                abierto.setCostoTotal(pendiente.costoTotal());
+            } else if (pendiente.id() != null) {
+                salidas.put(pendiente.id(), pendiente);
+            } else {
+                // Los eventos llegan en el orden del diario, así que la sesión abierta de la placa es la de esta salida
+                // (no comparo la hora de entrada: la base de datos la guarda con menos precisión)
+                Vehiculo gestionado = vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull(pendiente.placa())
+                        .orElseThrow(() -> new IllegalStateException(
+                                "No encuentro la sesión abierta de la placa " + pendiente.placa()));
+                gestionado.setHoraSalida(pendiente.horaSalida());
+                gestionado.setCostoTotal(pendiente.costoTotal());
+            }
+        }
+        for (Vehiculo gestionado : vehiculoRepositorio.findAllById(salidas.keySet())) {
+            Pendiente salida = salidas.remove(gestionado.getId());
+            gestionado.setHoraSalida(salida.horaSalida());
+            gestionado.setCostoTotal(salida.costoTotal());
+        }
+        if (!salidas.isEmpty()) {
+            throw new IllegalStateException("No encuentro las sesiones con ID " + salidas.keySet());
+        }
+        entityManager.flush();
+        return insertados;
+    }
+
+    /**
+     * Publico en el índice los ID de las entradas que acabo de confirmar.
+     */
+    private void publicar(Map<Pendiente, Vehiculo> insertados) {
+        insertados.forEach((pendiente, vehiculo) ->
+                indiceOcupacion.asignarId(pendiente.placa(), pendiente.horaEntrada(), vehiculo.getId()));
+    }
+
+    /**
+     * Anoto en el archivo de descartados un evento que la base de datos rechaza, para revisarlo a mano.
+     * Si el archivo tampoco se puede escribir, la excepción detiene el lote y el evento sigue en el diario.
+     */
+    private void descartar(Pendiente pendiente, RuntimeException error) {
+        descartados.registrar(pendiente.evento(), pendiente.placa(), pendiente.tipo().name(),
+                pendiente.evento() == EventoDiario.Tipo.ENTRADA ? pendiente.horaEntrada() : pendiente.horaSalida(),
+                pendiente.costoTotal(), pendiente.sede(), pendiente.puesto());
+        log.error("Descarto el evento {} ({}) de la placa {}; lo anoté en {}", pendiente.secuencia(), pendiente.evento(),
+                pendiente.placa(), propiedades.getDescartados(), error);
+    }
+
+    /**
+     * Deshago en el índice, con el candado de la placa, un evento que no llegó a la base de datos:
+     * retiro la entrada y devuelvo su cupo y su puesto, o vuelvo a dejar dentro el vehículo de una salida.
+     * Lo hago después de confirmar el lote, porque quien espera la confirmación puede tener el candado de la placa.
+     */
+    private void deshacer(Pendiente pendiente) {
+        String sesion = pendiente.placa() + "@" + pendiente.horaEntrada();
+        controlAdmision.conPlaca(pendiente.placa(), () -> {
+            if (pendiente.evento() == EventoDiario.Tipo.ENTRADA) {
+                entradasDescartadas.add(sesion);
+                indiceOcupacion.buscar(pendiente.placa())
+                        .filter(dentro -> dentro.getId() == null && dentro.getHoraEntrada().equals(pendiente.horaEntrada()))
+                        .ifPresent(dentro -> {
+                            indiceOcupacion.registrarSalida(dentro);
+                            contadorOcupacion.getObject().liberar(dentro.getSede(), dentro.getTipo());
+                            inventarioPuestos.getObject().liberar(dentro);
+                        });
+            } else if (!entradasDescartadas.remove(sesion) && !indiceOcupacion.contiene(pendiente.placa())) {
+                // La salida de una entrada descartada no tiene nada que deshacer
+                Vehiculo vehiculo = pendiente.nuevoVehiculo();
+                vehiculo.setId(pendiente.id());
+                indiceOcupacion.registrarEntrada(vehiculo);
+                contadorOcupacion.getObject().ocupar(vehiculo.getSede(), vehiculo.getTipo());
+                if (vehiculo.getPuesto() != null) {
+                    inventarioPuestos.getObject().ocupar(vehiculo.getSede(), vehiculo.getTipo(), vehiculo.getPuesto());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Confirmo en el diario los eventos hasta una secuencia y aviso a quienes esperan en `vaciar`.
+     */
+    private void confirmar(long secuencia) {
+        diario.confirmar(secuencia);
+        candadoConfirmacion.lock();
+        try {
+            ultimaConfirmada = secuencia;
+            confirmacion.signalAll();
+        } finally {
+            candadoConfirmacion.unlock();
+        }
+    }
+
+    /**
+     * Distingo una base de datos que no responde (reintento el lote) de un evento que la base rechaza (lo descarto).
+     */
+    private static boolean esTransitorio(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof TransientDataAccessException || causa instanceof RecoverableDataAccessException
+                    || causa instanceof DataAccessResourceFailureException
+                    || causa instanceof CannotCreateTransactionException || causa instanceof JDBCConnectionException
+                    || causa instanceof SQLTransientException || causa instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserto los vehículos nuevos, aplico las salidas de los existentes y guardo los demás registros,
+     * dentro de la transacción actual. Un vehículo que aparece varias veces se escribe una sola vez con su último estado.
+     */
+    private void aplicar(List<Vehiculo> vehiculos, Collection<?> registros) {
+        Set<Vehiculo> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Vehiculo> nuevos = new ArrayList<>();
+        Map<Long, Vehiculo> existentes = new HashMap<>();
+        for (Vehiculo vehiculo : vehiculos) {
+            if (!vistos.add(vehiculo)) {
+                continue;
+            }
+            if (vehiculo.getId() == null) {
+                nuevos.add(vehiculo);
+            } else {
+                existentes.put(vehiculo.getId(), vehiculo);
+            }
+        }
+        try {
+            for (Vehiculo vehiculo : nuevos) {
+                entityManager.persist(vehiculo);
+            }
+            for (Vehiculo gestionado : vehiculoRepositorio.findAllById(existentes.keySet())) {
+                Vehiculo cambios = existentes.get(gestionado.getId());
+                gestionado.setHoraSalida(cambios.getHoraSalida());
+                gestionado.setCostoTotal(cambios.getCostoTotal());
+            }
+            for (Object registro : registros) {
+                entityManager.persist(registro);
+            }
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            // Si la transacción no se confirma, las entradas nuevas deben volver a verse como nuevas
+            for (Vehiculo vehiculo : nuevos) {
+                vehiculo.setId(null);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Copia inmutable de un evento encolado, con la secuencia que recibió en el diario.
+     * @param id ID de la sesión si ya lo tenía al encolar el evento; en una salida puede faltar si su entrada
+     *           todavía no se había guardado.
+     */
+    private record Pendiente(long secuencia, EventoDiario.Tipo evento, Long id, String placa, TipoVehiculo tipo,
+                             LocalDateTime horaEntrada, LocalDateTime horaSalida, BigDecimal costoTotal,
+                             String sede, String puesto) {
+
+        static Pendiente de(long secuencia, EventoDiario.Tipo evento, Vehiculo vehiculo) {
+            return new Pendiente(secuencia, evento, vehiculo.getId(), vehiculo.getPlaca(), vehiculo.getTipo(),
+                    vehiculo.getHoraEntrada(), vehiculo.getHoraSalida(), vehiculo.getCostoTotal(),
+                    vehiculo.getSede(), vehiculo.getPuesto());
+        }
+
+        /**
+         * Creo una entidad nueva con la sesión abierta del evento.
+         */
+        Vehiculo nuevoVehiculo() {
+            Vehiculo vehiculo = new Vehiculo(placa, tipo, horaEntrada, sede);
+            vehiculo.setPuesto(puesto);
+            return vehiculo;
+        }
+    }
+}
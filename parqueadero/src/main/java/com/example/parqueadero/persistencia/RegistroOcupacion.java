@@ -0,0 +1,217 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.RecuperacionProperties;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.util.Placas;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Guardo en disco el estado del índice de ocupación para reconstruirlo al arrancar sin consultar la base de datos:
+ * anoto cada entrada y salida en una bitácora mapeada en memoria y cada cierto tiempo guardo una instantánea
+ * de los vehículos que están dentro. Al arrancar cargo la última instantánea y aplico solo los eventos
+ * posteriores, así que el tiempo de arranque depende de la ocupación y del intervalo de instantáneas,
+ * no de la cantidad de eventos históricos.
+ * La base de datos sigue siendo la fuente de verdad; `ConciliacionOcupacion` corrige en segundo plano
+ * cualquier diferencia que deje una caída entre el guardado y la anotación.
+ */
+@Component
+public class RegistroOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroOcupacion.class);
+
+    private static final String ARCHIVO_INSTANTANEA = "instantanea.bin";
+
+    private final RecuperacionProperties propiedades;
+    private final FabricaHilos fabricaHilos;
+    private final ReentrantLock candadoInstantanea = new ReentrantLock();
+
+    private volatile BitacoraOcupacion bitacora;
+    private ScheduledExecutorService programador;
+    private Supplier<Collection<Vehiculo>> activos;
+    private boolean recuperado;
+
+    /**
+     * Inyecto la configuración de la recuperación y la fábrica del hilo que guarda las instantáneas.
+     */
+    @Autowired
+    public RegistroOcupacion(RecuperacionProperties propiedades, FabricaHilos fabricaHilos) {
+        this.propiedades = propiedades;
+        this.fabricaHilos = fabricaHilos;
+    }
+
+    /**
+     * Reconstruyo los vehículos que estaban dentro a partir de la instantánea y de la bitácora, y abro la bitácora
+     * para los eventos nuevos. Descarto los vehículos sin ID, que recupera el diario de la persistencia diferida.
+     * @return Los vehículos que están dentro, o vacío si la recuperación está apagada o todavía no hay nada guardado;
+     * en ese caso el índice debe cargarse desde la base de datos.
+     */
+    public Optional<List<Vehiculo>> recuperar() {
+        if (!propiedades.isHabilitada()) {
+            return Optional.empty();
+        }
+        if (bitacora != null) {
+            throw new IllegalStateException("La bitácora de ocupación ya está abierta");
+        }
+        Path directorio = Path.of(propiedades.getDirectorio());
+        try {
+            long inicio = System.nanoTime();
+            Optional<InstantaneaOcupacion> instantanea = InstantaneaOcupacion.leer(directorio.resolve(ARCHIVO_INSTANTANEA));
+            boolean hayBitacora = BitacoraOcupacion.existe(directorio);
+            Map<String, Vehiculo> dentro = new HashMap<>();
+            instantanea.ifPresent(guardada -> guardada.vehiculos()
+                    .forEach(vehiculo -> dentro.put(Placas.normalizar(vehiculo.getPlaca()), vehiculo)));
+            long desde = instantanea.map(InstantaneaOcupacion::secuencia).orElse(0L);
+            long[] aplicados = {0};
+            long ultima = BitacoraOcupacion.leer(directorio, desde, evento -> {
+                aplicar(dentro, evento);
+                aplicados[0]++;
+            });
+            bitacora = new BitacoraOcupacion(directorio, propiedades.getTamanoRegion().toBytes(), ultima);
+            if (instantanea.isEmpty() && !hayBitacora) {
+                log.info("No hay instantánea ni bitácora de ocupación en {}; cargo el índice desde la base de datos", directorio);
+                return Optional.empty();
+            }
+            dentro.values().removeIf(vehiculo -> vehiculo.getId() == null);
+            recuperado = true;
+            log.info("Recuperé {} vehículos dentro desde la instantánea y {} eventos de la bitácora en {} ms",
+                    dentro.size(), aplicados[0], (System.nanoTime() - inicio) / 1_000_000);
+            return Optional.of(new ArrayList<>(dentro.values()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Empiezo a guardar instantáneas periódicas de los vehículos que entrega el proveedor.
+     * Si el índice se cargó desde la base de datos, guardo la primera de inmediato para que el próximo arranque sea rápido.
+     * @param activos Vista de los vehículos que están dentro.
+     */
+    public void iniciarInstantaneas(Supplier<Collection<Vehiculo>> activos) {
+        if (bitacora == null) {
+            return;
+        }
+        this.activos = activos;
+        if (!recuperado) {
+            tomarInstantanea();
+        }
+        long intervalo = propiedades.getIntervaloInstantanea().toMillis();
+        programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("instantanea-ocupacion"));
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                tomarInstantanea();
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude guardar la instantánea de ocupación", e);
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Indico si el índice se reconstruyó desde disco y no desde la base de datos.
+     */
+    public boolean isRecuperado() {
+        return recuperado;
+    }
+
+    /**
+     * Anoto la entrada de un vehículo. Debo llamarlo después de actualizar el índice y con el candado de la placa,
+     * para que el orden de la bitácora coincida con el del índice.
+     */
+    public void anotarEntrada(Vehiculo vehiculo) {
+        BitacoraOcupacion actual = bitacora;
+        if (actual != null) {
+            actual.anotar(true, vehiculo.getId(), vehiculo.getPlaca(), vehiculo.getTipo(), vehiculo.getHoraEntrada(),
+                    vehiculo.getSede(), vehiculo.getPuesto());
+        }
+    }
+
+    /**
+     * Anoto la salida de un vehículo, con las mismas condiciones que la entrada.
+     */
+    public void anotarSalida(Vehiculo vehiculo) {
+        BitacoraOcupacion actual = bitacora;
+        if (actual != null) {
+            actual.anotar(false, vehiculo.getId(), vehiculo.getPlaca(), vehiculo.getTipo(),
+                    vehiculo.getHoraSalida() != null ? vehiculo.getHoraSalida() : vehiculo.getHoraEntrada(),
+                    vehiculo.getSede(), null);
+        }
+    }
+
+    /**
+     * Guardo una instantánea y borro la parte de la bitácora que ya incluye.
+     * Primero abro una generación nueva de la bitácora y tomo su secuencia; luego recorro el índice.
+     * Como el índice se actualiza antes de anotar cada evento, la instantánea incluye todo lo anotado
+     * hasta esa secuencia y quizás algunos eventos posteriores, que al volver a aplicarse no cambian nada.
+     */
+    public void tomarInstantanea() {
+        candadoInstantanea.lock();
+        try {
+            long inicio = System.nanoTime();
+            long secuencia = bitacora.rotar();
+            int vehiculos = InstantaneaOcupacion.escribir(Path.of(propiedades.getDirectorio()).resolve(ARCHIVO_INSTANTANEA),
+                    secuencia, activos.get());
+            bitacora.borrarAnteriores();
+            log.debug("Guardé la instantánea de ocupación con {} vehículos hasta la secuencia {} en {} ms",
+                    vehiculos, secuencia, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            candadoInstantanea.unlock();
+        }
+    }
+
+    /**
+     * Al apagar la aplicación, guardo una última instantánea para que el siguiente arranque no aplique ningún evento.
+     */
+    @PreDestroy
+    public void detener() throws IOException {
+        if (bitacora == null) {
+            return;
+        }
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        try {
+            if (activos != null) {
+                tomarInstantanea();
+            }
+        } finally {
+            bitacora.close();
+        }
+    }
+
+    /**
+     * Aplico un evento de la bitácora sobre los vehículos reconstruidos.
+     */
+    static void aplicar(Map<String, Vehiculo> dentro, EventoOcupacion evento) {
+        String placa = Placas.normalizar(evento.placa());
+        if (evento.entrada()) {
+            Vehiculo vehiculo = new Vehiculo(evento.placa(), evento.tipo(), evento.instante(), evento.sede());
+            vehiculo.setId(evento.id());
+            vehiculo.setPuesto(evento.puesto());
+            dentro.put(placa, vehiculo);
+        } else {
+            dentro.remove(placa);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.model.EventoProcesado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Consulto los eventos de portería que ya procesé, por el identificador que les dio la portería.
+ * Uso `findAllById` para revisar un lote completo con una sola consulta.
+ */
+@Repository
+public interface EventoProcesadoRepositorio extends JpaRepository<EventoProcesado, String> {
+}
@@ -0,0 +1,35 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.model.EstadoReserva;
+import com.example.parqueadero.model.Reserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Guardo las reservas de puestos. Solo lo uso al crear reservas, al arrancar y para anotar cómo terminó cada una;
+ * las consultas de disponibilidad se resuelven en `AgendaReservas`.
+ */
+@Repository
+public interface ReservaRepositorio extends JpaRepository<Reserva, String> {
+
+    /**
+     * Busco las reservas que siguen pendientes y todavía no terminan, para cargarlas al arrancar.
+     */
+    List<Reserva> findByEstadoAndHastaAfter(EstadoReserva estado, LocalDateTime hasta);
+
+    /**
+     * Anoto el estado y el puesto actuales de una reserva sin cargarla.
+     * @return Cantidad de reservas actualizadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Reserva r set r.estado = :estado, r.puesto = :puesto where r.id = :id")
+    int actualizar(@Param("id") String id, @Param("estado") EstadoReserva estado, @Param("puesto") String puesto);
+}
@@ -0,0 +1,46 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.ResumenEstadia;
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ResumenEstadiaRepositorio extends JpaRepository<ResumenEstadia, Long> {
+
+    /**
+     * Busco el resumen de una cubeta para sumarle nuevas estadías.
+     * @return El resumen, o vacío si la cubeta todavía no tiene estadías guardadas.
+     */
+    Optional<ResumenEstadia> findByGranularidadAndInicioAndTipo(Granularidad granularidad, LocalDateTime inicio,
+                                                                TipoVehiculo tipo);
+
+    /**
+     * Consulto los resúmenes de las cubetas que empiezan dentro del rango, usando la restricción única como índice.
+     * @param granularidad Tamaño de las cubetas.
+     * @param desde Inicio del rango (incluido).
+     * @param hasta Fin del rango (excluido).
+     * @return Los resúmenes ordenados por inicio.
+     */
+    @Query("select r from ResumenEstadia r where r.granularidad = :granularidad"
+            + " and r.inicio >= :desde and r.inicio < :hasta order by r.inicio, r.tipo")
+    List<ResumenEstadia> buscarEntre(@Param("granularidad") Granularidad granularidad,
+                                     @Param("desde") LocalDateTime desde,
+                                     @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Borro los resúmenes (de hora y de día) de las cubetas que empiezan dentro del rango, antes de reconstruirlos.
+     * @return Cantidad de resúmenes borrados.
+     */
+    @Modifying
+    @Query("delete from ResumenEstadia r where r.inicio >= :desde and r.inicio < :hasta")
+    int borrarEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
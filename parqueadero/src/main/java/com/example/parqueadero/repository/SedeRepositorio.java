@@ -0,0 +1,12 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.model.Sede;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Consulto y guardo las sedes. Solo lo uso al arrancar y al crear sedes; las peticiones consultan `RegistroSedes`.
+ */
+@Repository
+public interface SedeRepositorio extends JpaRepository<Sede, String> {
+}
@@ -0,0 +1,97 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.model.Estadia;
+import com.example.parqueadero.model.PlacaReciente;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.TotalSalidas;
+import com.example.parqueadero.model.VehiculoArchivado;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consulto las estadías archivadas con los mismos filtros que `VehiculoRepositorio` usa sobre la tabla activa,
+ * para que el historial combine ambas tablas. Todas las filas archivadas son sesiones cerradas.
+ */
+@Repository
+public interface VehiculoArchivadoRepositorio extends JpaRepository<VehiculoArchivado, Long> {
+
+    /**
+     * Consulto una página del historial archivado con paginación por cursor (keyset).
+     * Los filtros en `null` se ignoran.
+     * @param despuesDe Último ID entregado en la página anterior (0 para la primera página).
+     * @param pagina Solo uso su tamaño; el orden siempre es por ID ascendente.
+     */
+    @Query("select v from VehiculoArchivado v where v.id > :despuesDe"
+            + " and (:desde is null or v.horaEntrada >= :desde)"
+            + " and (:hasta is null or v.horaEntrada < :hasta)"
+            + " and (:tipo is null or v.tipo = :tipo)"
+            + " and (:sede is null or v.sede = :sede)"
+            + " order by v.id")
+    List<VehiculoArchivado> buscarHistorial(@Param("despuesDe") long despuesDe,
+                                            @Param("desde") LocalDateTime desde,
+                                            @Param("hasta") LocalDateTime hasta,
+                                            @Param("tipo") TipoVehiculo tipo,
+                                            @Param("sede") String sede,
+                                            Pageable pagina);
+
+    /**
+     * Recorro el historial archivado filtrado con un cursor de la base de datos, ordenado por ID.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select v from VehiculoArchivado v where 1 = 1"
+            + " and (:desde is null or v.horaEntrada >= :desde)"
+            + " and (:hasta is null or v.horaEntrada < :hasta)"
+            + " and (:tipo is null or v.tipo = :tipo)"
+            + " and (:sede is null or v.sede = :sede)"
+            + " order by v.id")
+    Stream<VehiculoArchivado> recorrerHistorial(@Param("desde") LocalDateTime desde,
+                                                @Param("hasta") LocalDateTime hasta,
+                                                @Param("tipo") TipoVehiculo tipo,
+                                                @Param("sede") String sede);
+
+    /**
+     * Recorro las estadías archivadas que terminaron dentro del rango, leyendo solo las columnas de los resúmenes.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     * @param hasta Fin del rango de hora de salida (excluido).
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select new com.example.parqueadero.model.Estadia(v.tipo, v.horaEntrada, v.horaSalida, v.costoTotal)"
+            + " from VehiculoArchivado v where v.horaSalida >= :desde and v.horaSalida < :hasta")
+    Stream<Estadia> recorrerEstadias(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Cuento las salidas archivadas de una sede dentro del rango y sumo lo cobrado.
+     * @param sede Código de la sede.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     * @param hasta Fin del rango de hora de salida (excluido).
+     */
+    @Query("select new com.example.parqueadero.model.TotalSalidas(count(v), coalesce(sum(v.costoTotal), 0))"
+            + " from VehiculoArchivado v where v.sede = :sede and v.horaSalida >= :desde and v.horaSalida < :hasta")
+    TotalSalidas totalizarSalidas(@Param("sede") String sede, @Param("desde") LocalDateTime desde,
+                                  @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtengo cada placa archivada que salió desde el instante indicado, con su salida más reciente.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     */
+    @Query("select new com.example.parqueadero.model.PlacaReciente(v.placa, max(v.horaSalida))"
+            + " from VehiculoArchivado v where v.horaSalida >= :desde group by v.placa")
+    List<PlacaReciente> placasRecientes(@Param("desde") LocalDateTime desde);
+}
@@ -1,10 +1,22 @@
 package com.example.parqueadero.repository;
 
+import com.example.parqueadero.model.Estadia;
+import com.example.parqueadero.model.PlacaReciente;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.TotalSalidas;
 import com.example.parqueadero.model.Vehiculo;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository // Indico que esta interfaz es un componente de acceso a datos en Spring
 public interface VehiculoRepositorio extends JpaRepository<Vehiculo, Long> {
@@ -25,4 +37,98 @@ public interface VehiculoRepositorio extends JpaRepository<Vehiculo, Long> {
      */
     Optional<Vehiculo> findByPlacaAndHoraSalidaIsNull(String placa);
 
+    /**
+     * Defino un método para obtener todos los vehículos que aún no han salido.
+     * Lo uso para reconstruir el índice de ocupación en memoria al arrancar.
+     * @return Lista de vehículos con sesión abierta.
+     */
+    List<Vehiculo> findByHoraSalidaIsNull();
+
+    /**
+     * Defino un método para obtener los vehículos que aún no han salido de una sede.
+     * @param sede Código de la sede.
+     * @return Lista de vehículos con sesión abierta en la sede.
+     */
+    List<Vehiculo> findBySedeAndHoraSalidaIsNull(String sede);
+
+    /**
+     * Consulto una página del historial usando paginación por cursor (keyset):
+     * en lugar de saltar filas con un offset, pido las que tienen un ID mayor al último que ya entregué.
+     * Los filtros en `null` se ignoran, incluida la sede.
+     * @param despuesDe Último ID entregado en la página anterior (0 para la primera página).
+     * @param pagina Solo uso su tamaño; el orden siempre es por ID ascendente.
+     * @return Los vehículos de la página.
+     */
+    @Query("select v from Vehiculo v where v.id > :despuesDe"
+            + " and (:desde is null or v.horaEntrada >= :desde)"
+            + " and (:hasta is null or v.horaEntrada < :hasta)"
+            + " and (:tipo is null or v.tipo = :tipo)"
+            + " and (:abiertos is null or (:abiertos = true and v.horaSalida is null)"
+            + " or (:abiertos = false and v.horaSalida is not null))"
+            + " and (:sede is null or v.sede = :sede)"
+            + " order by v.id")
+    List<Vehiculo> buscarHistorial(@Param("despuesDe") long despuesDe,
+                                   @Param("desde") LocalDateTime desde,
+                                   @Param("hasta") LocalDateTime hasta,
+                                   @Param("tipo") TipoVehiculo tipo,
+                                   @Param("abiertos") Boolean abiertos,
+                                   @Param("sede") String sede,
+                                   Pageable pagina);
+
+    /**
+     * Recorro el historial filtrado como un `Stream` respaldado por un cursor de la base de datos,
+     * para exportarlo sin cargar todas las filas en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select v from Vehiculo v where 1 = 1"
+            + " and (:desde is null or v.horaEntrada >= :desde)"
+            + " and (:hasta is null or v.horaEntrada < :hasta)"
+            + " and (:tipo is null or v.tipo = :tipo)"
+            + " and (:abiertos is null or (:abiertos = true and v.horaSalida is null)"
+            + " or (:abiertos = false and v.horaSalida is not null))"
+            + " and (:sede is null or v.sede = :sede)"
+            + " order by v.id")
+    Stream<Vehiculo> recorrerHistorial(@Param("desde") LocalDateTime desde,
+                                       @Param("hasta") LocalDateTime hasta,
+                                       @Param("tipo") TipoVehiculo tipo,
+                                       @Param("abiertos") Boolean abiertos,
+                                       @Param("sede") String sede);
+
+    /**
+     * Recorro las estadías que terminaron dentro del rango, leyendo solo las columnas que necesitan
+     * los resúmenes y sin cargar entidades en el contexto de persistencia.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     * @param hasta Fin del rango de hora de salida (excluido).
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select new com.example.parqueadero.model.Estadia(v.tipo, v.horaEntrada, v.horaSalida, v.costoTotal)"
+            + " from Vehiculo v where v.horaSalida >= :desde and v.horaSalida < :hasta")
+    Stream<Estadia> recorrerEstadias(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Cuento las salidas de una sede dentro del rango y sumo lo cobrado, sin cargar las filas.
+     * @param sede Código de la sede.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     * @param hasta Fin del rango de hora de salida (excluido).
+     */
+    @Query("select new com.example.parqueadero.model.TotalSalidas(count(v), coalesce(sum(v.costoTotal), 0))"
+            + " from Vehiculo v where v.sede = :sede and v.horaSalida >= :desde and v.horaSalida < :hasta")
+    TotalSalidas totalizarSalidas(@Param("sede") String sede, @Param("desde") LocalDateTime desde,
+                                  @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtengo cada placa que salió desde el instante indicado, con su salida más reciente.
+     * @param desde Inicio del rango de hora de salida (incluido).
+     */
+    @Query("select new com.example.parqueadero.model.PlacaReciente(v.placa, max(v.horaSalida))"
+            + " from Vehiculo v where v.horaSalida >= :desde group by v.placa")
+    List<PlacaReciente> placasRecientes(@Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,204 @@
+package com.example.parqueadero.repository;
+
+import com.example.parqueadero.config.ReactivoProperties;
+import com.example.parqueadero.model.FiltroHistorial;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leo y escribo los vehículos con R2DBC para la variante reactiva de la API: ninguna consulta bloquea un hilo,
+ * así que unos pocos hilos de eventos atienden miles de peticiones que esperan a la base de datos.
+ * Escribo en las mismas tablas que `VehiculoRepositorio` y devuelvo la misma entidad `Vehiculo`,
+ * pero con SQL explícito: las anotaciones de JPA no aplican aquí.
+ * No expongo la fábrica de conexiones como bean, porque Spring Boot dejaría de crear el DataSource de JPA.
+ */
+@Component
+@Profile("reactivo")
+public class VehiculoRepositorioReactivo {
+
+    // Mismo incremento que la secuencia de la migración y que el generador de Hibernate
+    private static final int INCREMENTO_SECUENCIA = 50;
+
+    private static final String COLUMNAS = "id, placa, tipo_codigo, hora_entrada, hora_salida, costo_total, sede, puesto";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient cliente;
+    private final Object candadoIds = new Object();
+    private long siguienteId = 1;
+    private long ultimoId = 0;
+
+    /**
+     * Abro el pool de conexiones de R2DBC con la configuración del perfil reactivo.
+     */
+    @Autowired
+    public VehiculoRepositorioReactivo(ReactivoProperties propiedades) {
+        ConnectionFactoryOptions opciones = ConnectionFactoryOptions.parse(propiedades.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, propiedades.getUsuario())
+                .option(ConnectionFactoryOptions.PASSWORD, propiedades.getClave())
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opciones))
+                .initialSize(Math.min(2, propiedades.getConexiones()))
+                .maxSize(propiedades.getConexiones())
+                .maxAcquireTime(propiedades.getEsperaConexion())
+                .build());
+        this.cliente = DatabaseClient.create(pool);
+    }
+
+    /**
+     * Guardo la entrada de un vehículo y le asigno su ID.
+     * Si ya hay una sesión abierta con la misma placa, la restricción única de `placa_activa`
+     * rechaza el registro con una `DataIntegrityViolationException`.
+     * @param vehiculo Vehículo que acaba de entrar, sin ID.
+     * @return El mismo vehículo, con su ID.
+     */
+    public Mono<Vehiculo> guardarEntrada(Vehiculo vehiculo) {
+        return siguienteId().flatMap(id -> {
+            DatabaseClient.GenericExecuteSpec insercion = cliente.sql("insert into vehiculo"
+                            + " (id, placa, placa_activa, tipo_codigo, hora_entrada, costo_total, sede, puesto)"
+                            + " values (:id, :placa, :placa, :tipo, :entrada, :costo, :sede, :puesto)")
+                    .bind("id", id)
+                    .bind("placa", vehiculo.getPlaca())
+                    .bind("tipo", vehiculo.getTipo().getCodigo())
+                    .bind("entrada", vehiculo.getHoraEntrada())
+                    .bind("costo", vehiculo.getCostoTotal())
+                    .bind("sede", vehiculo.getSede());
+            insercion = vehiculo.getPuesto() == null ? insercion.bindNull("puesto", String.class)
+                    : insercion.bind("puesto", vehiculo.getPuesto());
+            return insercion.then().then(Mono.fromSupplier(() -> {
+                vehiculo.setId(id);
+                return vehiculo;
+            }));
+        });
+    }
+
+    /**
+     * Cierro la sesión abierta de una placa con la hora de salida y el valor cobrado.
+     * Busco la sesión por su placa activa y no por ID, así que también cierro una entrada que la
+     * persistencia diferida guardó después de que el índice la recibiera.
+     * @param placa Placa normalizada.
+     * @param horaSalida Hora de salida.
+     * @param costoTotal Valor cobrado.
+     * @return `true` si cerré la sesión; `false` si otra salida la cerró antes.
+     */
+    public Mono<Boolean> guardarSalida(String placa, LocalDateTime horaSalida, BigDecimal costoTotal) {
+        return cliente.sql("update vehiculo set hora_salida = :salida, costo_total = :costo, placa_activa = null"
+                        + " where placa_activa = :placa")
+                .bind("salida", horaSalida)
+                .bind("costo", costoTotal)
+                .bind("placa", placa)
+                .fetch()
+                .rowsUpdated()
+                .map(filas -> filas == 1);
+    }
+
+    /**
+     * Recorro el historial filtrado, de la tabla activa y de la archivada, ordenado por ID.
+     * Las filas llegan a medida que el suscriptor las pide, así que un cliente lento frena la lectura
+     * en lugar de acumular el historial en memoria.
+     * @param filtro Filtros opcionales.
+     * @return Los vehículos del historial.
+     */
+    public Flux<Vehiculo> recorrerHistorial(FiltroHistorial filtro) {
+        List<String> condiciones = new ArrayList<>();
+        if (filtro.desde() != null) {
+            condiciones.add("hora_entrada >= :desde");
+        }
+        if (filtro.hasta() != null) {
+            condiciones.add("hora_entrada < :hasta");
+        }
+        if (filtro.tipo() != null) {
+            condiciones.add("tipo_codigo = :tipo");
+        }
+        if (filtro.sede() != null) {
+            condiciones.add("sede = :sede");
+        }
+        String comunes = condiciones.isEmpty() ? "1 = 1" : String.join(" and ", condiciones);
+        String activos = "select " + COLUMNAS + " from vehiculo where " + comunes;
+        if (filtro.abiertos() != null) {
+            activos += filtro.abiertos() ? " and hora_salida is null" : " and hora_salida is not null";
+        }
+        String sql = Boolean.TRUE.equals(filtro.abiertos()) ? activos + " order by id"
+                : activos + " union all select " + COLUMNAS + " from vehiculo_historial where " + comunes + " order by id";
+
+        DatabaseClient.GenericExecuteSpec consulta = cliente.sql(sql);
+        if (filtro.desde() != null) {
+            consulta = consulta.bind("desde", filtro.desde());
+        }
+        if (filtro.hasta() != null) {
+            consulta = consulta.bind("hasta", filtro.hasta());
+        }
+        if (filtro.tipo() != null) {
+            consulta = consulta.bind("tipo", filtro.tipo().getCodigo());
+        }
+        if (filtro.sede() != null) {
+            consulta = consulta.bind("sede", filtro.sede());
+        }
+        return consulta.map(VehiculoRepositorioReactivo::leer).all();
+    }
+
+    /**
+     * Obtengo el siguiente ID de la secuencia `vehiculo_seq`, reservando bloques como lo hace Hibernate:
+     * cada valor de la secuencia es el último de un bloque de 50 IDs, así que los IDs que asigno
+     * nunca chocan con los que asigna JPA. Solo consulto la base de datos una vez por bloque.
+     */
+    private Mono<Long> siguienteId() {
+        synchronized (candadoIds) {
+            if (siguienteId <= ultimoId) {
+                return Mono.just(siguienteId++);
+            }
+        }
+        return cliente.sql("select next value for vehiculo_seq")
+                .map(fila -> fila.get(0, Long.class))
+                .one()
+                .flatMap(limite -> {
+                    if (limite < INCREMENTO_SECUENCIA) {
+                        // La secuencia recién creada empieza en 1, un bloque incompleto; paso al siguiente
+                        return siguienteId();
+                    }
+                    synchronized (candadoIds) {
+                        if (siguienteId > ultimoId) {
+                            siguienteId = limite - INCREMENTO_SECUENCIA + 1;
+                            ultimoId = limite;
+                        }
+                        // Si otra petición ya instaló un bloque, descarto este y uso el suyo
+                        return Mono.just(siguienteId++);
+                    }
+                });
+    }
+
+    private static Vehiculo leer(Readable fila) {
+        Vehiculo vehiculo = new Vehiculo(fila.get("placa", String.class),
+                TipoVehiculo.desdeCodigo(fila.get("tipo_codigo", Short.class)),
+                fila.get("hora_entrada", LocalDateTime.class), fila.get("sede", String.class));
+        vehiculo.setId(fila.get("id", Long.class));
+        vehiculo.setHoraSalida(fila.get("hora_salida", LocalDateTime.class));
+        vehiculo.setCostoTotal(fila.get("costo_total", BigDecimal.class));
+        vehiculo.setPuesto(fila.get("puesto", String.class));
+        return vehiculo;
+    }
+
+    /**
+     * Cierro el pool de conexiones al apagar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.parqueadero.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Autentico las peticiones que presentan un token `Bearer` en la aplicación de servlets.
+ * Las que no traen token siguen la cadena sin autenticar (o con HTTP Basic, si lo traen);
+ * las que traen un token inválido o vencido las rechazo con 401.
+ * No lo registro como bean para que Spring Boot no lo agregue también fuera de la cadena de seguridad.
+ */
+class FiltroTokens extends OncePerRequestFilter {
+
+    static final String PREFIJO = "Bearer ";
+    static final String RECHAZO = "Bearer error=\"invalid_token\"";
+
+    private final TokensAcceso tokens;
+
+    FiltroTokens(TokensAcceso tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera == null || !cabecera.regionMatches(true, 0, PREFIJO, 0, PREFIJO.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<Authentication> autenticacion = tokens.verificar(cabecera.substring(PREFIJO.length()).trim());
+        if (autenticacion.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, RECHAZO);
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+        contexto.setAuthentication(autenticacion.get());
+        SecurityContextHolder.setContext(contexto);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.parqueadero.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Autentico las peticiones que presentan un token `Bearer` en la aplicación reactiva, con las mismas reglas que
+ * `FiltroTokens`. Verificar el token no bloquea, así que lo hago directamente en el hilo de eventos.
+ */
+class FiltroTokensReactivo implements WebFilter {
+
+    private final TokensAcceso tokens;
+
+    FiltroTokensReactivo(TokensAcceso tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String cabecera = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (cabecera == null || !cabecera.regionMatches(true, 0, FiltroTokens.PREFIJO, 0, FiltroTokens.PREFIJO.length())) {
+            return chain.filter(exchange);
+        }
+        Optional<Authentication> autenticacion = tokens.verificar(cabecera.substring(FiltroTokens.PREFIJO.length()).trim());
+        if (autenticacion.isEmpty()) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, FiltroTokens.RECHAZO);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(autenticacion.get()));
+    }
+}
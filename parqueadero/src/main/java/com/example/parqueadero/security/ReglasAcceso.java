@@ -0,0 +1,40 @@
+package com.example.parqueadero.security;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+
+/**
+ * Reúno los roles que exige cada ruta de la API cuando la autenticación está activa,
+ * para aplicar las mismas reglas en la aplicación de servlets y en la reactiva.
+ * Las reglas se evalúan en orden: la primera que coincide decide.
+ * Las reglas `SIEMPRE` se aplican también en modo abierto.
+ */
+final class ReglasAcceso {
+
+    /**
+     * Regla de acceso.
+     * @param metodo Método HTTP, o `null` para cualquiera.
+     * @param patron Patrón de la ruta.
+     * @param roles Roles que pueden usarla.
+     */
+    record Regla(HttpMethod metodo, String patron, String... roles) {
+    }
+
+    // Cambiar las tarifas cambia lo que se cobra en todas las porterías; nunca lo permito sin autenticación
+    static final List<Regla> SIEMPRE = List.of(
+            new Regla(HttpMethod.PUT, "/parqueadero/tarifas", "ADMIN"));
+
+    // Administración: tarifas, sedes, reportes y exportaciones completas del historial
+    static final List<Regla> REGLAS = List.of(
+            SIEMPRE.get(0),
+            new Regla(HttpMethod.POST, "/parqueadero/sedes", "ADMIN"),
+            new Regla(HttpMethod.GET, "/parqueadero/sedes/reporte", "ADMIN"),
+            new Regla(null, "/parqueadero/reportes/**", "ADMIN"),
+            new Regla(HttpMethod.GET, "/parqueadero/exportar", "ADMIN"),
+            // Operación de las porterías: entradas, salidas, búsquedas, ocupación y el token
+            new Regla(null, "/parqueadero/**", "USER", "ADMIN"));
+
+    private ReglasAcceso() {
+    }
+}
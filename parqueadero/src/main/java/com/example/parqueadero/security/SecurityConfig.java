@@ -1,21 +1,32 @@
 package com.example.parqueadero.security;
 
+import com.example.parqueadero.config.SeguridadProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import reactor.core.publisher.Mono;
 
 @Configuration // Indico que esta clase es una configuración de Spring
-@EnableWebSecurity // Habilito la seguridad web en la aplicación
 public class SecurityConfig {
 
     /**
@@ -55,22 +66,118 @@ public class SecurityConfig {
     }
 
     /**
-     * Configuro la cadena de filtros de seguridad.
-     * Deshabilito la protección CSRF y permito acceso a todas las rutas sin autenticación.
-     * También habilito la autenticación básica HTTP.
-     * @param http Objeto `HttpSecurity` con la configuración de seguridad.
-     * @return La configuración de seguridad construida.
-     * @throws Exception Si ocurre un error en la configuración.
+     * Agrupo la seguridad de la aplicación de servlets (sin el perfil reactivo).
      */
-    @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http
-                .csrf(csrf -> csrf.disable()) // Deshabilito la protección CSRF para simplificar pruebas
-                .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers(new AntPathRequestMatcher("/**")).permitAll() // Permito acceso a todas las rutas sin autenticación
-                )
-                .httpBasic(Customizer.withDefaults()); // Habilito autenticación básica HTTP
+    @Configuration
+    @EnableWebSecurity // Habilito la seguridad web en la aplicación
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class SeguridadServlets {
+
+        /**
+         * Configuro la cadena de filtros de seguridad.
+         * Deshabilito la protección CSRF y habilito la autenticación básica HTTP.
+         * En modo abierto permito acceso sin autenticación a todas las rutas salvo las de `ReglasAcceso.SIEMPRE`
+         * (recargar las tarifas); en los modos básico y token
+         * exijo los roles de `ReglasAcceso` en /parqueadero/** sin guardar sesiones, y en modo token
+         * acepto además los tokens emitidos por `TokensAcceso`.
+         * @param http Objeto `HttpSecurity` con la configuración de seguridad.
+         * @param seguridad Modo de autenticación configurado.
+         * @param tokens Verificador de tokens de acceso.
+         * @return La configuración de seguridad construida.
+         * @throws Exception Si ocurre un error en la configuración.
+         */
+        @Bean
+        public SecurityFilterChain securityFilterChain(HttpSecurity http, SeguridadProperties seguridad,
+                                                       TokensAcceso tokens) throws Exception {
+            http.csrf(csrf -> csrf.disable()); // Deshabilito la protección CSRF para simplificar pruebas
+            if (seguridad.getModo() == SeguridadProperties.Modo.ABIERTO) {
+                http.authorizeHttpRequests(authorize -> {
+                    for (ReglasAcceso.Regla regla : ReglasAcceso.SIEMPRE) {
+                        authorize.requestMatchers(new AntPathRequestMatcher(regla.patron(), regla.metodo().name()))
+                                .hasAnyRole(regla.roles());
+                    }
+                    authorize.requestMatchers(new AntPathRequestMatcher("/**")).permitAll(); // Permito acceso a las demás rutas sin autenticación
+                });
+            } else {
+                http.sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+                http.authorizeHttpRequests(authorize -> {
+                    for (ReglasAcceso.Regla regla : ReglasAcceso.REGLAS) {
+                        String metodo = regla.metodo() == null ? null : regla.metodo().name();
+                        authorize.requestMatchers(new AntPathRequestMatcher(regla.patron(), metodo)).hasAnyRole(regla.roles());
+                    }
+                    authorize.requestMatchers(new AntPathRequestMatcher("/**")).permitAll(); // Páginas y consola fuera de la API
+                });
+                if (seguridad.getModo() == SeguridadProperties.Modo.TOKEN) {
+                    http.addFilterBefore(new FiltroTokens(tokens), BasicAuthenticationFilter.class);
+                }
+            }
+            http.httpBasic(Customizer.withDefaults()); // Habilito autenticación básica HTTP
+
+            return http.build();
+        }
+    }
+
+    /**
+     * Agrupo la seguridad de la aplicación reactiva (perfil reactivo), con las mismas reglas y los mismos usuarios.
+     */
+    @Configuration
+    @EnableWebFluxSecurity
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class SeguridadReactiva {
+
+        /**
+         * Expongo los usuarios en memoria a WebFlux; buscarlos no bloquea, así que los consulto directamente.
+         * @param usuarios Servicio de usuarios compartido con la aplicación de servlets.
+         * @return El servicio de usuarios reactivo.
+         */
+        @Bean
+        public ReactiveUserDetailsService reactiveUserDetailsService(UserDetailsService usuarios) {
+            return nombre -> {
+                try {
+                    return Mono.just(usuarios.loadUserByUsername(nombre));
+                } catch (UsernameNotFoundException e) {
+                    return Mono.empty();
+                }
+            };
+        }
 
-        return http.build();
+        /**
+         * Configuro la cadena de filtros reactiva con los mismos modos que la de servlets:
+         * sin CSRF, autenticación básica HTTP y, salvo en modo abierto, los roles de `ReglasAcceso` sin sesiones
+         * (en modo abierto, solo los de `ReglasAcceso.SIEMPRE`).
+         * @param http Objeto `ServerHttpSecurity` con la configuración de seguridad.
+         * @param seguridad Modo de autenticación configurado.
+         * @param tokens Verificador de tokens de acceso.
+         * @return La configuración de seguridad construida.
+         */
+        @Bean
+        public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, SeguridadProperties seguridad,
+                                                             TokensAcceso tokens) {
+            http.csrf(ServerHttpSecurity.CsrfSpec::disable);
+            if (seguridad.getModo() == SeguridadProperties.Modo.ABIERTO) {
+                http.authorizeExchange(authorize -> {
+                    for (ReglasAcceso.Regla regla : ReglasAcceso.SIEMPRE) {
+                        authorize.pathMatchers(regla.metodo(), regla.patron()).hasAnyRole(regla.roles());
+                    }
+                    authorize.anyExchange().permitAll();
+                });
+            } else {
+                http.securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+                http.authorizeExchange(authorize -> {
+                    for (ReglasAcceso.Regla regla : ReglasAcceso.REGLAS) {
+                        if (regla.metodo() == null) {
+                            authorize.pathMatchers(regla.patron()).hasAnyRole(regla.roles());
+                        } else {
+                            authorize.pathMatchers(regla.metodo(), regla.patron()).hasAnyRole(regla.roles());
+                        }
+                    }
+                    authorize.anyExchange().permitAll();
+                });
+                if (seguridad.getModo() == SeguridadProperties.Modo.TOKEN) {
+                    http.addFilterAt(new FiltroTokensReactivo(tokens), SecurityWebFiltersOrder.AUTHENTICATION);
+                }
+            }
+            return http.httpBasic(Customizer.withDefaults()).build();
+        }
     }
 }
@@ -0,0 +1,179 @@
+package com.example.parqueadero.security;
+
+import com.example.parqueadero.config.SeguridadProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emito y verifico los tokens de acceso del modo `token`: JWT firmados con HMAC-SHA256 (HS256)
+ * que llevan el usuario, sus roles y la hora de vencimiento.
+ * Verificar un token cuesta una firma HMAC y leer un JSON pequeño, unos pocos microsegundos,
+ * mientras que HTTP Basic verifica la contraseña con BCrypt en cada petición, decenas de milisegundos de CPU.
+ * No guardo los tokens emitidos: cualquier instancia con el mismo secreto los acepta hasta que vencen.
+ */
+@Component
+public class TokensAcceso {
+
+    private static final Logger log = LoggerFactory.getLogger(TokensAcceso.class);
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int BYTES_MINIMOS_SECRETO = 32;
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DESDE_BASE64 = Base64.getUrlDecoder();
+
+    // Solo acepto esta cabecera: rechazo cualquier otro algoritmo, incluido "none"
+    private static final String CABECERA = BASE64.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+
+    private final Mac prototipo;
+    private final ObjectMapper objectMapper;
+    private final long vigenciaSegundos;
+    private final Clock reloj;
+    private final Map<String, GrantedAuthority> autoridades = new ConcurrentHashMap<>();
+
+    /**
+     * Preparo la firma con el secreto configurado; si no hay secreto, genero uno aleatorio.
+     */
+    @Autowired
+    public TokensAcceso(SeguridadProperties propiedades, ObjectMapper objectMapper) {
+        this(propiedades, objectMapper, Clock.systemUTC());
+    }
+
+    public TokensAcceso(SeguridadProperties propiedades, ObjectMapper objectMapper, Clock reloj) {
+        this.objectMapper = objectMapper;
+        this.vigenciaSegundos = propiedades.getVigenciaToken().toSeconds();
+        this.reloj = reloj;
+        this.prototipo = crearFirma(secreto(propiedades.getSecreto()));
+    }
+
+    /**
+     * Emito un token para un usuario que ya verificó su contraseña.
+     * @param autenticacion Usuario autenticado, con sus roles.
+     * @return El token y su vigencia en segundos.
+     */
+    public TokenEmitido emitir(Authentication autenticacion) {
+        long ahora = reloj.instant().getEpochSecond();
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority autoridad : autenticacion.getAuthorities()) {
+            String nombre = autoridad.getAuthority();
+            roles.add(nombre.startsWith("ROLE_") ? nombre.substring(5) : nombre);
+        }
+        Map<String, Object> reclamos = new LinkedHashMap<>();
+        reclamos.put("sub", autenticacion.getName());
+        reclamos.put("roles", roles);
+        reclamos.put("iat", ahora);
+        reclamos.put("exp", ahora + vigenciaSegundos);
+        try {
+            String contenido = CABECERA + "." + BASE64.encodeToString(objectMapper.writeValueAsBytes(reclamos));
+            String firma = BASE64.encodeToString(firmar(contenido));
+            return new TokenEmitido(contenido + "." + firma, "Bearer", vigenciaSegundos);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Verifico la firma y la vigencia de un token.
+     * @param token Token tal como llegó en la cabecera `Authorization`, sin el prefijo `Bearer `.
+     * @return El usuario autenticado con sus roles, o vacío si el token no es válido o ya venció.
+     */
+    public Optional<Authentication> verificar(String token) {
+        int primerPunto = token.indexOf('.');
+        int segundoPunto = token.indexOf('.', primerPunto + 1);
+        if (primerPunto != CABECERA.length() || segundoPunto < 0 || !token.startsWith(CABECERA)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] firma = DESDE_BASE64.decode(token.substring(segundoPunto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(token.substring(0, segundoPunto)))) {
+                return Optional.empty();
+            }
+            JsonNode reclamos = objectMapper.readTree(
+                    DESDE_BASE64.decode(token.substring(primerPunto + 1, segundoPunto)));
+            if (reclamos.path("exp").asLong() <= reloj.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            List<GrantedAuthority> roles = new ArrayList<>();
+            for (JsonNode rol : reclamos.path("roles")) {
+                roles.add(autoridades.computeIfAbsent(rol.asText(), nombre -> new SimpleGrantedAuthority("ROLE_" + nombre)));
+            }
+            return Optional.of(UsernamePasswordAuthenticationToken.authenticated(reclamos.path("sub").asText(), null, roles));
+        } catch (IllegalArgumentException | IOException e) {
+            // Base64 o JSON mal formado: el token no es mío
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Firmo con una copia del prototipo, porque una instancia de `Mac` no se puede compartir entre hilos
+     * y copiarla es mucho más barato que buscar el algoritmo y cargar la clave otra vez.
+     */
+    private byte[] firmar(String contenido) {
+        try {
+            Mac mac = (Mac) prototipo.clone();
+            return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] secreto(String configurado) {
+        if (configurado == null || configurado.isBlank()) {
+            log.warn("Sin parqueadero.seguridad.secreto: genero uno aleatorio y los tokens dejan de valer al reiniciar");
+            byte[] aleatorio = new byte[BYTES_MINIMOS_SECRETO];
+            new SecureRandom().nextBytes(aleatorio);
+            return aleatorio;
+        }
+        byte[] secreto = Base64.getDecoder().decode(configurado.trim());
+        if (secreto.length < BYTES_MINIMOS_SECRETO) {
+            throw new IllegalArgumentException("parqueadero.seguridad.secreto debe tener al menos "
+                    + BYTES_MINIMOS_SECRETO + " bytes");
+        }
+        return secreto;
+    }
+
+    private static Mac crearFirma(byte[] secreto) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(secreto, ALGORITMO));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Token emitido, como lo devuelvo al cliente.
+     * @param token Token firmado.
+     * @param tipo Esquema de la cabecera `Authorization` con el que se presenta.
+     * @param expiraEn Segundos de vigencia.
+     */
+    public record TokenEmitido(String token, String tipo, long expiraEn) {
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.PuestosProperties;
+import com.example.parqueadero.model.EstadoReserva;
+import com.example.parqueadero.model.Reserva;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.repository.ReservaRepositorio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Llevo las reservas pendientes de puestos y asigno el puesto de cada vehículo que entra.
+ * Cada puesto tiene su propio índice de intervalos: un mapa ordenado por inicio con reservas que nunca se solapan,
+ * así que saber si un puesto está libre en una ventana es una sola búsqueda `lowerEntry`, sin recorrer
+ * todas las reservas. Un puesto reservado se aparta en el inventario poco antes del inicio, para que los
+ * vehículos sin reserva no lo tomen; si el vehículo no llega dentro de la tolerancia, la reserva vence
+ * y el puesto vuelve a quedar libre.
+ * Los cambios de las reservas se serializan con el candado de la agenda (son pocos comparados con las entradas);
+ * las entradas sin reserva solo consultan un mapa concurrente. La base de datos se actualiza en el hilo de fondo,
+ * incluso al crear una reserva, así que nunca espero a la base de datos con el candado tomado.
+ * El candado es un `ReentrantLock` y no `synchronized`, para que una entrada atendida en un hilo virtual
+ * o en el ciclo de eventos del controlador reactivo no bloquee el hilo que la ejecuta.
+ */
+@Component
+public class AgendaReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(AgendaReservas.class);
+
+    private final InventarioPuestos inventarioPuestos;
+    private final ReservaRepositorio reservaRepositorio;
+    private final Duration anticipacion;
+    private final Duration tolerancia;
+    private final Duration intervalo;
+    private final ScheduledExecutorService programador;
+    private final ReentrantLock candado = new ReentrantLock();
+
+    private final Map<ClavePuesto, NavigableMap<LocalDateTime, Reserva>> porPuesto = new ConcurrentHashMap<>();
+    private final Map<String, List<Reserva>> porPlaca = new ConcurrentHashMap<>();
+    private final Map<String, Reserva> porId = new ConcurrentHashMap<>();
+    // Reservas por apartar, ordenadas por el momento en que debo apartar su puesto
+    private final TreeSet<Reserva> porApartar = new TreeSet<>(
+            Comparator.comparing(Reserva::getDesde).thenComparing(Reserva::getId));
+    // Reservas pendientes, ordenadas por el momento en que vencen si el vehículo no llega
+    private final TreeSet<Reserva> porVencer;
+
+    /**
+     * Inyecto el inventario de puestos, el repositorio de reservas, los tiempos de las reservas
+     * y la fábrica del hilo de fondo.
+     */
+    @Autowired
+    public AgendaReservas(InventarioPuestos inventarioPuestos, ReservaRepositorio reservaRepositorio,
+                          PuestosProperties propiedades, FabricaHilos fabricaHilos) {
+        this.inventarioPuestos = inventarioPuestos;
+        this.reservaRepositorio = reservaRepositorio;
+        this.anticipacion = propiedades.getAnticipacionReserva();
+        this.tolerancia = propiedades.getToleranciaReserva();
+        this.intervalo = propiedades.getIntervaloReservas();
+        this.porVencer = new TreeSet<>(Comparator.comparing(this::vencimiento).thenComparing(Reserva::getId));
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("agenda-reservas"));
+    }
+
+    /**
+     * Cargo las reservas pendientes que todavía no terminan y programo la revisión periódica,
+     * que aparta los puestos de las reservas próximas y vence las que no se usaron.
+     */
+    @PostConstruct
+    public void iniciar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Reserva> pendientes = reservaRepositorio.findByEstadoAndHastaAfter(EstadoReserva.PENDIENTE, ahora);
+        candado.lock();
+        try {
+            for (Reserva reserva : pendientes) {
+                if (inventarioPuestos.administra(reserva.getSede(), reserva.getTipo())) {
+                    indexar(reserva);
+                } else {
+                    log.warn("La sede {} ya no administra los puestos de {}; ignoro la reserva {}",
+                            reserva.getSede(), reserva.getTipo(), reserva.getId());
+                }
+            }
+        } finally {
+            candado.unlock();
+        }
+        long periodo = intervalo.toMillis();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                revisar(LocalDateTime.now());
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude revisar las reservas", e);
+            }
+        }, 0, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Reservo un puesto para una placa durante una ventana. Prefiero un puesto libre en este momento,
+     * por si la ventana empieza pronto, y si no, el primero sin reservas que se solapen.
+     * La reserva queda vigente en la agenda de inmediato; la inserto en la base de datos en el hilo de fondo.
+     * @param placa Placa normalizada.
+     * @param sede Código de la sede; debe administrar los puestos de la clase.
+     * @param tipo Clase del vehículo.
+     * @param desde Inicio de la ventana.
+     * @param hasta Fin de la ventana (excluido).
+     * @return La reserva creada, o vacío si ningún puesto está libre en toda la ventana.
+     * @throws IllegalArgumentException Si la ventana no es válida o la placa ya tiene una reserva que se solapa.
+     */
+    public Optional<Reserva> reservar(String placa, String sede, TipoVehiculo tipo,
+                                      LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La reserva debe terminar después de empezar");
+        }
+        candado.lock();
+        try {
+            for (Reserva propia : porPlaca.getOrDefault(placa, List.of())) {
+                if (propia.getDesde().isBefore(hasta) && desde.isBefore(propia.getHasta())) {
+                    throw new IllegalArgumentException("La placa " + placa + " ya tiene una reserva en esa ventana");
+                }
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            boolean proxima = !ahora.isBefore(desde.minus(anticipacion));
+            String elegido = null;
+            for (String puesto : inventarioPuestos.puestos(sede, tipo)) {
+                if (!solapa(new ClavePuesto(sede, tipo, puesto), desde, hasta)) {
+                    if (!proxima || inventarioPuestos.libre(sede, tipo, puesto)) {
+                        elegido = puesto;
+                        break;
+                    }
+                    if (elegido == null) {
+                        elegido = puesto;
+                    }
+                }
+            }
+            if (elegido == null) {
+                return Optional.empty();
+            }
+            Reserva reserva = new Reserva(UUID.randomUUID().toString(), placa, sede, tipo, elegido, desde, hasta);
+            insertar(reserva);
+            indexar(reserva);
+            if (proxima) {
+                apartar(reserva);
+            }
+            return Optional.of(reserva);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Cuento los puestos de una clase que no tienen reservas en toda la ventana.
+     * No tomo candados: cada puesto se resuelve con una búsqueda en su índice de intervalos.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param desde Inicio de la ventana.
+     * @param hasta Fin de la ventana (excluido).
+     * @return Cantidad de puestos disponibles para reservar.
+     */
+    public int disponibles(String sede, TipoVehiculo tipo, LocalDateTime desde, LocalDateTime hasta) {
+        int disponibles = 0;
+        for (String puesto : inventarioPuestos.puestos(sede, tipo)) {
+            if (!solapa(new ClavePuesto(sede, tipo, puesto), desde, hasta)) {
+                disponibles++;
+            }
+        }
+        return disponibles;
+    }
+
+    /**
+     * Busco una reserva pendiente.
+     * @param id Identificador de la reserva.
+     * @return La reserva, o vacío si no existe o ya no está pendiente.
+     */
+    public Optional<Reserva> buscar(String id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    /**
+     * Cancelo una reserva pendiente y libero su puesto si ya lo había apartado.
+     * @param id Identificador de la reserva.
+     * @return `true` si la cancelé; `false` si no existe o ya no está pendiente.
+     */
+    public boolean cancelar(String id) {
+        candado.lock();
+        try {
+            Reserva reserva = porId.get(id);
+            if (reserva == null) {
+                return false;
+            }
+            terminar(reserva, EstadoReserva.CANCELADA);
+            return true;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Asigno el puesto de un vehículo que entra: el de su reserva, si tiene una vigente en la sede para su clase,
+     * o el primer puesto libre. Si la placa tiene una reserva vigente, la consumo en la misma operación,
+     * así que dos entradas de la misma placa nunca usan la misma reserva.
+     * @param placa Placa normalizada.
+     * @param sede Código de la sede; debe administrar los puestos de la clase.
+     * @param tipo Clase del vehículo.
+     * @param ahora Hora de la entrada.
+     * @return El puesto asignado y la reserva usada, o vacío si no hay puestos libres.
+     */
+    public Optional<Asignacion> asignar(String placa, String sede, TipoVehiculo tipo, LocalDateTime ahora) {
+        if (porPlaca.containsKey(placa)) {
+            Optional<Reserva> reserva = honrar(placa, sede, tipo, ahora);
+            if (reserva.isPresent()) {
+                return Optional.of(new Asignacion(reserva.get().getPuesto(), reserva.get()));
+            }
+        }
+        return inventarioPuestos.asignar(sede, tipo).map(puesto -> new Asignacion(puesto, null));
+    }
+
+    /**
+     * Deshago una asignación cuya entrada no se pudo guardar: libero el puesto, o devuelvo la reserva
+     * a pendiente con su puesto todavía apartado.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param asignacion Asignación que devolvió `asignar`.
+     */
+    public void devolver(String sede, TipoVehiculo tipo, Asignacion asignacion) {
+        if (asignacion.reserva() == null) {
+            inventarioPuestos.liberar(sede, tipo, asignacion.puesto());
+            return;
+        }
+        candado.lock();
+        try {
+            Reserva reserva = asignacion.reserva();
+            reserva.setEstado(EstadoReserva.PENDIENTE);
+            reserva.setApartada(true);
+            indexar(reserva);
+            anotar(reserva);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Aparto los puestos de las reservas que empiezan dentro de la anticipación
+     * y venzo las reservas cuyo vehículo no llegó dentro de la tolerancia.
+     * @param ahora Hora de la revisión.
+     */
+    public void revisar(LocalDateTime ahora) {
+        candado.lock();
+        try {
+            while (!porVencer.isEmpty() && !ahora.isBefore(vencimiento(porVencer.first()))) {
+                terminar(porVencer.first(), EstadoReserva.VENCIDA);
+            }
+            LocalDateTime limite = ahora.plus(anticipacion);
+            while (!porApartar.isEmpty() && !porApartar.first().getDesde().isAfter(limite)) {
+                apartar(porApartar.first());
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Consumo la reserva vigente de una placa, tomando su puesto si todavía no lo había apartado.
+     */
+    private Optional<Reserva> honrar(String placa, String sede, TipoVehiculo tipo, LocalDateTime ahora) {
+        candado.lock();
+        try {
+            for (Reserva reserva : porPlaca.getOrDefault(placa, List.of())) {
+                boolean vigente = !ahora.isBefore(reserva.getDesde().minus(anticipacion))
+                        && ahora.isBefore(vencimiento(reserva));
+                if (vigente && reserva.getSede().equals(sede) && reserva.getTipo() == tipo) {
+                    if (!reserva.isApartada() && !tomarPuesto(reserva)) {
+                        return Optional.empty();
+                    }
+                    desindexar(reserva);
+                    reserva.setEstado(EstadoReserva.USADA);
+                    anotar(reserva);
+                    return Optional.of(reserva);
+                }
+            }
+            return Optional.empty();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Aparto el puesto de una reserva para que ningún vehículo sin reserva lo tome.
+     */
+    private void apartar(Reserva reserva) {
+        porApartar.remove(reserva);
+        if (!tomarPuesto(reserva)) {
+            log.warn("No hay puestos libres para apartar la reserva {}; la honro si se libera uno antes de que llegue",
+                    reserva.getId());
+        }
+    }
+
+    /**
+     * Tomo el puesto reservado o, si sigue ocupado, otro libre sin reservas que se solapen.
+     * @return `true` si la reserva quedó con un puesto apartado.
+     */
+    private boolean tomarPuesto(Reserva reserva) {
+        if (inventarioPuestos.ocupar(reserva.getSede(), reserva.getTipo(), reserva.getPuesto())) {
+            reserva.setApartada(true);
+            return true;
+        }
+        for (String puesto : inventarioPuestos.puestos(reserva.getSede(), reserva.getTipo())) {
+            ClavePuesto clave = new ClavePuesto(reserva.getSede(), reserva.getTipo(), puesto);
+            if (!solapa(clave, reserva.getDesde(), reserva.getHasta())
+                    && inventarioPuestos.ocupar(reserva.getSede(), reserva.getTipo(), puesto)) {
+                desindexar(reserva);
+                reserva.setPuesto(puesto);
+                reserva.setApartada(true);
+                indexar(reserva);
+                anotar(reserva);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void terminar(Reserva reserva, EstadoReserva estado) {
+        desindexar(reserva);
+        if (reserva.isApartada()) {
+            inventarioPuestos.liberar(reserva.getSede(), reserva.getTipo(), reserva.getPuesto());
+            reserva.setApartada(false);
+        }
+        reserva.setEstado(estado);
+        anotar(reserva);
+    }
+
+    private boolean solapa(ClavePuesto clave, LocalDateTime desde, LocalDateTime hasta) {
+        NavigableMap<LocalDateTime, Reserva> reservas = porPuesto.get(clave);
+        if (reservas == null) {
+            return false;
+        }
+        // Las reservas de un puesto no se solapan: la última que empieza antes del fin es la única que puede solapar
+        Map.Entry<LocalDateTime, Reserva> anterior = reservas.lowerEntry(hasta);
+        return anterior != null && anterior.getValue().getHasta().isAfter(desde);
+    }
+
+    private void indexar(Reserva reserva) {
+        porPuesto.computeIfAbsent(new ClavePuesto(reserva.getSede(), reserva.getTipo(), reserva.getPuesto()),
+                clave -> new ConcurrentSkipListMap<>()).put(reserva.getDesde(), reserva);
+        porPlaca.compute(reserva.getPlaca(), (placa, reservas) -> {
+            List<Reserva> nuevas = reservas == null ? new ArrayList<>() : new ArrayList<>(reservas);
+            nuevas.add(reserva);
+            return List.copyOf(nuevas);
+        });
+        porId.put(reserva.getId(), reserva);
+        porVencer.add(reserva);
+        if (!reserva.isApartada()) {
+            porApartar.add(reserva);
+        }
+    }
+
+    private void desindexar(Reserva reserva) {
+        NavigableMap<LocalDateTime, Reserva> reservas =
+                porPuesto.get(new ClavePuesto(reserva.getSede(), reserva.getTipo(), reserva.getPuesto()));
+        if (reservas != null) {
+            reservas.remove(reserva.getDesde(), reserva);
+        }
+        porPlaca.computeIfPresent(reserva.getPlaca(), (placa, propias) -> {
+            List<Reserva> restantes = new ArrayList<>(propias);
+            restantes.remove(reserva);
+            return restantes.isEmpty() ? null : List.copyOf(restantes);
+        });
+        porId.remove(reserva.getId());
+        porVencer.remove(reserva);
+        porApartar.remove(reserva);
+    }
+
+    /**
+     * Momento en que venzo una reserva si el vehículo no llega: la tolerancia después del inicio,
+     * sin pasar del fin de la ventana.
+     */
+    private LocalDateTime vencimiento(Reserva reserva) {
+        LocalDateTime limite = reserva.getDesde().plus(tolerancia);
+        return limite.isBefore(reserva.getHasta()) ? limite : reserva.getHasta();
+    }
+
+    /**
+     * Inserto una reserva nueva en el hilo de fondo. La encolo con el candado de la agenda, antes que cualquier
+     * `anotar` de la misma reserva, así que el hilo de fondo la inserta antes de actualizarla.
+     * Guardo una copia, porque las porterías siguen cambiando la reserva de la agenda.
+     */
+    private void insertar(Reserva reserva) {
+        Reserva copia = new Reserva(reserva.getId(), reserva.getPlaca(), reserva.getSede(), reserva.getTipo(),
+                reserva.getPuesto(), reserva.getDesde(), reserva.getHasta());
+        programador.execute(() -> {
+            try {
+                reservaRepositorio.save(copia);
+            } catch (RuntimeException e) {
+                log.error("No pude guardar la reserva {}", copia.getId(), e);
+            }
+        });
+    }
+
+    /**
+     * Guardo el estado y el puesto de la reserva en el hilo de fondo, para no esperar a la base de datos
+     * mientras tengo el candado de la agenda o el de una placa.
+     */
+    private void anotar(Reserva reserva) {
+        String id = reserva.getId();
+        EstadoReserva estado = reserva.getEstado();
+        String puesto = reserva.getPuesto();
+        programador.execute(() -> {
+            try {
+                reservaRepositorio.actualizar(id, estado, puesto);
+            } catch (RuntimeException e) {
+                log.error("No pude guardar el estado {} de la reserva {}", estado, id, e);
+            }
+        });
+    }
+
+    /**
+     * Puesto asignado a un vehículo que entra.
+     * @param puesto Código del puesto.
+     * @param reserva Reserva que usó, o `null` si entró sin reserva.
+     */
+    public record Asignacion(String puesto, Reserva reserva) {
+    }
+
+    private record ClavePuesto(String sede, TipoVehiculo tipo, String puesto) {
+    }
+}
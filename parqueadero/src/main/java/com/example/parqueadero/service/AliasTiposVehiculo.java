@@ -0,0 +1,73 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interpreto el tipo de vehículo que envía el cliente en cualquiera de los idiomas soportados.
+ * Al arrancar construyo un mapa inmutable de alias (el nombre traducido en cada idioma y el nombre
+ * del enum) hacia el tipo, así que interpretar un tipo no consulta los archivos de mensajes
+ * ni depende del idioma de la sesión.
+ */
+@Component
+public class AliasTiposVehiculo {
+
+    private final Map<String, TipoVehiculo> alias;
+
+    /**
+     * Construyo el mapa de alias a partir de los archivos de mensajes de cada idioma configurado.
+     * @param messageSource Fuente de mensajes con los nombres traducidos.
+     * @param idiomas Idiomas soportados, separados por comas.
+     */
+    @Autowired
+    public AliasTiposVehiculo(MessageSource messageSource,
+                              @Value("${parqueadero.idiomas:es,en}") List<String> idiomas) {
+        Map<String, TipoVehiculo> mapa = new HashMap<>();
+        for (TipoVehiculo tipo : TipoVehiculo.values()) {
+            mapa.put(clave(tipo.name()), tipo);
+            for (String idioma : idiomas) {
+                String nombre = messageSource.getMessage(tipo.getClaveMensaje(), null, null, Locale.forLanguageTag(idioma));
+                if (nombre != null) {
+                    TipoVehiculo anterior = mapa.putIfAbsent(clave(nombre), tipo);
+                    if (anterior != null && anterior != tipo) {
+                        throw new IllegalStateException("El alias '" + nombre + "' corresponde a " + anterior + " y a " + tipo);
+                    }
+                }
+            }
+        }
+        this.alias = Map.copyOf(mapa);
+    }
+
+    /**
+     * Interpreto el tipo de vehículo enviado por el cliente, sin distinguir mayúsculas ni idioma.
+     * @param texto Tipo de vehículo, por ejemplo "carro", "car" o "CARRO".
+     * @return El tipo, o vacío si el texto no corresponde a ningún tipo conocido.
+     */
+    public Optional<TipoVehiculo> interpretar(String texto) {
+        if (texto == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(alias.get(clave(texto)));
+    }
+
+    /**
+     * Obtengo todos los alias reconocidos, para migrar datos antiguos guardados como texto.
+     * @return Mapa inmutable de alias (en minúsculas) a tipo.
+     */
+    public Map<String, TipoVehiculo> todos() {
+        return alias;
+    }
+
+    private static String clave(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.parqueadero.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Guardo placas normalizadas en árboles de prefijos (tries) para buscarlas aunque vengan incompletas o con errores,
+ * por ejemplo una lectura de cámara que confundió una letra.
+ * Busco con la distancia de edición (cambiar, agregar o quitar un carácter): recorro el árbol calculando una fila
+ * de la tabla de Levenshtein por nodo, y las placas que comparten prefijo comparten esas filas.
+ * Parto la búsqueda para que alguna parte tenga pocos errores: con k ediciones, una de las dos mitades tiene como
+ * mucho k/2, y con 2 ediciones en tres partes, o una punta no tiene errores o las dos primeras partes suman uno.
+ * Por cada caso recorro un árbol (al derecho, o con las placas al revés si la parte es la última) que acepta esos
+ * pocos errores mientras recorre la parte. Cortar tan temprano las ramas de los primeros niveles, que son las más
+ * anchas, hace que cada búsqueda visite unos pocos miles de nodos aunque haya cientos de miles de placas.
+ * Los nodos viven en un arreglo de enteros en lugar de objetos, para que los árboles ocupen poca memoria y cada
+ * nodo visitado cueste un solo acceso a memoria; si registro las placas ordenadas, los hermanos y sus ramas quedan
+ * cerca. No es seguro entre hilos: quien lo comparte lo protege.
+ */
+public final class ArbolPlacas {
+
+    /**
+     * Marca de "vista" de una placa que está dentro del parqueadero; es mayor que cualquier hora de salida.
+     */
+    public static final long DENTRO = Long.MAX_VALUE;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final Nodos alDerecho = new Nodos();
+    private final Nodos alReves = new Nodos();
+
+    private String[] placas = new String[CAPACIDAD_INICIAL];
+    private long[] vistas = new long[CAPACIDAD_INICIAL]; // Segundos de la última salida, o DENTRO
+    private int cantidad;
+    private int profundidad; // Longitud de la placa más larga
+
+    /**
+     * Agrego una placa, o actualizo cuándo la vi si ya estaba.
+     * @param placa Placa normalizada.
+     * @param vista Segundos de su última salida (ver `segundos`), o `DENTRO`.
+     */
+    public void registrar(String placa, long vista) {
+        int nodo = 0;
+        for (int i = 0; i < placa.length(); i++) {
+            nodo = alDerecho.hijo(nodo, placa.charAt(i), placa.length() - i - 1);
+        }
+        int indice = alDerecho.placa(nodo);
+        if (indice < 0) {
+            indice = agregarPlaca(placa);
+            alDerecho.asignarPlaca(nodo, indice);
+            int reves = 0;
+            for (int i = placa.length() - 1; i >= 0; i--) {
+                reves = alReves.hijo(reves, placa.charAt(i), i);
+            }
+            alReves.asignarPlaca(reves, indice);
+            profundidad = Math.max(profundidad, placa.length());
+        }
+        vistas[indice] = vista;
+    }
+
+    /**
+     * Busco las placas que empiezan por la búsqueda o se parecen a ella.
+     * Encuentro todas las placas a `maxDistancia` ediciones o menos de la búsqueda completa. Además, una búsqueda
+     * incompleta encuentra las placas que la continúan, con la distancia de su prefijo más parecido (0 si la placa
+     * empieza exactamente por la búsqueda), pero solo si ese prefijo está a `maxDistancia / 2` ediciones o menos:
+     * con 2 ediciones sobre el prefijo coincidirían ramas enteras del árbol, todas con la peor distancia.
+     * @param consulta Búsqueda normalizada, no vacía.
+     * @param maxDistancia Distancia máxima que acepto.
+     * @param vistaMinima Descarto las placas vistas por última vez antes de esto (en segundos).
+     * @param limite Cantidad máxima de resultados.
+     * @return Las mejores coincidencias: primero la menor distancia, luego la longitud más parecida a la búsqueda,
+     *         luego las placas que están dentro y las vistas más recientemente.
+     */
+    public List<Coincidencia> buscar(String consulta, int maxDistancia, long vistaMinima, int limite) {
+        Resultados resultados = new Resultados(consulta.length(), limite);
+        int largo = consulta.length();
+        String reves = new StringBuilder(consulta).reverse().toString();
+        // Los caracteres de más entre dos partes cuentan en la de la izquierda, para que cada alineación reparta
+        // sus errores entre las partes sin contar ninguno dos veces
+        if (maxDistancia == 2) {
+            // Con dos errores y tres partes: o la primera no tiene errores, o la última no tiene errores,
+            // o cada una tiene uno y la del medio ninguno, así que las dos primeras suman uno
+            int extremo = (largo + 1) / 3;
+            new Recorrido(alDerecho, consulta, true, maxDistancia, extremo, 0, true, vistaMinima, resultados)
+                    .recorrer();
+            new Recorrido(alDerecho, consulta, true, maxDistancia, largo - extremo, 1, true, vistaMinima, resultados)
+                    .recorrer();
+            new Recorrido(alReves, reves, false, maxDistancia, extremo, 0, false, vistaMinima, resultados)
+                    .recorrer();
+        } else {
+            int mitad = largo / 2;
+            int tope = maxDistancia / 2;
+            new Recorrido(alDerecho, consulta, true, maxDistancia, mitad, tope, true, vistaMinima, resultados)
+                    .recorrer();
+            if (maxDistancia > 0) {
+                new Recorrido(alReves, reves, false, maxDistancia, largo - mitad, tope, false, vistaMinima, resultados)
+                        .recorrer();
+            }
+        }
+        return resultados.lista();
+    }
+
+    /**
+     * Obtengo la cantidad de placas registradas.
+     */
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtengo una placa por su índice (de 0 a `cantidad() - 1`), para recorrerlas al depurar el árbol.
+     */
+    public String placa(int indice) {
+        return placas[indice];
+    }
+
+    /**
+     * Obtengo cuándo vi una placa por última vez, por su índice.
+     */
+    public long vista(int indice) {
+        return vistas[indice];
+    }
+
+    /**
+     * Convierto una hora en los segundos que guardo como vista de una placa.
+     */
+    public static long segundos(LocalDateTime hora) {
+        return hora.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private int agregarPlaca(String placa) {
+        if (cantidad == placas.length) {
+            placas = Arrays.copyOf(placas, cantidad * 2);
+            vistas = Arrays.copyOf(vistas, cantidad * 2);
+        }
+        placas[cantidad] = placa;
+        return cantidad++;
+    }
+
+    /**
+     * Placa encontrada con su distancia a la búsqueda.
+     * @param placa Placa normalizada.
+     * @param distancia Distancia de edición entre la búsqueda y la placa o su prefijo más parecido.
+     * @param vista Segundos de su última salida, o `DENTRO`.
+     */
+    public record Coincidencia(String placa, int distancia, long vista) {
+    }
+
+    /**
+     * Nodos de un árbol en un solo arreglo de enteros, seis por nodo, para que leer un nodo traiga todos sus campos
+     * de memoria de una vez. Además del símbolo, el primer hijo, el hermano y la placa que termina en el nodo, guardo
+     * cuántos caracteres les faltan a la placa más corta y a la más larga de su rama, para descartar ramas por largo.
+     * El nodo 0 es la raíz; un hijo o hermano 0 significa que no hay.
+     */
+    private static final class Nodos {
+
+        private static final int CAMPOS = 6;
+        private static final int SIMBOLO = 0;
+        private static final int PRIMER_HIJO = 1;
+        private static final int HERMANO = 2;
+        private static final int PLACA = 3; // Índice de la placa que termina en el nodo, o -1
+        private static final int MENOR_RESTO = 4;
+        private static final int MAYOR_RESTO = 5;
+
+        private int[] datos = new int[CAPACIDAD_INICIAL * CAMPOS];
+        private int cantidad = 1;
+
+        Nodos() {
+            datos[PLACA] = -1;
+        }
+
+        int simbolo(int nodo) {
+            return datos[nodo * CAMPOS + SIMBOLO];
+        }
+
+        int primerHijo(int nodo) {
+            return datos[nodo * CAMPOS + PRIMER_HIJO];
+        }
+
+        int hermano(int nodo) {
+            return datos[nodo * CAMPOS + HERMANO];
+        }
+
+        int placa(int nodo) {
+            return datos[nodo * CAMPOS + PLACA];
+        }
+
+        int menorResto(int nodo) {
+            return datos[nodo * CAMPOS + MENOR_RESTO];
+        }
+
+        int mayorResto(int nodo) {
+            return datos[nodo * CAMPOS + MAYOR_RESTO];
+        }
+
+        void asignarPlaca(int nodo, int placa) {
+            datos[nodo * CAMPOS + PLACA] = placa;
+        }
+
+        /**
+         * Busco o creo el hijo de un nodo con un símbolo, y le anoto que por él pasa una placa a la que le faltan
+         * `resto` caracteres después de ese hijo.
+         */
+        int hijo(int nodo, char simbolo, int resto) {
+            for (int hijo = primerHijo(nodo); hijo != 0; hijo = hermano(hijo)) {
+                if (simbolo(hijo) == simbolo) {
+                    int base = hijo * CAMPOS;
+                    datos[base + MENOR_RESTO] = Math.min(datos[base + MENOR_RESTO], resto);
+                    datos[base + MAYOR_RESTO] = Math.max(datos[base + MAYOR_RESTO], resto);
+                    return hijo;
+                }
+            }
+            if (cantidad * CAMPOS == datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            int nuevo = cantidad++;
+            int base = nuevo * CAMPOS;
+            datos[base + SIMBOLO] = simbolo;
+            datos[base + PLACA] = -1;
+            datos[base + HERMANO] = primerHijo(nodo);
+            datos[base + MENOR_RESTO] = resto;
+            datos[base + MAYOR_RESTO] = resto;
+            datos[nodo * CAMPOS + PRIMER_HIJO] = nuevo;
+            return nuevo;
+        }
+    }
+
+    /**
+     * Un recorrido de un árbol con la tabla de distancias: una fila por nivel, reutilizadas entre ramas.
+     * Las celdas de las columnas de la parte inicial de la búsqueda no pueden pasar del tope de errores de esa parte:
+     * si pasan, las doy por perdidas (`maxDistancia + 1`), y como toda alineación cruza esa parte, la rama se corta
+     * en cuanto la parte acumula demasiados errores, sin esperar a que los acumule toda la búsqueda. También corto
+     * las ramas cuyas placas son todas demasiado cortas o demasiado largas para lo que le falta a la búsqueda.
+     */
+    private final class Recorrido {
+
+        private final Nodos nodos;
+        private final String consulta;
+        private final boolean prefijos;
+        private final int maxDistancia;
+        private final int caracteres;
+        private final int tope;
+        private final boolean conInserciones;
+        private final int erroresPrefijo;
+        private final long vistaMinima;
+        private final Resultados resultados;
+        private final int ancho;
+        private final int[] filas;
+
+        /**
+         * @param prefijos Si es verdadero, una placa coincide también por su prefijo más parecido.
+         * @param caracteres Largo de la parte inicial de la búsqueda en la que acepto como mucho `tope` errores.
+         * @param conInserciones Si los caracteres de más justo después de esa parte cuentan como errores suyos.
+         */
+        Recorrido(Nodos nodos, String consulta, boolean prefijos, int maxDistancia, int caracteres, int tope,
+                  boolean conInserciones, long vistaMinima, Resultados resultados) {
+            this.nodos = nodos;
+            this.consulta = consulta;
+            this.prefijos = prefijos;
+            this.maxDistancia = maxDistancia;
+            this.caracteres = caracteres;
+            this.tope = tope;
+            this.conInserciones = conInserciones;
+            this.erroresPrefijo = maxDistancia / 2;
+            this.vistaMinima = vistaMinima;
+            this.resultados = resultados;
+            this.ancho = consulta.length() + 1;
+            this.filas = new int[(profundidad + 1) * ancho];
+            for (int j = 0; j < ancho; j++) {
+                filas[j] = j <= caracteres ? acotar(j) : j;
+            }
+        }
+
+        void recorrer() {
+            recorrer(0, 0, consulta.length());
+        }
+
+        /**
+         * Bajo a los hijos de un nodo calculando la fila de cada uno a partir de la del nodo.
+         * @param nodo Nodo cuya fila ya está calculada.
+         * @param nivel Profundidad del nodo (su fila en la tabla).
+         * @param mejor Menor distancia entre la búsqueda y un prefijo del camino hasta el nodo; solo en el recorrido
+         *              con prefijos.
+         */
+        private void recorrer(int nodo, int nivel, int mejor) {
+            int anterior = nivel * ancho;
+            int actual = anterior + ancho;
+            for (int hijo = nodos.primerHijo(nodo); hijo != 0; hijo = nodos.hermano(hijo)) {
+                char simbolo = (char) nodos.simbolo(hijo);
+                int menorResto = nodos.menorResto(hijo);
+                int mayorResto = nodos.mayorResto(hijo);
+                boolean alcanzable = false;
+                for (int j = 0; j < ancho; j++) {
+                    // Llego a la celda por la diagonal o desde la izquierda (avanzando en la búsqueda), o desde arriba
+                    // (un carácter de más en la placa)
+                    int entrar = j == 0 ? maxDistancia + 1 : Math.min(
+                            filas[anterior + j - 1] + (consulta.charAt(j - 1) == simbolo ? 0 : 1),
+                            filas[actual + j - 1] + 1);
+                    int bajar = filas[anterior + j] + 1;
+                    int valor;
+                    if (j < caracteres || (j == caracteres && conInserciones)) {
+                        valor = acotar(Math.min(entrar, bajar));
+                    } else if (j == caracteres) {
+                        valor = Math.min(acotar(entrar), bajar);
+                    } else {
+                        valor = Math.min(entrar, bajar);
+                    }
+                    filas[actual + j] = valor;
+                    // Lo que le falta a la búsqueda y lo que les falta a las placas de la rama cuesta al menos su diferencia
+                    int faltan = ancho - 1 - j;
+                    int sinPlaca = Math.max(0, faltan - mayorResto);
+                    alcanzable |= valor + Math.max(sinPlaca, menorResto - faltan) <= maxDistancia
+                            || (prefijos && valor + sinPlaca <= erroresPrefijo);
+                }
+                int completa = filas[actual + ancho - 1];
+                int mejorHijo = prefijos ? Math.min(mejor, completa) : maxDistancia + 1;
+                int distancia = mejorHijo <= erroresPrefijo ? mejorHijo : completa;
+                int placa = nodos.placa(hijo);
+                if (placa >= 0 && distancia <= maxDistancia && vistas[placa] >= vistaMinima) {
+                    resultados.ofrecer(placa, distancia);
+                }
+                // Con prefijos, si ya hay un prefijo con pocos errores toda la rama coincide
+                if (alcanzable || mejorHijo <= erroresPrefijo) {
+                    recorrer(hijo, nivel + 1, mejorHijo);
+                }
+            }
+        }
+
+        /**
+         * Doy por perdida una celda de la parte acotada con más errores de los que acepto en ella.
+         */
+        private int acotar(int valor) {
+            return valor > tope ? maxDistancia + 1 : valor;
+        }
+    }
+
+    /**
+     * Los mejores resultados de una búsqueda, ordenados de mejor a peor en arreglos fijos.
+     * Una placa puede aparecer en los dos recorridos; me quedo con su menor distancia.
+     */
+    private final class Resultados {
+
+        private final int largoConsulta;
+        private final int[] encontradas;
+        private final int[] distancias;
+        private int llenos;
+
+        Resultados(int largoConsulta, int limite) {
+            this.largoConsulta = largoConsulta;
+            this.encontradas = new int[limite];
+            this.distancias = new int[limite];
+        }
+
+        /**
+         * Inserto una placa si está entre las mejores, desplazando a las peores.
+         */
+        void ofrecer(int placa, int distancia) {
+            for (int i = 0; i < llenos; i++) {
+                if (encontradas[i] == placa) {
+                    if (distancias[i] <= distancia) {
+                        return;
+                    }
+                    System.arraycopy(encontradas, i + 1, encontradas, i, llenos - i - 1);
+                    System.arraycopy(distancias, i + 1, distancias, i, llenos - i - 1);
+                    llenos--;
+                    break;
+                }
+            }
+            int posicion = llenos;
+            while (posicion > 0 && mejor(placa, distancia, encontradas[posicion - 1], distancias[posicion - 1])) {
+                posicion--;
+            }
+            if (posicion == encontradas.length) {
+                return;
+            }
+            int mover = Math.min(llenos, encontradas.length - 1) - posicion;
+            System.arraycopy(encontradas, posicion, encontradas, posicion + 1, mover);
+            System.arraycopy(distancias, posicion, distancias, posicion + 1, mover);
+            encontradas[posicion] = placa;
+            distancias[posicion] = distancia;
+            llenos = Math.min(llenos + 1, encontradas.length);
+        }
+
+        private boolean mejor(int placa, int distancia, int otra, int distanciaOtra) {
+            if (distancia != distanciaOtra) {
+                return distancia < distanciaOtra;
+            }
+            int sobra = Math.abs(placas[placa].length() - largoConsulta);
+            int sobraOtra = Math.abs(placas[otra].length() - largoConsulta);
+            if (sobra != sobraOtra) {
+                return sobra < sobraOtra;
+            }
+            if (vistas[placa] != vistas[otra]) {
+                return vistas[placa] > vistas[otra];
+            }
+            return placas[placa].compareTo(placas[otra]) < 0;
+        }
+
+        List<Coincidencia> lista() {
+            List<Coincidencia> lista = new ArrayList<>(llenos);
+            for (int i = 0; i < llenos; i++) {
+                lista.add(new Coincidencia(placas[encontradas[i]], distancias[i], vistas[encontradas[i]]));
+            }
+            return lista;
+        }
+    }
+}
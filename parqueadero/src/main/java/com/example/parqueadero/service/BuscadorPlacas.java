@@ -0,0 +1,234 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.CoincidenciaPlaca;
+import com.example.parqueadero.model.PlacaReciente;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoArchivadoRepositorio;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.util.Placas;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Busco placas parecidas a una búsqueda incompleta o mal leída entre las de los vehículos que están dentro
+ * y las de los que salieron dentro de la ventana configurada, con un `ArbolPlacas` en memoria.
+ * Al arrancar cargo las placas recientes de las dos tablas de estadías y las del índice de ocupación;
+ * después, el observador del índice solo deja en una cola concurrente la placa que entró o salió, y la tarea
+ * de fondo la pasa al árbol en la revisión periódica, así que las porterías nunca esperan el candado del árbol.
+ * Las búsquedas solo toman el candado de lectura y ven los cambios con el retraso del intervalo.
+ * Cada cierto tiempo reconstruyo el árbol sin las placas que ya salieron de la ventana.
+ */
+@Component
+public class BuscadorPlacas {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscadorPlacas.class);
+
+    private static final int MAXIMA_DISTANCIA = 2;
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final VehiculoArchivadoRepositorio archivadoRepositorio;
+    private final Duration ventana;
+    private final Duration intervalo;
+    private final Duration depuracion;
+    private final ScheduledExecutorService programador;
+
+    private final Queue<String> cambios = new ConcurrentLinkedQueue<>();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private ArbolPlacas arbol = new ArbolPlacas(); // Protegido por el candado
+
+    /**
+     * Inyecto el índice de ocupación, los repositorios de las estadías, la fábrica del hilo de fondo,
+     * la ventana de placas recientes, cada cuánto paso los cambios al árbol y cada cuánto lo depuro.
+     */
+    @Autowired
+    public BuscadorPlacas(IndiceOcupacion indiceOcupacion, VehiculoRepositorio vehiculoRepositorio,
+                          VehiculoArchivadoRepositorio archivadoRepositorio, FabricaHilos fabricaHilos,
+                          @Value("${parqueadero.busqueda-placas.ventana:30d}") Duration ventana,
+                          @Value("${parqueadero.busqueda-placas.intervalo:1s}") Duration intervalo,
+                          @Value("${parqueadero.busqueda-placas.depuracion:6h}") Duration depuracion) {
+        this.indiceOcupacion = indiceOcupacion;
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.archivadoRepositorio = archivadoRepositorio;
+        this.ventana = ventana;
+        this.intervalo = intervalo;
+        this.depuracion = depuracion;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("buscador-placas"));
+    }
+
+    /**
+     * Me suscribo a los cambios del índice, cargo las placas recientes y las de los vehículos que están dentro,
+     * y programo el paso de cambios y la depuración.
+     */
+    @PostConstruct
+    public void iniciar() {
+        indiceOcupacion.alCambiar(cambios::offer);
+        LocalDateTime limite = LocalDateTime.now().minus(ventana);
+        // Las registro ordenadas para que las ramas vecinas del árbol queden cerca en memoria
+        Map<String, Long> recientes = new TreeMap<>();
+        for (List<PlacaReciente> placas : List.of(vehiculoRepositorio.placasRecientes(limite),
+                archivadoRepositorio.placasRecientes(limite))) {
+            for (PlacaReciente reciente : placas) {
+                String placa = Placas.normalizar(reciente.placa());
+                if (placa != null && !placa.isEmpty()) {
+                    recientes.merge(placa, ArbolPlacas.segundos(reciente.ultimaSalida()), Math::max);
+                }
+            }
+        }
+        candado.writeLock().lock();
+        try {
+            recientes.forEach(arbol::registrar);
+            for (Vehiculo vehiculo : indiceOcupacion.activos()) {
+                arbol.registrar(Placas.normalizar(vehiculo.getPlaca()), ArbolPlacas.DENTRO);
+            }
+            log.info("Índice de búsqueda de placas cargado con {} placas", arbol.cantidad());
+        } finally {
+            candado.writeLock().unlock();
+        }
+        programar(this::aplicarCambios, intervalo, "pasar los cambios al índice de búsqueda de placas");
+        programar(() -> depurar(LocalDateTime.now()), depuracion, "depurar el índice de búsqueda de placas");
+    }
+
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Busco las placas que empiezan por la búsqueda o están a pocas ediciones de ella.
+     * Acepto menos ediciones en búsquedas cortas, porque con 2 ediciones sobre 3 caracteres casi todo coincide:
+     * como mucho una cada dos caracteres después del primero.
+     * @param consulta Búsqueda tal como la escribe el operador; la normalizo como cualquier placa.
+     * @param distancia Ediciones máximas que acepto, de 0 a 2.
+     * @param limite Cantidad máxima de resultados.
+     * @return Las coincidencias de mejor a peor; vacío si la búsqueda no tiene letras ni dígitos.
+     */
+    public List<CoincidenciaPlaca> buscar(String consulta, int distancia, int limite) {
+        String normalizada = Placas.normalizar(consulta);
+        if (normalizada == null || normalizada.isEmpty()) {
+            return List.of();
+        }
+        int maxDistancia = Math.min(Math.min(distancia, MAXIMA_DISTANCIA), (normalizada.length() - 1) / 2);
+        long vistaMinima = ArbolPlacas.segundos(LocalDateTime.now().minus(ventana));
+        List<ArbolPlacas.Coincidencia> coincidencias;
+        candado.readLock().lock();
+        try {
+            coincidencias = arbol.buscar(normalizada, maxDistancia, vistaMinima, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+        List<CoincidenciaPlaca> resultado = new ArrayList<>(coincidencias.size());
+        for (ArbolPlacas.Coincidencia coincidencia : coincidencias) {
+            Optional<Vehiculo> dentro = coincidencia.vista() == ArbolPlacas.DENTRO
+                    ? indiceOcupacion.buscar(coincidencia.placa()) : Optional.empty();
+            resultado.add(new CoincidenciaPlaca(coincidencia.placa(), coincidencia.distancia(),
+                    dentro.map(Vehiculo::getSede).orElse(null),
+                    coincidencia.vista() == ArbolPlacas.DENTRO ? null
+                            : LocalDateTime.ofEpochSecond(coincidencia.vista(), 0, ZoneOffset.UTC)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Paso al árbol las entradas y salidas pendientes, con el estado que tiene ahora el índice de ocupación.
+     */
+    void aplicarCambios() {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            long ahora = ArbolPlacas.segundos(LocalDateTime.now());
+            String placa;
+            while ((placa = cambios.poll()) != null) {
+                arbol.registrar(placa, indiceOcupacion.contiene(placa) ? ArbolPlacas.DENTRO : ahora);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruyo el árbol sin las placas que no veo desde antes de la ventana.
+     * Armo el árbol nuevo con una copia ordenada, sin el candado de escritura, y al reemplazarlo agrego lo que
+     * cambió mientras tanto, así que las búsquedas y el paso de cambios no esperan la reconstrucción.
+     * @param ahora Hora de referencia para la ventana.
+     * @return Cantidad de placas que quedan en el árbol.
+     */
+    public int depurar(LocalDateTime ahora) {
+        long vistaMinima = ArbolPlacas.segundos(ahora.minus(ventana));
+        String[] placas;
+        long[] vistas;
+        candado.readLock().lock();
+        try {
+            placas = new String[arbol.cantidad()];
+            vistas = new long[placas.length];
+            for (int i = 0; i < placas.length; i++) {
+                placas[i] = arbol.placa(i);
+                vistas[i] = arbol.vista(i);
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        Map<String, Long> vigentes = new TreeMap<>();
+        for (int i = 0; i < placas.length; i++) {
+            if (vistas[i] >= vistaMinima) {
+                vigentes.put(placas[i], vistas[i]);
+            }
+        }
+        ArbolPlacas nuevo = new ArbolPlacas();
+        vigentes.forEach(nuevo::registrar);
+        candado.writeLock().lock();
+        try {
+            // Las placas agregadas o vistas otra vez después de la copia pasan con su vista actual
+            for (int i = 0; i < arbol.cantidad(); i++) {
+                long vista = arbol.vista(i);
+                boolean cambio = i >= placas.length || vista != vistas[i];
+                if (cambio && vista >= vistaMinima) {
+                    nuevo.registrar(arbol.placa(i), vista);
+                }
+            }
+            int descartadas = arbol.cantidad() - nuevo.cantidad();
+            arbol = nuevo;
+            if (descartadas > 0) {
+                log.info("Descarté {} placas del índice de búsqueda, no vistas desde hace más de {}", descartadas, ventana);
+            }
+            return nuevo.cantidad();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void programar(Runnable tarea, Duration periodo, String descripcion) {
+        long milisegundos = periodo.toMillis();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude {}", descripcion, e);
+            }
+        }, milisegundos, milisegundos, TimeUnit.MILLISECONDS);
+    }
+}
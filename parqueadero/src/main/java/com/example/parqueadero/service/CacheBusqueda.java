@@ -0,0 +1,142 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.CacheRespuestasProperties;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.util.Placas;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Guardo ya serializadas las respuestas de `buscar/{placa}`, que las pantallas y las aplicaciones consultan
+ * una y otra vez mientras el conductor espera. Cada respuesta lleva su ETag, así que una consulta repetida
+ * con `If-None-Match` se resuelve sin serializar ni enviar el vehículo.
+ * El índice de ocupación me avisa de cada entrada y salida para invalidar la placa; la caché tiene un tamaño
+ * máximo y una vigencia que solo acotan la memoria. También guardo las placas que no están dentro.
+ * Publico los aciertos y fallos como métricas `cache.gets{cache="busquedas"}`.
+ */
+@Component
+public class CacheBusqueda {
+
+    private static final Entrada AUSENTE = new Entrada(null, null, null);
+    private static final int BYTES_ETIQUETA = 16; // 128 bits del SHA-256: un choque accidental es inverosímil
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entrada> cache;
+
+    /**
+     * Creo la caché con el tamaño y la vigencia configurados, registro sus métricas
+     * y me suscribo a los cambios del índice de ocupación.
+     */
+    @Autowired
+    public CacheBusqueda(IndiceOcupacion indiceOcupacion, ObjectMapper objectMapper,
+                         CacheRespuestasProperties propiedades, MeterRegistry registro) {
+        this.indiceOcupacion = indiceOcupacion;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(propiedades.getTamanoBusquedas())
+                .expireAfterWrite(propiedades.getVigenciaBusquedas())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registro, cache, "busquedas");
+        indiceOcupacion.alCambiar(cache::invalidate);
+    }
+
+    /**
+     * Busco la respuesta serializada del vehículo que está dentro con la placa indicada.
+     * @param placa Placa del vehículo, normalizada o no.
+     * @return El cuerpo JSON y su ETag, o vacío si la placa no está dentro.
+     */
+    public Optional<Respuesta> buscar(String placa) {
+        String clave = Placas.normalizar(placa);
+        Entrada entrada = cache.get(clave, this::cargar);
+        if (entrada.vigente()) {
+            return Optional.ofNullable(entrada.respuesta());
+        }
+        // La persistencia diferida asignó el ID después de serializar; vuelvo a serializar
+        cache.invalidate(clave);
+        return Optional.ofNullable(cache.get(clave, this::cargar).respuesta());
+    }
+
+    private Entrada cargar(String placa) {
+        Optional<Vehiculo> vehiculo = indiceOcupacion.buscar(placa);
+        if (vehiculo.isEmpty()) {
+            return AUSENTE;
+        }
+        try {
+            Long id = vehiculo.get().getId();
+            byte[] cuerpo = objectMapper.writeValueAsBytes(vehiculo.get());
+            return new Entrada(vehiculo.get(), id, new Respuesta(cuerpo, etiqueta(cuerpo)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculo un ETag fuerte con el SHA-256 del contenido, truncado, así que dos instancias producen
+     * la misma etiqueta para el mismo vehículo y dos versiones distintas no comparten etiqueta
+     * (con un hash de 32 bits, un cliente podría recibir un 304 con la versión anterior).
+     */
+    private static String etiqueta(byte[] cuerpo) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "\"" + BASE64.encodeToString(Arrays.copyOf(resumen, BYTES_ETIQUETA)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Toda JVM trae SHA-256
+        }
+    }
+
+    /**
+     * Represento una respuesta lista para enviar.
+     * @param cuerpo Vehículo serializado en JSON.
+     * @param etag Etiqueta de la versión, con comillas.
+     */
+    public record Respuesta(byte[] cuerpo, String etag) {
+
+        /**
+         * Verifico si el encabezado `If-None-Match` de la petición incluye esta versión.
+         * @param siNoCoincide Valor del encabezado, o `null` si la petición no lo trae.
+         */
+        public boolean coincide(String siNoCoincide) {
+            if (siNoCoincide == null) {
+                return false;
+            }
+            for (String etiqueta : siNoCoincide.split(",")) {
+                String limpia = etiqueta.trim();
+                if (limpia.startsWith("W/")) {
+                    limpia = limpia.substring(2);
+                }
+                if (limpia.equals("*") || limpia.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Guardo junto a la respuesta el vehículo y el ID que tenía al serializarlo,
+     * para detectar cuándo la persistencia diferida le asignó un ID.
+     */
+    private record Entrada(Vehiculo vehiculo, Long id, Respuesta respuesta) {
+
+        boolean vigente() {
+            return vehiculo == null || Objects.equals(vehiculo.getId(), id);
+        }
+    }
+}
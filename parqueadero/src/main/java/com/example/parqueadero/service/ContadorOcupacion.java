@@ -0,0 +1,194 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.OcupacionProperties;
+import com.example.parqueadero.model.OcupacionClase;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Llevo en memoria cuántos vehículos de cada clase hay dentro de cada sede y cuántos cupos tiene cada clase.
+ * Cada sede tiene sus propios contadores, así que las entradas de una sede nunca compiten con las de otra,
+ * y dentro de una sede cada clase tiene su contador separado de los demás por relleno, para que una entrada
+ * de moto no invalide la línea de caché del contador de carros. Uso un contador atómico con comparación
+ * e intercambio en lugar de un `LongAdder` porque necesito reservar el cupo y verificar la capacidad
+ * en la misma operación. Me inicializo después de la persistencia para contar también los eventos
+ * recuperados del diario.
+ */
+@Component
+@DependsOn("persistenciaVehiculos")
+public class ContadorOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorOcupacion.class);
+
+    // Separo cada contador 16 posiciones (128 bytes) para que dos clases nunca compartan línea de caché
+    private static final int SEPARACION = 16;
+    private static final TipoVehiculo[] TIPOS = TipoVehiculo.values();
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final OcupacionProperties propiedades;
+    private final Map<String, Cupos> sedes = new ConcurrentHashMap<>();
+
+    /**
+     * Inyecto el índice de ocupación, del que cuento los vehículos que ya están dentro al arrancar,
+     * y la configuración con los cupos de cada clase.
+     */
+    @Autowired
+    public ContadorOcupacion(IndiceOcupacion indiceOcupacion, OcupacionProperties propiedades) {
+        this.indiceOcupacion = indiceOcupacion;
+        this.propiedades = propiedades;
+        cupos(Sede.PRINCIPAL);
+        propiedades.getCapacidadSedes().keySet().forEach(this::cupos);
+    }
+
+    /**
+     * Cuento por sede y clase los vehículos que están en el índice de ocupación.
+     */
+    @PostConstruct
+    public void sincronizar() {
+        Map<String, long[]> conteos = new HashMap<>();
+        for (Vehiculo vehiculo : indiceOcupacion.activos()) {
+            conteos.computeIfAbsent(vehiculo.getSede(), sede -> new long[TIPOS.length])[vehiculo.getTipo().ordinal()]++;
+        }
+        sedes.keySet().forEach(sede -> conteos.computeIfAbsent(sede, vacia -> new long[TIPOS.length]));
+        conteos.forEach((sede, conteo) -> {
+            Cupos cupos = cupos(sede);
+            for (TipoVehiculo tipo : TIPOS) {
+                cupos.ocupados.set(posicion(tipo), conteo[tipo.ordinal()]);
+                if (conteo[tipo.ordinal()] > cupos.capacidad[tipo.ordinal()]) {
+                    log.warn("Hay {} vehículos de tipo {} dentro de la sede {}, más que los {} cupos configurados",
+                            conteo[tipo.ordinal()], tipo, sede, cupos.capacidad[tipo.ordinal()]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Cuento un vehículo que ya está dentro aunque la clase esté llena, por ejemplo uno que faltaba en el índice.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     */
+    public void ocupar(String sede, TipoVehiculo tipo) {
+        cupos(sede).ocupados.incrementAndGet(posicion(tipo));
+    }
+
+    /**
+     * Reservo un cupo para un vehículo que va a entrar, si la clase todavía tiene cupos libres en la sede.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @return `true` si reservé el cupo; `false` si la clase está llena.
+     */
+    public boolean reservar(String sede, TipoVehiculo tipo) {
+        Cupos cupos = cupos(sede);
+        int posicion = posicion(tipo);
+        long limite = cupos.capacidad[tipo.ordinal()];
+        long actual;
+        do {
+            actual = cupos.ocupados.get(posicion);
+            if (actual >= limite) {
+                return false;
+            }
+        } while (!cupos.ocupados.compareAndSet(posicion, actual, actual + 1));
+        return true;
+    }
+
+    /**
+     * Libero el cupo de un vehículo que salió o cuya entrada no se pudo guardar.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     */
+    public void liberar(String sede, TipoVehiculo tipo) {
+        cupos(sede).ocupados.decrementAndGet(posicion(tipo));
+    }
+
+    /**
+     * Obtengo la cantidad de vehículos de una clase que están dentro de una sede.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @return Número de vehículos dentro.
+     */
+    public long ocupados(String sede, TipoVehiculo tipo) {
+        return cupos(sede).ocupados.get(posicion(tipo));
+    }
+
+    /**
+     * Obtengo la cantidad de vehículos de una clase que están dentro de la sede principal.
+     * @param tipo Clase del vehículo.
+     * @return Número de vehículos dentro.
+     */
+    public long ocupados(TipoVehiculo tipo) {
+        return ocupados(Sede.PRINCIPAL, tipo);
+    }
+
+    /**
+     * Armo el resumen de ocupación de todas las clases de una sede.
+     * @param sede Código de la sede.
+     * @return Una entrada por clase de vehículo, en el orden del enum.
+     */
+    public List<OcupacionClase> resumen(String sede) {
+        Cupos cupos = cupos(sede);
+        List<OcupacionClase> resumen = new ArrayList<>(TIPOS.length);
+        for (TipoVehiculo tipo : TIPOS) {
+            long dentro = cupos.ocupados.get(posicion(tipo));
+            long limite = cupos.capacidad[tipo.ordinal()];
+            if (limite == Long.MAX_VALUE) {
+                resumen.add(new OcupacionClase(tipo, dentro, null, null));
+            } else {
+                resumen.add(new OcupacionClase(tipo, dentro, limite, Math.max(0, limite - dentro)));
+            }
+        }
+        return resumen;
+    }
+
+    /**
+     * Armo el resumen de ocupación de todas las clases de la sede principal.
+     * @return Una entrada por clase de vehículo, en el orden del enum.
+     */
+    public List<OcupacionClase> resumen() {
+        return resumen(Sede.PRINCIPAL);
+    }
+
+    /**
+     * Obtengo los contadores de una sede, creándolos la primera vez que la sede recibe un vehículo.
+     */
+    private Cupos cupos(String sede) {
+        Cupos cupos = sedes.get(sede);
+        return cupos != null ? cupos : sedes.computeIfAbsent(sede, this::crear);
+    }
+
+    private Cupos crear(String sede) {
+        Map<TipoVehiculo, Integer> propios = propiedades.getCapacidadSedes().getOrDefault(sede, Map.of());
+        long[] capacidad = new long[TIPOS.length];
+        for (TipoVehiculo tipo : TIPOS) {
+            Integer cupos = propios.getOrDefault(tipo, propiedades.getCapacidad().get(tipo));
+            if (cupos != null && cupos < 0) {
+                throw new IllegalArgumentException("La capacidad de " + tipo + " en la sede " + sede + " no puede ser negativa");
+            }
+            capacidad[tipo.ordinal()] = cupos == null ? Long.MAX_VALUE : cupos;
+        }
+        return new Cupos(new AtomicLongArray(TIPOS.length * SEPARACION), capacidad);
+    }
+
+    private static int posicion(TipoVehiculo tipo) {
+        return tipo.ordinal() * SEPARACION;
+    }
+
+    /**
+     * Agrupo los contadores y los cupos de una sede.
+     */
+    private record Cupos(AtomicLongArray ocupados, long[] capacidad) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.util.Placas;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializo las entradas y salidas de una misma placa usando candados por franjas.
+ * Cada placa normalizada cae siempre en la misma franja, así que dos porterías que
+ * procesan la misma placa se turnan, mientras que placas distintas casi nunca compiten
+ * por el mismo candado. Esto garantiza como máximo una sesión abierta por placa
+ * dentro de esta instancia; la restricción única de la base de datos respalda esa regla.
+ */
+@Component
+public class ControlAdmision {
+
+    // Uso una potencia de dos para poder calcular la franja con una máscara
+    private static final int FRANJAS = 1024;
+
+    private final ReentrantLock[] candados = new ReentrantLock[FRANJAS];
+
+    /**
+     * Creo todos los candados al iniciar para no reservar memoria en cada petición.
+     */
+    public ControlAdmision() {
+        for (int i = 0; i < FRANJAS; i++) {
+            candados[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Ejecuto una acción en exclusión mutua con cualquier otra acción sobre la misma placa.
+     * @param placa Placa del vehículo, normalizada o no.
+     * @param accion Acción que verifica y modifica el estado de la placa.
+     * @return El resultado de la acción.
+     */
+    public <T> T conPlaca(String placa, Supplier<T> accion) {
+        ReentrantLock candado = candados[franja(Placas.normalizar(placa))];
+        candado.lock();
+        try {
+            return accion.get();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Ejecuto una acción en exclusión mutua con cualquier otra acción sobre alguna de las placas indicadas.
+     * Tomo los candados de las franjas en orden ascendente, así que dos lotes que comparten placas
+     * se turnan sin bloquearse mutuamente.
+     * @param placas Placas del lote, normalizadas o no; pueden repetirse.
+     * @param accion Acción que verifica y modifica el estado de las placas.
+     * @return El resultado de la acción.
+     */
+    public <T> T conPlacas(Collection<String> placas, Supplier<T> accion) {
+        int[] franjas = placas.stream().mapToInt(placa -> franja(Placas.normalizar(placa))).sorted().distinct().toArray();
+        int tomados = 0;
+        try {
+            for (int franja : franjas) {
+                candados[franja].lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                candados[franjas[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Calculo la franja de una placa mezclando los bits del hash para repartir mejor las placas parecidas.
+     */
+    private static int franja(String placa) {
+        int h = placa.hashCode();
+        h ^= (h >>> 16);
+        return h & (FRANJAS - 1);
+    }
+}
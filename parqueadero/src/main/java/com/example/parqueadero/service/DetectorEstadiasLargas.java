@@ -0,0 +1,170 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.model.EstadiaLarga;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.util.Placas;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detecto las sesiones abiertas que llevan más del umbral dentro del parqueadero, casi siempre salidas
+ * que la portería no registró y que de otro modo quedan abiertas para siempre.
+ * No recorro las sesiones abiertas: cada vehículo que entra queda en una cola de prioridad ordenada por
+ * el momento en que vence su estadía, y en cada revisión solo miro la cabeza de la cola.
+ * Las salidas no se buscan dentro de la cola: cuando un vencimiento llega a la cabeza compruebo que el mismo
+ * vehículo siga dentro y, si ya salió, lo descarto. Así la cola tiene como mucho las entradas de un umbral.
+ * Las porterías no tocan la cola: el observador del índice solo deja la placa en una cola concurrente
+ * y el hilo de fondo la pasa a la cola de prioridad en la siguiente revisión.
+ */
+@Component
+public class DetectorEstadiasLargas {
+
+    private static final Logger log = LoggerFactory.getLogger(DetectorEstadiasLargas.class);
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final Duration umbral;
+    private final Duration intervalo;
+    private final ScheduledExecutorService programador;
+
+    private final Queue<String> cambios = new ConcurrentLinkedQueue<>();
+    // Solo la usa revisar(), que es sincronizado
+    private final PriorityQueue<Vencimiento> vencimientos =
+            new PriorityQueue<>(Comparator.comparing(Vencimiento::vence));
+    private final Map<String, EstadiaLarga> detectadas = new ConcurrentHashMap<>();
+
+    /**
+     * Inyecto el índice de ocupación, el registro de métricas, la fábrica del hilo de fondo,
+     * el umbral a partir del cual una estadía es sospechosa y cada cuánto reviso.
+     */
+    @Autowired
+    public DetectorEstadiasLargas(IndiceOcupacion indiceOcupacion, MeterRegistry registro, FabricaHilos fabricaHilos,
+                                  @Value("${parqueadero.estadias-largas.umbral:24h}") Duration umbral,
+                                  @Value("${parqueadero.estadias-largas.intervalo:1m}") Duration intervalo) {
+        this.indiceOcupacion = indiceOcupacion;
+        this.umbral = umbral;
+        this.intervalo = intervalo;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("estadias-largas"));
+        Gauge.builder("parqueadero.estadias.largas", detectadas, Map::size)
+                .description("Sesiones abiertas que superan el umbral de estadía")
+                .register(registro);
+    }
+
+    /**
+     * Me suscribo a los cambios del índice, encolo los vehículos que ya están dentro y programo la revisión periódica.
+     */
+    @PostConstruct
+    public void iniciar() {
+        indiceOcupacion.alCambiar(placa -> {
+            // Una salida o una nueva entrada con la misma placa deja de ser la estadía que detecté
+            detectadas.remove(placa);
+            cambios.offer(placa);
+        });
+        synchronized (this) {
+            for (Vehiculo vehiculo : indiceOcupacion.activos()) {
+                encolar(vehiculo);
+            }
+        }
+        long periodo = intervalo.toMillis();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                revisar(LocalDateTime.now());
+            } catch (RuntimeException e) {
+                // Si dejo escapar la excepción, el programador cancela la tarea
+                log.error("No pude revisar las estadías largas", e);
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Paso a la cola de prioridad las entradas recientes y marco las estadías que vencieron hasta este momento.
+     * @param ahora Hora de la revisión.
+     * @return Cantidad de estadías largas que detecté en esta revisión.
+     */
+    public synchronized int revisar(LocalDateTime ahora) {
+        String placa;
+        while ((placa = cambios.poll()) != null) {
+            indiceOcupacion.buscar(placa).ifPresent(this::encolar);
+        }
+        int nuevas = 0;
+        while (!vencimientos.isEmpty() && !vencimientos.peek().vence().isAfter(ahora)) {
+            Vencimiento vencimiento = vencimientos.poll();
+            Vehiculo vehiculo = vencimiento.vehiculo();
+            // Comparo la instancia: si el vehículo salió y volvió a entrar, su nueva entrada tiene su propio vencimiento
+            if (indiceOcupacion.buscar(vencimiento.placa()).orElse(null) != vehiculo
+                    || detectadas.containsKey(vencimiento.placa())) {
+                continue;
+            }
+            EstadiaLarga estadia = new EstadiaLarga(vencimiento.placa(), vehiculo.getSede(),
+                    vehiculo.getTipo(), vehiculo.getPuesto(), vehiculo.getHoraEntrada(), ahora);
+            detectadas.put(vencimiento.placa(), estadia);
+            if (indiceOcupacion.buscar(vencimiento.placa()).orElse(null) != vehiculo) {
+                // Salió mientras la marcaba y el observador ya pasó: la quito yo
+                detectadas.remove(vencimiento.placa(), estadia);
+                continue;
+            }
+            log.warn("El vehículo {} lleva dentro de la sede {} desde {}, más de {}",
+                    vencimiento.placa(), vehiculo.getSede(), vehiculo.getHoraEntrada(), umbral);
+            nuevas++;
+        }
+        return nuevas;
+    }
+
+    /**
+     * Obtengo las estadías largas de los vehículos que siguen dentro, de la más antigua a la más reciente.
+     * @return Las estadías largas detectadas.
+     */
+    public List<EstadiaLarga> estadiasLargas() {
+        return detectadas.values().stream()
+                .sorted(Comparator.comparing(EstadiaLarga::horaEntrada))
+                .toList();
+    }
+
+    /**
+     * Obtengo las estadías largas de una sede, de la más antigua a la más reciente.
+     * @param sede Código de la sede.
+     * @return Las estadías largas detectadas en la sede.
+     */
+    public List<EstadiaLarga> estadiasLargas(String sede) {
+        return detectadas.values().stream()
+                .filter(estadia -> estadia.sede().equals(sede))
+                .sorted(Comparator.comparing(EstadiaLarga::horaEntrada))
+                .toList();
+    }
+
+    private void encolar(Vehiculo vehiculo) {
+        vencimientos.add(new Vencimiento(vehiculo.getHoraEntrada().plus(umbral),
+                Placas.normalizar(vehiculo.getPlaca()), vehiculo));
+    }
+
+    /**
+     * Momento en que vence la estadía de un vehículo; guardo la instancia para saber si sigue siendo la misma sesión.
+     */
+    private record Vencimiento(LocalDateTime vence, String placa, Vehiculo vehiculo) {
+    }
+}
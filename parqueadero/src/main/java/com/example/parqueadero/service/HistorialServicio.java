@@ -0,0 +1,257 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.model.FiltroHistorial;
+import com.example.parqueadero.model.PaginaVehiculos;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.model.VehiculoArchivado;
+import com.example.parqueadero.repository.VehiculoArchivadoRepositorio;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Consulto y exporto el historial de vehículos sin cargar la tabla completa en memoria.
+ * Las consultas paginadas usan un cursor por ID y la exportación recorre un cursor
+ * de la base de datos, escribiendo cada fila en la respuesta a medida que la leo.
+ * El historial está repartido entre la tabla activa y la de estadías archivadas; como ambas conservan
+ * el mismo ID, consulto las dos ordenadas por ID y las intercalo.
+ */
+@Service
+public class HistorialServicio {
+
+    // Cada cuántas filas vacío el buffer hacia el cliente durante la exportación
+    private static final int FILAS_POR_ENVIO = 500;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final VehiculoArchivadoRepositorio archivadoRepositorio;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaccionLectura;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inyecto los repositorios de la tabla activa y del historial archivado, el `ObjectMapper` de Spring (para respetar el formato JSON de `Vehiculo`)
+     * y el gestor de transacciones, que necesito para mantener abierto el cursor durante la exportación.
+     */
+    @Autowired
+    public HistorialServicio(VehiculoRepositorio vehiculoRepositorio, VehiculoArchivadoRepositorio archivadoRepositorio,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.archivadoRepositorio = archivadoRepositorio;
+        this.objectMapper = objectMapper;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Obtengo una página del historial.
+     * @param filtro Filtros opcionales.
+     * @param despuesDe Último ID entregado en la página anterior, o `null` para la primera página.
+     * @param tamano Cantidad máxima de vehículos en la página.
+     * @return La página con el cursor para pedir la siguiente.
+     */
+    public PaginaVehiculos pagina(FiltroHistorial filtro, Long despuesDe, int tamano) {
+        long cursor = despuesDe == null ? 0 : despuesDe;
+        List<Vehiculo> vehiculos = vehiculoRepositorio.buscarHistorial(cursor, filtro.desde(), filtro.hasta(),
+                filtro.tipo(), filtro.abiertos(), filtro.sede(), PageRequest.of(0, tamano));
+        if (!Boolean.TRUE.equals(filtro.abiertos())) {
+            // Pido una página completa de cada tabla y me quedo con los primeros IDs de ambas
+            List<Vehiculo> archivados = archivadoRepositorio.buscarHistorial(cursor, filtro.desde(), filtro.hasta(),
+                    filtro.tipo(), filtro.sede(), PageRequest.of(0, tamano))
+                    .stream().map(VehiculoArchivado::aVehiculo).toList();
+            vehiculos = intercalar(vehiculos, archivados, tamano);
+        }
+        Long siguiente = vehiculos.size() < tamano ? null : vehiculos.get(vehiculos.size() - 1).getId();
+        return new PaginaVehiculos(vehiculos, siguiente);
+    }
+
+    /**
+     * Exporto el historial filtrado como JSON delimitado por saltos de línea (un vehículo por línea).
+     * @param filtro Filtros opcionales.
+     * @param salida Flujo de la respuesta HTTP.
+     */
+    public void exportarNdjson(FiltroHistorial filtro, OutputStream salida) {
+        recorrer(filtro, vehiculos -> {
+            JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (SequenceWriter escritor = objectMapper.writerFor(Vehiculo.class)
+                    .withRootValueSeparator("\n").writeValues(generador)) {
+                int filas = 0;
+                while (vehiculos.hasNext()) {
+                    escritor.write(vehiculos.next());
+                    if (++filas % FILAS_POR_ENVIO == 0) {
+                        escritor.flush();
+                    }
+                }
+            }
+            salida.write('\n');
+            salida.flush();
+        });
+    }
+
+    /**
+     * Exporto el historial filtrado como CSV con una fila de encabezado.
+     * @param filtro Filtros opcionales.
+     * @param salida Flujo de la respuesta HTTP.
+     */
+    public void exportarCsv(FiltroHistorial filtro, OutputStream salida) {
+        recorrer(filtro, vehiculos -> {
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            escritor.write("id,placa,tipo,horaEntrada,horaSalida,costoTotal,sede\n");
+            int filas = 0;
+            while (vehiculos.hasNext()) {
+                Vehiculo vehiculo = vehiculos.next();
+                escritor.write(String.valueOf(vehiculo.getId()));
+                escritor.write(',');
+                escribirCampo(escritor, vehiculo.getPlaca());
+                escritor.write(',');
+                escritor.write(vehiculo.getTipo() == null ? "" : vehiculo.getTipo().name());
+                escritor.write(',');
+                escritor.write(vehiculo.getHoraEntrada() == null ? "" : FORMATO_FECHA.format(vehiculo.getHoraEntrada()));
+                escritor.write(',');
+                escritor.write(vehiculo.getHoraSalida() == null ? "" : FORMATO_FECHA.format(vehiculo.getHoraSalida()));
+                escritor.write(',');
+                escritor.write(vehiculo.getCostoTotal() == null ? "" : vehiculo.getCostoTotal().toPlainString());
+                escritor.write(',');
+                escribirCampo(escritor, vehiculo.getSede());
+                escritor.write('\n');
+                if (++filas % FILAS_POR_ENVIO == 0) {
+                    escritor.flush();
+                }
+            }
+            escritor.flush();
+        });
+    }
+
+    /**
+     * Abro una transacción de solo lectura, recorro el cursor y desprendo cada vehículo
+     * del contexto de persistencia después de escribirlo, para que la memoria no crezca con el historial.
+     */
+    private void recorrer(FiltroHistorial filtro, Exportacion exportacion) {
+        transaccionLectura.executeWithoutResult(estado -> {
+            boolean soloAbiertos = Boolean.TRUE.equals(filtro.abiertos());
+            try (Stream<Vehiculo> vehiculos = vehiculoRepositorio.recorrerHistorial(filtro.desde(), filtro.hasta(),
+                    filtro.tipo(), filtro.abiertos(), filtro.sede());
+                 Stream<Vehiculo> archivados = soloAbiertos ? Stream.empty()
+                         : archivadoRepositorio.recorrerHistorial(filtro.desde(), filtro.hasta(), filtro.tipo(), filtro.sede())
+                         .map(archivado -> {
+                             entityManager.detach(archivado);
+                             return archivado.aVehiculo();
+                         })) {
+                Iterator<Vehiculo> activos = vehiculos.iterator();
+                Iterator<Vehiculo> historial = archivados.iterator();
+                exportacion.escribir(new Iterator<>() {
+                    private Vehiculo siguienteActivo;
+                    private Vehiculo siguienteArchivado;
+                    private Vehiculo anterior;
+
+                    @Override
+                    public boolean hasNext() {
+                        if (siguienteActivo == null && activos.hasNext()) {
+                            siguienteActivo = activos.next();
+                        }
+                        if (siguienteArchivado == null && historial.hasNext()) {
+                            siguienteArchivado = historial.next();
+                        }
+                        return siguienteActivo != null || siguienteArchivado != null;
+                    }
+
+                    @Override
+                    public Vehiculo next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        if (anterior != null) {
+                            entityManager.detach(anterior);
+                            anterior = null;
+                        }
+                        if (siguienteArchivado == null
+                                || (siguienteActivo != null && siguienteActivo.getId() < siguienteArchivado.getId())) {
+                            anterior = siguienteActivo;
+                            siguienteActivo = null;
+                            return anterior;
+                        }
+                        Vehiculo archivado = siguienteArchivado;
+                        siguienteArchivado = null;
+                        return archivado;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Intercalo dos listas ordenadas por ID y me quedo con los primeros `tamano` vehículos.
+     */
+    private static List<Vehiculo> intercalar(List<Vehiculo> activos, List<Vehiculo> archivados, int tamano) {
+        if (archivados.isEmpty()) {
+            return activos;
+        }
+        if (activos.isEmpty()) {
+            return archivados;
+        }
+        List<Vehiculo> vehiculos = new ArrayList<>(Math.min(tamano, activos.size() + archivados.size()));
+        int i = 0;
+        int j = 0;
+        while (vehiculos.size() < tamano && (i < activos.size() || j < archivados.size())) {
+            if (j == archivados.size() || (i < activos.size() && activos.get(i).getId() < archivados.get(j).getId())) {
+                vehiculos.add(activos.get(i++));
+            } else {
+                vehiculos.add(archivados.get(j++));
+            }
+        }
+        return Collections.unmodifiableList(vehiculos);
+    }
+
+    /**
+     * Escribo un campo de texto en CSV, entre comillas si contiene comas, comillas o saltos de línea.
+     */
+    private static void escribirCampo(Writer escritor, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            escritor.write(valor);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(valor.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    /**
+     * Represento la escritura de un formato de exportación sobre el cursor de vehículos.
+     */
+    @FunctionalInterface
+    private interface Exportacion {
+        void escribir(Iterator<Vehiculo> vehiculos) throws IOException;
+    }
+}
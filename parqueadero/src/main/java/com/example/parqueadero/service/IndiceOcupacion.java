@@ -0,0 +1,186 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.RegistroOcupacion;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.util.Placas;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Mantengo en memoria los vehículos que están dentro del parqueadero, indexados por placa normalizada.
+ * El índice se reconstruye desde la base de datos al arrancar y luego se actualiza
+ * después de cada escritura en el repositorio, así que las consultas de ocupación
+ * no necesitan ir a la base de datos.
+ * Si la recuperación desde disco está habilitada, lo reconstruyo desde la última instantánea y la bitácora,
+ * y anoto en la bitácora cada cambio después de aplicarlo.
+ * Después de cada entrada o salida aviso a los observadores registrados, por ejemplo a la caché de búsquedas.
+ * Además del índice por placa, reparto los vehículos en un índice por sede, para listar los de una sede
+ * sin recorrer los de todas.
+ */
+@Component
+// Reconstruyo el índice solo cuando los tipos antiguos ya están migrados y cada sesión abierta tiene su placa canónica
+@DependsOn({"migracionTipoVehiculo", "migracionPlacasCanonicas"})
+public class IndiceOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceOcupacion.class);
+
+    private final VehiculoRepositorio vehiculoRepositorio;
+    private final RegistroOcupacion registroOcupacion;
+    private final ConcurrentHashMap<String, Vehiculo> activos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Vehiculo>> porSede = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Inyecto el repositorio que uso para reconstruir el índice al iniciar la aplicación
+     * y el registro en disco que lo reconstruye sin consultar la base de datos.
+     */
+    @Autowired
+    public IndiceOcupacion(VehiculoRepositorio vehiculoRepositorio, RegistroOcupacion registroOcupacion) {
+        this.vehiculoRepositorio = vehiculoRepositorio;
+        this.registroOcupacion = registroOcupacion;
+    }
+
+    /**
+     * Cargo en el índice las sesiones abiertas desde la instantánea y la bitácora en disco o,
+     * si no hay nada guardado, todas las sesiones abiertas (sin hora de salida) que hay en la base de datos.
+     * Este método se ejecuta una sola vez, al arrancar.
+     */
+    @PostConstruct
+    public void reconstruir() {
+        activos.clear();
+        porSede.clear();
+        List<Vehiculo> vehiculos = registroOcupacion.recuperar().orElseGet(vehiculoRepositorio::findByHoraSalidaIsNull);
+        for (Vehiculo vehiculo : vehiculos) {
+            String placa = Placas.normalizar(vehiculo.getPlaca());
+            activos.put(placa, vehiculo);
+            sede(vehiculo.getSede()).put(placa, vehiculo);
+        }
+        log.info("Índice de ocupación reconstruido con {} vehículos dentro", activos.size());
+        registroOcupacion.iniciarInstantaneas(activos::values);
+    }
+
+    /**
+     * Busco el vehículo que está dentro del parqueadero con la placa indicada.
+     * @param placa Placa del vehículo, normalizada o no.
+     * @return Un `Optional<Vehiculo>` con el vehículo si aún está dentro.
+     */
+    public Optional<Vehiculo> buscar(String placa) {
+        return Optional.ofNullable(activos.get(Placas.normalizar(placa)));
+    }
+
+    /**
+     * Verifico si hay un vehículo dentro con la placa indicada.
+     * @param placa Placa del vehículo, normalizada o no.
+     * @return `true` si el vehículo sigue dentro del parqueadero.
+     */
+    public boolean contiene(String placa) {
+        return activos.containsKey(Placas.normalizar(placa));
+    }
+
+    /**
+     * Registro en el índice un vehículo que acaba de guardarse como sesión abierta.
+     * @param vehiculo Vehículo ya persistido.
+     */
+    public void registrarEntrada(Vehiculo vehiculo) {
+        String placa = Placas.normalizar(vehiculo.getPlaca());
+        Vehiculo anterior = activos.put(placa, vehiculo);
+        if (anterior != null && !anterior.getSede().equals(vehiculo.getSede())) {
+            sede(anterior.getSede()).remove(placa, anterior);
+        }
+        sede(vehiculo.getSede()).put(placa, vehiculo);
+        registroOcupacion.anotarEntrada(vehiculo);
+        avisar(placa);
+    }
+
+    /**
+     * Retiro del índice un vehículo cuya salida ya quedó guardada.
+     * @param vehiculo Vehículo con la hora de salida persistida.
+     */
+    public void registrarSalida(Vehiculo vehiculo) {
+        String placa = Placas.normalizar(vehiculo.getPlaca());
+        Vehiculo anterior = activos.remove(placa);
+        sede(vehiculo.getSede()).remove(placa);
+        if (anterior != null && !anterior.getSede().equals(vehiculo.getSede())) {
+            sede(anterior.getSede()).remove(placa, anterior);
+        }
+        registroOcupacion.anotarSalida(vehiculo);
+        avisar(placa);
+    }
+
+    /**
+     * Publico el ID que recibió en la base de datos una entrada guardada en diferido, si la misma sesión sigue dentro.
+     * Lo asigno dentro de `computeIfPresent`, con el candado de la placa en el mapa, así que cualquier hilo
+     * que busque la placa en el índice después de esto ve el ID.
+     * @param placa Placa del vehículo, normalizada o no.
+     * @param horaEntrada Hora de entrada de la sesión guardada, para no tocar una sesión posterior de la misma placa.
+     * @param id ID generado por la base de datos.
+     */
+    public void asignarId(String placa, LocalDateTime horaEntrada, Long id) {
+        activos.computeIfPresent(Placas.normalizar(placa), (clave, vehiculo) -> {
+            if (vehiculo.getId() == null && vehiculo.getHoraEntrada().equals(horaEntrada)) {
+                vehiculo.setId(id);
+            }
+            return vehiculo;
+        });
+    }
+
+    /**
+     * Registro un observador que recibe la placa normalizada de cada entrada o salida,
+     * después de que el índice ya refleja el cambio.
+     * @param observador Acción rápida y sin bloqueos; se ejecuta en el hilo de la petición.
+     */
+    public void alCambiar(Consumer<String> observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Obtengo una vista de solo lectura de los vehículos que están dentro.
+     * @return Colección de vehículos con sesión abierta.
+     */
+    public Collection<Vehiculo> activos() {
+        return Collections.unmodifiableCollection(activos.values());
+    }
+
+    /**
+     * Obtengo una vista de solo lectura de los vehículos que están dentro de una sede.
+     * @param sede Código de la sede.
+     * @return Colección de vehículos con sesión abierta en la sede.
+     */
+    public Collection<Vehiculo> activos(String sede) {
+        ConcurrentHashMap<String, Vehiculo> vehiculos = porSede.get(sede);
+        return vehiculos == null ? List.of() : Collections.unmodifiableCollection(vehiculos.values());
+    }
+
+    /**
+     * Obtengo la cantidad de vehículos que están dentro del parqueadero.
+     * @return Número de sesiones abiertas.
+     */
+    public int tamano() {
+        return activos.size();
+    }
+
+    private ConcurrentHashMap<String, Vehiculo> sede(String sede) {
+        ConcurrentHashMap<String, Vehiculo> vehiculos = porSede.get(sede);
+        return vehiculos != null ? vehiculos : porSede.computeIfAbsent(sede, nueva -> new ConcurrentHashMap<>());
+    }
+
+    private void avisar(String placa) {
+        for (Consumer<String> observador : observadores) {
+            observador.accept(placa);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.PuestosProperties;
+import com.example.parqueadero.model.OcupacionZona;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Llevo en memoria los puestos físicos de cada sede, agrupados por clase de vehículo y zona.
+ * Cada zona es un `MapaPuestos`, así que asignar un puesto libre no recorre los puestos ocupados
+ * y dos porterías nunca reciben el mismo puesto. Un puesto se identifica como `<zona>-<número>`, por ejemplo `A-17`.
+ * Las sedes y clases sin zonas configuradas no administran puestos: sus vehículos entran sin puesto, como antes.
+ * Me inicializo después de la persistencia para ocupar también los puestos de los vehículos recuperados.
+ */
+@Component
+@DependsOn("persistenciaVehiculos")
+public class InventarioPuestos {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioPuestos.class);
+
+    private static final Pattern CODIGO_ZONA = Pattern.compile("[A-Za-z0-9]{1,10}");
+    private static final TipoVehiculo[] TIPOS = TipoVehiculo.values();
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final Map<String, Grupo[]> sedes = new HashMap<>(); // Solo se llena al arrancar; después solo se lee
+
+    /**
+     * Creo las zonas configuradas, ordenadas por código, con todos sus puestos libres.
+     */
+    @Autowired
+    public InventarioPuestos(IndiceOcupacion indiceOcupacion, PuestosProperties propiedades) {
+        this.indiceOcupacion = indiceOcupacion;
+        propiedades.getZonas().forEach((sede, clases) -> {
+            Grupo[] grupos = new Grupo[TIPOS.length];
+            clases.forEach((tipo, zonas) -> {
+                Map<String, MapaPuestos> porCodigo = new TreeMap<>();
+                zonas.forEach((zona, puestos) -> {
+                    if (!CODIGO_ZONA.matcher(zona).matches()) {
+                        throw new IllegalArgumentException("El código de zona " + zona + " de la sede " + sede
+                                + " debe tener de 1 a 10 letras o números");
+                    }
+                    porCodigo.put(zona, new MapaPuestos(puestos));
+                });
+                grupos[tipo.ordinal()] = new Grupo(List.copyOf(porCodigo.keySet()), List.copyOf(porCodigo.values()));
+            });
+            sedes.put(RegistroSedes.normalizar(sede), grupos);
+        });
+    }
+
+    /**
+     * Ocupo los puestos de los vehículos que están en el índice de ocupación.
+     */
+    @PostConstruct
+    public void sincronizar() {
+        for (Vehiculo vehiculo : indiceOcupacion.activos()) {
+            if (vehiculo.getPuesto() != null && !ocupar(vehiculo.getSede(), vehiculo.getTipo(), vehiculo.getPuesto())) {
+                log.warn("El puesto {} del vehículo {} no existe o ya está ocupado", vehiculo.getPuesto(), vehiculo.getPlaca());
+            }
+        }
+    }
+
+    /**
+     * Indico si una sede administra los puestos de una clase.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @return `true` si la clase tiene zonas configuradas en la sede.
+     */
+    public boolean administra(String sede, TipoVehiculo tipo) {
+        return grupo(sede, tipo) != null;
+    }
+
+    /**
+     * Asigno el primer puesto libre de la clase, recorriendo las zonas en orden.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @return El código del puesto, o vacío si no hay puestos libres (o la sede no administra la clase).
+     */
+    public Optional<String> asignar(String sede, TipoVehiculo tipo) {
+        Grupo grupo = grupo(sede, tipo);
+        if (grupo == null) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < grupo.mapas().size(); i++) {
+            int numero = grupo.mapas().get(i).tomar();
+            if (numero >= 0) {
+                return Optional.of(grupo.zonas().get(i) + "-" + (numero + 1));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ocupo un puesto puntual.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param puesto Código del puesto.
+     * @return `true` si el puesto existe y estaba libre.
+     */
+    public boolean ocupar(String sede, TipoVehiculo tipo, String puesto) {
+        return ubicar(sede, tipo, puesto).map(ubicacion -> ubicacion.mapa().tomar(ubicacion.numero())).orElse(false);
+    }
+
+    /**
+     * Libero un puesto puntual.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param puesto Código del puesto.
+     */
+    public void liberar(String sede, TipoVehiculo tipo, String puesto) {
+        ubicar(sede, tipo, puesto).ifPresent(ubicacion -> {
+            if (!ubicacion.mapa().liberar(ubicacion.numero())) {
+                log.warn("Liberé el puesto {} de la sede {}, que ya estaba libre", puesto, sede);
+            }
+        });
+    }
+
+    /**
+     * Libero el puesto de un vehículo que salió, si tenía uno.
+     * @param vehiculo Vehículo que salió.
+     */
+    public void liberar(Vehiculo vehiculo) {
+        if (vehiculo.getPuesto() != null) {
+            liberar(vehiculo.getSede(), vehiculo.getTipo(), vehiculo.getPuesto());
+        }
+    }
+
+    /**
+     * Indico si un puesto está libre.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @param puesto Código del puesto.
+     * @return `true` si el puesto existe y está libre.
+     */
+    public boolean libre(String sede, TipoVehiculo tipo, String puesto) {
+        return ubicar(sede, tipo, puesto).map(ubicacion -> ubicacion.mapa().libre(ubicacion.numero())).orElse(false);
+    }
+
+    /**
+     * Enumero todos los puestos de una clase en una sede, en el orden en que los asigno.
+     * @param sede Código de la sede.
+     * @param tipo Clase del vehículo.
+     * @return Los códigos de los puestos; vacío si la sede no administra la clase.
+     */
+    public List<String> puestos(String sede, TipoVehiculo tipo) {
+        Grupo grupo = grupo(sede, tipo);
+        if (grupo == null) {
+            return List.of();
+        }
+        List<String> puestos = new ArrayList<>();
+        for (int i = 0; i < grupo.mapas().size(); i++) {
+            for (int numero = 1; numero <= grupo.mapas().get(i).puestos(); numero++) {
+                puestos.add(grupo.zonas().get(i) + "-" + numero);
+            }
+        }
+        return puestos;
+    }
+
+    /**
+     * Armo el resumen de puestos por zona de una sede.
+     * @param sede Código de la sede.
+     * @return Una entrada por zona, agrupadas por clase en el orden del enum.
+     */
+    public List<OcupacionZona> resumen(String sede) {
+        Grupo[] grupos = sedes.get(sede);
+        List<OcupacionZona> resumen = new ArrayList<>();
+        if (grupos == null) {
+            return resumen;
+        }
+        for (TipoVehiculo tipo : TIPOS) {
+            Grupo grupo = grupos[tipo.ordinal()];
+            if (grupo != null) {
+                for (int i = 0; i < grupo.mapas().size(); i++) {
+                    MapaPuestos mapa = grupo.mapas().get(i);
+                    resumen.add(new OcupacionZona(tipo, grupo.zonas().get(i), mapa.puestos(), mapa.libres()));
+                }
+            }
+        }
+        return resumen;
+    }
+
+    private Grupo grupo(String sede, TipoVehiculo tipo) {
+        Grupo[] grupos = sedes.get(sede);
+        return grupos == null ? null : grupos[tipo.ordinal()];
+    }
+
+    private Optional<Ubicacion> ubicar(String sede, TipoVehiculo tipo, String puesto) {
+        Grupo grupo = grupo(sede, tipo);
+        int guion = puesto.lastIndexOf('-');
+        if (grupo == null || guion < 0) {
+            return Optional.empty();
+        }
+        int zona = grupo.zonas().indexOf(puesto.substring(0, guion));
+        try {
+            int numero = Integer.parseInt(puesto, guion + 1, puesto.length(), 10) - 1;
+            if (zona < 0 || numero < 0 || numero >= grupo.mapas().get(zona).puestos()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Ubicacion(grupo.mapas().get(zona), numero));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Agrupo las zonas de una clase en una sede; las dos listas van en el mismo orden.
+     */
+    private record Grupo(List<String> zonas, List<MapaPuestos> mapas) {
+    }
+
+    private record Ubicacion(MapaPuestos mapa, int numero) {
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.analitica.AnaliticaEstadias;
+import com.example.parqueadero.model.AccionPorteria;
+import com.example.parqueadero.model.EstadoEventoPorteria;
+import com.example.parqueadero.model.EventoPorteria;
+import com.example.parqueadero.model.EventoProcesado;
+import com.example.parqueadero.model.ResultadoEventoPorteria;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.repository.EventoProcesadoRepositorio;
+import com.example.parqueadero.service.MetricasParqueadero.Fase;
+import com.example.parqueadero.service.MetricasParqueadero.Rechazo;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import com.example.parqueadero.util.Placas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Proceso los lotes de entradas y salidas que envían las porterías, por ejemplo al recuperar la conexión
+ * después de guardar eventos sin poder enviarlos. Cada evento trae su propia hora y su propio identificador.
+ * Con los candados de todas las placas del lote, valido y cobro los eventos en orden sobre una vista
+ * del índice de ocupación con los cambios del propio lote, y guardo todo en una sola transacción:
+ * las entradas, las salidas y el resultado de cada evento. Solo después de confirmarla actualizo el índice.
+ * Si un lote se reenvía, encuentro sus eventos ya procesados y devuelvo el resultado guardado sin volver a cobrar.
+ * Cada lote pertenece a una sede: las entradas toman cupos de esa sede y las salidas solo encuentran
+ * los vehículos que están dentro de ella. Si la sede administra los puestos de la clase, cada entrada recibe
+ * su puesto igual que una entrada individual: el de su reserva o el primero libre.
+ */
+@Component
+public class LotePorteria {
+
+    // Tiempo máximo que espero a que la persistencia diferida guarde lo pendiente antes de procesar un lote
+    private static final long ESPERA_PERSISTENCIA = 10_000;
+
+    private final Mensajes mensajes;
+    private final AliasTiposVehiculo aliasTiposVehiculo;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ControlAdmision controlAdmision;
+    private final ContadorOcupacion contadorOcupacion;
+    private final PersistenciaVehiculos persistenciaVehiculos;
+    private final EventoProcesadoRepositorio eventoProcesadoRepositorio;
+    private final MotorTarifas motorTarifas;
+    private final AnaliticaEstadias analiticaEstadias;
+    private final MetricasParqueadero metricas;
+    private final InventarioPuestos inventarioPuestos;
+    private final AgendaReservas agendaReservas;
+
+    /**
+     * Inyecto los mismos componentes que usan las entradas y salidas individuales,
+     * más el repositorio de los eventos ya procesados.
+     */
+    @Autowired
+    public LotePorteria(Mensajes mensajes, AliasTiposVehiculo aliasTiposVehiculo, IndiceOcupacion indiceOcupacion,
+                        ControlAdmision controlAdmision, ContadorOcupacion contadorOcupacion,
+                        PersistenciaVehiculos persistenciaVehiculos,
+                        EventoProcesadoRepositorio eventoProcesadoRepositorio, MotorTarifas motorTarifas,
+                        AnaliticaEstadias analiticaEstadias, MetricasParqueadero metricas,
+                        InventarioPuestos inventarioPuestos, AgendaReservas agendaReservas) {
+        this.mensajes = mensajes;
+        this.aliasTiposVehiculo = aliasTiposVehiculo;
+        this.indiceOcupacion = indiceOcupacion;
+        this.controlAdmision = controlAdmision;
+        this.contadorOcupacion = contadorOcupacion;
+        this.persistenciaVehiculos = persistenciaVehiculos;
+        this.eventoProcesadoRepositorio = eventoProcesadoRepositorio;
+        this.motorTarifas = motorTarifas;
+        this.analiticaEstadias = analiticaEstadias;
+        this.metricas = metricas;
+        this.inventarioPuestos = inventarioPuestos;
+        this.agendaReservas = agendaReservas;
+    }
+
+    /**
+     * Proceso un lote de eventos de una sede en el orden en que llegaron.
+     * @param sede Código de la sede de la portería, ya validado.
+     * @param eventos Eventos del lote.
+     * @param locale Idioma de los mensajes.
+     * @return El resultado de cada evento, en el mismo orden.
+     * @throws IllegalStateException Si la persistencia diferida no guardó lo pendiente a tiempo.
+     * @throws RuntimeException Si la transacción falla; en ese caso ningún evento del lote queda aplicado.
+     */
+    public List<ResultadoEventoPorteria> procesar(String sede, List<EventoPorteria> eventos, Locale locale) {
+        List<String> placas = new ArrayList<>(eventos.size());
+        for (EventoPorteria evento : eventos) {
+            if (evento.placa() != null) {
+                placas.add(evento.placa());
+            }
+        }
+        return controlAdmision.conPlacas(placas, () -> {
+            esperarPersistencia();
+            return new Procesamiento(sede, locale).procesar(eventos);
+        });
+    }
+
+    /**
+     * Espero a que la persistencia diferida guarde lo pendiente, para que los vehículos dentro tengan ID.
+     * Como tengo los candados de las placas, ninguna otra petición puede encolar eventos de ellas mientras tanto.
+     */
+    private void esperarPersistencia() {
+        try {
+            if (!persistenciaVehiculos.vaciar(ESPERA_PERSISTENCIA)) {
+                throw new IllegalStateException("La persistencia diferida no se vació a tiempo para procesar el lote");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras esperaba la persistencia diferida", e);
+        }
+    }
+
+    /**
+     * Guardo el estado de un lote mientras lo proceso: los cambios que hace sobre el índice,
+     * los cupos y puestos que tomó o liberó (para devolverlos si la transacción falla) y lo que debo guardar.
+     */
+    private final class Procesamiento {
+
+        private final String sede;
+        private final Locale locale;
+        private final Map<String, Optional<Vehiculo>> cambios = new HashMap<>();
+        private final Map<String, EventoProcesado> procesados = new HashMap<>();
+        private final List<EventoProcesado> nuevos = new ArrayList<>();
+        private final List<Vehiculo> vehiculos = new ArrayList<>();
+        private final List<AccionPorteria> acciones = new ArrayList<>();
+        private final List<AgendaReservas.Asignacion> asignaciones = new ArrayList<>();
+
+        Procesamiento(String sede, Locale locale) {
+            this.sede = sede;
+            this.locale = locale;
+        }
+
+        List<ResultadoEventoPorteria> procesar(List<EventoPorteria> eventos) {
+            List<String> ids = new ArrayList<>(eventos.size());
+            for (EventoPorteria evento : eventos) {
+                if (evento.idEvento() != null) {
+                    ids.add(evento.idEvento());
+                }
+            }
+            eventoProcesadoRepositorio.findAllById(ids).forEach(previo -> procesados.put(previo.getIdEvento(), previo));
+
+            List<ResultadoEventoPorteria> resultados = new ArrayList<>(eventos.size());
+            for (EventoPorteria evento : eventos) {
+                if (evento.idEvento() == null || evento.idEvento().isBlank() || evento.idEvento().length() > 100) {
+                    metricas.rechazo(Rechazo.INVALIDO);
+                    resultados.add(new ResultadoEventoPorteria(evento.idEvento(), EstadoEventoPorteria.INVALIDO,
+                            mensajes.texto("parking.batch.event.invalid", locale), null, false));
+                    continue;
+                }
+                EventoProcesado previo = procesados.get(evento.idEvento());
+                if (previo != null) {
+                    resultados.add(resultado(previo, true));
+                    continue;
+                }
+                EventoProcesado procesado = aplicar(evento);
+                procesados.put(procesado.getIdEvento(), procesado);
+                nuevos.add(procesado);
+                resultados.add(resultado(procesado, false));
+            }
+
+            guardar();
+            for (int i = 0; i < vehiculos.size(); i++) {
+                Vehiculo vehiculo = vehiculos.get(i);
+                if (acciones.get(i) == AccionPorteria.ENTRADA) {
+                    indiceOcupacion.registrarEntrada(vehiculo);
+                    metricas.entrada();
+                } else {
+                    indiceOcupacion.registrarSalida(vehiculo);
+                    inventarioPuestos.liberar(vehiculo);
+                    analiticaEstadias.registrarSalida(vehiculo);
+                    metricas.salida();
+                }
+            }
+            return resultados;
+        }
+
+        /**
+         * Valido y aplico un evento sobre la vista del lote, reservo o libero su cupo
+         * y asigno el puesto de las entradas.
+         */
+        private EventoProcesado aplicar(EventoPorteria evento) {
+            if (evento.accion() == null || evento.placa() == null || evento.placa().isBlank() || evento.instante() == null) {
+                return rechazar(evento, null, null, EstadoEventoPorteria.INVALIDO, Rechazo.INVALIDO);
+            }
+            String placa = Placas.normalizar(evento.placa());
+            if (placa.isEmpty()) {
+                return rechazar(evento, null, null, EstadoEventoPorteria.INVALIDO, Rechazo.INVALIDO);
+            }
+            Optional<Vehiculo> dentro = cambios.computeIfAbsent(placa, indiceOcupacion::buscar);
+
+            if (evento.accion() == AccionPorteria.ENTRADA) {
+                Optional<TipoVehiculo> clase = aliasTiposVehiculo.interpretar(evento.tipo());
+                if (clase.isEmpty()) {
+                    return rechazar(evento, placa, null, EstadoEventoPorteria.TIPO_INVALIDO, Rechazo.TIPO_INVALIDO);
+                }
+                if (dentro.isPresent()) {
+                    return rechazar(evento, placa, clase.get(), EstadoEventoPorteria.DUPLICADO, Rechazo.DUPLICADO);
+                }
+                if (!contadorOcupacion.reservar(sede, clase.get())) {
+                    return rechazar(evento, placa, clase.get(), EstadoEventoPorteria.LLENO, Rechazo.LLENO);
+                }
+                // Si la sede administra los puestos de la clase y no hay uno libre, la clase está llena
+                AgendaReservas.Asignacion asignacion = null;
+                if (inventarioPuestos.administra(sede, clase.get())) {
+                    Optional<AgendaReservas.Asignacion> puesto = agendaReservas.asignar(placa, sede, clase.get(),
+                            evento.instante());
+                    if (puesto.isEmpty()) {
+                        contadorOcupacion.liberar(sede, clase.get());
+                        return rechazar(evento, placa, clase.get(), EstadoEventoPorteria.LLENO, Rechazo.LLENO);
+                    }
+                    asignacion = puesto.get();
+                }
+                Vehiculo vehiculo = new Vehiculo(placa, clase.get(), evento.instante(), sede);
+                vehiculo.setPuesto(asignacion == null ? null : asignacion.puesto());
+                cambios.put(placa, Optional.of(vehiculo));
+                vehiculos.add(vehiculo);
+                acciones.add(AccionPorteria.ENTRADA);
+                asignaciones.add(asignacion);
+                return new EventoProcesado(evento, sede, placa, clase.get(), EstadoEventoPorteria.ACEPTADO, null);
+            }
+
+            // Un vehículo que está dentro de otra sede no puede salir por esta portería
+            if (dentro.isEmpty() || !dentro.get().getSede().equals(sede)) {
+                return rechazar(evento, placa, null, EstadoEventoPorteria.NO_ENCONTRADO, Rechazo.NO_ENCONTRADO);
+            }
+            // Un vehículo con ID viene del índice, que lo comparte con las búsquedas: armo la salida sobre una copia,
+            // que solo publico al confirmar el lote. Uno sin ID entró en este mismo lote y nadie más lo ve
+            Vehiculo vehiculo = dentro.get().getId() != null ? dentro.get().copiar() : dentro.get();
+            if (evento.instante().isBefore(vehiculo.getHoraEntrada())) {
+                return rechazar(evento, placa, vehiculo.getTipo(), EstadoEventoPorteria.HORA_INVALIDA, Rechazo.INVALIDO);
+            }
+            BigDecimal costoTotal = metricas.medir(Fase.TARIFA_SALIDA,
+                    () -> motorTarifas.calcular(vehiculo.getTipo(), vehiculo.getHoraEntrada(), evento.instante()));
+            vehiculo.setHoraSalida(evento.instante());
+            vehiculo.setCostoTotal(costoTotal);
+            contadorOcupacion.liberar(sede, vehiculo.getTipo());
+            cambios.put(placa, Optional.empty());
+            vehiculos.add(vehiculo);
+            acciones.add(AccionPorteria.SALIDA);
+            asignaciones.add(null);
+            return new EventoProcesado(evento, sede, placa, vehiculo.getTipo(), EstadoEventoPorteria.ACEPTADO, costoTotal);
+        }
+
+        private EventoProcesado rechazar(EventoPorteria evento, String placa, TipoVehiculo tipo,
+                                         EstadoEventoPorteria estado, Rechazo motivo) {
+            metricas.rechazo(motivo);
+            return new EventoProcesado(evento, sede, placa, tipo, estado, null);
+        }
+
+        /**
+         * Guardo el lote en una sola transacción. Si falla, devuelvo los cupos y los puestos de las entradas;
+         * las salidas de los vehículos que ya estaban dentro se armaron sobre copias, así que el índice
+         * sigue como antes del lote.
+         */
+        private void guardar() {
+            try {
+                metricas.medir(Fase.REPOSITORIO_LOTE, () -> persistenciaVehiculos.guardarLote(vehiculos, nuevos));
+            } catch (RuntimeException e) {
+                for (int i = vehiculos.size() - 1; i >= 0; i--) {
+                    if (acciones.get(i) == AccionPorteria.ENTRADA) {
+                        contadorOcupacion.liberar(sede, vehiculos.get(i).getTipo());
+                        if (asignaciones.get(i) != null) {
+                            agendaReservas.devolver(sede, vehiculos.get(i).getTipo(), asignaciones.get(i));
+                        }
+                    } else {
+                        contadorOcupacion.ocupar(sede, vehiculos.get(i).getTipo());
+                    }
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Traduzco el resultado de un evento, nuevo o guardado, al idioma del lote.
+         */
+        private ResultadoEventoPorteria resultado(EventoProcesado procesado, boolean repetido) {
+            String mensaje = switch (procesado.getEstado()) {
+                case ACEPTADO -> procesado.getAccion() == AccionPorteria.ENTRADA
+                        ? mensajes.texto("parking.vehicle.registered", locale, procesado.getPlaca())
+                        : mensajes.texto("parking.vehicle.exit", locale, procesado.getPlaca(), procesado.getCostoTotal());
+                case INVALIDO -> mensajes.texto("parking.batch.event.invalid", locale);
+                case TIPO_INVALIDO -> mensajes.texto("parking.vehicle.type.invalid", locale);
+                case DUPLICADO -> mensajes.texto("parking.vehicle.exists", locale, procesado.getPlaca());
+                case LLENO -> mensajes.texto("parking.full", locale, mensajes.nombre(procesado.getTipo(), locale));
+                case NO_ENCONTRADO -> mensajes.texto("parking.vehicle.notfound", locale);
+                case HORA_INVALIDA -> mensajes.texto("parking.batch.exit.before.entry", locale, procesado.getPlaca());
+            };
+            return new ResultadoEventoPorteria(procesado.getIdEvento(), procesado.getEstado(), mensaje,
+                    procesado.getCostoTotal(), repetido);
+        }
+    }
+}
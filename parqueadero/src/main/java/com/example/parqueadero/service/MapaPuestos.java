@@ -0,0 +1,143 @@
+package com.example.parqueadero.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Llevo los puestos libres de una zona en un mapa de bits de dos niveles: cada bit de `palabras` es un puesto
+ * (1 = libre) y cada bit de `resumen` indica que esa palabra puede tener puestos libres.
+ * Tomar un puesto cuesta dos `numberOfTrailingZeros` y una comparación e intercambio, sin importar cuántos
+ * puestos estén ocupados, y ningún hilo se bloquea: si dos porterías compiten por el mismo bit, una reintenta
+ * con el siguiente. Una zona tiene como máximo 64 × 64 = 4096 puestos.
+ * El resumen es solo una pista: quien ve una palabra llena apaga su bit y vuelve a mirar la palabra,
+ * y quien libera un puesto enciende el bit después de liberar, así que nunca se pierde un puesto libre.
+ */
+public final class MapaPuestos {
+
+    public static final int MAXIMO_PUESTOS = Long.SIZE * Long.SIZE;
+
+    private final int puestos;
+    private final AtomicLongArray palabras;
+    private final AtomicLong resumen;
+
+    /**
+     * Creo el mapa con todos los puestos libres.
+     * @param puestos Cantidad de puestos de la zona, entre 1 y `MAXIMO_PUESTOS`.
+     */
+    public MapaPuestos(int puestos) {
+        if (puestos < 1 || puestos > MAXIMO_PUESTOS) {
+            throw new IllegalArgumentException("Una zona debe tener entre 1 y " + MAXIMO_PUESTOS + " puestos");
+        }
+        this.puestos = puestos;
+        int cantidadPalabras = (puestos + Long.SIZE - 1) / Long.SIZE;
+        this.palabras = new AtomicLongArray(cantidadPalabras);
+        for (int i = 0; i < cantidadPalabras; i++) {
+            int enPalabra = Math.min(Long.SIZE, puestos - i * Long.SIZE);
+            palabras.set(i, enPalabra == Long.SIZE ? -1L : (1L << enPalabra) - 1);
+        }
+        this.resumen = new AtomicLong(cantidadPalabras == Long.SIZE ? -1L : (1L << cantidadPalabras) - 1);
+    }
+
+    /**
+     * Tomo el primer puesto libre.
+     * @return Número del puesto (desde 0), o -1 si la zona está llena.
+     */
+    public int tomar() {
+        while (true) {
+            long pista = resumen.get();
+            if (pista == 0) {
+                return -1;
+            }
+            int palabra = Long.numberOfTrailingZeros(pista);
+            long libres = palabras.get(palabra);
+            if (libres == 0) {
+                apagarPista(palabra);
+                continue;
+            }
+            long bit = Long.lowestOneBit(libres);
+            if (palabras.compareAndSet(palabra, libres, libres & ~bit)) {
+                if (libres == bit) {
+                    apagarPista(palabra);
+                }
+                return palabra * Long.SIZE + Long.numberOfTrailingZeros(bit);
+            }
+        }
+    }
+
+    /**
+     * Tomo un puesto puntual, por ejemplo el de una reserva o el de un vehículo que ya estaba dentro al arrancar.
+     * @param puesto Número del puesto.
+     * @return `true` si estaba libre y lo tomé; `false` si ya estaba ocupado.
+     */
+    public boolean tomar(int puesto) {
+        int palabra = palabra(puesto);
+        long bit = 1L << puesto;
+        long libres;
+        do {
+            libres = palabras.get(palabra);
+            if ((libres & bit) == 0) {
+                return false;
+            }
+        } while (!palabras.compareAndSet(palabra, libres, libres & ~bit));
+        if (libres == bit) {
+            apagarPista(palabra);
+        }
+        return true;
+    }
+
+    /**
+     * Libero un puesto.
+     * @param puesto Número del puesto.
+     * @return `true` si estaba ocupado; `false` si ya estaba libre.
+     */
+    public boolean liberar(int puesto) {
+        int palabra = palabra(puesto);
+        long bit = 1L << puesto;
+        long antes = palabras.getAndUpdate(palabra, libres -> libres | bit);
+        resumen.getAndUpdate(pista -> pista | (1L << palabra));
+        return (antes & bit) == 0;
+    }
+
+    /**
+     * Indico si un puesto está libre.
+     * @param puesto Número del puesto.
+     * @return `true` si está libre.
+     */
+    public boolean libre(int puesto) {
+        return (palabras.get(palabra(puesto)) & (1L << puesto)) != 0;
+    }
+
+    /**
+     * Cuento los puestos libres recorriendo las palabras; lo uso para los resúmenes, no para asignar.
+     * @return Cantidad de puestos libres.
+     */
+    public int libres() {
+        int libres = 0;
+        for (int i = 0; i < palabras.length(); i++) {
+            libres += Long.bitCount(palabras.get(i));
+        }
+        return libres;
+    }
+
+    public int puestos() {
+        return puestos;
+    }
+
+    private int palabra(int puesto) {
+        if (puesto < 0 || puesto >= puestos) {
+            throw new IllegalArgumentException("El puesto " + puesto + " no existe en una zona de " + puestos);
+        }
+        return puesto / Long.SIZE;
+    }
+
+    /**
+     * Apago la pista de una palabra que vi llena; si entre tanto alguien liberó un puesto en ella, la vuelvo a encender.
+     */
+    private void apagarPista(int palabra) {
+        long bit = 1L << palabra;
+        resumen.getAndUpdate(pista -> pista & ~bit);
+        if (palabras.get(palabra) != 0) {
+            resumen.getAndUpdate(pista -> pista | bit);
+        }
+    }
+}
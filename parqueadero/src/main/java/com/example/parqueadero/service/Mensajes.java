@@ -0,0 +1,73 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Traduzco los mensajes de respuesta, y solo al construir la respuesta.
+ * Los mensajes sin argumentos quedan en caché por idioma después de la primera consulta.
+ * De los que tienen argumentos guardo por idioma y clave solo el `MessageFormat` ya compilado, que nunca
+ * modifico, y formateo cada consulta con una copia suya. Las claves son pocas, así que la caché no crece
+ * con los valores de los argumentos (placas, montos, horas), que casi nunca se repiten.
+ */
+@Component
+public class Mensajes {
+
+    private final MessageSource messageSource;
+    private final Map<Locale, Map<String, String>> cache = new ConcurrentHashMap<>();
+    private final Map<Locale, Map<String, MessageFormat>> formatos = new ConcurrentHashMap<>();
+
+    /**
+     * Inyecto la fuente de mensajes configurada en `InternacionalizacionConfig`.
+     */
+    @Autowired
+    public Mensajes(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Obtengo un mensaje sin argumentos en el idioma indicado.
+     * @param clave Clave del mensaje.
+     * @param locale Idioma de la respuesta.
+     * @return El mensaje traducido.
+     */
+    public String texto(String clave, Locale locale) {
+        return cache.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(clave, c -> messageSource.getMessage(c, null, locale));
+    }
+
+    /**
+     * Obtengo un mensaje con argumentos en el idioma indicado.
+     * @param clave Clave del mensaje.
+     * @param locale Idioma de la respuesta.
+     * @param argumentos Valores que reemplazan los marcadores `{0}`, `{1}`, etc.
+     * @return El mensaje traducido y formateado.
+     */
+    public String texto(String clave, Locale locale, Object... argumentos) {
+        if (argumentos.length == 0) {
+            return texto(clave, locale);
+        }
+        MessageFormat formato = formatos.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(clave, c -> new MessageFormat(texto(c, locale), locale));
+        // MessageFormat no es seguro entre hilos: formateo con una copia, que no vuelve a analizar el patrón,
+        // en lugar de compartir un candado entre todas las porterías
+        return ((MessageFormat) formato.clone()).format(argumentos);
+    }
+
+    /**
+     * Obtengo el nombre traducido de un tipo de vehículo.
+     * @param tipo Tipo de vehículo.
+     * @param locale Idioma de la respuesta.
+     * @return El nombre del tipo en el idioma indicado.
+     */
+    public String nombre(TipoVehiculo tipo, Locale locale) {
+        return texto(tipo.getClaveMensaje(), locale);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.parqueadero.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registro las métricas del camino crítico de entradas y salidas: el tiempo de cada fase
+ * (guardado en el repositorio, cálculo de la tarifa y traducción de mensajes) y los contadores
+ * de entradas, salidas y rechazos por motivo.
+ * Registro todos los medidores al arrancar, así que medir una fase no busca nada en el registro.
+ */
+@Component
+public class MetricasParqueadero {
+
+    /**
+     * Fases que mido dentro de cada operación.
+     */
+    public enum Fase {
+        REPOSITORIO_ENTRADA("repositorio", "ingresar"),
+        REPOSITORIO_SALIDA("repositorio", "salida"),
+        TARIFA_SALIDA("tarifa", "salida"),
+        MENSAJES_ENTRADA("mensajes", "ingresar"),
+        MENSAJES_SALIDA("mensajes", "salida"),
+        REPOSITORIO_LOTE("repositorio", "lote");
+
+        private final String fase;
+        private final String operacion;
+
+        Fase(String fase, String operacion) {
+            this.fase = fase;
+            this.operacion = operacion;
+        }
+    }
+
+    /**
+     * Motivos por los que rechazo una entrada o una salida.
+     */
+    public enum Rechazo {
+        DUPLICADO,     // Ya hay una sesión abierta con la placa
+        TIPO_INVALIDO, // El tipo de vehículo no corresponde a ninguna clase conocida
+        LLENO,         // La clase del vehículo no tiene cupos libres
+        NO_ENCONTRADO, // La salida es de una placa que no está dentro
+        INVALIDO       // La placa queda vacía al normalizarla, o el evento de un lote está incompleto o su hora es anterior a la entrada
+    }
+
+    private final Map<Fase, Timer> fases = new EnumMap<>(Fase.class);
+    private final Map<Rechazo, Counter> rechazos = new EnumMap<>(Rechazo.class);
+    private final Counter entradas;
+    private final Counter salidas;
+
+    /**
+     * Registro los temporizadores (con histograma, para calcular percentiles en Prometheus) y los contadores.
+     * @param registro Registro de métricas de Micrometer configurado por Spring Boot.
+     */
+    @Autowired
+    public MetricasParqueadero(MeterRegistry registro) {
+        for (Fase fase : Fase.values()) {
+            fases.put(fase, Timer.builder("parqueadero.fase")
+                    .description("Tiempo de cada fase de las entradas y salidas")
+                    .tag("fase", fase.fase)
+                    .tag("operacion", fase.operacion)
+                    .publishPercentileHistogram()
+                    .register(registro));
+        }
+        for (Rechazo rechazo : Rechazo.values()) {
+            rechazos.put(rechazo, Counter.builder("parqueadero.rechazos")
+                    .description("Entradas y salidas rechazadas")
+                    .tag("motivo", rechazo.name().toLowerCase(Locale.ROOT))
+                    .register(registro));
+        }
+        entradas = Counter.builder("parqueadero.entradas").description("Entradas aceptadas").register(registro);
+        salidas = Counter.builder("parqueadero.salidas").description("Salidas cobradas").register(registro);
+    }
+
+    /**
+     * Ejecuto una fase y registro su duración.
+     * @param fase Fase que mido.
+     * @param accion Trabajo de la fase.
+     * @return El resultado del trabajo.
+     */
+    public <T> T medir(Fase fase, Supplier<T> accion) {
+        return fases.get(fase).record(accion);
+    }
+
+    /**
+     * Ejecuto una fase sin resultado y registro su duración.
+     * @param fase Fase que mido.
+     * @param accion Trabajo de la fase.
+     */
+    public void medir(Fase fase, Runnable accion) {
+        fases.get(fase).record(accion);
+    }
+
+    /**
+     * Mido una fase asíncrona desde que alguien se suscribe hasta que termina, con éxito, con error o cancelada.
+     * @param fase Fase que mido.
+     * @param accion Trabajo de la fase.
+     * @return El mismo trabajo, medido.
+     */
+    public <T> Mono<T> medirAsincrono(Fase fase, Mono<T> accion) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            return accion.doFinally(senal -> fases.get(fase).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Cuento una entrada aceptada.
+     */
+    public void entrada() {
+        entradas.increment();
+    }
+
+    /**
+     * Cuento una salida cobrada.
+     */
+    public void salida() {
+        salidas.increment();
+    }
+
+    /**
+     * Cuento un rechazo.
+     * @param motivo Motivo del rechazo.
+     */
+    public void rechazo(Rechazo motivo) {
+        rechazos.get(motivo).increment();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.repository.SedeRepositorio;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantengo en memoria las sedes registradas, para validar la sede de cada petición sin ir a la base de datos.
+ * Las sedes se cargan al arrancar y se agregan con `crear`; no se borran mientras la aplicación corre.
+ */
+@Component
+public class RegistroSedes {
+
+    private final SedeRepositorio sedeRepositorio;
+    private final Map<String, Sede> sedes = new ConcurrentHashMap<>();
+
+    /**
+     * Inyecto el repositorio de sedes.
+     */
+    @Autowired
+    public RegistroSedes(SedeRepositorio sedeRepositorio) {
+        this.sedeRepositorio = sedeRepositorio;
+    }
+
+    /**
+     * Cargo todas las sedes de la base de datos.
+     */
+    @PostConstruct
+    public void cargar() {
+        for (Sede sede : sedeRepositorio.findAll()) {
+            sedes.put(sede.getCodigo(), sede);
+        }
+    }
+
+    /**
+     * Normalizo el código de una sede: sin espacios al inicio y al final, en minúsculas.
+     * @param codigo Código tal como llega en la ruta.
+     * @return El código normalizado, o `null` si el código es `null`.
+     */
+    public static String normalizar(String codigo) {
+        return codigo == null ? null : codigo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Busco una sede por su código.
+     * @param codigo Código de la sede, normalizado o no.
+     * @return La sede, o vacío si no existe.
+     */
+    public Optional<Sede> buscar(String codigo) {
+        return codigo == null ? Optional.empty() : Optional.ofNullable(sedes.get(normalizar(codigo)));
+    }
+
+    /**
+     * Obtengo todas las sedes ordenadas por código.
+     */
+    public List<Sede> todas() {
+        List<Sede> todas = new ArrayList<>(sedes.values());
+        todas.sort(Comparator.comparing(Sede::getCodigo));
+        return todas;
+    }
+
+    /**
+     * Registro una sede nueva.
+     * @param codigo Código de la sede; solo letras minúsculas, dígitos y guiones, hasta 50 caracteres.
+     * @param nombre Nombre para mostrar.
+     * @return La sede creada, o vacío si ya existe una con ese código.
+     * @throws IllegalArgumentException Si el código no es válido.
+     */
+    public synchronized Optional<Sede> crear(String codigo, String nombre) {
+        String normalizado = normalizar(codigo);
+        if (normalizado == null || !normalizado.matches("[a-z0-9-]{1,50}")) {
+            throw new IllegalArgumentException("El código de la sede solo admite letras, dígitos y guiones: " + codigo);
+        }
+        if (sedes.containsKey(normalizado)) {
+            return Optional.empty();
+        }
+        Sede sede = sedeRepositorio.save(new Sede(normalizado, nombre));
+        sedes.put(normalizado, sede);
+        return Optional.of(sede);
+    }
+}
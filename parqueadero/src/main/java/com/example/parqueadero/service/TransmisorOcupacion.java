@@ -0,0 +1,288 @@
+package com.example.parqueadero.service;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.OcupacionProperties;
+import com.example.parqueadero.model.OcupacionClase;
+import com.example.parqueadero.model.Sede;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transmito la ocupación de cada sede a las pantallas suscritas a esa sede por Server-Sent Events.
+ * Las suscripciones son asíncronas, así que no ocupan un hilo del servidor mientras esperan;
+ * un único hilo revisa periódicamente los contadores de las sedes con pantallas y, si cambiaron,
+ * serializa el resumen de la sede una sola vez y lo deja en la cola de cada suscriptor. Varias entradas
+ * y salidas dentro del mismo intervalo se agrupan en un solo evento.
+ * Ese hilo nunca escribe en las conexiones: cada pantalla tiene una cola acotada que vacía un grupo de hilos
+ * de envío, así que una pantalla lenta no retrasa a las demás. Si su cola se llena o un envío tarda más
+ * de `espera-envio`, cierro la pantalla y el cliente se reconecta.
+ */
+@Component
+public class TransmisorOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(TransmisorOcupacion.class);
+
+    private static final String EVENTO = "ocupacion"; // Nombre del evento que escuchan las pantallas
+
+    private final ContadorOcupacion contadorOcupacion;
+    private final OcupacionProperties propiedades;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Canal> canales = new ConcurrentHashMap<>(); // Por código de sede
+    private final ScheduledExecutorService programador;
+    private final ExecutorService envios;
+
+    /**
+     * Inyecto los contadores de ocupación, la configuración de la transmisión,
+     * el `ObjectMapper` con el que serializo el resumen y la fábrica de los hilos de transmisión y de envío.
+     */
+    @Autowired
+    public TransmisorOcupacion(ContadorOcupacion contadorOcupacion, OcupacionProperties propiedades,
+                               ObjectMapper objectMapper, FabricaHilos fabricaHilos) {
+        this.contadorOcupacion = contadorOcupacion;
+        this.propiedades = propiedades;
+        this.objectMapper = objectMapper;
+        this.programador = Executors.newSingleThreadScheduledExecutor(fabricaHilos.fabrica("transmision-ocupacion"));
+        this.envios = fabricaHilos.isVirtuales() ? fabricaHilos.porTarea("envio-ocupacion")
+                : Executors.newFixedThreadPool(propiedades.getHilosEnvio(), fabricaHilos.fabrica("envio-ocupacion"));
+    }
+
+    /**
+     * Programo la revisión de cambios y el latido que detecta las conexiones cerradas.
+     */
+    @PostConstruct
+    public void iniciar() {
+        long intervalo = propiedades.getIntervaloTransmision().toMillis();
+        long latido = propiedades.getLatido().toMillis();
+        programador.scheduleWithFixedDelay(this::transmitirCambios, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        programador.scheduleWithFixedDelay(this::latir, latido, latido, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registro una nueva pantalla de la sede principal.
+     * @return El emisor asíncrono que Spring mantiene abierto hasta que la suscripción vence o se cierra.
+     */
+    public SseEmitter suscribir() {
+        return suscribir(Sede.PRINCIPAL);
+    }
+
+    /**
+     * Registro una nueva pantalla de una sede y le envío de inmediato su ocupación actual.
+     * @param sede Código de una sede existente.
+     * @return El emisor asíncrono que Spring mantiene abierto hasta que la suscripción vence o se cierra.
+     */
+    public SseEmitter suscribir(String sede) {
+        Canal canal = canales.computeIfAbsent(sede, Canal::new);
+        SseEmitter emisor = new SseEmitter(propiedades.getDuracionSuscripcion().toMillis());
+        Suscriptor suscriptor = new Suscriptor(canal, emisor);
+        emisor.onCompletion(() -> canal.suscriptores.remove(suscriptor));
+        emisor.onTimeout(() -> canal.suscriptores.remove(suscriptor));
+        emisor.onError(error -> canal.suscriptores.remove(suscriptor));
+        canal.suscriptores.add(suscriptor);
+        String resumen = serializar(contadorOcupacion.resumen(sede));
+        canal.ultimoResumen = resumen;
+        suscriptor.ofrecer(construir(SseEmitter.event().name(EVENTO).data(resumen, MediaType.APPLICATION_JSON)));
+        return emisor;
+    }
+
+    /**
+     * Obtengo la cantidad de pantallas suscritas, de todas las sedes.
+     * @return Número de suscriptores activos.
+     */
+    public int suscriptores() {
+        int total = 0;
+        for (Canal canal : canales.values()) {
+            total += canal.suscriptores.size();
+        }
+        return total;
+    }
+
+    /**
+     * Cierro todas las suscripciones y detengo los hilos de transmisión y de envío al apagar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+        envios.shutdownNow();
+        for (Canal canal : canales.values()) {
+            for (Suscriptor suscriptor : canal.suscriptores) {
+                suscriptor.emisor.complete();
+            }
+            canal.suscriptores.clear();
+        }
+    }
+
+    /**
+     * Por cada sede con pantallas, si su ocupación cambió desde el último envío, la encolo a sus suscriptores.
+     * También cierro las pantallas cuyo envío en curso lleva demasiado tiempo.
+     */
+    private void transmitirCambios() {
+        try {
+            long limite = System.nanoTime() - propiedades.getEsperaEnvio().toNanos();
+            for (Canal canal : canales.values()) {
+                if (canal.suscriptores.isEmpty()) {
+                    canal.ultimoResumen = null; // La próxima pantalla recibe el resumen al suscribirse
+                    continue;
+                }
+                for (Suscriptor suscriptor : canal.suscriptores) {
+                    suscriptor.revisarEspera(limite);
+                }
+                String resumen = serializar(contadorOcupacion.resumen(canal.sede));
+                if (resumen.equals(canal.ultimoResumen)) {
+                    continue;
+                }
+                canal.ultimoResumen = resumen;
+                Set<ResponseBodyEmitter.DataWithMediaType> evento =
+                        construir(SseEmitter.event().name(EVENTO).data(resumen, MediaType.APPLICATION_JSON));
+                for (Suscriptor suscriptor : canal.suscriptores) {
+                    suscriptor.ofrecer(evento);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Si dejo escapar la excepción, el programador cancela la tarea y no vuelvo a transmitir
+            log.error("No pude transmitir la ocupación", e);
+        }
+    }
+
+    /**
+     * Encolo un comentario vacío a cada suscriptor; si la conexión ya se cerró, el envío falla y lo retiro.
+     */
+    private void latir() {
+        Set<ResponseBodyEmitter.DataWithMediaType> latido = construir(SseEmitter.event().comment(""));
+        for (Canal canal : canales.values()) {
+            for (Suscriptor suscriptor : canal.suscriptores) {
+                suscriptor.ofrecer(latido);
+            }
+        }
+    }
+
+    /**
+     * Construyo el evento una sola vez para todas las pantallas. El `SseEventBuilder` cambia en cada `build()`,
+     * así que no puedo compartirlo entre hilos de envío; el resultado sí, porque solo lo recorren.
+     */
+    private static Set<ResponseBodyEmitter.DataWithMediaType> construir(SseEmitter.SseEventBuilder evento) {
+        return Collections.unmodifiableSet(evento.build());
+    }
+
+    private String serializar(List<OcupacionClase> resumen) {
+        try {
+            return objectMapper.writeValueAsString(resumen);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No pude serializar el resumen de ocupación", e);
+        }
+    }
+
+    /**
+     * Pantallas suscritas a una sede y el último resumen que les envié, ya serializado.
+     */
+    private static final class Canal {
+
+        private final String sede;
+        private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+        private volatile String ultimoResumen;
+
+        Canal(String sede) {
+            this.sede = sede;
+        }
+    }
+
+    /**
+     * Una pantalla con su cola de eventos pendientes. Solo un hilo de envío vacía la cola a la vez,
+     * así que los eventos llegan en orden; el que encola nunca espera.
+     */
+    private final class Suscriptor {
+
+        private final Canal canal;
+        private final SseEmitter emisor;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> cola;
+        private final AtomicBoolean vaciando = new AtomicBoolean();
+        private volatile long envioDesde; // nanoTime del envío en curso, o 0 si no hay
+
+        Suscriptor(Canal canal, SseEmitter emisor) {
+            this.canal = canal;
+            this.emisor = emisor;
+            this.cola = new ArrayBlockingQueue<>(propiedades.getColaSuscriptor());
+        }
+
+        /**
+         * Encolo un evento sin esperar; si la cola está llena, la pantalla no da abasto y la cierro.
+         */
+        void ofrecer(Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+            if (!cola.offer(evento)) {
+                cerrar(new TimeoutException("La pantalla no recibe los eventos a tiempo"));
+                return;
+            }
+            if (vaciando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::vaciar);
+                } catch (RejectedExecutionException e) {
+                    vaciando.set(false); // La aplicación se está deteniendo
+                }
+            }
+        }
+
+        /**
+         * Cierro la pantalla si su envío en curso empezó antes del límite.
+         */
+        void revisarEspera(long limite) {
+            long desde = envioDesde;
+            if (desde != 0 && desde - limite < 0) {
+                cerrar(new TimeoutException("El envío a la pantalla tardó más de " + propiedades.getEsperaEnvio()));
+            }
+        }
+
+        private void vaciar() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> evento = cola.poll();
+                if (evento == null) {
+                    vaciando.set(false);
+                    // Si alguien encoló justo después de que vi la cola vacía, sigo yo
+                    if (cola.isEmpty() || !vaciando.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                envioDesde = System.nanoTime();
+                try {
+                    emisor.send(evento);
+                } catch (IOException | IllegalStateException e) {
+                    cerrar(e);
+                    return;
+                } finally {
+                    envioDesde = 0;
+                }
+            }
+        }
+
+        private void cerrar(Exception causa) {
+            if (canal.suscriptores.remove(this)) {
+                cola.clear();
+                emisor.completeWithError(causa);
+            }
+        }
+    }
+}
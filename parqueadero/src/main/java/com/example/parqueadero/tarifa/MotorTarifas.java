@@ -0,0 +1,56 @@
+package com.example.parqueadero.tarifa;
+
+import com.example.parqueadero.config.TarifaProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Calculo el valor a cobrar por cada estadía usando la tabla de tarifas compilada.
+ * La tabla se compila una vez al arrancar y se reemplaza completa al recargar las reglas,
+ * así que los cálculos en curso nunca ven una tabla a medio construir.
+ */
+@Component
+public class MotorTarifas {
+
+    private volatile TablaTarifas tabla;
+
+    /**
+     * Compilo las reglas configuradas en `application.properties`.
+     */
+    @Autowired
+    public MotorTarifas(TarifaProperties reglas) {
+        this.tabla = TablaTarifas.compilar(reglas);
+    }
+
+    /**
+     * Calculo el valor a cobrar por una estadía.
+     * @param tipo Clase de vehículo.
+     * @param entrada Hora de entrada.
+     * @param salida Hora de salida.
+     * @return El valor exacto, con dos decimales.
+     */
+    public BigDecimal calcular(TipoVehiculo tipo, LocalDateTime entrada, LocalDateTime salida) {
+        return BigDecimal.valueOf(tabla.calcularCentavos(tipo, entrada, salida), 2);
+    }
+
+    /**
+     * Calculo el valor a cobrar por una estadía sin crear objetos.
+     * @return El valor a cobrar, en centavos.
+     */
+    public long calcularCentavos(TipoVehiculo tipo, LocalDateTime entrada, LocalDateTime salida) {
+        return tabla.calcularCentavos(tipo, entrada, salida);
+    }
+
+    /**
+     * Compilo unas reglas nuevas y, si son válidas, reemplazo la tabla en uso.
+     * @param reglas Reglas de tarifas nuevas.
+     * @throws IllegalArgumentException Si las reglas no son válidas; en ese caso la tabla actual no cambia.
+     */
+    public void recargar(TarifaProperties reglas) {
+        this.tabla = TablaTarifas.compilar(reglas);
+    }
+}
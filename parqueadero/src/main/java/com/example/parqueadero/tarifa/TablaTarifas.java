@@ -0,0 +1,187 @@
+package com.example.parqueadero.tarifa;
+
+import com.example.parqueadero.config.TarifaProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Represento las reglas de tarifas ya compiladas en tablas inmutables de búsqueda.
+ * Para cada clase de vehículo precalculo, por cada minuto de la semana, el valor de una unidad
+ * que empieza en ese minuto y el costo de un bloque completo de 24 horas que empieza ahí.
+ * Con eso, calcular un cobro solo recorre arreglos de `long` y no reserva memoria.
+ * Todos los valores se manejan en centavos.
+ */
+public final class TablaTarifas {
+
+    static final int MINUTOS_DIA = 24 * 60;
+    static final int MINUTOS_SEMANA = 7 * MINUTOS_DIA;
+
+    // El 1 de enero de 1970 fue jueves; sumo tres días para que el minuto 0 de la semana sea el lunes
+    private static final long DESFASE_LUNES = 3L * MINUTOS_DIA;
+
+    // Unos 21 millones por unidad: un día tiene como mucho 1440 unidades, así que el costo de una estadía
+    // de miles de años sigue cabiendo en un `long` de centavos
+    private static final BigDecimal MAXIMO_CENTAVOS = BigDecimal.valueOf(Long.MAX_VALUE >> 32);
+
+    private final int unidadMinutos;
+    private final int unidadesPorDia;
+    private final int graciaMinutos;
+    private final int unidadesMinimas;
+    private final long[][] valorUnidad; // [clase][minuto de la semana]
+    private final long[][] costoDia;    // [clase][minuto de la semana]
+    private final long[] topeDiario;    // [clase]; Long.MAX_VALUE si no hay tope
+
+    private TablaTarifas(int unidadMinutos, int graciaMinutos, int unidadesMinimas,
+                         long[][] valorUnidad, long[][] costoDia, long[] topeDiario) {
+        this.unidadMinutos = unidadMinutos;
+        this.unidadesPorDia = MINUTOS_DIA / unidadMinutos;
+        this.graciaMinutos = graciaMinutos;
+        this.unidadesMinimas = unidadesMinimas;
+        this.valorUnidad = valorUnidad;
+        this.costoDia = costoDia;
+        this.topeDiario = topeDiario;
+    }
+
+    /**
+     * Compilo las reglas configuradas en tablas de búsqueda.
+     * @param reglas Reglas de tarifas.
+     * @return La tabla compilada, lista para usarse desde varios hilos.
+     * @throws IllegalArgumentException Si las reglas no son válidas: un valor negativo o tan grande que el costo
+     *         de un día no cabe en un `long` de centavos, o una hora nocturna fuera de 0 a 23.
+     */
+    public static TablaTarifas compilar(TarifaProperties reglas) {
+        int unidad = reglas.getUnidadMinutos();
+        if (unidad <= 0 || MINUTOS_DIA % unidad != 0) {
+            throw new IllegalArgumentException("La unidad de cobro debe dividir exactamente un día: " + unidad);
+        }
+        if (reglas.getGraciaMinutos() < 0 || reglas.getUnidadesMinimas() < 0) {
+            throw new IllegalArgumentException("La gracia y las unidades mínimas no pueden ser negativas");
+        }
+        if (!esHora(reglas.getNocturnaDesde()) || !esHora(reglas.getNocturnaHasta())) {
+            throw new IllegalArgumentException("La franja nocturna debe ir de 0 a 23 horas: "
+                    + reglas.getNocturnaDesde() + " a " + reglas.getNocturnaHasta());
+        }
+
+        TipoVehiculo[] tipos = TipoVehiculo.values();
+        long[][] valorUnidad = new long[tipos.length][MINUTOS_SEMANA];
+        long[][] costoDia = new long[tipos.length][MINUTOS_SEMANA];
+        long[] topeDiario = new long[tipos.length];
+
+        for (TipoVehiculo tipo : tipos) {
+            TarifaProperties.Clase clase = reglas.getClases().get(tipo);
+            if (clase == null || clase.getValorUnidad() == null) {
+                throw new IllegalArgumentException("No hay tarifa configurada para " + tipo);
+            }
+            long normal = centavos(clase.getValorUnidad(), tipo);
+            long nocturno = clase.getValorNocturno() == null ? normal : centavos(clase.getValorNocturno(), tipo);
+            long finDeSemana = clase.getValorFinDeSemana() == null ? normal : centavos(clase.getValorFinDeSemana(), tipo);
+            topeDiario[tipo.ordinal()] = clase.getTopeDiario() == null ? Long.MAX_VALUE
+                    : centavos(clase.getTopeDiario(), tipo);
+
+            // La franja nocturna tiene prioridad sobre la de fin de semana
+            long[] valores = valorUnidad[tipo.ordinal()];
+            for (int minuto = 0; minuto < MINUTOS_SEMANA; minuto++) {
+                int dia = minuto / MINUTOS_DIA; // 0 = lunes
+                int hora = (minuto % MINUTOS_DIA) / 60;
+                if (esNocturna(hora, reglas.getNocturnaDesde(), reglas.getNocturnaHasta())) {
+                    valores[minuto] = nocturno;
+                } else if (dia >= 5) {
+                    valores[minuto] = finDeSemana;
+                } else {
+                    valores[minuto] = normal;
+                }
+            }
+
+            long[] dias = costoDia[tipo.ordinal()];
+            int unidadesPorDia = MINUTOS_DIA / unidad;
+            for (int inicio = 0; inicio < MINUTOS_SEMANA; inicio++) {
+                long suma = 0;
+                int minuto = inicio;
+                for (int k = 0; k < unidadesPorDia; k++) {
+                    suma += valores[minuto]; // No se desborda: cada valor está acotado en `centavos`
+                    minuto += unidad;
+                    if (minuto >= MINUTOS_SEMANA) {
+                        minuto -= MINUTOS_SEMANA;
+                    }
+                }
+                dias[inicio] = suma;
+            }
+        }
+        return new TablaTarifas(unidad, reglas.getGraciaMinutos(), reglas.getUnidadesMinimas(),
+                valorUnidad, costoDia, topeDiario);
+    }
+
+    /**
+     * Calculo el cobro de una estadía.
+     * Cobro cada unidad (redondeando hacia arriba la fracción final) al valor de la franja en la que empieza,
+     * y aplico el tope diario a cada bloque de 24 horas contado desde la entrada.
+     * @param tipo Clase de vehículo.
+     * @param entrada Hora de entrada.
+     * @param salida Hora de salida.
+     * @return El valor a cobrar, en centavos.
+     */
+    public long calcularCentavos(TipoVehiculo tipo, LocalDateTime entrada, LocalDateTime salida) {
+        long segundoEntrada = entrada.toEpochSecond(ZoneOffset.UTC);
+        long segundos = Math.max(0, salida.toEpochSecond(ZoneOffset.UTC) - segundoEntrada);
+        long minutos = (segundos + 59) / 60;
+        if (graciaMinutos > 0 && minutos <= graciaMinutos) {
+            return 0;
+        }
+        long unidades = Math.max(unidadesMinimas, (minutos + unidadMinutos - 1) / unidadMinutos);
+
+        int clase = tipo.ordinal();
+        long[] valores = valorUnidad[clase];
+        long[] dias = costoDia[clase];
+        long tope = topeDiario[clase];
+        int minuto = (int) Math.floorMod(Math.floorDiv(segundoEntrada, 60) + DESFASE_LUNES, (long) MINUTOS_SEMANA);
+
+        long total = 0;
+        while (unidades >= unidadesPorDia) {
+            total += Math.min(tope, dias[minuto]);
+            unidades -= unidadesPorDia;
+            minuto += MINUTOS_DIA;
+            if (minuto >= MINUTOS_SEMANA) {
+                minuto -= MINUTOS_SEMANA;
+            }
+        }
+        long parcial = 0;
+        for (long k = 0; k < unidades; k++) {
+            parcial += valores[minuto];
+            minuto += unidadMinutos;
+            if (minuto >= MINUTOS_SEMANA) {
+                minuto -= MINUTOS_SEMANA;
+            }
+        }
+        return total + Math.min(tope, parcial);
+    }
+
+    private static boolean esNocturna(int hora, int desde, int hasta) {
+        if (desde == hasta) {
+            return false;
+        }
+        return desde < hasta ? hora >= desde && hora < hasta : hora >= desde || hora < hasta;
+    }
+
+    private static boolean esHora(int hora) {
+        return hora >= 0 && hora < 24;
+    }
+
+    /**
+     * Convierto un valor a centavos. Lo acoto para que la suma de las unidades de un día, y de ahí cualquier
+     * cobro razonable, no desborde un `long`.
+     */
+    private static long centavos(BigDecimal valor, TipoVehiculo tipo) {
+        if (valor.signum() < 0) {
+            throw new IllegalArgumentException("Las tarifas de " + tipo + " no pueden ser negativas: " + valor);
+        }
+        BigDecimal centavos = valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (centavos.compareTo(MAXIMO_CENTAVOS) > 0) {
+            throw new IllegalArgumentException("La tarifa de " + tipo + " es demasiado grande: " + valor);
+        }
+        return centavos.longValue();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.parqueadero.util;
+
+/**
+ * Agrupo las utilidades para trabajar con placas de vehículos.
+ * Centralizo aquí la normalización para que la escritura y la búsqueda usen siempre la misma clave.
+ */
+public final class Placas {
+
+    private Placas() {
+    }
+
+    /**
+     * Normalizo una placa a su forma canónica para usarla como clave: solo letras y dígitos, en mayúsculas,
+     * así que "abc-123", "ABC 123" y " ABC123 " son la misma placa.
+     * Casi todas las placas ya llegan canónicas; en ese caso devuelvo la misma cadena sin copiarla,
+     * y si no, la copio una sola vez, sin expresiones regulares ni cadenas intermedias.
+     * @param placa Placa tal como la envía el cliente.
+     * @return La placa normalizada, o `null` si la placa es `null`.
+     */
+    public static String normalizar(String placa) {
+        if (placa == null) {
+            return null;
+        }
+        int longitud = placa.length();
+        int i = 0;
+        while (i < longitud && esCanonico(placa.charAt(i))) {
+            i++;
+        }
+        if (i == longitud) {
+            return placa;
+        }
+        char[] canonica = new char[longitud];
+        placa.getChars(0, i, canonica, 0);
+        int escritos = i;
+        for (; i < longitud; i++) {
+            char c = placa.charAt(i);
+            if (esCanonico(c)) {
+                canonica[escritos++] = c;
+            } else if (c >= 'a' && c <= 'z') {
+                canonica[escritos++] = (char) (c - ('a' - 'A'));
+            } else if (c >= 128 && Character.isLetterOrDigit(c)) {
+                canonica[escritos++] = Character.toUpperCase(c);
+            }
+            // Espacios, guiones, puntos y demás separadores se descartan
+        }
+        return new String(canonica, 0, escritos);
+    }
+
+    private static boolean esCanonico(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
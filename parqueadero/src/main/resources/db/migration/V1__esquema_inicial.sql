@@ -0,0 +1,29 @@
+-- Esquema que Hibernate generaba con ddl-auto=update antes de usar migraciones.
+-- Una base de datos creada de esa forma se registra en esta versión sin ejecutar el script (baseline-on-migrate).
+create sequence if not exists vehiculo_seq start with 1 increment by 50;
+create sequence if not exists resumen_estadia_seq start with 1 increment by 50;
+
+create table if not exists vehiculo (
+    id bigint not null,
+    placa varchar(255),
+    placa_activa varchar(255),
+    tipo_codigo smallint,
+    hora_entrada timestamp(6),
+    hora_salida timestamp(6),
+    costo_total numeric(12,2),
+    primary key (id),
+    constraint uk_vehiculo_placa_activa unique (placa_activa)
+);
+
+create table if not exists resumen_estadia (
+    id bigint not null,
+    granularidad varchar(4) not null check (granularidad in ('HORA','DIA')),
+    inicio timestamp(6) not null,
+    tipo_codigo smallint not null,
+    salidas bigint not null,
+    ingresos numeric(14,2),
+    minutos_totales bigint not null,
+    histograma varchar(400),
+    primary key (id),
+    constraint uk_resumen_estadia_cubeta unique (granularidad, inicio, tipo_codigo)
+);
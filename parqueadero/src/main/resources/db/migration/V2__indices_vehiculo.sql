@@ -0,0 +1,5 @@
+-- "¿Esta placa está dentro?" filtra por placa y por hora de salida nula
+create index if not exists idx_vehiculo_placa_salida on vehiculo (placa, hora_salida);
+
+-- El historial se filtra por rango de hora de entrada
+create index if not exists idx_vehiculo_entrada on vehiculo (hora_entrada);
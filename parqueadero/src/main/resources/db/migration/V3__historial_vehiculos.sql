@@ -0,0 +1,27 @@
+-- Separo las estadías cerradas en su propia tabla: la tabla vehiculo queda con las sesiones abiertas
+-- y las salidas recientes que todavía no se archivan, así que su tamaño depende de la ocupación y no de los años de historial.
+-- Cada fila conserva su ID, así que el historial se sigue paginando por ID sobre las dos tablas.
+-- En una base de datos que soporte particiones declarativas (por ejemplo PostgreSQL) esta tabla se particionaría
+-- por mes de hora_salida; H2 no tiene particiones, así que aquí es una sola tabla con índices por fecha.
+create table if not exists vehiculo_historial (
+    id bigint not null,
+    placa varchar(255),
+    tipo_codigo smallint,
+    hora_entrada timestamp(6),
+    hora_salida timestamp(6) not null,
+    costo_total numeric(12,2),
+    primary key (id)
+);
+
+create index if not exists idx_historial_placa_salida on vehiculo_historial (placa, hora_salida);
+create index if not exists idx_historial_entrada on vehiculo_historial (hora_entrada);
+-- La reconstrucción de resúmenes recorre el historial por día de salida
+create index if not exists idx_historial_salida on vehiculo_historial (hora_salida);
+
+-- Las salidas también se buscan por hora en la tabla activa antes de archivarlas
+create index if not exists idx_vehiculo_salida on vehiculo (hora_salida);
+
+insert into vehiculo_historial (id, placa, tipo_codigo, hora_entrada, hora_salida, costo_total)
+select id, placa, tipo_codigo, hora_entrada, hora_salida, costo_total from vehiculo where hora_salida is not null;
+
+delete from vehiculo where hora_salida is not null;
@@ -0,0 +1,12 @@
+-- Resultado de cada evento de portería procesado en lote, por el identificador que le dio la portería.
+-- La clave primaria hace que reenviar un lote no vuelva a registrar ni a cobrar sus eventos.
+create table if not exists evento_procesado (
+    id_evento varchar(100) not null,
+    accion varchar(10),
+    placa varchar(255),
+    tipo_codigo smallint,
+    instante timestamp(6),
+    estado varchar(20),
+    costo_total numeric(12,2),
+    primary key (id_evento)
+);
@@ -0,0 +1,17 @@
+-- Varias sedes (parqueaderos físicos) en la misma instalación. Los vehículos anteriores quedan en la sede principal.
+create table if not exists sede (
+    codigo varchar(50) not null,
+    nombre varchar(255),
+    primary key (codigo)
+);
+
+insert into sede (codigo, nombre)
+select 'principal', 'Sede principal' where not exists (select 1 from sede where codigo = 'principal');
+
+alter table vehiculo add column if not exists sede varchar(50) default 'principal' not null;
+alter table vehiculo_historial add column if not exists sede varchar(50) default 'principal' not null;
+alter table evento_procesado add column if not exists sede varchar(50);
+
+-- Los listados de una sede y el reporte por sede filtran por sede y hora de salida
+create index if not exists idx_vehiculo_sede_salida on vehiculo (sede, hora_salida);
+create index if not exists idx_historial_sede_salida on vehiculo_historial (sede, hora_salida);
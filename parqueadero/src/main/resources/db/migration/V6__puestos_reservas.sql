@@ -0,0 +1,17 @@
+-- Puesto asignado a cada sesión (zona y número), en las sedes que administran sus puestos
+alter table vehiculo add column if not exists puesto varchar(20);
+alter table vehiculo_historial add column if not exists puesto varchar(20);
+
+-- Reservas de un puesto para una ventana de tiempo. Solo las pendientes se cargan en memoria al arrancar.
+create table if not exists reserva (
+    id varchar(36) not null,
+    placa varchar(255) not null,
+    sede varchar(50) not null,
+    tipo_codigo smallint not null,
+    puesto varchar(20) not null,
+    desde timestamp(6) not null,
+    hasta timestamp(6) not null,
+    estado varchar(20) not null,
+    primary key (id)
+);
+create index if not exists idx_reserva_estado_hasta on reserva (estado, hasta);
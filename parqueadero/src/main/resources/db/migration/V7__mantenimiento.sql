@@ -0,0 +1,2 @@
+-- El mantenimiento nocturno purga por antigüedad los eventos de portería procesados, en lotes ordenados por instante
+create index if not exists idx_evento_procesado_instante on evento_procesado (instante);
@@ -0,0 +1,20 @@
+-- Las placas se guardan en forma canónica: solo letras y dígitos, en mayúsculas (ver Placas.normalizar).
+-- Las sesiones abiertas solo se actualizan si su forma canónica no choca con otra sesión abierta,
+-- para no violar la restricción única de placa_activa; esas quedan como estaban hasta su salida.
+update vehiculo v
+set placa = upper(regexp_replace(v.placa, '[^\p{L}\p{Nd}]', '')),
+    placa_activa = upper(regexp_replace(v.placa_activa, '[^\p{L}\p{Nd}]', ''))
+where regexp_like(v.placa, '[^\p{Lu}\p{Nd}]')
+  and (v.placa_activa is null or not exists (
+      select 1 from vehiculo otro
+      where otro.placa_activa is not null and otro.id <> v.id
+        and upper(regexp_replace(otro.placa_activa, '[^\p{L}\p{Nd}]', ''))
+            = upper(regexp_replace(v.placa_activa, '[^\p{L}\p{Nd}]', ''))));
+
+update vehiculo_historial
+set placa = upper(regexp_replace(placa, '[^\p{L}\p{Nd}]', ''))
+where regexp_like(placa, '[^\p{Lu}\p{Nd}]');
+
+update reserva
+set placa = upper(regexp_replace(placa, '[^\p{L}\p{Nd}]', ''))
+where regexp_like(placa, '[^\p{Lu}\p{Nd}]');
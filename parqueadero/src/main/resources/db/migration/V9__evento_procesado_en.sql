@@ -0,0 +1,6 @@
+-- Hora del servidor en que se procesó cada evento de portería. El instante lo pone el reloj de la portería,
+-- que puede estar desfasado, así que la retención de la purga nocturna se mide con esta columna.
+-- Los eventos existentes quedan con la hora de la migración y se purgan cuando esta supera la retención.
+alter table evento_procesado add column if not exists procesado_en timestamp(6) default current_timestamp not null;
+drop index if exists idx_evento_procesado_instante;
+create index if not exists idx_evento_procesado_procesado_en on evento_procesado (procesado_en);
@@ -0,0 +1,101 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo la admisión bajo tráfico concurrente: muchas porterías intentan ingresar y sacar
+ * las mismas placas a la vez, y al final no puede haber dos sesiones abiertas con la misma placa
+ * ni más salidas cobradas que entradas aceptadas.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class AdmisionConcurrenteTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmisionConcurrenteTest.class);
+    private static final int HILOS = 16;
+    private static final int OPERACIONES_POR_HILO = 1_000;
+    private static final int PLACAS = 50;
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Test
+    void nuncaHayDosSesionesAbiertasConLaMismaPlaca() throws Exception {
+        Map<String, AtomicInteger> entradasAceptadas = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> salidasCobradas = new ConcurrentHashMap<>();
+        LongAdder peticiones = new LongAdder();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+
+        for (int h = 0; h < HILOS; h++) {
+            ejecutor.submit(() -> {
+                LocaleContextHolder.setLocale(new Locale("es"));
+                inicio.await();
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    String placa = "STR" + aleatorio.nextInt(PLACAS);
+                    if (aleatorio.nextBoolean()) {
+                        if (controller.ingresarVehiculo(placa, "carro").getStatusCode().is2xxSuccessful()) {
+                            entradasAceptadas.computeIfAbsent(placa, p -> new AtomicInteger()).incrementAndGet();
+                        }
+                    } else if (controller.registrarSalida(placa).getStatusCode().is2xxSuccessful()) {
+                        salidasCobradas.computeIfAbsent(placa, p -> new AtomicInteger()).incrementAndGet();
+                    }
+                    peticiones.increment();
+                }
+                return null;
+            });
+        }
+
+        long inicioNanos = System.nanoTime();
+        inicio.countDown();
+        ejecutor.shutdown();
+        assertThat(ejecutor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+        log.info("Admisión concurrente: {} peticiones en {} ms ({} peticiones/s)",
+                peticiones.sum(), Math.round(segundos * 1_000), Math.round(peticiones.sum() / segundos));
+
+        Map<String, Integer> abiertas = new HashMap<>();
+        Map<String, Integer> cerradas = new HashMap<>();
+        List<Vehiculo> registros = vehiculoRepositorio.findAll();
+        for (Vehiculo vehiculo : registros) {
+            if (!vehiculo.getPlaca().startsWith("STR")) {
+                continue;
+            }
+            (vehiculo.getHoraSalida() == null ? abiertas : cerradas).merge(vehiculo.getPlaca(), 1, Integer::sum);
+        }
+
+        assertThat(abiertas.values()).allMatch(n -> n == 1);
+        for (Map.Entry<String, AtomicInteger> entrada : entradasAceptadas.entrySet()) {
+            String placa = entrada.getKey();
+            int salidas = salidasCobradas.getOrDefault(placa, new AtomicInteger()).get();
+            assertThat(cerradas.getOrDefault(placa, 0)).isEqualTo(salidas);
+            assertThat(entrada.getValue().get()).isEqualTo(salidas + abiertas.getOrDefault(placa, 0));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.AccionPorteria;
+import com.example.parqueadero.model.CoincidenciaPlaca;
+import com.example.parqueadero.model.EstadoEventoPorteria;
+import com.example.parqueadero.model.EventoPorteria;
+import com.example.parqueadero.model.ResultadoEventoPorteria;
+import com.example.parqueadero.service.BuscadorPlacas;
+import com.example.parqueadero.util.Placas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que una placa escrita con separadores o minúsculas sea la misma placa al entrar y al buscarla,
+ * que una placa sin letras ni números se rechace,
+ * y que la búsqueda de placas parecidas encuentre las incompletas y las mal leídas, primero las más parecidas.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.busqueda-placas.intervalo=20ms"})
+class BusquedaPlacasTest {
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private BuscadorPlacas buscadorPlacas;
+
+    @Test
+    void normalizoLasPlacasYEncuentroLasParecidas() throws InterruptedException {
+        String canonica = "QZX801";
+        assertThat(Placas.normalizar(canonica)).isSameAs(canonica);
+        assertThat(Placas.normalizar(" qzx-801 ")).isEqualTo(canonica);
+        assertThat(Placas.normalizar("QZX.80 1")).isEqualTo(canonica);
+
+        assertThat(controller.ingresarVehiculo("qzx-801", "carro").getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.ingresarVehiculo("QZX 801", "carro").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.buscarVehiculo("Qzx801", null).getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.ingresarVehiculo("QZX802", "moto").getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.ingresarVehiculo("QZY905", "carro").getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.registrarSalida("qzx 802").getStatusCode().value()).isEqualTo(200);
+        Thread.sleep(200); // Espero a que la tarea de fondo pase las entradas y salidas al índice de búsqueda
+
+        // Una placa incompleta encuentra las que la continúan, dentro o con su última salida
+        List<CoincidenciaPlaca> prefijo = controller.buscarPlacas("qzx-80", 2, 10).getBody();
+        assertThat(prefijo).extracting(CoincidenciaPlaca::placa).startsWith("QZX801", "QZX802");
+        assertThat(prefijo.get(0).sede()).isEqualTo("principal");
+        assertThat(prefijo.get(0).ultimaSalida()).isNull();
+        assertThat(prefijo.get(1).distancia()).isZero();
+        assertThat(prefijo.get(1).ultimaSalida()).isNotNull();
+
+        // Una cámara que leyó O en lugar de 0, o que perdió el primer carácter, queda a una edición
+        assertThat(controller.buscarPlacas("QZX8O1", 2, 10).getBody()).first()
+                .extracting(CoincidenciaPlaca::placa, CoincidenciaPlaca::distancia).containsExactly("QZX801", 1);
+        assertThat(controller.buscarPlacas("ZX801", 2, 10).getBody()).extracting(CoincidenciaPlaca::placa)
+                .contains("QZX801");
+        assertThat(controller.buscarPlacas("QZX8O1", 0, 10).getBody()).isEmpty();
+        assertThat(controller.buscarPlacas("QZX80", 3, 10).getStatusCode().value()).isEqualTo(400);
+
+        // Al depurar descarto las placas que salieron antes de la ventana, pero no las que siguen dentro
+        buscadorPlacas.depurar(LocalDateTime.now().plusDays(31));
+        assertThat(controller.buscarPlacas("QZX80", 2, 10).getBody()).extracting(CoincidenciaPlaca::placa)
+                .contains("QZX801")
+                .doesNotContain("QZX802");
+
+        controller.registrarSalida("QZX801");
+        controller.registrarSalida("QZY905");
+    }
+
+    @Test
+    void rechazoLasPlacasQueQuedanVaciasAlNormalizarlas() {
+        for (String placa : List.of("---", ".", " - ")) {
+            assertThat(Placas.normalizar(placa)).isEmpty();
+            assertThat(controller.ingresarVehiculo(placa, "carro").getStatusCode().value()).isEqualTo(400);
+        }
+        List<ResultadoEventoPorteria> resultados = controller.registrarLote(List.of(
+                new EventoPorteria("vacia-1", AccionPorteria.ENTRADA, " - ", "carro", LocalDateTime.now()),
+                new EventoPorteria("vacia-2", AccionPorteria.SALIDA, "---", null, LocalDateTime.now()))).getBody();
+        assertThat(resultados).extracting(ResultadoEventoPorteria::estado)
+                .containsExactly(EstadoEventoPorteria.INVALIDO, EstadoEventoPorteria.INVALIDO);
+    }
+}
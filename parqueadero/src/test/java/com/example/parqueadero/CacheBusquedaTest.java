@@ -0,0 +1,70 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que la búsqueda por placa responda 304 a un `If-None-Match` con la versión vigente,
+ * que cada entrada y salida invalide la respuesta guardada y que los aciertos se cuenten.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+class CacheBusquedaTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Test
+    void respondoSinCambiosHastaQueLaPlacaEntraOSale() throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        assertThat(buscar(cliente, "CAC1", null).statusCode()).isEqualTo(404);
+        double aciertos = registro.get("cache.gets").tags("cache", "busquedas", "result", "hit").functionCounter().count();
+
+        controller.ingresarVehiculo("CAC1", "carro");
+        HttpResponse<String> primera = buscar(cliente, "cac1", null);
+        assertThat(primera.statusCode()).isEqualTo(200);
+        assertThat(primera.body()).contains("\"placa\":\"CAC1\"");
+        String etag = primera.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> repetida = buscar(cliente, "CAC1", etag);
+        assertThat(repetida.statusCode()).isEqualTo(304);
+        assertThat(repetida.body()).isEmpty();
+        assertThat(registro.get("cache.gets").tags("cache", "busquedas", "result", "hit").functionCounter().count())
+                .isGreaterThan(aciertos);
+
+        controller.registrarSalida("CAC1");
+        assertThat(buscar(cliente, "CAC1", etag).statusCode()).isEqualTo(404);
+
+        // La nueva sesión es de otra clase, así que el ETag anterior ya no coincide
+        controller.ingresarVehiculo("CAC1", "moto");
+        HttpResponse<String> nueva = buscar(cliente, "CAC1", etag);
+        assertThat(nueva.statusCode()).isEqualTo(200);
+        assertThat(nueva.headers().firstValue("ETag")).isNotEqualTo(etag);
+        controller.registrarSalida("CAC1");
+    }
+
+    private HttpResponse<String> buscar(HttpClient cliente, String placa, String etag) throws Exception {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + puerto + "/parqueadero/buscar/" + placa));
+        if (etag != null) {
+            peticion.header("If-None-Match", etag);
+        }
+        return cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
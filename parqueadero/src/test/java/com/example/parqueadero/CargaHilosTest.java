@@ -0,0 +1,178 @@
+package com.example.parqueadero;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparo la latencia p99 y el máximo de peticiones por segundo sostenidas con hilos de plataforma
+ * y con el perfil `virtual`. Levanto la aplicación completa en un puerto aleatorio para cada modo
+ * y la cargo con clientes HTTP asíncronos que repiten el ciclo ingresar, buscar y salida de su propia placa.
+ * Es una prueba de carga lenta, así que no corre con el build normal:
+ * `mvn test -Dtest=CargaHilosTest -Dgrupos.excluidos=` (requiere Java 21).
+ */
+@Tag("carga")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class CargaHilosTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaHilosTest.class);
+    private static final int[] CONCURRENCIAS = {64, 256, 1024};
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(5);
+    private static final Duration DURACION = Duration.ofSeconds(15);
+    private static final double ERRORES_TOLERADOS = 0.01; // Por encima de esta proporción la carga no es sostenible
+
+    @Test
+    void comparoHilosDePlataformaYVirtuales() throws Exception {
+        List<Resultado> plataforma = medir("plataforma");
+        List<Resultado> virtuales = medir("virtual");
+
+        log.info("modo        concurrencia  peticiones/s      p50 ms      p99 ms   errores");
+        plataforma.forEach(resultado -> log.info(resultado.fila()));
+        virtuales.forEach(resultado -> log.info(resultado.fila()));
+        log.info("Máximo sostenido: plataforma {} peticiones/s, virtual {} peticiones/s",
+                Math.round(maximoSostenido(plataforma)), Math.round(maximoSostenido(virtuales)));
+
+        assertThat(maximoSostenido(plataforma)).isPositive();
+        assertThat(maximoSostenido(virtuales)).isPositive();
+    }
+
+    private List<Resultado> medir(String modo) throws InterruptedException {
+        // Paso la configuración como argumentos para que tenga prioridad sobre application.properties
+        SpringApplicationBuilder constructor = new SpringApplicationBuilder(ParqueaderoApplication.class);
+        if (modo.equals("virtual")) {
+            constructor.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext contexto = constructor.run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:carga-" + modo + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--parqueadero.ocupacion.capacidad.carro=1000000")) {
+            int puerto = ((ServletWebServerApplicationContext) contexto).getWebServer().getPort();
+            String base = "http://localhost:" + puerto + "/parqueadero";
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            cargar(cliente, base, modo, CONCURRENCIAS[0], CALENTAMIENTO);
+            List<Resultado> resultados = new ArrayList<>();
+            for (int concurrencia : CONCURRENCIAS) {
+                resultados.add(cargar(cliente, base, modo, concurrencia, DURACION));
+            }
+            return resultados;
+        }
+    }
+
+    /**
+     * Mantengo `concurrencia` peticiones en curso durante el tiempo indicado: cada cliente envía
+     * su siguiente petición en cuanto recibe la respuesta de la anterior, sin ocupar un hilo mientras espera.
+     */
+    private Resultado cargar(HttpClient cliente, String base, String modo, int concurrencia, Duration duracion)
+            throws InterruptedException {
+        Queue<Long> latencias = new ConcurrentLinkedQueue<>();
+        LongAdder errores = new LongAdder();
+        CountDownLatch terminados = new CountDownLatch(concurrencia);
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        String corrida = Long.toString(inicio % 100_000, 36).toUpperCase(); // Placas distintas en cada corrida
+        for (int c = 0; c < concurrencia; c++) {
+            String placa = "CRG" + corrida + "X" + c;
+            siguiente(cliente, base, placa, 0, fin, latencias, errores, terminados);
+        }
+        assertThat(terminados.await(duracion.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return new Resultado(modo, concurrencia, latencias, errores.sum(), segundos);
+    }
+
+    private void siguiente(HttpClient cliente, String base, String placa, int paso, long fin,
+                           Queue<Long> latencias, LongAdder errores, CountDownLatch terminados) {
+        if (System.nanoTime() >= fin) {
+            terminados.countDown();
+            return;
+        }
+        HttpRequest peticion = switch (paso % 3) {
+            case 0 -> HttpRequest.newBuilder(URI.create(base + "/ingresar?placa=" + placa + "&tipo=carro"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            case 1 -> HttpRequest.newBuilder(URI.create(base + "/buscar/" + placa)).GET().build();
+            default -> HttpRequest.newBuilder(URI.create(base + "/salida/" + placa))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+        };
+        long enviada = System.nanoTime();
+        cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding()).whenComplete((respuesta, error) -> {
+            latencias.add(System.nanoTime() - enviada);
+            if (error != null || respuesta.statusCode() / 100 != 2) {
+                errores.increment();
+            }
+            siguiente(cliente, base, placa, paso + 1, fin, latencias, errores, terminados);
+        });
+    }
+
+    private static double maximoSostenido(List<Resultado> resultados) {
+        return resultados.stream()
+                .filter(resultado -> resultado.proporcionErrores() <= ERRORES_TOLERADOS)
+                .mapToDouble(Resultado::porSegundo)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Resumen de una corrida de carga con una concurrencia fija.
+     */
+    private static final class Resultado {
+
+        private final String modo;
+        private final int concurrencia;
+        private final long[] latencias;
+        private final long errores;
+        private final double segundos;
+
+        Resultado(String modo, int concurrencia, Queue<Long> latencias, long errores, double segundos) {
+            this.modo = modo;
+            this.concurrencia = concurrencia;
+            this.latencias = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+            this.errores = errores;
+            this.segundos = segundos;
+        }
+
+        double porSegundo() {
+            return (latencias.length - errores) / segundos;
+        }
+
+        double proporcionErrores() {
+            return latencias.length == 0 ? 1 : (double) errores / latencias.length;
+        }
+
+        double percentilMs(double percentil) {
+            if (latencias.length == 0) {
+                return Double.NaN;
+            }
+            int posicion = (int) Math.ceil(percentil * latencias.length) - 1;
+            return latencias[Math.max(0, posicion)] / 1e6;
+        }
+
+        String fila() {
+            return String.format("%-10s %13d %13.0f %11.2f %11.2f %9s", modo, concurrencia, porSegundo(),
+                    percentilMs(0.50), percentilMs(0.99), errores + "/" + latencias.length);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mido la línea base de rendimiento de los flujos del parqueadero: varios hilos llaman a `ParqueaderoController`
+ * con una mezcla de entradas, búsquedas y salidas contra H2 embebido, y guardo el rendimiento y los percentiles
+ * de latencia por operación en `target/benchmarks/linea-base-carga.json` para comparar entre versiones.
+ * Cada hilo usa una semilla fija, así que dos corridas ejecutan exactamente la misma secuencia de operaciones.
+ * Es una prueba de carga lenta, así que no corre con el build normal: `mvn verify -Pbenchmark`
+ * o `mvn test -Dtest=CargaParqueaderoTest -Dgrupos.excluidos=`.
+ */
+@Tag("carga")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:carga-parqueadero;DB_CLOSE_ON_EXIT=FALSE",
+        "parqueadero.ocupacion.capacidad.carro=1000000",
+        "parqueadero.ocupacion.capacidad.moto=1000000",
+        "logging.level.root=WARN"
+})
+class CargaParqueaderoTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaParqueaderoTest.class);
+    private static final int HILOS = 8;
+    private static final int CALENTAMIENTO = 2_000; // Operaciones por hilo que no cuento
+    private static final int OPERACIONES = 20_000; // Operaciones medidas por hilo
+    private static final Path LINEA_BASE = Path.of("target", "benchmarks", "linea-base-carga.json");
+
+    private enum Operacion { INGRESAR, BUSCAR, SALIDA }
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Test
+    void midoLaLineaBase() throws Exception {
+        String corrida = Long.toString(System.nanoTime() % 100_000, 36).toUpperCase(); // Placas distintas en cada corrida
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        List<Future<Map<Operacion, long[]>>> resultados = new ArrayList<>();
+        long inicio;
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                cargar(h, "LBW" + corrida + "X" + h, CALENTAMIENTO);
+            }
+            inicio = System.nanoTime();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                resultados.add(hilos.submit(() -> cargar(hilo, "LBC" + corrida + "X" + hilo, OPERACIONES)));
+            }
+            for (Future<Map<Operacion, long[]>> resultado : resultados) {
+                resultado.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("hilos", HILOS);
+        informe.put("operaciones", (long) HILOS * OPERACIONES);
+        informe.put("segundos", segundos);
+        informe.put("operacionesPorSegundo", HILOS * OPERACIONES / segundos);
+        Map<String, Object> porOperacion = new LinkedHashMap<>();
+        for (Operacion operacion : Operacion.values()) {
+            long[] todas = resultados.stream()
+                    .flatMapToLong(resultado -> Arrays.stream(obtener(resultado).get(operacion)))
+                    .sorted()
+                    .toArray();
+            porOperacion.put(operacion.name().toLowerCase(), resumir(todas));
+        }
+        informe.put("latenciaMicrosegundos", porOperacion);
+
+        Files.createDirectories(LINEA_BASE.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(LINEA_BASE.toFile(), informe);
+        log.info("Resultados en {}:\n{}", LINEA_BASE.toAbsolutePath(), Files.readString(LINEA_BASE));
+
+        assertThat((double) informe.get("operacionesPorSegundo")).isPositive();
+    }
+
+    /**
+     * Ejecuto una secuencia de operaciones con la semilla del hilo. Si el hilo no tiene vehículos dentro, ingreso uno;
+     * si no, elijo entre ingresar (40 %), buscar (30 %) o sacar (30 %) uno de sus vehículos.
+     * @return Las latencias en nanosegundos de cada tipo de operación.
+     */
+    private Map<Operacion, long[]> cargar(int hilo, String prefijo, int operaciones) {
+        Random aleatorio = new Random(hilo);
+        List<String> dentro = new ArrayList<>();
+        Map<Operacion, long[]> latencias = new EnumMap<>(Operacion.class);
+        Map<Operacion, Integer> cantidades = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new long[operaciones]);
+            cantidades.put(operacion, 0);
+        }
+        int siguientePlaca = 0;
+        for (int i = 0; i < operaciones; i++) {
+            int sorteo = aleatorio.nextInt(10);
+            Operacion operacion = dentro.isEmpty() || sorteo < 4 ? Operacion.INGRESAR
+                    : sorteo < 7 ? Operacion.BUSCAR : Operacion.SALIDA;
+            long duracion = switch (operacion) {
+                case INGRESAR -> {
+                    String placa = prefijo + "N" + siguientePlaca;
+                    String tipo = siguientePlaca++ % 3 == 0 ? "moto" : "carro";
+                    dentro.add(placa);
+                    yield medir(() -> controller.ingresarVehiculo(placa, tipo));
+                }
+                case BUSCAR -> {
+                    String placa = dentro.get(aleatorio.nextInt(dentro.size()));
+                    yield medir(() -> controller.buscarVehiculo(placa, null));
+                }
+                case SALIDA -> {
+                    String placa = dentro.remove(aleatorio.nextInt(dentro.size()));
+                    yield medir(() -> controller.registrarSalida(placa));
+                }
+            };
+            int posicion = cantidades.merge(operacion, 1, Integer::sum) - 1;
+            latencias.get(operacion)[posicion] = duracion;
+        }
+        latencias.replaceAll((operacion, valores) -> Arrays.copyOf(valores, cantidades.get(operacion)));
+        return latencias;
+    }
+
+    /**
+     * Ejecuto una llamada al controlador y devuelvo su duración; si la respuesta no es exitosa, fallo la prueba.
+     */
+    private static long medir(Supplier<ResponseEntity<?>> llamada) {
+        long inicio = System.nanoTime();
+        ResponseEntity<?> respuesta = llamada.get();
+        long duracion = System.nanoTime() - inicio;
+        assertThat(respuesta.getStatusCode().is2xxSuccessful()).as("%s", respuesta.getBody()).isTrue();
+        return duracion;
+    }
+
+    private static Map<String, Object> resumir(long[] ordenadas) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("cantidad", ordenadas.length);
+        String[] nombres = {"p50", "p90", "p99", "p999"};
+        double[] percentiles = {0.50, 0.90, 0.99, 0.999};
+        for (int i = 0; i < percentiles.length; i++) {
+            int posicion = Math.max(0, (int) Math.ceil(percentiles[i] * ordenadas.length) - 1);
+            resumen.put(nombres[i], ordenadas.length == 0 ? 0 : ordenadas[posicion] / 1_000.0);
+        }
+        resumen.put("maximo", ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1_000.0);
+        return resumen;
+    }
+
+    private static <T> T obtener(Future<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.OcupacionController;
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.EstadiaLarga;
+import com.example.parqueadero.service.DetectorEstadiasLargas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que el detector marque solo las sesiones que siguen abiertas después del umbral,
+ * y que las olvide en cuanto el vehículo sale.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.estadias-largas.umbral=2h",
+        "parqueadero.estadias-largas.intervalo=1h"})
+class EstadiasLargasTest {
+
+    @Autowired
+    private ParqueaderoController parqueaderoController;
+
+    @Autowired
+    private OcupacionController ocupacionController;
+
+    @Autowired
+    private DetectorEstadiasLargas detector;
+
+    @Test
+    void marcoLasEstadiasQueSuperanElUmbral() {
+        assertThat(parqueaderoController.ingresarVehiculo("LRG001", "carro").getStatusCode().value()).isEqualTo(200);
+        assertThat(parqueaderoController.ingresarVehiculo("LRG002", "moto").getStatusCode().value()).isEqualTo(200);
+        assertThat(parqueaderoController.ingresarVehiculo("LRG003", "carro").getStatusCode().value()).isEqualTo(200);
+        assertThat(parqueaderoController.registrarSalida("LRG002").getStatusCode().value()).isEqualTo(200);
+
+        // Antes del umbral no hay nada que marcar
+        detector.revisar(LocalDateTime.now().plusHours(1));
+        assertThat(ocupacionController.consultarEstadiasLargas(null)).extracting(EstadiaLarga::placa)
+                .doesNotContain("LRG001", "LRG002", "LRG003");
+
+        // LRG002 salió a tiempo; las otras dos siguen dentro después del umbral
+        detector.revisar(LocalDateTime.now().plusHours(3));
+        assertThat(ocupacionController.consultarEstadiasLargas("principal")).extracting(EstadiaLarga::placa)
+                .contains("LRG001", "LRG003")
+                .doesNotContain("LRG002");
+
+        // La salida que faltaba la quita de inmediato, y una nueva entrada con la misma placa empieza de cero
+        assertThat(parqueaderoController.registrarSalida("LRG001").getStatusCode().value()).isEqualTo(200);
+        assertThat(parqueaderoController.ingresarVehiculo("LRG001", "carro").getStatusCode().value()).isEqualTo(200);
+        detector.revisar(LocalDateTime.now().plusMinutes(30));
+        assertThat(detector.estadiasLargas()).extracting(EstadiaLarga::placa)
+                .contains("LRG003")
+                .doesNotContain("LRG001");
+        assertThat(detector.estadiasLargas("otra-sede")).isEmpty();
+
+        parqueaderoController.registrarSalida("LRG001");
+        parqueaderoController.registrarSalida("LRG003");
+        assertThat(detector.estadiasLargas()).extracting(EstadiaLarga::placa).doesNotContain("LRG003");
+    }
+}
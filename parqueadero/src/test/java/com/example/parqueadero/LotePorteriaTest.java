@@ -0,0 +1,92 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.AccionPorteria;
+import com.example.parqueadero.model.EstadoEventoPorteria;
+import com.example.parqueadero.model.EventoPorteria;
+import com.example.parqueadero.model.ResultadoEventoPorteria;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que un lote de portería se valide y cobre en orden con la hora de cada evento,
+ * y que reenviarlo devuelva los mismos resultados sin registrar ni cobrar de nuevo.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class LotePorteriaTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2019, 3, 4, 8, 0);
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private IndiceOcupacion indiceOcupacion;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Autowired
+    private MotorTarifas motorTarifas;
+
+    @AfterEach
+    void sacarVehiculos() {
+        controller.registrarSalida("LOT001");
+        controller.registrarSalida("LOT002");
+    }
+
+    @Test
+    void aplicoElLoteUnaSolaVezAunqueSeReenvie() {
+        LocaleContextHolder.setLocale(new Locale("es"));
+        List<EventoPorteria> lote = List.of(
+                new EventoPorteria("p1-1", AccionPorteria.ENTRADA, " lot001", "carro", INICIO),
+                new EventoPorteria("p1-2", AccionPorteria.ENTRADA, "LOT002", "moto", INICIO.plusMinutes(5)),
+                new EventoPorteria("p1-3", AccionPorteria.SALIDA, "LOT001", null, INICIO.plusHours(2)),
+                new EventoPorteria("p1-4", AccionPorteria.SALIDA, "LOT999", null, INICIO.plusHours(2)),
+                new EventoPorteria("p1-5", AccionPorteria.ENTRADA, "LOT001", "car", INICIO.plusHours(3)),
+                new EventoPorteria("p1-6", AccionPorteria.ENTRADA, "LOT003", "bus", INICIO.plusHours(3)),
+                new EventoPorteria("p1-7", AccionPorteria.SALIDA, "LOT002", null, INICIO),
+                new EventoPorteria("p1-8", AccionPorteria.ENTRADA, "LOT002", "moto", INICIO.plusHours(4)),
+                new EventoPorteria("p1-1", AccionPorteria.ENTRADA, "LOT001", "carro", INICIO),
+                new EventoPorteria(null, AccionPorteria.ENTRADA, "LOT004", "carro", INICIO));
+
+        List<ResultadoEventoPorteria> resultados = controller.registrarLote(lote).getBody();
+
+        assertThat(resultados).extracting(ResultadoEventoPorteria::estado).containsExactly(
+                EstadoEventoPorteria.ACEPTADO, EstadoEventoPorteria.ACEPTADO, EstadoEventoPorteria.ACEPTADO,
+                EstadoEventoPorteria.NO_ENCONTRADO, EstadoEventoPorteria.ACEPTADO, EstadoEventoPorteria.TIPO_INVALIDO,
+                EstadoEventoPorteria.HORA_INVALIDA, EstadoEventoPorteria.DUPLICADO, EstadoEventoPorteria.ACEPTADO,
+                EstadoEventoPorteria.INVALIDO);
+        assertThat(resultados).extracting(ResultadoEventoPorteria::repetido)
+                .containsExactly(false, false, false, false, false, false, false, false, true, false);
+        assertThat(resultados.get(2).costoTotal())
+                .isEqualByComparingTo(motorTarifas.calcular(TipoVehiculo.CARRO, INICIO, INICIO.plusHours(2)));
+        assertThat(resultados.get(2).mensaje()).contains("LOT001 ha salido");
+        assertThat(indiceOcupacion.buscar("LOT001")).map(Vehiculo::getHoraEntrada).contains(INICIO.plusHours(3));
+        assertThat(indiceOcupacion.buscar("LOT002")).map(Vehiculo::getHoraEntrada).contains(INICIO.plusMinutes(5));
+
+        // La portería no recibió la respuesta y reenvía el lote completo
+        List<ResultadoEventoPorteria> reenviados = controller.registrarLote(lote).getBody();
+
+        assertThat(reenviados).extracting(ResultadoEventoPorteria::estado)
+                .containsExactlyElementsOf(resultados.stream().map(ResultadoEventoPorteria::estado).toList());
+        assertThat(reenviados.subList(0, 9)).allMatch(ResultadoEventoPorteria::repetido);
+        assertThat(reenviados.get(2).costoTotal()).isEqualByComparingTo(resultados.get(2).costoTotal());
+        assertThat(vehiculoRepositorio.findAll()).filteredOn(vehiculo -> vehiculo.getPlaca().equals("LOT001")).hasSize(2);
+        assertThat(indiceOcupacion.buscar("LOT001")).map(Vehiculo::getHoraEntrada).contains(INICIO.plusHours(3));
+    }
+}
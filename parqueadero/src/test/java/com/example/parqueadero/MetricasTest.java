@@ -0,0 +1,63 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que las entradas, salidas y rechazos se cuenten, que cada fase quede medida
+ * y que Prometheus pueda recoger las métricas, incluidas las de Hibernate.
+ */
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+class MetricasTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Test
+    void cuentoYMidoLasEntradasYSalidas() throws Exception {
+        double entradas = registro.counter("parqueadero.entradas").count();
+        double salidas = registro.counter("parqueadero.salidas").count();
+        double duplicados = registro.counter("parqueadero.rechazos", "motivo", "duplicado").count();
+        double invalidos = registro.counter("parqueadero.rechazos", "motivo", "tipo_invalido").count();
+        long tarifas = registro.timer("parqueadero.fase", "fase", "tarifa", "operacion", "salida").count();
+
+        controller.ingresarVehiculo("MET1", "carro");
+        controller.ingresarVehiculo("MET1", "carro");
+        controller.ingresarVehiculo("MET2", "avion");
+        controller.registrarSalida("MET1");
+
+        assertThat(registro.counter("parqueadero.entradas").count()).isEqualTo(entradas + 1);
+        assertThat(registro.counter("parqueadero.salidas").count()).isEqualTo(salidas + 1);
+        assertThat(registro.counter("parqueadero.rechazos", "motivo", "duplicado").count()).isEqualTo(duplicados + 1);
+        assertThat(registro.counter("parqueadero.rechazos", "motivo", "tipo_invalido").count()).isEqualTo(invalidos + 1);
+        assertThat(registro.timer("parqueadero.fase", "fase", "tarifa", "operacion", "salida").count()).isEqualTo(tarifas + 1);
+
+        HttpResponse<String> respuesta = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        assertThat(respuesta.body())
+                .contains("parqueadero_fase_seconds_bucket{fase=\"repositorio\",operacion=\"ingresar\"")
+                .contains("parqueadero_rechazos_total{motivo=\"lleno\"")
+                .contains("hibernate_statements_total");
+    }
+}
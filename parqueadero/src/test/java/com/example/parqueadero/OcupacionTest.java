@@ -0,0 +1,162 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.RegistroSedes;
+import com.example.parqueadero.service.TransmisorOcupacion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que las entradas respeten los cupos de cada clase, que la ocupación
+ * llegue por Server-Sent Events a más pantallas que hilos tiene el servidor
+ * y que cada pantalla reciba solo la ocupación de su sede.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "parqueadero.ocupacion.capacidad.moto=3",
+        "parqueadero.ocupacion.intervalo-transmision=50ms"
+})
+class OcupacionTest {
+
+    // Más suscriptores que los 200 hilos por defecto de Tomcat: con un hilo por suscriptor la prueba no terminaría
+    private static final int PANTALLAS = 300;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private ContadorOcupacion contadorOcupacion;
+
+    @Autowired
+    private TransmisorOcupacion transmisorOcupacion;
+
+    @Autowired
+    private RegistroSedes registroSedes;
+
+    @AfterEach
+    void sacarMotos() {
+        for (int i = 0; i < 4; i++) {
+            controller.registrarSalida("OCU" + i);
+        }
+    }
+
+    @Test
+    void rechazoLaEntradaCuandoLaClaseEstaLlena() {
+        LocaleContextHolder.setLocale(new Locale("es"));
+        long iniciales = contadorOcupacion.ocupados(TipoVehiculo.MOTO);
+
+        for (int i = 0; i < 3 - iniciales; i++) {
+            assertThat(controller.ingresarVehiculo("OCU" + i, "moto").getStatusCode().is2xxSuccessful()).isTrue();
+        }
+        assertThat(contadorOcupacion.ocupados(TipoVehiculo.MOTO)).isEqualTo(3);
+        assertThat(controller.ingresarVehiculo("OCU3", "moto").getBody()).isEqualTo("No hay cupos disponibles para moto.");
+
+        controller.registrarSalida("OCU0");
+        assertThat(contadorOcupacion.ocupados(TipoVehiculo.MOTO)).isEqualTo(2);
+        assertThat(controller.ingresarVehiculo("OCU3", "moto").getStatusCode().is2xxSuccessful()).isTrue();
+    }
+
+    @Test
+    void transmitoLaOcupacionATodasLasPantallas() throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/parqueadero/ocupacion/eventos"))
+                .header("Accept", "text/event-stream")
+                .build();
+
+        long esperadas = contadorOcupacion.ocupados(TipoVehiculo.MOTO) + 1;
+        String cambio = "\"tipo\":\"MOTO\",\"ocupados\":" + esperadas;
+        CountDownLatch recibidos = new CountDownLatch(PANTALLAS);
+        List<CompletableFuture<HttpResponse<Void>>> respuestas = new ArrayList<>();
+        for (int i = 0; i < PANTALLAS; i++) {
+            respuestas.add(cliente.sendAsync(peticion, HttpResponse.BodyHandlers.fromLineSubscriber(new Pantalla(cambio, recibidos, null))));
+        }
+        long limite = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (transmisorOcupacion.suscriptores() < PANTALLAS && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(transmisorOcupacion.suscriptores()).isGreaterThanOrEqualTo(PANTALLAS);
+
+        controller.ingresarVehiculo("OCU0", "moto");
+
+        assertThat(recibidos.await(30, TimeUnit.SECONDS)).isTrue();
+        respuestas.forEach(respuesta -> respuesta.cancel(true));
+    }
+
+    @Test
+    void transmitoLaOcupacionDeCadaSede() throws Exception {
+        registroSedes.crear("ocu-norte", "Sede norte de ocupación");
+        HttpClient cliente = HttpClient.newHttpClient();
+        String base = "http://localhost:" + puerto + "/parqueadero/sedes/";
+        assertThat(cliente.send(HttpRequest.newBuilder(URI.create(base + "no-existe/ocupacion/eventos")).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(404);
+
+        CountDownLatch inicial = new CountDownLatch(1);
+        CountDownLatch cambio = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<Void>> respuesta = cliente.sendAsync(
+                HttpRequest.newBuilder(URI.create(base + "ocu-norte/ocupacion/eventos"))
+                        .header("Accept", "text/event-stream").build(),
+                HttpResponse.BodyHandlers.fromLineSubscriber(new Pantalla("\"tipo\":\"CARRO\",\"ocupados\":", inicial,
+                        new Pantalla("\"tipo\":\"CARRO\",\"ocupados\":1", cambio, null))));
+        assertThat(inicial.await(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(controller.ingresarVehiculoEnSede("ocu-norte", "OCUN1", "carro").getStatusCode().is2xxSuccessful())
+                .isTrue();
+
+        assertThat(cambio.await(30, TimeUnit.SECONDS)).isTrue();
+        respuesta.cancel(true);
+        controller.registrarSalidaEnSede("ocu-norte", "OCUN1");
+    }
+
+    /**
+     * Leo el flujo de eventos de una pantalla y aviso cuando llega el cambio esperado.
+     * Si indico una pantalla siguiente, también le paso cada línea, para esperar varios cambios en orden.
+     */
+    private record Pantalla(String cambio, CountDownLatch recibidos, Pantalla siguiente) implements Flow.Subscriber<String> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            suscripcion.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String linea) {
+            if (linea.startsWith("data:") && linea.contains(cambio)) {
+                recibidos.countDown();
+            }
+            if (siguiente != null) {
+                siguiente.onNext(linea);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
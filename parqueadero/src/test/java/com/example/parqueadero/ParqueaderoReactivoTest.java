@@ -0,0 +1,66 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.model.Vehiculo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo la variante reactiva de la API: entrada, búsqueda, salida cobrada una sola vez
+ * y el historial transmitido como JSON delimitado por saltos de línea.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactivo")
+class ParqueaderoReactivoTest {
+
+    @Autowired
+    private WebTestClient cliente;
+
+    @Test
+    void registroYCobroSinBloquearHilos() {
+        cliente.post().uri("/parqueadero/ingresar?placa=rea1&tipo=carro").exchange()
+                .expectStatus().isOk();
+        cliente.post().uri("/parqueadero/ingresar?placa=REA1&tipo=moto").exchange()
+                .expectStatus().isBadRequest();
+        cliente.post().uri("/parqueadero/ingresar?placa=REA2&tipo=bus").exchange()
+                .expectStatus().isBadRequest();
+        cliente.post().uri("/parqueadero/ingresar?placa=---&tipo=carro").exchange()
+                .expectStatus().isBadRequest();
+        cliente.post().uri("/parqueadero/sedes/no-existe/ingresar?placa=REA2&tipo=moto").exchange()
+                .expectStatus().isNotFound();
+        cliente.put().uri("/parqueadero/tarifas").bodyValue("{}").exchange()
+                .expectStatus().isUnauthorized();
+
+        cliente.get().uri("/parqueadero/buscar/REA1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.placa").isEqualTo("REA1").jsonPath("$.id").isNumber();
+
+        cliente.put().uri("/parqueadero/salida/REA1").exchange()
+                .expectStatus().isOk();
+        cliente.put().uri("/parqueadero/salida/REA1").exchange()
+                .expectStatus().isBadRequest();
+        cliente.get().uri("/parqueadero/buscar/REA1").exchange()
+                .expectStatus().isNotFound();
+
+        List<Vehiculo> historial = cliente.get().uri("/parqueadero?estado=CERRADO")
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Vehiculo.class).getResponseBody()
+                .filter(vehiculo -> vehiculo.getPlaca().equals("REA1"))
+                .collectList().block();
+        assertThat(historial).singleElement().satisfies(vehiculo -> {
+            assertThat(vehiculo.getHoraSalida()).isNotNull();
+            assertThat(vehiculo.getCostoTotal()).isPositive();
+        });
+    }
+}
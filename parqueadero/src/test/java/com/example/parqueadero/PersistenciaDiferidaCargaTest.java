@@ -0,0 +1,78 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparo el rendimiento de guardar cada entrada y salida con su propio `save`
+ * contra la persistencia diferida en lotes.
+ * Es una prueba de carga lenta, así que no corre con el build normal:
+ * `mvn test -Dtest=PersistenciaDiferidaCargaTest -Dgrupos.excluidos=`.
+ */
+@Tag("carga")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "parqueadero.persistencia.diferida.habilitada=true",
+        "parqueadero.persistencia.diferida.diario=target/diario-carga.bin",
+        "parqueadero.persistencia.diferida.descartados=target/descartados-carga.bin"
+})
+class PersistenciaDiferidaCargaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenciaDiferidaCargaTest.class);
+    private static final int EVENTOS = 5_000;
+    private static final BigDecimal COSTO = new BigDecimal("2000.00");
+
+    @Autowired
+    private PersistenciaVehiculos persistenciaVehiculos;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Test
+    void comparoLaPersistenciaDirectaConLaDiferida() throws Exception {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        // Camino actual: un save por cada entrada y otro por cada salida
+        long inicio = System.nanoTime();
+        for (int i = 0; i < EVENTOS; i++) {
+            Vehiculo vehiculo = vehiculoRepositorio.save(new Vehiculo("DIR" + i, TipoVehiculo.CARRO, ahora));
+            vehiculo.setHoraSalida(ahora.plusHours(1));
+            vehiculo.setCostoTotal(COSTO);
+            vehiculoRepositorio.save(vehiculo);
+        }
+        double directo = 2.0 * EVENTOS / ((System.nanoTime() - inicio) / 1e9);
+
+        // Camino diferido: anoto en el diario, encolo y espero a que el hilo escritor vacíe la cola
+        inicio = System.nanoTime();
+        List<Vehiculo> vehiculos = new ArrayList<>(EVENTOS);
+        for (int i = 0; i < EVENTOS; i++) {
+            vehiculos.add(persistenciaVehiculos.guardarEntrada(new Vehiculo("CDF" + i, TipoVehiculo.CARRO, ahora)));
+        }
+        for (Vehiculo vehiculo : vehiculos) {
+            vehiculo.setHoraSalida(ahora.plusHours(1));
+            vehiculo.setCostoTotal(COSTO);
+            persistenciaVehiculos.guardarSalida(vehiculo);
+        }
+        assertThat(persistenciaVehiculos.vaciar(60_000)).isTrue();
+        double diferido = 2.0 * EVENTOS / ((System.nanoTime() - inicio) / 1e9);
+
+        log.info("Persistencia directa: {} eventos/s; persistencia diferida: {} eventos/s",
+                Math.round(directo), Math.round(diferido));
+        assertThat(diferido).isPositive();
+    }
+}
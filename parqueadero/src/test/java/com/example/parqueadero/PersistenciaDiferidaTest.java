@@ -0,0 +1,98 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.IndiceOcupacion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifico que al vaciar la cola de la persistencia diferida todos los eventos quedan en la base de datos,
+ * que las entradas reciben su ID a través del índice y que un evento que la base rechaza
+ * pasa al archivo de descartados sin detener a los demás.
+ * La comparación de rendimiento con la persistencia directa está en `PersistenciaDiferidaCargaTest`.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "parqueadero.persistencia.diferida.habilitada=true",
+        "parqueadero.persistencia.diferida.diario=target/diario-prueba.bin",
+        "parqueadero.persistencia.diferida.descartados=target/descartados-prueba.bin"
+})
+class PersistenciaDiferidaTest {
+
+    private static final int EVENTOS = 500;
+    private static final BigDecimal COSTO = new BigDecimal("2000.00");
+
+    @Autowired
+    private PersistenciaVehiculos persistenciaVehiculos;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Autowired
+    private IndiceOcupacion indiceOcupacion;
+
+    @Test
+    void losLotesDiferidosLleganCompletosALaBaseDeDatos() throws Exception {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Vehiculo> vehiculos = new ArrayList<>(EVENTOS);
+        for (int i = 0; i < EVENTOS; i++) {
+            vehiculos.add(persistenciaVehiculos.guardarEntrada(new Vehiculo("DIF" + i, TipoVehiculo.CARRO, ahora)));
+        }
+        for (Vehiculo vehiculo : vehiculos) {
+            vehiculo.setHoraSalida(ahora.plusHours(1));
+            vehiculo.setCostoTotal(COSTO);
+            persistenciaVehiculos.guardarSalida(vehiculo);
+        }
+        assertThat(persistenciaVehiculos.vaciar(30_000)).isTrue();
+
+        long cerrados = vehiculoRepositorio.findAll().stream()
+                .filter(v -> v.getPlaca().startsWith("DIF") && v.getHoraSalida() != null)
+                .filter(v -> COSTO.compareTo(v.getCostoTotal()) == 0)
+                .count();
+        assertThat(cerrados).isEqualTo(EVENTOS);
+    }
+
+    @Test
+    void publicoElIdDeLaEntradaEnElIndice() throws Exception {
+        Vehiculo vehiculo = new Vehiculo("DIFID1", TipoVehiculo.CARRO, LocalDateTime.now());
+        indiceOcupacion.registrarEntrada(persistenciaVehiculos.guardarEntrada(vehiculo));
+
+        assertThat(persistenciaVehiculos.vaciar(10_000)).isTrue();
+
+        assertThat(indiceOcupacion.buscar("DIFID1")).get().extracting(Vehiculo::getId).isNotNull();
+        assertThat(vehiculoRepositorio.findById(indiceOcupacion.buscar("DIFID1").get().getId())).isPresent();
+    }
+
+    @Test
+    void descartoElEventoQueLaBaseRechazaYSigoConLosDemas() throws Exception {
+        LocalDateTime ahora = LocalDateTime.now();
+        long descartadosAntes = Files.size(Path.of("target/descartados-prueba.bin"));
+
+        // Una salida sin sesión abierta en la base de datos no puede aplicarse
+        Vehiculo fantasma = new Vehiculo("DIFX01", TipoVehiculo.CARRO, ahora.minusHours(2));
+        fantasma.setHoraSalida(ahora);
+        fantasma.setCostoTotal(COSTO);
+        persistenciaVehiculos.guardarSalida(fantasma);
+        persistenciaVehiculos.guardarEntrada(new Vehiculo("DIFX02", TipoVehiculo.CARRO, ahora));
+
+        assertThat(persistenciaVehiculos.vaciar(10_000)).isTrue();
+
+        assertThat(Files.size(Path.of("target/descartados-prueba.bin"))).isGreaterThan(descartadosAntes);
+        assertThat(vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull("DIFX02")).isPresent();
+        // La salida no llegó a la base de datos, así que el vehículo vuelve a estar dentro
+        assertThat(indiceOcupacion.contiene("DIFX01")).isTrue();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.model.AccionPorteria;
+import com.example.parqueadero.model.EstadoEventoPorteria;
+import com.example.parqueadero.model.EventoPorteria;
+import com.example.parqueadero.model.OcupacionZona;
+import com.example.parqueadero.model.Reserva;
+import com.example.parqueadero.model.ResultadoEventoPorteria;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.service.AgendaReservas;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import com.example.parqueadero.service.MapaPuestos;
+import com.example.parqueadero.service.RegistroSedes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebo que cada vehículo reciba un puesto libre, que una reserva aparte su puesto para que nadie más lo tome
+ * y que el vehículo que reservó lo reciba al entrar, y que las reservas sin usar venzan y liberen el puesto.
+ * También pruebo que las entradas de un lote de portería reciban puesto igual que las individuales.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false",
+        "parqueadero.ocupacion.capacidad-sedes.pue-norte.moto=2",
+        "parqueadero.puestos.zonas.pue-norte.moto.M=2",
+        "parqueadero.ocupacion.capacidad-sedes.pue-sur.carro=3",
+        "parqueadero.puestos.zonas.pue-sur.carro.C=2"})
+class PuestosReservasTest {
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private RegistroSedes registroSedes;
+
+    @Autowired
+    private AgendaReservas agendaReservas;
+
+    @Autowired
+    private InventarioPuestos inventarioPuestos;
+
+    @Autowired
+    private ContadorOcupacion contadorOcupacion;
+
+    @Autowired
+    private IndiceOcupacion indiceOcupacion;
+
+    @AfterEach
+    void sacarVehiculos() {
+        controller.registrarSalidaEnSede("pue-norte", "PUE001");
+        controller.registrarSalidaEnSede("pue-norte", "PUE002");
+        controller.registrarSalidaEnSede("pue-sur", "PUE011");
+        controller.registrarSalidaEnSede("pue-sur", "PUE012");
+    }
+
+    @Test
+    void asignoPuestosYHonroReservas() {
+        registroSedes.crear("pue-norte", "Norte");
+        LocalDateTime ahora = LocalDateTime.now();
+
+        // La reserva empieza dentro de la anticipación, así que su puesto queda apartado de inmediato
+        Reserva reserva = agendaReservas.reservar("PUE001", "pue-norte", TipoVehiculo.MOTO,
+                ahora.plusMinutes(5), ahora.plusHours(2)).orElseThrow();
+        assertThat(reserva.getPuesto()).isEqualTo("M-1");
+        assertThat(agendaReservas.disponibles("pue-norte", TipoVehiculo.MOTO, ahora.plusHours(1), ahora.plusHours(3)))
+                .isEqualTo(1);
+        assertThatThrownBy(() -> agendaReservas.reservar("PUE001", "pue-norte", TipoVehiculo.MOTO,
+                ahora.plusHours(1), ahora.plusHours(3))).isInstanceOf(IllegalArgumentException.class);
+
+        // Un vehículo sin reserva recibe el otro puesto; el siguiente no cabe aunque quede un cupo
+        ResponseEntity<String> sinReserva = controller.ingresarVehiculoEnSede("pue-norte", "PUE002", "moto");
+        assertThat(sinReserva.getStatusCode().value()).isEqualTo(200);
+        assertThat(sinReserva.getBody()).contains("M-2");
+        assertThat(controller.ingresarVehiculoEnSede("pue-norte", "PUE003", "moto").getStatusCode().value()).isEqualTo(400);
+        assertThat(contadorOcupacion.ocupados("pue-norte", TipoVehiculo.MOTO)).isEqualTo(1);
+
+        // El vehículo que reservó recibe su puesto y la reserva deja de estar pendiente
+        assertThat(controller.ingresarVehiculoEnSede("pue-norte", "PUE001", "moto").getBody()).contains("M-1");
+        assertThat(indiceOcupacion.buscar("PUE001")).map(Vehiculo::getPuesto).hasValue("M-1");
+        assertThat(agendaReservas.buscar(reserva.getId())).isEmpty();
+
+        assertThat(controller.registrarSalidaEnSede("pue-norte", "PUE002").getStatusCode().value()).isEqualTo(200);
+        assertThat(inventarioPuestos.resumen("pue-norte")).singleElement()
+                .extracting(OcupacionZona::libres).isEqualTo(1);
+
+        // Una reserva lejana no aparta su puesto y se puede cancelar
+        Reserva lejana = agendaReservas.reservar("PUE004", "pue-norte", TipoVehiculo.MOTO,
+                ahora.plusHours(3), ahora.plusHours(4)).orElseThrow();
+        assertThat(lejana.isApartada()).isFalse();
+        assertThat(inventarioPuestos.resumen("pue-norte").get(0).libres()).isEqualTo(1);
+        assertThat(agendaReservas.cancelar(lejana.getId())).isTrue();
+        assertThat(agendaReservas.cancelar(lejana.getId())).isFalse();
+
+        // Si el vehículo no llega dentro de la tolerancia, la reserva vence y libera el puesto
+        Reserva olvidada = agendaReservas.reservar("PUE005", "pue-norte", TipoVehiculo.MOTO,
+                ahora.plusMinutes(1), ahora.plusHours(1)).orElseThrow();
+        assertThat(inventarioPuestos.resumen("pue-norte").get(0).libres()).isZero();
+        agendaReservas.revisar(ahora.plusHours(1));
+        assertThat(agendaReservas.buscar(olvidada.getId())).isEmpty();
+        assertThat(inventarioPuestos.resumen("pue-norte").get(0).libres()).isEqualTo(1);
+    }
+
+    @Test
+    void asignoPuestosALasEntradasDeUnLote() {
+        registroSedes.crear("pue-sur", "Sur");
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoPorteria> lote = List.of(
+                new EventoPorteria("pue-1", AccionPorteria.ENTRADA, "PUE011", "carro", ahora),
+                new EventoPorteria("pue-2", AccionPorteria.ENTRADA, "PUE012", "carro", ahora),
+                // Queda un cupo, pero ningún puesto libre
+                new EventoPorteria("pue-3", AccionPorteria.ENTRADA, "PUE013", "carro", ahora));
+
+        List<ResultadoEventoPorteria> resultados = controller.registrarLoteEnSede("pue-sur", lote).getBody();
+
+        assertThat(resultados).extracting(ResultadoEventoPorteria::estado).containsExactly(
+                EstadoEventoPorteria.ACEPTADO, EstadoEventoPorteria.ACEPTADO, EstadoEventoPorteria.LLENO);
+        assertThat(indiceOcupacion.buscar("PUE011")).map(Vehiculo::getPuesto).hasValue("C-1");
+        assertThat(indiceOcupacion.buscar("PUE012")).map(Vehiculo::getPuesto).hasValue("C-2");
+        assertThat(contadorOcupacion.ocupados("pue-sur", TipoVehiculo.CARRO)).isEqualTo(2);
+
+        // La salida por la portería individual libera el puesto que asignó el lote
+        assertThat(controller.registrarSalidaEnSede("pue-sur", "PUE011").getStatusCode().value()).isEqualTo(200);
+        assertThat(inventarioPuestos.libre("pue-sur", TipoVehiculo.CARRO, "C-1")).isTrue();
+    }
+
+    @Test
+    void nuncaEntregoDosVecesElMismoPuesto() throws Exception {
+        MapaPuestos mapa = new MapaPuestos(MapaPuestos.MAXIMO_PUESTOS);
+        Set<Integer> tomados = ConcurrentHashMap.newKeySet();
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Cada hilo toma y devuelve puestos para que las pistas del resumen se apaguen y enciendan
+                for (int i = 0; i < 2_000; i++) {
+                    int puesto = mapa.tomar();
+                    if (puesto >= 0 && i % 2 == 0) {
+                        mapa.liberar(puesto);
+                    } else if (puesto >= 0) {
+                        assertThat(tomados.add(puesto)).isTrue();
+                    }
+                }
+            });
+            hilo.start();
+            hilos.add(hilo);
+        }
+        salida.countDown();
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        assertThat(mapa.libres()).isEqualTo(MapaPuestos.MAXIMO_PUESTOS - tomados.size());
+        int restantes = 0;
+        while (mapa.tomar() >= 0) {
+            restantes++;
+        }
+        assertThat(restantes).isEqualTo(MapaPuestos.MAXIMO_PUESTOS - tomados.size());
+    }
+}
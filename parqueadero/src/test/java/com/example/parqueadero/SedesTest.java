@@ -0,0 +1,82 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.controller.ParqueaderoController;
+import com.example.parqueadero.controller.SedeController;
+import com.example.parqueadero.model.ReporteSede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.PersistenciaVehiculos;
+import com.example.parqueadero.service.ContadorOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.RegistroSedes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que cada sede tenga sus propios cupos y sus propios vehículos dentro,
+ * que un vehículo solo pueda salir por la sede donde entró y que el reporte totalice cada sede por separado.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.ocupacion.capacidad-sedes.sed-norte.moto=1"})
+class SedesTest {
+
+    @Autowired
+    private ParqueaderoController controller;
+
+    @Autowired
+    private SedeController sedeController;
+
+    @Autowired
+    private RegistroSedes registroSedes;
+
+    @Autowired
+    private ContadorOcupacion contadorOcupacion;
+
+    @Autowired
+    private IndiceOcupacion indiceOcupacion;
+
+    @Autowired
+    private PersistenciaVehiculos persistenciaVehiculos;
+
+    @AfterEach
+    void sacarVehiculos() {
+        controller.registrarSalidaEnSede("sed-norte", "SED001");
+        controller.registrarSalidaEnSede("sed-sur", "SED002");
+    }
+
+    @Test
+    void separoCuposVehiculosYSalidasPorSede() throws Exception {
+        registroSedes.crear("sed-norte", "Norte");
+        registroSedes.crear(" SED-SUR", "Sur");
+        LocalDateTime inicio = LocalDateTime.now().minusMinutes(1);
+
+        assertThat(controller.ingresarVehiculoEnSede("sed-norte", "SED001", "moto").getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.ingresarVehiculoEnSede("sed-norte", "SED002", "moto").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.ingresarVehiculoEnSede("Sed-Sur", "SED002", "moto").getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.ingresarVehiculoEnSede("sed-oeste", "SED003", "moto").getStatusCode().value()).isEqualTo(404);
+        assertThat(contadorOcupacion.ocupados("sed-norte", TipoVehiculo.MOTO)).isEqualTo(1);
+        assertThat(indiceOcupacion.activos("sed-sur")).extracting(Vehiculo::getPlaca).containsExactly("SED002");
+
+        // El vehículo está dentro de la sede norte; las otras sedes no lo encuentran
+        assertThat(controller.registrarSalidaEnSede("sed-sur", "SED001").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.registrarSalida("SED001").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.registrarSalidaEnSede("sed-norte", "SED001").getStatusCode().value()).isEqualTo(200);
+        assertThat(contadorOcupacion.ocupados("sed-norte", TipoVehiculo.MOTO)).isZero();
+
+        assertThat(persistenciaVehiculos.vaciar(10_000)).isTrue();
+        List<ReporteSede> reporte = sedeController.reportarSedes(inicio, LocalDateTime.now().plusMinutes(1)).getBody();
+        assertThat(reporte).filteredOn(sede -> sede.sede().equals("sed-norte"))
+                .singleElement().satisfies(sede -> assertThat(sede.salidas()).isEqualTo(1));
+        assertThat(reporte).filteredOn(sede -> sede.sede().equals("sed-sur"))
+                .singleElement().satisfies(sede -> {
+                    assertThat(sede.salidas()).isZero();
+                    assertThat(sede.ocupacion().get(TipoVehiculo.MOTO.ordinal()).ocupados()).isEqualTo(1);
+                });
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.parqueadero;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que en modo abierto la operación no pida credenciales, pero recargar las tarifas siga siendo
+ * solo para administradores.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+class SeguridadAbiertaTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void protejoLasTarifasAunqueLaApiEsteAbierta() throws Exception {
+        assertThat(enviar("GET", "/parqueadero/buscar/ABT1", null).statusCode()).isEqualTo(404);
+        assertThat(enviar("PUT", "/parqueadero/tarifas", null).statusCode()).isEqualTo(401);
+        assertThat(enviar("PUT", "/parqueadero/tarifas", "usuario").statusCode()).isEqualTo(403);
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String usuario) throws Exception {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString("{}"));
+        if (usuario != null) {
+            peticion.header("Authorization", "Basic " + Base64.getEncoder().encodeToString(
+                    (usuario + ":1234").getBytes(StandardCharsets.UTF_8)));
+        }
+        return cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
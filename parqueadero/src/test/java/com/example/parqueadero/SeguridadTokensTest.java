@@ -0,0 +1,108 @@
+package com.example.parqueadero;
+
+import com.example.parqueadero.config.SeguridadProperties;
+import com.example.parqueadero.security.TokensAcceso;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo el modo token: el token se emite tras verificar la contraseña una vez, autentica las peticiones
+ * siguientes con los roles del usuario y deja de valer si se altera o vence.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "parqueadero.seguridad.modo=token"})
+class SeguridadTokensTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void autorizoPorRolConTokensFirmados() throws Exception {
+        assertThat(enviar("GET", "/parqueadero/buscar/TOK1", null).statusCode()).isEqualTo(401);
+        assertThat(enviar("POST", "/parqueadero/token", "Basic " + basico("usuario", "mala")).statusCode()).isEqualTo(401);
+
+        String usuario = token("usuario");
+        String admin = token("admin");
+        assertThat(enviar("GET", "/parqueadero/buscar/TOK1", "Bearer " + usuario).statusCode()).isEqualTo(404);
+        assertThat(enviar("POST", "/parqueadero/ingresar?placa=TOK1&tipo=moto", "Bearer " + usuario).statusCode()).isEqualTo(200);
+        assertThat(enviar("PUT", "/parqueadero/salida/TOK1", "Bearer " + usuario).statusCode()).isEqualTo(200);
+
+        // Los reportes son solo para administradores
+        assertThat(enviar("GET", "/parqueadero/sedes/reporte", "Bearer " + usuario).statusCode()).isEqualTo(403);
+        String reporte = "/parqueadero/sedes/reporte?desde=2024-03-01T00:00:00&hasta=2024-03-02T00:00:00";
+        assertThat(enviar("GET", reporte, "Bearer " + admin).statusCode()).isEqualTo(200);
+
+        // Cambiar el contenido invalida la firma
+        String[] partes = usuario.split("\\.");
+        String alterado = partes[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(partes[1]), StandardCharsets.UTF_8)
+                        .replace("USER", "ADMIN").getBytes(StandardCharsets.UTF_8)) + "." + partes[2];
+        HttpResponse<String> rechazada = enviar("GET", "/parqueadero/sedes/reporte", "Bearer " + alterado);
+        assertThat(rechazada.statusCode()).isEqualTo(401);
+        assertThat(rechazada.headers().firstValue("WWW-Authenticate")).hasValueSatisfying(
+                valor -> assertThat(valor).contains("invalid_token"));
+    }
+
+    @Test
+    void rechazoTokensVencidos() {
+        SeguridadProperties propiedades = new SeguridadProperties();
+        propiedades.setVigenciaToken(Duration.ofMinutes(15));
+        propiedades.setSecreto(Base64.getEncoder().encodeToString(new byte[32]));
+        Instant emision = Instant.parse("2024-03-01T10:00:00Z");
+        TokensAcceso emisor = new TokensAcceso(propiedades, objectMapper, Clock.fixed(emision, ZoneOffset.UTC));
+        String token = emisor.emitir(UsernamePasswordAuthenticationToken.authenticated("usuario", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))).token();
+
+        TokensAcceso antes = new TokensAcceso(propiedades, objectMapper,
+                Clock.fixed(emision.plusSeconds(899), ZoneOffset.UTC));
+        TokensAcceso despues = new TokensAcceso(propiedades, objectMapper,
+                Clock.fixed(emision.plusSeconds(900), ZoneOffset.UTC));
+        assertThat(antes.verificar(token)).hasValueSatisfying(autenticacion -> {
+            assertThat(autenticacion.getName()).isEqualTo("usuario");
+            assertThat(AuthorityUtils.authorityListToSet(autenticacion.getAuthorities())).containsExactly("ROLE_USER");
+        });
+        assertThat(despues.verificar(token)).isEmpty();
+    }
+
+    private String token(String usuario) throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/parqueadero/token", "Basic " + basico(usuario, "1234"));
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(respuesta.body()).path("token").asText();
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String autorizacion) throws Exception {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .method(metodo, HttpRequest.BodyPublishers.noBody());
+        if (autorizacion != null) {
+            peticion.header("Authorization", autorizacion);
+        }
+        return cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String basico(String usuario, String clave) {
+        return Base64.getEncoder().encodeToString((usuario + ":" + clave).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.parqueadero.analitica;
+
+import com.example.parqueadero.model.Granularidad;
+import com.example.parqueadero.model.ReporteEstadia;
+import com.example.parqueadero.model.ResultadoReconstruccion;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebo que los resúmenes reconstruidos desde el historial y los que se acumulan con cada salida
+ * den las mismas cifras que sumar las estadías una por una.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.analitica.intervalo-vaciado=1h",
+        "parqueadero.analitica.margen-corte=10ms"})
+class AnaliticaEstadiasTest {
+
+    @Autowired
+    private AnaliticaEstadias analiticaEstadias;
+
+    @Autowired
+    private ReconstruccionResumenes reconstruccionResumenes;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Test
+    void reconstruyoLosResumenesDesdeElHistorial() {
+        LocalDateTime inicio = LocalDateTime.of(2020, 3, 1, 0, 0);
+        List<Vehiculo> historial = new ArrayList<>();
+        for (int i = 0; i < 3 * 24 * 4; i++) {
+            LocalDateTime entrada = inicio.plusMinutes(15L * i);
+            historial.add(estadia("ANA" + i, i % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO, entrada,
+                    entrada.plusMinutes(30L * (i % 4 + 1)), new BigDecimal("1500.50")));
+        }
+        vehiculoRepositorio.saveAll(historial);
+
+        ResultadoReconstruccion resultado = reconstruccionResumenes.reconstruir(LocalDate.of(2020, 3, 1), LocalDate.of(2020, 3, 5));
+        assertThat(resultado.dias()).isEqualTo(4);
+        assertThat(resultado.estadias()).isEqualTo(historial.size());
+
+        List<ReporteEstadia> totales = analiticaEstadias.totalizar(inicio, inicio.plusDays(4), null);
+        assertThat(totales).extracting(ReporteEstadia::salidas).containsExactly(192L, 96L);
+        assertThat(totales).extracting(ReporteEstadia::ingresos)
+                .containsExactly(new BigDecimal("288096.00"), new BigDecimal("144048.00"));
+        assertThat(totales.get(0).promedioMinutos()).isEqualTo(75.0);
+
+        // Un rango que no empieza ni termina en un día completo combina cubetas de día y de hora
+        long esperadas = historial.stream()
+                .filter(v -> !v.getHoraSalida().isBefore(inicio.plusHours(5))
+                        && v.getHoraSalida().isBefore(inicio.plusDays(2).plusHours(7)))
+                .count();
+        long salidas = analiticaEstadias.totalizar(inicio.plusHours(5), inicio.plusDays(2).plusHours(7), null).stream()
+                .mapToLong(ReporteEstadia::salidas).sum();
+        assertThat(salidas).isEqualTo(esperadas);
+
+        List<ReporteEstadia> horas = analiticaEstadias.consultar(Granularidad.HORA, inicio, inicio.plusDays(1), TipoVehiculo.MOTO);
+        assertThat(horas).allMatch(reporte -> reporte.tipo() == TipoVehiculo.MOTO);
+        assertThat(horas).isSortedAccordingTo((a, b) -> a.inicio().compareTo(b.inicio()));
+    }
+
+    @Test
+    void acumuloCadaSalidaAntesYDespuesDeGuardar() {
+        LocalDateTime dia = LocalDateTime.of(2019, 6, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            LocalDateTime entrada = dia.plusHours(8).plusMinutes(i);
+            analiticaEstadias.registrarSalida(estadia("VIV" + i, TipoVehiculo.CARRO, entrada, entrada.plusMinutes(40),
+                    new BigDecimal("2000.00")));
+        }
+
+        List<ReporteEstadia> antes = analiticaEstadias.consultar(Granularidad.DIA, dia, dia.plusDays(1), null);
+        analiticaEstadias.vaciar();
+        List<ReporteEstadia> despues = analiticaEstadias.consultar(Granularidad.DIA, dia, dia.plusDays(1), null);
+
+        assertThat(antes).isEqualTo(despues);
+        assertThat(despues).singleElement().satisfies(reporte -> {
+            assertThat(reporte.salidas()).isEqualTo(10);
+            assertThat(reporte.ingresos()).isEqualByComparingTo("20000");
+            assertThat(reporte.percentil50()).isBetween(30.0, 45.0);
+        });
+    }
+
+    @Test
+    void reconstruyoElDiaDeHoySinContarDosVeces() {
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        List<Vehiculo> salidas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            salidas.add(estadia("HOY" + i, TipoVehiculo.CARRO, hoy, hoy.plusSeconds(1 + i), new BigDecimal("1000.00")));
+        }
+        vehiculoRepositorio.saveAll(salidas);
+        // La caída perdió la tercera salida, que solo quedó en la base de datos
+        analiticaEstadias.registrarSalida(salidas.get(0));
+        analiticaEstadias.registrarSalida(salidas.get(1));
+
+        ResultadoReconstruccion resultado = reconstruccionResumenes.reconstruir(LocalDate.now(), LocalDate.now().plusDays(1));
+        assertThat(resultado.dias()).isEqualTo(1);
+        assertThat(resultado.estadias()).isGreaterThanOrEqualTo(3);
+        assertThat(salidasDeHoy(hoy)).isEqualTo(resultado.estadias());
+
+        // Una salida anterior al corte que llega tarde ya está contada; una posterior se suma
+        analiticaEstadias.registrarSalida(salidas.get(2));
+        Vehiculo posterior = estadia("HOY3", TipoVehiculo.CARRO, hoy, LocalDateTime.now(), new BigDecimal("1000.00"));
+        analiticaEstadias.registrarSalida(posterior);
+        assertThat(salidasDeHoy(hoy)).isEqualTo(resultado.estadias() + 1);
+        analiticaEstadias.vaciar();
+        assertThat(salidasDeHoy(hoy)).isEqualTo(resultado.estadias() + 1);
+
+        assertThatThrownBy(() -> reconstruccionResumenes.reconstruir(LocalDate.now(), LocalDate.now().plusDays(2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private long salidasDeHoy(LocalDateTime hoy) {
+        return analiticaEstadias.totalizar(hoy, hoy.plusDays(1), null).stream().mapToLong(ReporteEstadia::salidas).sum();
+    }
+
+    private static Vehiculo estadia(String placa, TipoVehiculo tipo, LocalDateTime entrada, LocalDateTime salida,
+                                    BigDecimal costo) {
+        Vehiculo vehiculo = new Vehiculo(placa, tipo, entrada);
+        vehiculo.setHoraSalida(salida);
+        vehiculo.setCostoTotal(costo);
+        return vehiculo;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.config.SeguridadProperties;
+import com.example.parqueadero.security.TokensAcceso;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido lo que cuesta autenticar una petición en cada modo: HTTP Basic verifica la contraseña con BCrypt
+ * (con el mismo costo que `SecurityConfig`), mientras que el modo token solo verifica una firma HMAC.
+ * También mido la emisión, que se paga una vez por sesión de la portería.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutenticacionBenchmark {
+
+    private BCryptPasswordEncoder bcrypt;
+    private String hash;
+    private TokensAcceso tokens;
+    private Authentication usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        bcrypt = new BCryptPasswordEncoder();
+        hash = bcrypt.encode("1234");
+        tokens = new TokensAcceso(new SeguridadProperties(), new ObjectMapper());
+        usuario = UsernamePasswordAuthenticationToken.authenticated("usuario", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        token = tokens.emitir(usuario).token();
+    }
+
+    @Benchmark
+    public boolean verificarBasico() {
+        return bcrypt.matches("1234", hash);
+    }
+
+    @Benchmark
+    public Optional<Authentication> verificarToken() {
+        return tokens.verificar(token);
+    }
+
+    @Benchmark
+    public String emitirToken() {
+        return tokens.emitir(usuario).token();
+    }
+}
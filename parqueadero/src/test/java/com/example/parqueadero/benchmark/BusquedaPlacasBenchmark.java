@@ -0,0 +1,87 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.service.ArbolPlacas;
+import com.example.parqueadero.util.Placas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido la búsqueda de placas parecidas sobre 300.000 placas con el formato colombiano (tres letras y tres dígitos):
+ * una placa completa con un carácter mal leído (distancia 2), una placa sin su primer carácter
+ * y una placa incompleta, y la normalización de una placa escrita con guion y minúsculas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusquedaPlacasBenchmark {
+
+    private static final int PLACAS = 300_000;
+
+    private ArbolPlacas arbol;
+    private String malLeida;
+    private String sinPrimerCaracter;
+    private String incompleta;
+
+    /**
+     * Lleno el árbol con placas aleatorias y tomo una de ellas para las búsquedas.
+     */
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        String[] placas = new String[PLACAS];
+        for (int i = 0; i < PLACAS; i++) {
+            StringBuilder placa = new StringBuilder(6);
+            for (int j = 0; j < 3; j++) {
+                placa.append((char) ('A' + aleatorio.nextInt(26)));
+            }
+            placa.append(String.format("%03d", aleatorio.nextInt(1000)));
+            placas[i] = placa.toString();
+        }
+        String elegida = placas[PLACAS / 2];
+        // Como al arrancar y al depurar, registro las placas ordenadas
+        Arrays.sort(placas);
+        arbol = new ArbolPlacas();
+        for (int i = 0; i < PLACAS; i++) {
+            arbol.registrar(placas[i], i % 10 == 0 ? ArbolPlacas.DENTRO : i);
+        }
+        malLeida = elegida.substring(0, 4) + (elegida.charAt(4) == '0' ? 'O' : '0') + elegida.substring(5);
+        sinPrimerCaracter = elegida.substring(1);
+        incompleta = elegida.substring(0, 4);
+    }
+
+    @Benchmark
+    public List<ArbolPlacas.Coincidencia> buscarMalLeida() {
+        return arbol.buscar(malLeida, 2, 0, 10);
+    }
+
+    @Benchmark
+    public List<ArbolPlacas.Coincidencia> buscarSinPrimerCaracter() {
+        return arbol.buscar(sinPrimerCaracter, 2, 0, 10);
+    }
+
+    @Benchmark
+    public List<ArbolPlacas.Coincidencia> buscarIncompleta() {
+        return arbol.buscar(incompleta, 1, 0, 10);
+    }
+
+    @Benchmark
+    public String normalizarConSeparadores() {
+        return Placas.normalizar("abc-123");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.config.RecuperacionProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.RegistroOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido la latencia de buscar una sola placa en el índice de ocupación,
+ * que es la operación que hacen `ingresar`, `salida` y `buscar` en cada petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndiceOcupacionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int vehiculosDentro;
+
+    private IndiceOcupacion indice;
+    private String placaPresente;
+    private String placaAusente;
+
+    /**
+     * Lleno el índice con placas sintéticas sin pasar por el repositorio.
+     */
+    @Setup
+    public void preparar() {
+        indice = new IndiceOcupacion(null, new RegistroOcupacion(new RecuperacionProperties(), null));
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < vehiculosDentro; i++) {
+            indice.registrarEntrada(new Vehiculo(String.format("ABC%06d", i), TipoVehiculo.CARRO, ahora));
+        }
+        placaPresente = String.format("abc%06d", vehiculosDentro / 2);
+        placaAusente = "ZZZ999";
+    }
+
+    @Benchmark
+    public Optional<Vehiculo> buscarPresente() {
+        return indice.buscar(placaPresente);
+    }
+
+    @Benchmark
+    public boolean contieneAusente() {
+        return indice.contiene(placaAusente);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.service.MapaPuestos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido lo que cuesta tomar y devolver un puesto libre en una zona de 4096 puestos según qué tan llena esté.
+ * El costo no debe crecer con la ocupación: la pista del resumen salta directo a una palabra con puestos libres.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapaPuestosBenchmark {
+
+    @Param({"0", "2048", "4095"})
+    private int ocupados;
+
+    private MapaPuestos mapa;
+
+    @Setup
+    public void preparar() {
+        mapa = new MapaPuestos(MapaPuestos.MAXIMO_PUESTOS);
+        for (int i = 0; i < ocupados; i++) {
+            mapa.tomar();
+        }
+    }
+
+    @Benchmark
+    public boolean tomarYLiberar() {
+        return mapa.liberar(mapa.tomar());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.config.TarifaProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.tarifa.MotorTarifas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido el cálculo del cobro de una salida con reglas completas (unidades de 15 minutos,
+ * franja nocturna, fin de semana y tope diario) para estadías cortas y largas.
+ * Ejecuto con `-prof gc` para confirmar que `calcularCentavos` no reserva memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotorTarifasBenchmark {
+
+    @Param({"45", "600", "4400"})
+    private int minutosEstadia;
+
+    private MotorTarifas motor;
+    private LocalDateTime entrada;
+    private LocalDateTime salida;
+
+    @Setup
+    public void preparar() {
+        TarifaProperties reglas = new TarifaProperties();
+        reglas.setUnidadMinutos(15);
+        reglas.setGraciaMinutos(10);
+        TarifaProperties.Clase carro = new TarifaProperties.Clase();
+        carro.setValorUnidad(new BigDecimal("500"));
+        carro.setValorNocturno(new BigDecimal("250"));
+        carro.setValorFinDeSemana(new BigDecimal("400"));
+        carro.setTopeDiario(new BigDecimal("20000"));
+        TarifaProperties.Clase moto = new TarifaProperties.Clase();
+        moto.setValorUnidad(new BigDecimal("250"));
+        reglas.getClases().put(TipoVehiculo.CARRO, carro);
+        reglas.getClases().put(TipoVehiculo.MOTO, moto);
+        motor = new MotorTarifas(reglas);
+        entrada = LocalDateTime.of(2023, 10, 6, 20, 7);
+        salida = entrada.plusMinutes(minutosEstadia);
+    }
+
+    @Benchmark
+    public long calcularCentavos() {
+        return motor.calcularCentavos(TipoVehiculo.CARRO, entrada, salida);
+    }
+
+    @Benchmark
+    public BigDecimal calcular() {
+        return motor.calcular(TipoVehiculo.CARRO, entrada, salida);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.config.RecuperacionProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.persistencia.RegistroOcupacion;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.util.Placas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido la normalización de placas, que se hace en cada petición, tanto con una placa que ya viene
+ * normalizada como con una que trae espacios y minúsculas, y la búsqueda completa (normalizar y consultar el índice).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacasBenchmark {
+
+    private static final int VEHICULOS_DENTRO = 10_000;
+
+    private IndiceOcupacion indice;
+    private String placaNormalizada;
+    private String placaSinNormalizar;
+
+    /**
+     * Lleno el índice con placas sintéticas sin pasar por el repositorio.
+     */
+    @Setup
+    public void preparar() {
+        indice = new IndiceOcupacion(null, new RegistroOcupacion(new RecuperacionProperties(), null));
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < VEHICULOS_DENTRO; i++) {
+            indice.registrarEntrada(new Vehiculo(String.format("ABC%06d", i), TipoVehiculo.CARRO, ahora));
+        }
+        placaNormalizada = String.format("ABC%06d", VEHICULOS_DENTRO / 2);
+        placaSinNormalizar = "  " + placaNormalizada.toLowerCase() + " ";
+    }
+
+    @Benchmark
+    public String normalizarNormalizada() {
+        return Placas.normalizar(placaNormalizada);
+    }
+
+    @Benchmark
+    public String normalizarSinNormalizar() {
+        return Placas.normalizar(placaSinNormalizar);
+    }
+
+    @Benchmark
+    public Optional<Vehiculo> normalizarYBuscar() {
+        return indice.buscar(Placas.normalizar(placaSinNormalizar));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.parqueadero.benchmark;
+
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mido la serialización a JSON de un vehículo, que es el cuerpo de `buscar/{placa}`
+ * y de cada línea de la exportación del historial. Uso un `ObjectMapper` construido como lo hace Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehiculoJsonBenchmark {
+
+    private ObjectMapper mapeador;
+    private ObjectWriter escritor;
+    private Vehiculo dentro;
+    private Vehiculo salido;
+
+    @Setup
+    public void preparar() {
+        mapeador = Jackson2ObjectMapperBuilder.json().build();
+        escritor = mapeador.writerFor(Vehiculo.class);
+        LocalDateTime entrada = LocalDateTime.of(2024, 5, 10, 8, 15, 30);
+        dentro = new Vehiculo("ABC123", TipoVehiculo.CARRO, entrada);
+        dentro.setId(1L);
+        salido = new Vehiculo("XYZ98D", TipoVehiculo.MOTO, entrada);
+        salido.setId(2L);
+        salido.setHoraSalida(entrada.plusHours(3));
+        salido.setCostoTotal(new BigDecimal("3000.00"));
+    }
+
+    @Benchmark
+    public byte[] serializarDentro() throws JsonProcessingException {
+        return escritor.writeValueAsBytes(dentro);
+    }
+
+    @Benchmark
+    public byte[] serializarSalido() throws JsonProcessingException {
+        return escritor.writeValueAsBytes(salido);
+    }
+
+    @Benchmark
+    public String serializarSinEscritorPrevio() throws JsonProcessingException {
+        return mapeador.writeValueAsString(salido);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.parqueadero.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifico qué hilos crea la fábrica según la configuración y la versión de Java con la que corren las pruebas:
+ * de plataforma y demonios por defecto, un error al arrancar si se piden virtuales antes de Java 21
+ * y, desde Java 21, hilos virtuales creados por reflexión.
+ */
+class FabricaHilosTest {
+
+    @Test
+    void creoHilosDePlataformaDemonioPorDefecto() throws Exception {
+        FabricaHilos fabrica = new FabricaHilos(false);
+        Thread hilo = fabrica.fabrica("prueba").newThread(() -> {});
+
+        assertThat(fabrica.isVirtuales()).isFalse();
+        assertThat(hilo.getName()).isEqualTo("prueba-0");
+        assertThat(hilo.isDaemon()).isTrue();
+        assertThat(esVirtual(hilo)).isFalse();
+        assertThatThrownBy(() -> fabrica.porTarea("prueba")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void rechazoLosHilosVirtualesAntesDeJava21() {
+        assertThatThrownBy(() -> new FabricaHilos(true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void creoHilosVirtualesDesdeJava21() throws Exception {
+        FabricaHilos fabrica = new FabricaHilos(true);
+        Thread hilo = fabrica.fabrica("prueba").newThread(() -> {});
+
+        assertThat(fabrica.isVirtuales()).isTrue();
+        assertThat(hilo.getName()).isEqualTo("prueba-0");
+        assertThat(esVirtual(hilo)).isTrue();
+
+        ExecutorService ejecutor = fabrica.porTarea("tarea");
+        try {
+            assertThat(esVirtual(ejecutor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS))).isTrue();
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Consulto `Thread.isVirtual()` por reflexión, porque las pruebas también compilan con Java 17.
+     */
+    private static boolean esVirtual(Thread hilo) throws ReflectiveOperationException {
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(hilo);
+    }
+}
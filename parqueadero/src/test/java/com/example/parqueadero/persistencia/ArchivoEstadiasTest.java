@@ -0,0 +1,82 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.FiltroHistorial;
+import com.example.parqueadero.model.PaginaVehiculos;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoArchivadoRepositorio;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.HistorialServicio;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que el archivo mueva solo las estadías cerradas antes del límite y que el historial
+ * siga mostrando todas las estadías, en orden de ID, aunque estén repartidas entre las dos tablas.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.archivo.intervalo=1h"})
+class ArchivoEstadiasTest {
+
+    @Autowired
+    private ArchivoEstadias archivoEstadias;
+
+    @Autowired
+    private VehiculoRepositorio vehiculoRepositorio;
+
+    @Autowired
+    private VehiculoArchivadoRepositorio archivadoRepositorio;
+
+    @Autowired
+    private HistorialServicio historialServicio;
+
+    @Test
+    void archivoLasSalidasAntiguasSinPerderlasDelHistorial() {
+        LocalDateTime inicio = LocalDateTime.of(2018, 2, 1, 8, 0);
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Vehiculo vehiculo = new Vehiculo("ARC" + i, TipoVehiculo.CARRO, inicio.plusHours(i));
+            if (i % 5 != 0) {
+                vehiculo.setHoraSalida(inicio.plusHours(i + 1));
+                vehiculo.setCostoTotal(new BigDecimal("2000.00"));
+            }
+            vehiculos.add(vehiculo);
+        }
+        vehiculoRepositorio.saveAll(vehiculos);
+
+        // Archivo solo las que salieron en las primeras 12 horas, así el historial queda repartido
+        archivoEstadias.archivar(inicio.plusHours(12));
+
+        assertThat(archivadoRepositorio.findAllById(vehiculos.stream().map(Vehiculo::getId).toList()))
+                .hasSize(8)
+                .allMatch(archivado -> archivado.getHoraSalida().isBefore(inicio.plusHours(12)));
+        assertThat(vehiculoRepositorio.findAllById(vehiculos.stream().map(Vehiculo::getId).toList())).hasSize(17);
+        assertThat(vehiculoRepositorio.findByPlacaAndHoraSalidaIsNull("ARC0")).isPresent();
+
+        FiltroHistorial filtro = new FiltroHistorial(inicio, inicio.plusDays(2), null, null, null);
+        List<Long> paginados = new ArrayList<>();
+        Long cursor = null;
+        do {
+            PaginaVehiculos pagina = historialServicio.pagina(filtro, cursor, 7);
+            pagina.vehiculos().forEach(vehiculo -> paginados.add(vehiculo.getId()));
+            cursor = pagina.siguiente();
+        } while (cursor != null);
+        assertThat(paginados).containsExactlyElementsOf(vehiculos.stream().map(Vehiculo::getId).toList());
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        historialServicio.exportarCsv(filtro, salida);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lineas).hasSize(26);
+        assertThat(lineas[1]).startsWith(vehiculos.get(0).getId() + ",ARC0,");
+        assertThat(lineas[2]).startsWith(vehiculos.get(1).getId() + ",ARC1,CARRO,").endsWith(",2000.00,principal");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.model.Sede;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Pruebo que al reabrir el diario después de una caída recupero la sede y el puesto de las entradas sin confirmar.
+ */
+class DiarioEventosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperoLaSedeYElPuestoDeLasEntradasPendientes() throws Exception {
+        Path ruta = directorio.resolve("diario.bin");
+        LocalDateTime ahora = LocalDateTime.of(2024, 1, 10, 8, 0);
+        DiarioEventos diario = new DiarioEventos(ruta, false);
+        diario.registrar(EventoDiario.Tipo.ENTRADA, "ABC123", "CARRO", ahora, BigDecimal.ZERO, Sede.PRINCIPAL, null);
+        diario.registrar(EventoDiario.Tipo.ENTRADA, "DEF456", "CARRO", ahora, BigDecimal.ZERO, Sede.PRINCIPAL, "A-3");
+        diario.registrar(EventoDiario.Tipo.ENTRADA, "GHI789", "MOTO", ahora, BigDecimal.ZERO, "norte", "M-1");
+        diario.registrar(EventoDiario.Tipo.SALIDA, "DEF456", null, ahora.plusHours(1), new BigDecimal("2000.00"),
+                Sede.PRINCIPAL, "A-3");
+        // Simulo una caída: abro otro diario sobre el mismo archivo sin cerrar el anterior
+        List<EventoDiario> pendientes;
+        try (DiarioEventos reabierto = new DiarioEventos(ruta, false)) {
+            pendientes = reabierto.leerPendientes();
+        }
+
+        assertThat(pendientes).extracting(EventoDiario::placa, EventoDiario::sede, EventoDiario::puesto)
+                .containsExactly(
+                        tuple("ABC123", Sede.PRINCIPAL, null),
+                        tuple("DEF456", Sede.PRINCIPAL, "A-3"),
+                        tuple("GHI789", "norte", "M-1"),
+                        tuple("DEF456", Sede.PRINCIPAL, null));
+        diario.close();
+    }
+}
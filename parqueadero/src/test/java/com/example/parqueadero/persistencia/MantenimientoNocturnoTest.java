@@ -0,0 +1,72 @@
+package com.example.parqueadero.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que el mantenimiento purgue, en varios lotes, solo los eventos procesados y las reservas terminadas
+ * que superan la retención (la de los eventos, según la hora del servidor y no la de la portería),
+ * y que nunca toque las reservas pendientes.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "parqueadero.archivo.intervalo=1h",
+        "parqueadero.archivo.tamano-lote=2", "parqueadero.mantenimiento.cron=-",
+        "parqueadero.mantenimiento.pausa=1ms"})
+class MantenimientoNocturnoTest {
+
+    @Autowired
+    private MantenimientoNocturno mantenimientoNocturno;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void purgoEnLotesLoQueSuperaLaRetencion() {
+        LocalDateTime ahora = LocalDateTime.of(2030, 6, 1, 3, 30);
+        for (int i = 0; i < 5; i++) {
+            evento("MNT-ANTIGUO-" + i, ahora.minusDays(40 + i), ahora.minusDays(40 + i));
+        }
+        evento("MNT-RECIENTE", ahora.minusDays(2), ahora.minusDays(2));
+        // La portería tenía el reloj atrasado: el instante es antiguo, pero lo procesé hace poco
+        evento("MNT-RELOJ-ATRASADO", ahora.minusDays(400), ahora.minusDays(1));
+        // Y esta lo tenía adelantado
+        evento("MNT-RELOJ-ADELANTADO", ahora.plusDays(10), ahora.minusDays(35));
+        reserva("MNT-USADA", "USADA", ahora.minusDays(45));
+        reserva("MNT-VENCIDA", "VENCIDA", ahora.minusDays(31));
+        reserva("MNT-PENDIENTE", "PENDIENTE", ahora.minusDays(60));
+        reserva("MNT-CANCELADA", "CANCELADA", ahora.minusDays(3));
+
+        MantenimientoNocturno.Resultado resultado = mantenimientoNocturno.mantener(ahora);
+
+        assertThat(resultado.eventos()).isGreaterThanOrEqualTo(6);
+        assertThat(resultado.reservas()).isGreaterThanOrEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("select id_evento from evento_procesado where id_evento like 'MNT-%'",
+                new MapSqlParameterSource(), String.class)).containsExactlyInAnyOrder("MNT-RECIENTE", "MNT-RELOJ-ATRASADO");
+        assertThat(jdbcTemplate.queryForList("select id from reserva where id like 'MNT-%'",
+                new MapSqlParameterSource(), String.class)).containsExactlyInAnyOrder("MNT-PENDIENTE", "MNT-CANCELADA");
+
+        jdbcTemplate.update("delete from reserva where id in (:ids)",
+                new MapSqlParameterSource("ids", List.of("MNT-PENDIENTE", "MNT-CANCELADA")));
+    }
+
+    private void evento(String id, LocalDateTime instante, LocalDateTime procesadoEn) {
+        jdbcTemplate.update("insert into evento_procesado"
+                        + " (id_evento, accion, placa, tipo_codigo, instante, procesado_en, estado, sede)"
+                        + " values (:id, 'ENTRADA', 'MNT1', 1, :instante, :procesadoEn, 'REGISTRADO', 'principal')",
+                new MapSqlParameterSource("id", id).addValue("instante", instante).addValue("procesadoEn", procesadoEn));
+    }
+
+    private void reserva(String id, String estado, LocalDateTime hasta) {
+        jdbcTemplate.update("insert into reserva (id, placa, sede, tipo_codigo, puesto, desde, hasta, estado)"
+                        + " values (:id, 'MNT1', 'principal', 1, 'A-1', :desde, :hasta, :estado)",
+                new MapSqlParameterSource("id", id).addValue("desde", hasta.minusHours(2))
+                        .addValue("hasta", hasta).addValue("estado", estado));
+    }
+}
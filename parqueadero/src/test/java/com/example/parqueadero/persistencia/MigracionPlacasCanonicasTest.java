@@ -0,0 +1,50 @@
+package com.example.parqueadero.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que de las sesiones abiertas cuya placa canónica choca quede abierta solo la más reciente,
+ * ya con la placa normalizada, y que las anteriores se cierren sin cobro.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class MigracionPlacasCanonicasTest {
+
+    @Autowired
+    private MigracionPlacasCanonicas migracionPlacasCanonicas;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void conservoLaSesionMasRecienteYCierroLasAnteriores() {
+        LocalDateTime entrada = LocalDateTime.of(2024, 5, 1, 8, 0);
+        sesion(900_001, "mgp-001", entrada);
+        sesion(900_002, "MGP 001", entrada.plusHours(3));
+        sesion(900_003, "mgp.777", entrada);
+
+        migracionPlacasCanonicas.migrar();
+
+        List<Map<String, Object>> filas = jdbcTemplate.queryForList(
+                "select id, placa, placa_activa, hora_salida, costo_total from vehiculo where id >= 900001 order by id");
+        assertThat(filas).extracting(fila -> fila.get("PLACA")).containsExactly("MGP001", "MGP001", "MGP777");
+        assertThat(filas).extracting(fila -> fila.get("PLACA_ACTIVA")).containsExactly(null, "MGP001", "MGP777");
+        assertThat(filas.get(0).get("HORA_SALIDA")).isNotNull();
+        assertThat(filas.get(1).get("HORA_SALIDA")).isNull();
+
+        jdbcTemplate.update("delete from vehiculo where id >= 900001");
+    }
+
+    private void sesion(long id, String placa, LocalDateTime entrada) {
+        jdbcTemplate.update("insert into vehiculo (id, placa, placa_activa, tipo_codigo, hora_entrada, costo_total, sede)"
+                + " values (?, ?, ?, 1, ?, 0, 'principal')", id, placa, placa, entrada);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.RecuperacionProperties;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mido cuánto tarda en reconstruirse la ocupación con una bitácora de 10 millones de entradas y salidas:
+ * aplicando la bitácora completa desde el principio, y desde una instantánea más una cola de eventos recientes,
+ * que es lo que hace la aplicación al arrancar. Guardo los tiempos en `target/benchmarks/recuperacion.json`.
+ * Es una prueba de carga lenta (escribe unos 400 MB), así que no corre con el build normal:
+ * `mvn verify -Pbenchmark` o `mvn test -Dtest=RecuperacionCargaTest -Dgrupos.excluidos=`.
+ */
+@Tag("carga")
+class RecuperacionCargaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RecuperacionCargaTest.class);
+    private static final int EVENTOS = 10_000_000;
+    private static final int PLACAS = 150_000; // Cada ronda hace entrar (o salir) a todas las placas
+    private static final int COLA = 10_000; // Eventos posteriores a la última instantánea
+    private static final long TAMANO_REGION = 64L << 20;
+    private static final Path DIRECTORIO = Path.of("target", "recuperacion-carga");
+    private static final Path RESULTADO = Path.of("target", "benchmarks", "recuperacion.json");
+
+    @Test
+    void midoLaRecuperacionDeDiezMillonesDeEventos() throws Exception {
+        FileSystemUtils.deleteRecursively(DIRECTORIO);
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        long escrituraInicio = System.nanoTime();
+        BitacoraOcupacion bitacora = new BitacoraOcupacion(DIRECTORIO, TAMANO_REGION, 0);
+        for (int i = 0; i < EVENTOS; i++) {
+            anotar(bitacora, i, inicio);
+        }
+        bitacora.forzar();
+        double escrituraSegundos = (System.nanoTime() - escrituraInicio) / 1e9;
+
+        // Recuperación sin instantánea: aplico los 10 millones de eventos
+        long completaInicio = System.nanoTime();
+        Map<String, Vehiculo> completa = new HashMap<>();
+        BitacoraOcupacion.leer(DIRECTORIO, 0, evento -> RegistroOcupacion.aplicar(completa, evento));
+        long completaMs = (System.nanoTime() - completaInicio) / 1_000_000;
+
+        // Guardo una instantánea del estado final, como la que toma la aplicación, y anoto una cola de eventos nuevos
+        long secuencia = bitacora.rotar();
+        InstantaneaOcupacion.escribir(DIRECTORIO.resolve("instantanea.bin"), secuencia, completa.values());
+        bitacora.borrarAnteriores();
+        for (int i = EVENTOS; i < EVENTOS + COLA; i++) {
+            anotar(bitacora, i, inicio);
+        }
+        bitacora.close();
+
+        RecuperacionProperties propiedades = new RecuperacionProperties();
+        propiedades.setHabilitada(true);
+        propiedades.setDirectorio(DIRECTORIO.toString());
+        RegistroOcupacion registro = new RegistroOcupacion(propiedades, new FabricaHilos(false));
+        long rapidaInicio = System.nanoTime();
+        List<Vehiculo> recuperados = registro.recuperar().orElseThrow();
+        long rapidaMs = (System.nanoTime() - rapidaInicio) / 1_000_000;
+
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("eventos", EVENTOS);
+        informe.put("escrituraEventosPorSegundo", EVENTOS / escrituraSegundos);
+        informe.put("recuperacionCompletaMs", completaMs);
+        informe.put("vehiculosDentro", completa.size());
+        informe.put("eventosEnCola", COLA);
+        informe.put("recuperacionInstantaneaMasColaMs", rapidaMs);
+        Files.createDirectories(RESULTADO.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(RESULTADO.toFile(), informe);
+        log.info("Resultados en {}:\n{}", RESULTADO.toAbsolutePath(), Files.readString(RESULTADO));
+
+        assertThat(completa).hasSize(EVENTOS % PLACAS);
+        assertThat(recuperados).hasSize(EVENTOS % PLACAS + COLA);
+        FileSystemUtils.deleteRecursively(DIRECTORIO);
+    }
+
+    /**
+     * En las rondas pares entran todas las placas y en las impares salen, así que el estado final
+     * depende de dónde termina la última ronda.
+     */
+    private static void anotar(BitacoraOcupacion bitacora, int i, LocalDateTime inicio) {
+        int ronda = i / PLACAS;
+        int placa = i % PLACAS;
+        bitacora.anotar(ronda % 2 == 0, (long) i + 1, "P" + placa, placa % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO,
+                inicio.plusSeconds(i), Sede.PRINCIPAL, null);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.parqueadero.persistencia;
+
+import com.example.parqueadero.config.FabricaHilos;
+import com.example.parqueadero.config.PuestosProperties;
+import com.example.parqueadero.config.RecuperacionProperties;
+import com.example.parqueadero.model.Sede;
+import com.example.parqueadero.model.TipoVehiculo;
+import com.example.parqueadero.model.Vehiculo;
+import com.example.parqueadero.repository.VehiculoRepositorio;
+import com.example.parqueadero.service.IndiceOcupacion;
+import com.example.parqueadero.service.InventarioPuestos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebo que el índice de ocupación se reconstruya igual desde la instantánea y la cola de la bitácora,
+ * incluso si el proceso terminó sin cerrar la bitácora, y que los puestos ocupados sigan ocupados al reiniciar.
+ */
+class RegistroOcupacionTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reconstruyoLaOcupacionDesdeLaInstantaneaYLaBitacora() throws Exception {
+        RegistroOcupacion registro = nuevoRegistro();
+        assertThat(registro.recuperar()).isEmpty();
+        Map<String, Vehiculo> indice = new ConcurrentHashMap<>();
+        registro.iniciarInstantaneas(indice::values);
+
+        LocalDateTime ahora = LocalDateTime.of(2024, 1, 10, 8, 0);
+        for (int i = 0; i < 300; i++) {
+            entrar(registro, indice, "REC" + i, (long) i + 1, ahora.plusMinutes(i));
+            if (i % 4 == 0) {
+                salir(registro, indice, "REC" + (i / 2));
+            }
+            if (i == 150) {
+                registro.tomarInstantanea();
+            }
+        }
+        // Una entrada de la persistencia diferida que aún no tiene ID queda para su propio diario
+        entrar(registro, indice, "SINID", null, ahora);
+        // Vuelve a entrar una placa que ya había salido
+        entrar(registro, indice, "REC0", 1000L, ahora.plusHours(6));
+
+        // Simulo una caída: abro otro registro sobre el mismo directorio sin cerrar el anterior
+        RegistroOcupacion reiniciado = nuevoRegistro();
+        List<Vehiculo> recuperados = reiniciado.recuperar().orElseThrow();
+
+        Map<String, Long> esperados = indice.values().stream()
+                .filter(vehiculo -> vehiculo.getId() != null)
+                .collect(Collectors.toMap(Vehiculo::getPlaca, Vehiculo::getId));
+        assertThat(recuperados.stream().collect(Collectors.toMap(Vehiculo::getPlaca, Vehiculo::getId)))
+                .isEqualTo(esperados);
+        assertThat(recuperados).filteredOn(vehiculo -> vehiculo.getPlaca().equals("REC0"))
+                .singleElement()
+                .satisfies(vehiculo -> assertThat(vehiculo.getHoraEntrada()).isEqualTo(ahora.plusHours(6)));
+        assertThat(reiniciado.isRecuperado()).isTrue();
+        reiniciado.iniciarInstantaneas(() -> recuperados);
+        reiniciado.detener();
+        registro.detener();
+    }
+
+    @Test
+    void noEntregoDosVecesUnPuestoDespuesDeReiniciar() throws Exception {
+        PuestosProperties puestos = new PuestosProperties();
+        puestos.setZonas(Map.of(Sede.PRINCIPAL, Map.of(TipoVehiculo.CARRO, Map.of("A", 5))));
+        RegistroOcupacion registro = nuevoRegistro();
+        IndiceOcupacion indice = new IndiceOcupacion(baseVacia(), registro);
+        indice.reconstruir();
+        InventarioPuestos inventario = new InventarioPuestos(indice, puestos);
+        inventario.sincronizar();
+
+        LocalDateTime ahora = LocalDateTime.of(2024, 1, 10, 8, 0);
+        for (int i = 0; i < 3; i++) {
+            entrarConPuesto(indice, inventario, "PTO" + i, (long) i + 1, ahora);
+        }
+        registro.tomarInstantanea();
+        // Estas dos solo quedan en la bitácora, después de la instantánea
+        entrarConPuesto(indice, inventario, "PTO3", 4L, ahora);
+        Vehiculo sale = indice.buscar("PTO0").orElseThrow();
+        sale.setHoraSalida(ahora.plusHours(1));
+        indice.registrarSalida(sale);
+        inventario.liberar(sale);
+
+        // Simulo una caída: abro otro registro sobre el mismo directorio sin cerrar el anterior
+        RegistroOcupacion reiniciado = nuevoRegistro();
+        IndiceOcupacion indiceReiniciado = new IndiceOcupacion(baseVacia(), reiniciado);
+        indiceReiniciado.reconstruir();
+        InventarioPuestos inventarioReiniciado = new InventarioPuestos(indiceReiniciado, puestos);
+        inventarioReiniciado.sincronizar();
+
+        List<String> ocupados = indiceReiniciado.activos().stream().map(Vehiculo::getPuesto).toList();
+        assertThat(ocupados).containsExactlyInAnyOrder("A-2", "A-3", "A-4");
+        List<String> entregados = new ArrayList<>();
+        for (Optional<String> puesto = inventarioReiniciado.asignar(Sede.PRINCIPAL, TipoVehiculo.CARRO); puesto.isPresent();
+             puesto = inventarioReiniciado.asignar(Sede.PRINCIPAL, TipoVehiculo.CARRO)) {
+            entregados.add(puesto.get());
+        }
+        assertThat(entregados).containsExactlyInAnyOrder("A-1", "A-5");
+        reiniciado.detener();
+        registro.detener();
+    }
+
+    private RegistroOcupacion nuevoRegistro() {
+        RecuperacionProperties propiedades = new RecuperacionProperties();
+        propiedades.setHabilitada(true);
+        propiedades.setDirectorio(directorio.toString());
+        propiedades.setIntervaloInstantanea(Duration.ofHours(1));
+        propiedades.setTamanoRegion(DataSize.ofKilobytes(4)); // Regiones pequeñas para cruzar varias
+        return new RegistroOcupacion(propiedades, new FabricaHilos(false));
+    }
+
+    private static void entrar(RegistroOcupacion registro, Map<String, Vehiculo> indice, String placa, Long id,
+                               LocalDateTime horaEntrada) {
+        Vehiculo vehiculo = new Vehiculo(placa, id != null && id % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO,
+                horaEntrada);
+        vehiculo.setId(id);
+        indice.put(placa, vehiculo);
+        registro.anotarEntrada(vehiculo);
+    }
+
+    private static void entrarConPuesto(IndiceOcupacion indice, InventarioPuestos inventario, String placa, Long id,
+                                        LocalDateTime horaEntrada) {
+        Vehiculo vehiculo = new Vehiculo(placa, TipoVehiculo.CARRO, horaEntrada);
+        vehiculo.setId(id);
+        vehiculo.setPuesto(inventario.asignar(vehiculo.getSede(), vehiculo.getTipo()).orElseThrow());
+        indice.registrarEntrada(vehiculo);
+    }
+
+    /**
+     * Simulo una base de datos sin sesiones abiertas: el índice solo puede salir de la instantánea y la bitácora.
+     */
+    private static VehiculoRepositorio baseVacia() {
+        return (VehiculoRepositorio) Proxy.newProxyInstance(VehiculoRepositorio.class.getClassLoader(),
+                new Class<?>[]{VehiculoRepositorio.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("findByHoraSalidaIsNull")) {
+                        return List.of();
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private static void salir(RegistroOcupacion registro, Map<String, Vehiculo> indice, String placa) {
+        Vehiculo vehiculo = indice.remove(placa);
+        if (vehiculo != null) {
+            vehiculo.setHoraSalida(vehiculo.getHoraEntrada().plusHours(1));
+            registro.anotarSalida(vehiculo);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.parqueadero.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparo la búsqueda del árbol con una búsqueda por fuerza bruta que calcula la distancia de Levenshtein
+ * contra cada placa y cada uno de sus prefijos, con placas y búsquedas aleatorias (con semilla fija)
+ * de varios largos: placas modificadas, prefijos de placas y búsquedas al azar, para 0, 1 y 2 ediciones.
+ */
+class ArbolPlacasTest {
+
+    private static final String ALFABETO = "ABC012";
+    private static final long VISTA_MINIMA = 100;
+
+    @Test
+    void encuentroLoMismoQueLaFuerzaBruta() {
+        Random azar = new Random(20240521L);
+        Map<String, Long> placas = new TreeMap<>();
+        while (placas.size() < 2_000) {
+            placas.put(aleatoria(azar, 2 + azar.nextInt(7)), azar.nextInt(10) == 0 ? 50L : 200L + azar.nextInt(100));
+        }
+        ArbolPlacas arbol = new ArbolPlacas();
+        placas.forEach(arbol::registrar);
+        List<String> existentes = new ArrayList<>(placas.keySet());
+
+        for (int i = 0; i < 600; i++) {
+            String placa = existentes.get(azar.nextInt(existentes.size()));
+            String consulta = switch (i % 3) {
+                case 0 -> modificar(azar, placa);
+                case 1 -> placa.substring(0, 1 + azar.nextInt(placa.length()));
+                default -> aleatoria(azar, 1 + azar.nextInt(9));
+            };
+            for (int k = 0; k <= 2; k++) {
+                Map<String, Integer> encontradas = new HashMap<>();
+                for (ArbolPlacas.Coincidencia coincidencia : arbol.buscar(consulta, k, VISTA_MINIMA, placas.size())) {
+                    assertThat(encontradas.put(coincidencia.placa(), coincidencia.distancia()))
+                            .as("placa repetida %s para %s", coincidencia.placa(), consulta).isNull();
+                }
+                assertThat(encontradas).as("búsqueda %s con %d ediciones", consulta, k)
+                        .isEqualTo(fuerzaBruta(placas, consulta, k));
+            }
+        }
+    }
+
+    /**
+     * Una placa coincide si está a `k` ediciones o menos, o si alguno de sus prefijos está a `k / 2` o menos;
+     * en ese caso su distancia es la del prefijo más parecido.
+     */
+    private static Map<String, Integer> fuerzaBruta(Map<String, Long> placas, String consulta, int k) {
+        Map<String, Integer> esperadas = new HashMap<>();
+        placas.forEach((placa, vista) -> {
+            if (vista < VISTA_MINIMA) {
+                return;
+            }
+            int completa = levenshtein(consulta, placa);
+            int prefijo = completa;
+            for (int largo = 0; largo < placa.length(); largo++) {
+                prefijo = Math.min(prefijo, levenshtein(consulta, placa.substring(0, largo)));
+            }
+            if (prefijo <= k / 2) {
+                esperadas.put(placa, prefijo);
+            } else if (completa <= k) {
+                esperadas.put(placa, completa);
+            }
+        });
+        return esperadas;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cambio = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(cambio, Math.min(anterior[j], actual[j - 1]) + 1);
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    private static String aleatoria(Random azar, int largo) {
+        StringBuilder placa = new StringBuilder(largo);
+        for (int i = 0; i < largo; i++) {
+            placa.append(ALFABETO.charAt(azar.nextInt(ALFABETO.length())));
+        }
+        return placa.toString();
+    }
+
+    /**
+     * Aplico entre una y tres ediciones al azar: cambiar, agregar o quitar un carácter.
+     */
+    private static String modificar(Random azar, String placa) {
+        StringBuilder modificada = new StringBuilder(placa);
+        int ediciones = 1 + azar.nextInt(3);
+        for (int e = 0; e < ediciones; e++) {
+            int posicion = azar.nextInt(modificada.length() + 1);
+            char simbolo = ALFABETO.charAt(azar.nextInt(ALFABETO.length()));
+            switch (azar.nextInt(3)) {
+                case 0 -> modificada.insert(posicion, simbolo);
+                case 1 -> {
+                    if (modificada.length() > 1 && posicion < modificada.length()) {
+                        modificada.deleteCharAt(posicion);
+                    }
+                }
+                default -> {
+                    if (posicion < modificada.length()) {
+                        modificada.setCharAt(posicion, simbolo);
+                    }
+                }
+            }
+        }
+        return modificada.toString();
+    }
+}
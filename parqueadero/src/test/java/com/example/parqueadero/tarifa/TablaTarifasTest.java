@@ -0,0 +1,92 @@
+package com.example.parqueadero.tarifa;
+
+import com.example.parqueadero.config.TarifaProperties;
+import com.example.parqueadero.model.TipoVehiculo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifico las reglas de cobro de la tabla compilada: unidades fraccionarias, gracia,
+ * franja nocturna, fin de semana y tope diario, y que rechace las reglas inválidas.
+ */
+class TablaTarifasTest {
+
+    // Lunes 2 de octubre de 2023 al mediodía
+    private static final LocalDateTime LUNES = LocalDateTime.of(2023, 10, 2, 12, 0);
+
+    private static TarifaProperties reglas() {
+        TarifaProperties reglas = new TarifaProperties();
+        reglas.setUnidadMinutos(15);
+        reglas.setGraciaMinutos(10);
+        TarifaProperties.Clase carro = new TarifaProperties.Clase();
+        carro.setValorUnidad(new BigDecimal("500"));
+        carro.setValorNocturno(new BigDecimal("250"));
+        carro.setValorFinDeSemana(new BigDecimal("400"));
+        carro.setTopeDiario(new BigDecimal("20000"));
+        TarifaProperties.Clase moto = new TarifaProperties.Clase();
+        moto.setValorUnidad(new BigDecimal("250.50"));
+        reglas.getClases().put(TipoVehiculo.CARRO, carro);
+        reglas.getClases().put(TipoVehiculo.MOTO, moto);
+        return reglas;
+    }
+
+    @Test
+    void cobraUnidadesFraccionariasRedondeandoHaciaArriba() {
+        TablaTarifas tabla = TablaTarifas.compilar(reglas());
+        // 31 minutos son tres unidades de 15 minutos
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, LUNES, LUNES.plusMinutes(31))).isEqualTo(150_000);
+        assertThat(tabla.calcularCentavos(TipoVehiculo.MOTO, LUNES, LUNES.plusMinutes(31))).isEqualTo(75_150);
+    }
+
+    @Test
+    void noCobraDentroDeLaGracia() {
+        TablaTarifas tabla = TablaTarifas.compilar(reglas());
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, LUNES, LUNES.plusMinutes(10))).isZero();
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, LUNES, LUNES.plusMinutes(11))).isEqualTo(50_000);
+    }
+
+    @Test
+    void aplicaFranjaNocturnaYFinDeSemana() {
+        TablaTarifas tabla = TablaTarifas.compilar(reglas());
+        LocalDateTime noche = LocalDateTime.of(2023, 10, 2, 21, 45);
+        // Una unidad a las 21:45 (normal) y otra a las 22:00 (nocturna)
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, noche, noche.plusMinutes(30))).isEqualTo(75_000);
+        LocalDateTime sabado = LocalDateTime.of(2023, 10, 7, 12, 0);
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, sabado, sabado.plusMinutes(15))).isEqualTo(40_000);
+    }
+
+    @Test
+    void aplicaElTopeACadaBloqueDeVeinticuatroHoras() {
+        TablaTarifas tabla = TablaTarifas.compilar(reglas());
+        // Dos días completos topados más una hora normal del tercer día
+        assertThat(tabla.calcularCentavos(TipoVehiculo.CARRO, LUNES, LUNES.plusDays(2).plusHours(1)))
+                .isEqualTo(2 * 2_000_000 + 4 * 50_000);
+    }
+
+    @Test
+    void rechazaUnidadesQueNoDividenElDia() {
+        TarifaProperties reglas = reglas();
+        reglas.setUnidadMinutos(7);
+        assertThatThrownBy(() -> TablaTarifas.compilar(reglas)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rechazaValoresNegativosDesbordadosYHorasFueraDelDia() {
+        TarifaProperties negativa = reglas();
+        negativa.getClases().get(TipoVehiculo.CARRO).setTopeDiario(new BigDecimal("-1"));
+        assertThatThrownBy(() -> TablaTarifas.compilar(negativa)).isInstanceOf(IllegalArgumentException.class);
+
+        TarifaProperties enorme = reglas();
+        enorme.getClases().get(TipoVehiculo.MOTO).setValorUnidad(new BigDecimal("1e30"));
+        assertThatThrownBy(() -> TablaTarifas.compilar(enorme)).isInstanceOf(IllegalArgumentException.class);
+
+        TarifaProperties nocturna = reglas();
+        nocturna.setNocturnaHasta(24);
+        assertThatThrownBy(() -> TablaTarifas.compilar(nocturna)).isInstanceOf(IllegalArgumentException.class);
+    }
+}